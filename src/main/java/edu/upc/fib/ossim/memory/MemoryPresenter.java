@@ -124,12 +124,14 @@ public class MemoryPresenter extends Presenter  {
 		String[] item9 = {"page_table", "me_12", "info.png"};
 		String[] item10 = {"segment_table", "me_13", "info.png"};
 		String[] item12 = {"defrag", "me_54", "def.png"};
+		String[] item14 = {"paging_stats", "me_97", "info.png"};
 		menuItemsRun.add(item5);
 		menuItemsRun.add(item6);
 		menuItemsRun.add(item11);
 		menuItemsRun.add(item9);
 		menuItemsRun.add(item10);
 		menuItemsRun.add(item12);
+		menuItemsRun.add(item14);
 		menuItemsSwap = new Vector<String[]>();
 		String[] item7 = {"swap_del", "me_07", "trash.png"};
 		String[] item8 = {"swap_in", "me_11", "swap.png"};
@@ -170,6 +172,13 @@ public class MemoryPresenter extends Presenter  {
 		actions.put("page_table",80);
 		actions.put("segment_table",81);
 		actions.put("address_trans",82);
+		actions.put("paging_stats",83);
+		actions.put("FIFO",84);
+		actions.put("LRU",85);
+		actions.put("CLOCK",86);
+		actions.put("SC",87);
+		actions.put("OPT",88);
+		actions.put("REFS",89);
 	}
 
 	/**
@@ -233,7 +242,10 @@ public class MemoryPresenter extends Presenter  {
 		super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(1));
 		super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(2));
 		if ("VAR".equals(mgnActionCommand)) super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(5));
-		if ("PAG".equals(mgnActionCommand)) super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(3));
+		if ("PAG".equals(mgnActionCommand)) {
+			super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(3));
+			super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(6));
+		}
 		if ("SEG".equals(mgnActionCommand)) {
 			super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(4));
 			super.getPainter(MEM_PAINTER).addMenuItem(menuItemsRun.get(5));
@@ -312,6 +324,9 @@ public class MemoryPresenter extends Presenter  {
 	 * <li>Shows pages table</li>
 	 * <li>Shows segments table</li>
 	 * <li>Shows address translation form</li> 
+	 * <li>Shows demand paging statistics</li> 
+	 * <li>Changes page replacement policy, updates model (context) and algorithm information</li> 
+	 * <li>Sets programs memory references, model is updated with user input</li> 
 	 * </ul>    
 	 * 
 	 * @see Presenter#actionPerformed(ActionEvent e)
@@ -460,7 +475,7 @@ public class MemoryPresenter extends Presenter  {
 					super.getPainter(MEM_PAINTER).clearMenu();
 				}
 				if (action == 73) {
-					context.setAlgorithm(new MemStrategyPAG(pageSize));
+					context.setAlgorithm(new MemStrategyPAG(pageSize, ((MemorySettings) settings).getReplacement()));
 					((MemorySettings) settings).paginationSetVisible(true);
 					((MemorySettings) settings).policyEnable(false);
 					super.getPainter(MEM_PAINTER).clearMenu();
@@ -491,7 +506,7 @@ public class MemoryPresenter extends Presenter  {
 		case 78: // Change page size
 			if (confirmChange(pageSize != ((MemorySettings) settings).getPageSize())) {
 				pageSize = ((MemorySettings) settings).getPageSize();
-				context.setAlgorithm(new MemStrategyPAG(pageSize));
+				context.setAlgorithm(new MemStrategyPAG(pageSize, ((MemorySettings) settings).getReplacement()));
 				context.setMemorySizeParams(((MemorySettings) settings).getMemSize(), ((MemorySettings) settings).getSOSize());
 				panel.setLabel(getAlgorithmInfo());
 			} else {
@@ -527,6 +542,36 @@ public class MemoryPresenter extends Presenter  {
 			values.add(context.getAddTransProgInfo()); 
 			d = openForm(new FormAddress(this, Translation.getInstance().getLabel("me_14"), createHelp("mem_addr"), values));
 			break;
+		case 83:	
+			// Show demand paging statistics
+			InfoDialog pagingStats = new InfoDialog(this, "me_97", "mem_detailinfo", true, INFO_WIDTH, TABLE_HEIGTH, null, context.getPagingTableHeader(), context.getPagingTableData());
+			pagingStats.setLocationRelativeTo(AppSession.getInstance().getApp().getComponent());
+			pagingStats.setVisible(true);
+			break;
+
+			// Page replacement actions
+
+		case 84:	
+		case 85:	
+		case 86:	
+		case 87:	
+		case 88:	
+			if ("PAG".equals(mgnActionCommand)) {
+				context.setPolicy(((MemorySettings) settings).getReplacement());
+				panel.setLabel(getAlgorithmInfo());
+			}
+			break;
+		case 89:
+			// Programs memory references
+			if (started) break;
+			String references = JOptionPane.showInputDialog(panel, Translation.getInstance().getLabel("me_105"), context.getReferencesSpec());
+			if (references == null) break;
+			try {
+				context.setReferences(references);
+			} catch (IllegalArgumentException e) {
+				// Not valid references, they are kept
+			}
+			break;
 		}
 	}
 
@@ -853,6 +898,14 @@ public class MemoryPresenter extends Presenter  {
 			attribute.add("policy");
 			attribute.add(((MemorySettings) settings).getPolicy());
 			param.add(attribute);
+			attribute = new Vector<String>();		
+			attribute.add("replacement");
+			attribute.add(((MemorySettings) settings).getReplacement());
+			param.add(attribute);
+			attribute = new Vector<String>();		
+			attribute.add("references");
+			attribute.add(context.getReferencesSpec());
+			param.add(attribute);
 			data.add(param);
 			break;
 		case 1: 	// Memory
@@ -880,7 +933,8 @@ public class MemoryPresenter extends Presenter  {
 				String sSOSize = data.get(0).get(2).get(1);
 				String sPageSize = data.get(0).get(3).get(1);
 				String policy = data.get(0).get(4).get(1);
-
+				String replacement = data.get(0).size() > 5 ? data.get(0).get(5).get(1) : "FIFO"; // Older files have no page replacement
+				String references = data.get(0).size() > 6 ? data.get(0).get(6).get(1) : "0"; // Older files have no memory references
 
 				int soSize = Integer.parseInt(sSOSize);
 				int memSize = Integer.parseInt(sMemSize);
@@ -891,10 +945,20 @@ public class MemoryPresenter extends Presenter  {
 				((MemorySettings) settings).setMemSize(memSize);
 				((MemorySettings) settings).setSOSize(soSize);
 				((MemorySettings) settings).setPageSize(pageSize);
+				((MemorySettings) settings).selectReplacement(replacement);
 
 				context.setMemorySizeParams(memSize, soSize);
 				context.setPolicy(policy);
 				actionSpecific(actionCommand); // Updates management. Creates OS block
+				if ("PAG".equals(actionCommand)) {
+					context.setPolicy(replacement);
+					panel.setLabel(getAlgorithmInfo());
+				}
+				try {
+					context.setReferences(references);
+				} catch (IllegalArgumentException e) {
+					context.setReferences("0"); // Reference strings file not found, no references
+				}
 
 				break;
 			case 1:   // Memory blocks
@@ -1,6 +1,9 @@
 package edu.upc.fib.ossim.memory.model;
 
 import java.awt.Color;
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -12,12 +15,15 @@ import edu.upc.fib.ossim.utils.Translation;
 
 /**
  * Memory Management Model (Model - View - Presenter Pattern). Different management algorithm are implemented 
- * through Strategy Pattern. Model manage a maximum of<code>"MAX_PROCESSES"</code> processes.    
+ * through Strategy Pattern. Interactively model manage a maximum of <code>"MAX_PROCESSES"</code> processes, as process scheduling 
+ * model does. Model itself is not limited: programs allocated at the same time are bounded by memory (partitions, frames) 
+ * and programs arriving wait into a list, served from its head    
  * 
  * @author Alex Macia
  */
 public class ContextMemory {
 	public static final int MAX_PROCESSES = 20;
+	private static final String[] REFERENCE_MODELS = {"seq", "loop", "random", "locality"}; // ReferenceGenerator models
 	private MemStrategy algorithm;
 	private int memorySize; 
 	private int osSize;
@@ -31,6 +37,14 @@ public class ContextMemory {
 	private ProcessMemUnit selectedProcess;
 	private MemPartition selectedPartition;
 	private ProcessMemUnit selectedSwap;
+	private ProcessComplete translated;	// Process whose addresses are translated
+	// Memory references
+	private int referencesPerTick;	// Addresses referenced by every program each time unit, 0 none
+	private int referenceModel;		// ReferenceGenerator model, -1 reference strings file
+	private int workingSet;			// Loop and locality models working set size
+	private File referenceFile;
+	private int[] batch;			// Addresses referenced, translated in place
+	private List<ProcessComplete> referencing;	// Allocated programs with a reference string, pid ordered
 
 	/**
 	 * Constructs a ContextMemory: sets main parameters (os, memory and page size), a concrete algorithm strategy and
@@ -52,6 +66,8 @@ public class ContextMemory {
         swap = new LinkedList<ProcessMemUnit>();
         pqBkup = new LinkedList<ProcessMemUnit>();
         bqBkup = new LinkedList<MemPartition>();
+        batch = new int[0];
+        referencing = new ArrayList<ProcessComplete>();
         
         //	Add OS.
         algorithm.initMemory(memory, Translation.getInstance().getLabel("me_90"), osSize, Color.lightGray, memorySize);
@@ -484,20 +500,22 @@ public class ContextMemory {
 	 */
 	public String getAddTransProgInfo() {
 		ProcessComplete p = selectedPartition.getAllocated().getParent();
+		translated = p;
 		return "PID " + p.getPid() + " (" + p.getParent().getName() + ") " + Translation.getInstance().getLabel("me_77") + ":" + p.getParent().getSize() + " u.";
 	}
 	
 	/**
-	 * Returns logical address translation to physical 
+	 * Returns logical address translation to physical, addresses belong to process selected at 
+	 * address translation form opening (demand paging may evict its pages from selected partition)  
 	 * 
 	 * @param logicalAddr	process logical address
 	 * @return	logical address translation to physical
+	 * 
+	 * @see #getAddTransProgInfo()
 	 */
 	public String getAddTransPhysical(int logicalAddr) {
-		// Work in progress
-		ProcessComplete p = selectedPartition.getAllocated().getParent();
-		if (logicalAddr >= p.getSize()) return Translation.getInstance().getLabel("me_85"); // Illegal address
-		return algorithm.getAddTransPhysical(selectedPartition, logicalAddr, memory);
+		if (logicalAddr >= translated.getSize()) return Translation.getInstance().getLabel("me_85"); // Illegal address
+		return algorithm.getAddTransPhysical(translated, logicalAddr, memory, swap);
 	}
 	
 	/**
@@ -624,6 +642,87 @@ public class ContextMemory {
 		return algorithm.getMemProcessTableData(memory, selectedPartition.getAllocated().getParent());
 	}
 	
+	/**
+	 * Returns demand paging statistics table header (pagination only)
+	 *  
+	 * @return	demand paging statistics table header
+	 * 
+	 * @see MemStrategyPAG#getPagingTableHeader()
+	 */
+	public Vector<Object> getPagingTableHeader() {
+		return ((MemStrategyPAG) algorithm).getPagingTableHeader();
+	}
+
+	/**
+	 * Returns demand paging statistics table data (pagination only)
+	 *  
+	 * @return	demand paging statistics table data
+	 * 
+	 * @see MemStrategyPAG#getPagingTableData(List)
+	 */
+	public Vector<Vector<Object>> getPagingTableData() {
+		return ((MemStrategyPAG) algorithm).getPagingTableData(swap);
+	}
+	
+	/**
+	 * Sets programs memory references from their specification: addresses referenced by every program each time unit
+	 * and reference model separated by blanks or commas, <code>0</code> for no references at all. Models are 
+	 * <code>seq</code>, <code>loop</code> (followed by working set size), <code>random</code>, <code>locality</code> 
+	 * (followed by working set size) or <code>file</code> followed by a reference strings file name, 
+	 * as <code>4 locality 8</code> or <code>2 file refs.txt</code>  
+	 * 
+	 * @param spec	memory references specification
+	 * @throws IllegalArgumentException	not a valid specification, references are kept
+	 * 
+	 * @see ReferenceGenerator
+	 * @see ReferenceReader
+	 */
+	public void setReferences(String spec) {
+		String[] tokens = spec.trim().split("[ ,]+", 3);
+		int perTick, model = -1, ws = 0;
+		File file = null;
+		try {
+			perTick = Integer.parseInt(tokens[0]);
+			if (perTick < 0) throw new IllegalArgumentException(spec);
+			if (perTick > 0) {
+				if (tokens.length < 2) throw new IllegalArgumentException(spec);
+				for (int i = 0; i < REFERENCE_MODELS.length; i++) {
+					if (REFERENCE_MODELS[i].equals(tokens[1])) model = i;
+				}
+				if (model == ReferenceGenerator.LOOP || model == ReferenceGenerator.LOCALITY) {
+					if (tokens.length < 3) throw new IllegalArgumentException(spec);
+					ws = Integer.parseInt(tokens[2]);
+					if (ws <= 0) throw new IllegalArgumentException(spec);
+				} else if (model < 0) {
+					if (!"file".equals(tokens[1]) || tokens.length < 3) throw new IllegalArgumentException(spec);
+					file = new File(tokens[2]);
+					if (!file.canRead()) throw new IllegalArgumentException(spec);
+				}
+			}
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		referencesPerTick = perTick;
+		referenceModel = model;
+		workingSet = ws;
+		referenceFile = file;
+	}
+
+	/**
+	 * Gets programs memory references specification
+	 * 
+	 * @return	addresses referenced each time unit and reference model separated by blanks
+	 * 
+	 * @see #setReferences(String)
+	 */
+	public String getReferencesSpec() {
+		if (referencesPerTick == 0) return "0";
+		if (referenceModel < 0) return referencesPerTick + " file " + referenceFile.getPath();
+		String spec = referencesPerTick + " " + REFERENCE_MODELS[referenceModel];
+		if (referenceModel == ReferenceGenerator.LOOP || referenceModel == ReferenceGenerator.LOCALITY) spec += " " + workingSet;
+		return spec;
+	}
+
 	/**
 	 * Adds a new process to processes queue, in pagination and segmentation 
 	 * also create its components, pages or segments      
@@ -679,6 +778,7 @@ public class ContextMemory {
     	// Can't remove SO 
     	if (selectedPartition.getStart() == 0) throw new SoSimException("me_04"); 
     	if (selectedPartition.getAllocated() == null) throw new SoSimException("me_09");
+    	closeReferenceString(selectedPartition.getAllocated().getParent());
     	algorithm.removeProcessInMemory(memory, selectedPartition);
     }
     
@@ -742,6 +842,7 @@ public class ContextMemory {
      */
     public void removeSwappedProgram() {
     	// Removes Process p from swap queue
+    	closeReferenceString(selectedSwap.getParent());
     	algorithm.removeSwappedProcessComponents(memory, swap, selectedSwap);
     }
 
@@ -807,12 +908,43 @@ public class ContextMemory {
     		// Allocate new programs into memory. Programs ordered by init time
     		if (processQueue.size() > 0) {
     			algorithm.allocateProcess(memory, swap, processQueue.get(0), memorySize);
-    			processQueue.remove(0);
+    			ProcessComplete p = processQueue.remove(0).getParent();
+    			if (referencesPerTick > 0) openReferenceString(p);
     		}
+    		
+    		// Programs memory references
+    		if (referencesPerTick > 0) referencePrograms();
     	}
     	return false;
    	}
 
+    private void openReferenceString(ProcessComplete p) {
+    	// Program reference string, generated ones seeded by pid so they are the same every run
+    	if (referenceModel >= 0) p.setReferenceString(new ReferenceGenerator(p.getPid(), referenceModel, p.getSize(), workingSet));
+    	else {
+    		try {
+    			p.setReferenceString(new ReferenceReader(referenceFile, p.getPid()));
+    		} catch (UncheckedIOException e) {
+    			return; // File no longer readable, program makes no references 
+    		}
+    	}
+    	int i = referencing.size();
+    	while (i > 0 && referencing.get(i - 1).getPid() > p.getPid()) i--;
+    	referencing.add(i, p);
+    }
+
+    private void referencePrograms() {
+    	// Every allocated program (into memory or swap) references its next batch of addresses, in pid order
+    	if (batch.length < referencesPerTick) batch = new int[referencesPerTick];
+    	for (int i = 0; i < referencing.size(); i++) {
+    		ProcessComplete p = referencing.get(i);
+    		ReferenceSource references = p.getReferenceString();
+    		int count = 0;
+    		while (count < referencesPerTick && references.hasNext()) batch[count++] = references.next();
+    		if (count > 0) algorithm.translate(p, batch, count, memory, swap);
+    	}
+    }
+
     private void releasePrograms(List<MemPartition> memory) {
     	// Release terminated programs from memory, and decrements duration 
     	Iterator<MemPartition> it = memory.iterator();
@@ -827,8 +959,9 @@ public class ContextMemory {
 					p.getParent().setDuration(p.getParent().getDuration() - 1);
 				}
     			if (p.getParent().getDuration() == 0) {
+    				closeReferenceString(p.getParent());
     				releaseSwap(p.getParent()); 
-    				b.setAllocated(null);
+    				algorithm.removeProcessInMemory(memory, b);
     			}
     		}
     	}
@@ -847,6 +980,14 @@ public class ContextMemory {
     	swap.removeAll(remove);
     }
     
+    private void closeReferenceString(ProcessComplete p) {
+    	// Program makes no more references
+    	if (p.getReferenceString() == null) return;
+    	p.getReferenceString().close();
+    	p.setReferenceString(null);
+    	referencing.remove(p);
+    }
+
     private void backup() {
     	// backup to restore initial state
     	swap.clear();
@@ -865,11 +1006,13 @@ public class ContextMemory {
      */
     public void restoreBackup() {
     	// Restore initial state (Time 0) from backup's
+    	while (!referencing.isEmpty()) closeReferenceString(referencing.get(referencing.size() - 1));
     	swap.clear();
     	processQueue.clear();
     	processQueue.addAll(pqBkup);
     	memory.clear();
     	memory.addAll(bqBkup);
+    	algorithm.restoreMemory(memory);
     	pqBkup.clear();
     	bqBkup.clear();
     	//backup();
@@ -202,18 +202,39 @@ public interface MemStrategy {
 	 */
 	public void removeSwappedProcessComponents(List<MemPartition> memory, List<ProcessMemUnit> swap, ProcessMemUnit swapped); 
 	
+	/**
+	 * Memory has been restored to its initial state, any algorithm state about memory is rebuilt from it
+	 * 
+	 * @param memory	partitions linked list (memory)
+	 */
+	public void restoreMemory(List<MemPartition> memory);
+	
 	/**
 	 * Returns address translation, given a process logical address gets its corresponding physical address or
-	 * a translation error  
+	 * a translation error. Translation is only looked up, it is not a memory reference (see translate)  
 	 * 
-	 * @param b				memory partition containing process
+	 * @param p				process allocated into memory
 	 * @param logicalAddr	process logical address 
 	 * @param memory		partitions linked list (memory)
+	 * @param swap			processes into backing store linked list (swap)  
 	 * 
 	 * @return	address translation
 	 */
-	public String getAddTransPhysical(MemPartition b, int logicalAddr, List<MemPartition> memory);
-	
+	public String getAddTransPhysical(ProcessComplete p, int logicalAddr, List<MemPartition> memory, List<ProcessMemUnit> swap);
+
+	/**
+	 * Translates a batch of memory references, process logical addresses referenced one after the other,
+	 * into physical addresses in place. Addresses out of process or not translated (process not allocated
+	 * into memory or component not loaded) become -1. Every reference translated is counted into process statistics
+	 *
+	 * @param p			process making references
+	 * @param addresses	logical addresses, physical addresses on return
+	 * @param count		number of addresses into batch
+	 * @param memory	partitions linked list (memory)
+	 * @param swap		processes into backing store linked list (swap)
+	 */
+	public void translate(ProcessComplete p, int[] addresses, int count, List<MemPartition> memory, List<ProcessMemUnit> swap);
+
 	
 	/**
 	 * Returns initial memory xml information 
@@ -330,17 +330,51 @@ public abstract class MemStrategyAdapterCONT implements MemStrategy {
 		swap.remove(swapped);
 	}
 	
+	/**
+	 * Contiguous algorithms keep no memory state apart from partitions 
+	 */
+	public void restoreMemory(List<MemPartition> memory) { }
+	
 	/**
 	 * Returns address translation, given a process logical address gets its corresponding physical address
 	 * 
-	 * @param b				memory partition containing process
+	 * @param p				process allocated into memory
 	 * @param logicalAddr	process logical address, belong to process logical space 
 	 * @param memory		partitions linked list (memory)
+	 * @param swap			unused
 	 * 
 	 * @return	address translation. format "@9999"
 	 */
-	public String getAddTransPhysical(MemPartition b, int logicalAddr, List<MemPartition> memory) {
+	public String getAddTransPhysical(ProcessComplete p, int logicalAddr, List<MemPartition> memory, List<ProcessMemUnit> swap) {
 		// logicalAddr belongs to process logical space
-		return "@" + new Integer(b.getStart() + logicalAddr).toString();
+		for (MemPartition b : memory) {
+			if (b.getAllocated() == p) return "@" + new Integer(b.getStart() + logicalAddr).toString();
+		}
+		return ""; // never
+	}
+
+	/**
+	 * Translates a batch of memory references in place, partition allocating process is looked up once
+	 * per batch. Swapped out processes make no references
+	 * 
+	 * @param p			process making references
+	 * @param addresses	logical addresses, physical addresses on return (-1 if not translated)
+	 * @param count		number of addresses into batch
+	 * @param memory	partitions linked list (memory)
+	 * @param swap		unused
+	 */
+	public void translate(ProcessComplete p, int[] addresses, int count, List<MemPartition> memory, List<ProcessMemUnit> swap) {
+		int start = -1;
+		for (MemPartition b : memory) {
+			if (b.getAllocated() == p) start = b.getStart();
+		}
+		for (int i = 0; i < count; i++) {
+			int addr = addresses[i];
+			if (start < 0 || addr < 0 || addr >= p.getSize()) addresses[i] = -1;
+			else {
+				p.reference(false);
+				addresses[i] = start + addr;
+			}
+		}
 	}
 }
@@ -59,6 +59,11 @@ public abstract class MemStrategyAdapterNOCONT implements MemStrategy {
 	public void validateMemory(List<MemPartition> memory, int memory_size) throws SoSimException {
 	}
 	
+	/**
+	 * No memory state is kept apart from partitions 
+	 */
+	public void restoreMemory(List<MemPartition> memory) { }
+	
 	/**
      * Moves a process component to backing store
 	 * 
@@ -2,9 +2,9 @@ package edu.upc.fib.ossim.memory.model;
 
 import java.awt.Color;
 import java.util.Arrays;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.TreeMap;
 import java.util.Vector;
 
 import edu.upc.fib.ossim.utils.ColorCell;
@@ -13,25 +13,92 @@ import edu.upc.fib.ossim.utils.Translation;
 
 
 /**
- * Memory Management Strategy implementation for Pagination algorithm
+ * Memory Management Strategy implementation for Pagination algorithm with demand paging.
+ * Every page knows its frame (page table entry) and frames are kept into an array, so a translation costs O(1).
+ * A page fault loads the page into first free frame, if none is free a replacement policy chooses a victim page
+ * that is moved to backing store. Operating system pages are never replaced.
+ * Replacement policies: "FIFO", "LRU", "CLOCK", "SC" (Second Chance) and "OPT"
  * 
  * @author Alex Macia
+ * 
+ * @see PageReplacement
  */
 public class MemStrategyPAG extends MemStrategyAdapterNOCONT {
 	private int pageSize;
+	private String policy;				// Replacement policy
+	private PageReplacement replacement;
+	private MemPartition[] frames;		// Memory frames by frame number
+	private BitSet free;				// Free frames
+	private long references;			// Totals, finished processes included
+	private long faults;
+	private long evictions;
+	private long[] nexts;				// Batch translation scratch, next reference by batch position
+	private int[] seen;					// Batch translation scratch, next position by page, -1 none
 
+	/**
+	 * Constructs a pagination strategy, FIFO page replacement
+	 * 
+	 * @param pageSize	page size
+	 */
 	public MemStrategyPAG(int pageSize) {
+		this(pageSize, "FIFO");
+	}
+
+	/**
+	 * Constructs a pagination strategy
+	 * 
+	 * @param pageSize	page size
+	 * @param policy	replacement policy: "FIFO", "LRU", "CLOCK", "SC" or "OPT"
+	 */
+	public MemStrategyPAG(int pageSize, String policy) {
 		super();
 		this.pageSize = pageSize;
+		this.frames = new MemPartition[0];
+		this.free = new BitSet();
+		this.nexts = new long[0];
+		this.seen = new int[0];
+		setPolicy(policy);
+		if (replacement == null) setPolicy("FIFO");
 	}
 
 	/**
-	 * Gets Pagination algorithm information including page size   
+	 * Gets Pagination algorithm information including page size and replacement policy   
 	 * 
 	 * @return	algorithm information
 	 */
 	public String getAlgorithmInfo() {
-		return Translation.getInstance().getLabel("me_24", pageSize);
+		return Translation.getInstance().getLabel("me_24", pageSize, replacement.getName());
+	}
+
+	/**
+	 * Sets page replacement policy, pages already into memory become replaceable by new policy 
+	 * in frame order. Unknown policies are ignored
+	 * 
+	 * @param policy	replacement policy: "FIFO", "LRU", "CLOCK", "SC" or "OPT"
+	 */
+	public void setPolicy(String policy) {
+		PageReplacement replacement;
+		if ("FIFO".equals(policy)) replacement = new PageReplacementFIFO();
+		else if ("LRU".equals(policy)) replacement = new PageReplacementLRU();
+		else if ("CLOCK".equals(policy)) replacement = new PageReplacementClock();
+		else if ("SC".equals(policy)) replacement = new PageReplacementSecondChance();
+		else if ("OPT".equals(policy)) replacement = new PageReplacementOPT();
+		else return;
+		this.policy = policy;
+		this.replacement = replacement;
+		replacement.init(frames.length);
+		for (int f = 0; f < frames.length; f++) {
+			if (frames[f].getAllocated() != null && frames[f].getAllocated().getPid() != 0) replacement.load(f, Long.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * Gets page replacement policy
+	 * 
+	 * @return	replacement policy
+	 */
+	public String getPolicy() {
+		return policy;
 	}
 
 	/**
@@ -55,6 +122,7 @@ public class MemStrategyPAG extends MemStrategyAdapterNOCONT {
 				memory.add(b);
 				end += pageSize;
 			}
+			restoreMemory(memory);
 
 			//	Add SO.
 			ProcessComplete so = new ProcessComplete(0, strSO, size, -1, color);
@@ -224,22 +292,12 @@ public class MemStrategyPAG extends MemStrategyAdapterNOCONT {
 	public Vector<Vector<Object>> getMemProcessTableData(List<MemPartition> memory, ProcessComplete p) {
     	Vector<Vector<Object>> data = new Vector<Vector<Object>>();
 		Vector<Object> page = null;
-		Iterator<MemPartition> it;
-		MemPartition m;
 		int frame = -1;
 		
     	for (int i = 0; i < p.getNumBlocks(); i++) {
-    		ProcessComponent child = (ProcessComponent) p.getBlock(i);
+    		ProcessPage child = (ProcessPage) p.getBlock(i);
     		page = new Vector<Object>();
-    		frame = -1;
-    		if (child.isLoad()) {
-    			// Search frame
-    			it = memory.iterator();
-    			while (it.hasNext() && frame < 0) {
-    				m = it.next();
-    				if (m.getAllocated() != null && m.getAllocated().equals(child)) frame = m.getStart()/pageSize;
-    			}
-    		}
+    		frame = child.getFrame();
     		page.add(new ColorCell(new Integer(child.getBid()).toString(), Color.WHITE)); // Page number
     		if (frame < 0) {
     			page.add(new ColorCell("", Color.WHITE)); // Frame.
@@ -283,13 +341,66 @@ public class MemStrategyPAG extends MemStrategyAdapterNOCONT {
 	 */
 	public void removeProcessInMemory(List<MemPartition> memory, MemPartition b) {
 		// Remove all program blocks from memory
-    	int id = b.getAllocated().getPid(); 
-    	Iterator<MemPartition> it = memory.iterator();
-    	
-    	while (it.hasNext()) {
-    		MemPartition block = it.next();
-    		if (block.getAllocated() != null && block.getAllocated().getPid() == id) block.setAllocated(null);
-    	}
+		ProcessComplete p = b.getAllocated().getParent();
+		for (int i = 0; i < p.getNumBlocks(); i++) {
+			int frame = ((ProcessPage) p.getBlock(i)).getFrame();
+			if (frame >= 0) unload(frame);
+		}
+	}
+
+	/**
+	 * Removes a process from backing store and all its pages from memory
+	 * 
+	 * @param memory	partitions linked list (memory)	
+	 * @param swap		processes into backing store linked list (swap)  
+	 * @param swapped	process page in the backing store  
+	 */
+	public void removeSwappedProcessComponents(List<MemPartition> memory, List<ProcessMemUnit> swap, ProcessMemUnit swapped) {
+		ProcessComplete p = swapped.getParent();
+		for (int i = 0; i < p.getNumBlocks(); i++) {
+			int frame = ((ProcessPage) p.getBlock(i)).getFrame();
+			if (frame >= 0) unload(frame);
+		}
+		super.removeSwappedProcessComponents(memory, swap, swapped);
+	}
+
+	/**
+     * Moves a process page to backing store
+	 * 
+	 * @param memory	partitions linked list (memory)
+	 * @param swap		processes into backing store linked list (swap)  
+	 * @param partition	memory partition allocating process page to swap	
+	 * 
+	 * @throws SoSimException	partition does not allocate any process' page
+	 */
+	public void swapOutProcess(List<MemPartition> memory, List<ProcessMemUnit> swap, MemPartition partition) throws SoSimException {
+		if (partition.getAllocated() == null)  throw new SoSimException("me_09");
+		ProcessPage child = (ProcessPage) partition.getAllocated();
+		
+		unload(child.getFrame());
+		swap.add(child);
+		child.setLoad(false);
+	}
+
+	/**
+	 * Memory frames are taken again from memory partitions, free frames and replaceable pages 
+	 * (all but operating system ones) are known from them. Totals are restarted  
+	 * 
+	 * @param memory	partitions linked list (memory)
+	 */
+	public void restoreMemory(List<MemPartition> memory) {
+		frames = memory.toArray(new MemPartition[memory.size()]);
+		Arrays.sort(frames);
+		free = new BitSet(frames.length);
+		for (int f = 0; f < frames.length; f++) {
+			ProcessMemUnit allocated = frames[f].getAllocated();
+			if (allocated == null) free.set(f);
+			else ((ProcessPage) allocated).setFrame(f);
+		}
+		references = 0;
+		faults = 0;
+		evictions = 0;
+		setPolicy(policy);
 	}
 
 	/**
@@ -312,37 +423,23 @@ public class MemStrategyPAG extends MemStrategyAdapterNOCONT {
 	 * @throws SoSimException	all process' pages can not be allocated
 	 */
 	public void allocateProcess(List<MemPartition> memory, List<ProcessMemUnit> swap, ProcessMemUnit allocate, int memory_size) throws SoSimException {
-		Object[] memOrdered = memory.toArray();
-    	Arrays.sort(memOrdered);
     	ProcessComplete parent = allocate.getParent();
-    	ProcessMemUnit child;
-    	List<MemPartition> candidates = new LinkedList<MemPartition>();
+    	ProcessComponent child;
     	
-    	// Checking memory frames
+    	// Checking memory frames, free ones or replaceable pages from other processes
+    	int load = 0;
     	for (int j = 0; j < parent.getNumBlocks(); j++) {
-    		child = parent.getBlock(j);
-    		if (((ProcessComponent) child).isLoad()) { // Shoul be allocated
-        		int i = 0;	
-        		MemPartition candidate = null;
-        		while (i<memOrdered.length && candidate == null) {
-            		MemPartition partition = (MemPartition) memOrdered[i];
-            		if (!candidates.contains(partition) && partition.getAllocated() == null) {
-            			candidate = partition;// First candidate
-            		}
-            		i++;
-        		}
-        		if (candidate != null) candidates.add(candidate);
-        		else throw new SoSimException("me_08");
-    		} 
+    		if (parent.getBlock(j).isLoad()) load++; // Shoul be allocated
     	}
+    	int missing = load - free.cardinality();
+    	if (missing > replacement.size()) throw new SoSimException("me_08");
+    	for (int j = 0; j < missing; j++) evict(swap);
     	
     	// Allocate pages
     	for (int j = 0; j < parent.getNumBlocks(); j++) {
     		child = parent.getBlock(j);
-    		if (((ProcessComponent) child).isLoad()) { // Shoul be allocated
-    			MemPartition block = candidates.remove(0);
-    			block.setAllocated(child); 
-    		} else swap.add(child); // Not loaded
+    		if (child.isLoad()) load((ProcessPage) child, free.nextSetBit(0)); // Shoul be allocated
+    		else swap.add(child); // Not loaded
     	}
 	}
 	
@@ -358,58 +455,197 @@ public class MemStrategyPAG extends MemStrategyAdapterNOCONT {
 	 * 
 	 */
 	public void swapInProcessComponent(List<MemPartition> memory, List<ProcessMemUnit> swap, ProcessMemUnit swapped, int memory_size) throws SoSimException {
-		Object[] memOrdered = memory.toArray();
-    	Arrays.sort(memOrdered);
-    	
-    	int i = 0;	
-    	MemPartition candidate = null;
-		while (i<memOrdered.length && candidate == null) {
-    		MemPartition partition = (MemPartition) memOrdered[i];
-    		if (partition.getAllocated() == null) {
-    			candidate = partition;// First candidate
-    		}
-    		i++;
-		}
-		
-		if (candidate != null) {
-			candidate.setAllocated(swapped); 
-			((ProcessComponent) swapped).setLoad(true);
-		}
-		else throw new SoSimException("me_08");
+		int frame = free.nextSetBit(0);
+		if (frame < 0) frame = evict(swap);
+		if (frame < 0) throw new SoSimException("me_08");
+		load((ProcessPage) swapped, frame);
 	}
 	
 	/**
 	 * Returns address translation, given a process logical address gets its corresponding physical address, 
-	 * if page is not into memory gives a page fault
+	 * if page is not into memory gives a page fault. Translation is only looked up into page table, 
+	 * it is not a memory reference: nothing is counted nor loaded
 	 * 
-	 * @param b				memory partition containing process
+	 * @param p				process allocated into memory
 	 * @param logicalAddr	process logical address, belong to process logical space 
-	 * @param memory		partitions linked list (memory)
+	 * @param memory		unused
+	 * @param swap			unused
 	 * 
 	 * @return	address translation or page fault error. format "@9999"
+	 * 
+	 * @see #translate(ProcessComplete, int[], int, List, List)
 	 */
-	public String getAddTransPhysical(MemPartition b, int logicalAddr, List<MemPartition> memory) {
+	public String getAddTransPhysical(ProcessComplete p, int logicalAddr, List<MemPartition> memory, List<ProcessMemUnit> swap) {
 		// logicalAddr belongs to process logical space
+		int frame = ((ProcessPage) p.getBlock(logicalAddr/pageSize)).getFrame();
+		if (frame < 0) return Translation.getInstance().getLabel("me_86"); // page fault 
+		return "@" + (frame*pageSize + logicalAddr%pageSize);
+	}
 
-		ProcessComplete p = b.getAllocated().getParent();
-		// Page ?
-		int page = logicalAddr/pageSize;
-		int offset = logicalAddr%pageSize;
-		
-		// Find page
-		ProcessComponent programPage = p.getBlock(page); 
-		
-		// Page not loaded 
-		if (!programPage.isLoad()) return Translation.getInstance().getLabel("me_86"); // page fault 
-
-		Iterator<MemPartition> it = memory.iterator();
-		MemPartition block = null;
-		boolean found = false;
-		while (it.hasNext() && !found) {
-			block = it.next();
-			if (block.getAllocated() != null && block.getAllocated().equals(programPage)) found = true;  
-		}	
-		if (found) return "@" + new Integer(block.getStart() + offset).toString();
-		else return ""; // never
+	/**
+	 * Translates a batch of memory references in place, every page is found by a direct page table lookup 
+	 * and its frame gives physical address. Page faults are served as they happen, no allocation is made on 
+	 * a hit. If replacement policy looks at next references they are computed along the batch first, 
+	 * and resident pages referenced into the batch are updated with their first reference before any fault, 
+	 * so OPT looks ahead as far as batch end
+	 * 
+	 * @param p			process making references
+	 * @param addresses	logical addresses, physical addresses on return (-1 if not translated)
+	 * @param count		number of addresses into batch
+	 * @param memory	partitions linked list (memory)
+	 * @param swap		processes into backing store linked list (swap)
+	 */
+	public void translate(ProcessComplete p, int[] addresses, int count, List<MemPartition> memory, List<ProcessMemUnit> swap) {
+		int size = p.getSize();
+		boolean future = replacement.needsFuture();
+		if (future) nextReferences(p, addresses, count);
+		for (int i = 0; i < count; i++) {
+			int addr = addresses[i];
+			if (addr < 0 || addr >= size) {
+				addresses[i] = -1;
+				continue;
+			}
+			int frame = reference(swap, (ProcessPage) p.getBlock(addr/pageSize), future ? nexts[i] : Long.MAX_VALUE);
+			addresses[i] = frame < 0 ? -1 : frame*pageSize + addr%pageSize;
+		}
+	}
+
+	private void nextReferences(ProcessComplete p, int[] addresses, int count) {
+		// Next reference to the same page of every batch position, backwards. Long.MAX_VALUE if not referenced
+		// again into this batch. Positions are only compared among pages of this batch, pages referenced 
+		// before are never referenced again as far as known
+		if (nexts.length < count) nexts = new long[count];
+		if (seen.length < p.getNumBlocks()) {
+			seen = new int[p.getNumBlocks()];
+			Arrays.fill(seen, -1);
+		}
+		int size = p.getSize();
+		for (int i = count - 1; i >= 0; i--) {
+			int addr = addresses[i];
+			if (addr < 0 || addr >= size) continue;
+			int page = addr/pageSize;
+			nexts[i] = seen[page] < 0 ? Long.MAX_VALUE : seen[page];
+			seen[page] = i;
+		}
+		for (int i = 0; i < count; i++) {
+			// Resident pages of this batch get their first reference into it, otherwise they would keep
+			// their previous batch key (never referenced again). This is not a memory reference
+			int addr = addresses[i];
+			if (addr < 0 || addr >= size) continue;
+			int page = addr/pageSize;
+			if (seen[page] < 0) continue;
+			ProcessPage block = (ProcessPage) p.getBlock(page);
+			if (block.getFrame() >= 0 && block.getPid() != 0) replacement.reference(block.getFrame(), seen[page]);
+			seen[page] = -1;
+		}
+	}
+
+	/**
+	 * References a process page, if it is not into memory (page fault) it is loaded into first free frame
+	 * or replaces a victim page chosen by replacement policy
+	 * 
+	 * @param swap		processes into backing store linked list (swap)  
+	 * @param page		process page referenced
+	 * @param next		next reference to this page, Long.MAX_VALUE if unknown
+	 * 
+	 * @return	frame allocating page, -1 if page fault can not be served (no replaceable page)
+	 */
+	public int reference(List<ProcessMemUnit> swap, ProcessPage page, long next) {
+		int frame = page.getFrame();
+		boolean fault = frame < 0;
+		references++;
+		page.getParent().reference(fault);
+		if (fault) {
+			faults++;
+			frame = free.nextSetBit(0);
+			if (frame < 0) frame = evict(swap);
+			if (frame < 0) return -1;
+			swap.remove(page);
+			load(page, frame);
+		}
+		if (page.getPid() != 0) replacement.reference(frame, next);
+		return frame;
+	}
+
+	private void load(ProcessPage page, int frame) {
+		// Page allocated into a free frame
+		frames[frame].setAllocated(page);
+		page.setFrame(frame);
+		page.setLoad(true);
+		free.clear(frame);
+		if (page.getPid() != 0) replacement.load(frame, Long.MAX_VALUE);
+	}
+
+	private void unload(int frame) {
+		// Frame becomes free
+		ProcessPage page = (ProcessPage) frames[frame].getAllocated();
+		page.setFrame(-1);
+		frames[frame].setAllocated(null);
+		free.set(frame);
+		if (page.getPid() != 0) replacement.release(frame);
+	}
+
+	private int evict(List<ProcessMemUnit> swap) {
+		// Victim page moved to backing store, returns its frame or -1 if there is no replaceable page
+		int frame = replacement.victim();
+		if (frame < 0) return -1;
+		ProcessPage victim = (ProcessPage) frames[frame].getAllocated();
+		unload(frame);
+		victim.setLoad(false);
+		swap.add(victim);
+		victim.getParent().evicted();
+		evictions++;
+		return frame;
+	}
+
+	/**
+	 * Returns demand paging statistics table header: pid, name, references, page faults, hit ratio and evictions  
+	 * 
+	 * @return	demand paging statistics table header
+	 */
+	public Vector<Object> getPagingTableHeader() {
+		Vector<Object> header = new Vector<Object>();
+		header.add(Translation.getInstance().getLabel("me_30")); // PID	
+		header.add(Translation.getInstance().getLabel("me_31")); // Name
+		header.add(Translation.getInstance().getLabel("me_98")); // References
+		header.add(Translation.getInstance().getLabel("me_99")); // Faults
+		header.add(Translation.getInstance().getLabel("me_100")); // Hit ratio
+		header.add(Translation.getInstance().getLabel("me_101")); // Evictions
+		return header;
+	}
+
+	/**
+	 * Returns demand paging statistics table data, a row per process into memory or backing store in pid order
+	 * and a last row with totals, finished processes included. Cells are ColorCell instances
+	 * 
+	 * @param swap		processes into backing store linked list (swap)  
+	 * 
+	 * @return	demand paging statistics table data
+	 */
+	public Vector<Vector<Object>> getPagingTableData(List<ProcessMemUnit> swap) {
+		TreeMap<Integer, ProcessComplete> processes = new TreeMap<Integer, ProcessComplete>();
+		for (MemPartition m : frames) {
+			if (m.getAllocated() != null && m.getAllocated().getPid() != 0) processes.put(m.getAllocated().getPid(), m.getAllocated().getParent());
+		}
+		for (ProcessMemUnit u : swap) processes.put(u.getPid(), u.getParent());
+
+		Vector<Vector<Object>> data = new Vector<Vector<Object>>();
+		for (ProcessComplete p : processes.values()) {
+			data.add(getPagingRow(new ColorCell("" + p.getPid(), p.getColor()), p.getName(), p.getReferences(), p.getFaults(), p.getEvictions()));
+		}
+		data.add(getPagingRow(new ColorCell("", Color.WHITE), Translation.getInstance().getLabel("me_102"), references, faults, evictions));
+		return data;
+	}
+
+	private Vector<Object> getPagingRow(ColorCell pid, String name, long references, long faults, long evictions) {
+		Vector<Object> row = new Vector<Object>();
+		row.add(pid);
+		row.add(new ColorCell(name, Color.WHITE));
+		row.add(new ColorCell("" + references, Color.WHITE));
+		row.add(new ColorCell("" + faults, Color.WHITE));
+		if (references == 0) row.add(new ColorCell("--", Color.WHITE));
+		else row.add(new ColorCell(String.format("%.2f", (double) (references - faults) / references), Color.WHITE));
+		row.add(new ColorCell("" + evictions, Color.WHITE));
+		return row;
 	}
 }
@@ -406,16 +406,16 @@ public class MemStrategySEG extends MemStrategyAdapterNOCONT {
 	 * Returns address translation, given a process logical address gets its corresponding physical address, 
 	 * if segment is not into memory gives a segment fault
 	 * 
-	 * @param b				memory partition containing process
+	 * @param p				process allocated into memory
 	 * @param logicalAddr	process logical address, belong to process logical space 
 	 * @param memory		partitions linked list (memory)
+	 * @param swap			unused
 	 * 
 	 * @return	address translation or segment fault error. format "@9999"
 	 */
-	public String getAddTransPhysical(MemPartition b, int logicalAddr, List<MemPartition> memory) {
+	public String getAddTransPhysical(ProcessComplete p, int logicalAddr, List<MemPartition> memory, List<ProcessMemUnit> swap) {
 		// logicalAddr belongs to process logical space
 
-		ProcessComplete p = b.getAllocated().getParent();
 		// Segment ?
 		
 		int startsegment = 0;
@@ -444,4 +444,45 @@ public class MemStrategySEG extends MemStrategyAdapterNOCONT {
 		if (found) return "@" + (block.getStart() + offset);
 		else return ""; // never
 	}	
+
+	/**
+	 * Translates a batch of memory references in place, segments bases are looked up once per batch. 
+	 * References to a segment not loaded are segment faults
+	 * 
+	 * @param p			process making references
+	 * @param addresses	logical addresses, physical addresses on return (-1 if not translated)
+	 * @param count		number of addresses into batch
+	 * @param memory	partitions linked list (memory)
+	 * @param swap		unused
+	 */
+	public void translate(ProcessComplete p, int[] addresses, int count, List<MemPartition> memory, List<ProcessMemUnit> swap) {
+		// Segments logical starts and physical bases (-1 if not loaded)
+		int segments = p.getNumBlocks();
+		int[] starts = new int[segments + 1];
+		int[] bases = new int[segments];
+		for (int j = 0; j < segments; j++) {
+			starts[j + 1] = starts[j] + p.getBlock(j).getSize();
+			bases[j] = -1;
+		}
+		for (MemPartition b : memory) {
+			ProcessMemUnit allocated = b.getAllocated();
+			if (allocated != null && allocated.getParent() == p && allocated != p) {
+				for (int j = 0; j < segments; j++) {
+					if (p.getBlock(j) == allocated) bases[j] = b.getStart();
+				}
+			}
+		}
+		
+		for (int i = 0; i < count; i++) {
+			int addr = addresses[i];
+			if (addr < 0 || addr >= starts[segments]) {
+				addresses[i] = -1;
+				continue;
+			}
+			int j = 0;
+			while (starts[j + 1] <= addr) j++;
+			p.reference(bases[j] < 0);
+			addresses[i] = bases[j] < 0 ? -1 : bases[j] + addr - starts[j];
+		}
+	}
 }
@@ -0,0 +1,69 @@
+package edu.upc.fib.ossim.memory.model;
+
+
+/**
+ * Strategy Interface for page replacement (Strategy Pattern). Demand paging asks it for a victim frame
+ * when a page fault finds no free frame. Policies only know frame numbers, they are told when a frame
+ * gets or loses a replaceable page and when it is referenced. Operating system pages are never replaceable.
+ *
+ * @see MemStrategyPAG
+ */
+public interface PageReplacement {
+	/**
+	 * Gets policy name label key
+	 *
+	 * @return	name label key
+	 */
+	public String getName();
+
+	/**
+	 * Does policy look at next references? Computing them costs time, so they are computed only when needed
+	 *
+	 * @return	next references needed
+	 */
+	public boolean needsFuture();
+
+	/**
+	 * Starts with no replaceable pages
+	 *
+	 * @param frames	number of memory frames
+	 */
+	public void init(int frames);
+
+	/**
+	 * A replaceable page has been loaded into frame
+	 *
+	 * @param frame		frame number
+	 * @param next		next reference to this page, Long.MAX_VALUE if unknown
+	 */
+	public void load(int frame, long next);
+
+	/**
+	 * Page into frame has been referenced
+	 *
+	 * @param frame		frame number
+	 * @param next		next reference to this page, Long.MAX_VALUE if unknown
+	 */
+	public void reference(int frame, long next);
+
+	/**
+	 * Frame has lost its page (evicted, swapped out or process finished)
+	 *
+	 * @param frame		frame number
+	 */
+	public void release(int frame);
+
+	/**
+	 * Chooses a frame to replace, its page is not released yet
+	 *
+	 * @return	victim frame number, -1 if there is no replaceable page
+	 */
+	public int victim();
+
+	/**
+	 * Gets number of frames with a replaceable page
+	 *
+	 * @return	replaceable pages
+	 */
+	public int size();
+}
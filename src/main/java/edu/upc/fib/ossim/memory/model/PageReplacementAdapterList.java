@@ -0,0 +1,105 @@
+package edu.upc.fib.ossim.memory.model;
+
+import java.util.Arrays;
+
+
+/**
+ * Abstract class that implements interface PageReplacement keeping replaceable frames into a list.
+ * The list is intrusive and doubly linked over frame numbers (two arrays, a sentinel at index <code>frames</code>),
+ * so appending, unlinking and moving a frame to the end costs O(1) and never allocates.
+ */
+public abstract class PageReplacementAdapterList implements PageReplacement {
+	private int[] prev;		// -1 if frame is not linked
+	private int[] next;
+	private int sentinel;
+	private int size;
+
+	/**
+	 * List order doesn't depend on next references
+	 *
+	 * @return	false
+	 */
+	public boolean needsFuture() {
+		return false;
+	}
+
+	/**
+	 * Starts an empty list
+	 *
+	 * @param frames	number of memory frames
+	 */
+	public void init(int frames) {
+		prev = new int[frames + 1];
+		next = new int[frames + 1];
+		Arrays.fill(prev, -1);
+		sentinel = frames;
+		prev[sentinel] = sentinel;
+		next[sentinel] = sentinel;
+		size = 0;
+	}
+
+	/**
+	 * Frame is appended at list end
+	 *
+	 * @param frame		frame number
+	 * @param next		unused
+	 */
+	public void load(int frame, long next) {
+		append(frame);
+	}
+
+	/**
+	 * Frame is unlinked
+	 *
+	 * @param frame		frame number
+	 */
+	public void release(int frame) {
+		unlink(frame);
+	}
+
+	/**
+	 * Gets number of frames into list
+	 *
+	 * @return	replaceable pages
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets first frame, -1 if list is empty
+	 *
+	 * @return	first frame
+	 */
+	protected int first() {
+		return next[sentinel] == sentinel ? -1 : next[sentinel];
+	}
+
+	/**
+	 * Appends a frame at list end, unlinking it first if linked
+	 *
+	 * @param frame		frame number
+	 */
+	protected void append(int frame) {
+		unlink(frame);
+		int last = prev[sentinel];
+		prev[frame] = last;
+		next[frame] = sentinel;
+		next[last] = frame;
+		prev[sentinel] = frame;
+		size++;
+	}
+
+	/**
+	 * Unlinks a frame if linked
+	 *
+	 * @param frame		frame number
+	 */
+	protected void unlink(int frame) {
+		if (prev[frame] < 0) return;
+		next[prev[frame]] = next[frame];
+		prev[next[frame]] = prev[frame];
+		prev[frame] = -1;
+		size--;
+	}
+}
@@ -0,0 +1,103 @@
+package edu.upc.fib.ossim.memory.model;
+
+import java.util.BitSet;
+
+
+/**
+ * Page replacement implementation for Clock algorithm. A hand sweeps frames in address order as a circular list,
+ * clearing reference bits, and stops at first replaceable frame not referenced. Replaceable frames and reference
+ * bits are bitmaps, so a sweep skips whole words of frames without replaceable pages
+ */
+public class PageReplacementClock implements PageReplacement {
+	private BitSet resident;	// Frames with a replaceable page
+	private BitSet referenced;	// Reference bits
+	private int hand;
+	private int frames;
+
+	/**
+	 * Gets Clock name label key
+	 *
+	 * @return	name label key
+	 */
+	public String getName() {
+		return "me_94";
+	}
+
+	/**
+	 * Clock only looks at reference bits
+	 *
+	 * @return	false
+	 */
+	public boolean needsFuture() {
+		return false;
+	}
+
+	/**
+	 * Starts with no replaceable frames, hand at first frame
+	 *
+	 * @param frames	number of memory frames
+	 */
+	public void init(int frames) {
+		this.frames = frames;
+		resident = new BitSet(frames);
+		referenced = new BitSet(frames);
+		hand = 0;
+	}
+
+	/**
+	 * Frame becomes replaceable, its reference bit cleared
+	 *
+	 * @param frame		frame number
+	 * @param next		unused
+	 */
+	public void load(int frame, long next) {
+		resident.set(frame);
+		referenced.clear(frame);
+	}
+
+	/**
+	 * Sets frame reference bit
+	 *
+	 * @param frame		frame number
+	 * @param next		unused
+	 */
+	public void reference(int frame, long next) {
+		referenced.set(frame);
+	}
+
+	/**
+	 * Frame is no longer replaceable
+	 *
+	 * @param frame		frame number
+	 */
+	public void release(int frame) {
+		resident.clear(frame);
+		referenced.clear(frame);
+	}
+
+	/**
+	 * Advances the hand up to a replaceable frame not referenced, clearing reference bits on its way.
+	 * Hand is left next to victim
+	 *
+	 * @return	victim frame number
+	 */
+	public int victim() {
+		if (resident.isEmpty()) return -1;
+		while (true) {
+			int frame = resident.nextSetBit(hand);
+			if (frame < 0) frame = resident.nextSetBit(0);
+			hand = frame + 1 < frames ? frame + 1 : 0;
+			if (!referenced.get(frame)) return frame;
+			referenced.clear(frame);
+		}
+	}
+
+	/**
+	 * Gets number of replaceable frames
+	 *
+	 * @return	replaceable pages
+	 */
+	public int size() {
+		return resident.cardinality();
+	}
+}
@@ -0,0 +1,33 @@
+package edu.upc.fib.ossim.memory.model;
+
+
+/**
+ * Page replacement implementation for FIFO algorithm, victim is the page loaded first
+ */
+public class PageReplacementFIFO extends PageReplacementAdapterList {
+	/**
+	 * Gets FIFO name label key
+	 *
+	 * @return	name label key
+	 */
+	public String getName() {
+		return "me_92";
+	}
+
+	/**
+	 * References do not change load order
+	 *
+	 * @param frame		unused
+	 * @param next		unused
+	 */
+	public void reference(int frame, long next) { }
+
+	/**
+	 * Chooses page loaded first
+	 *
+	 * @return	victim frame number
+	 */
+	public int victim() {
+		return first();
+	}
+}
@@ -0,0 +1,36 @@
+package edu.upc.fib.ossim.memory.model;
+
+
+/**
+ * Page replacement implementation for LRU (Least Recently Used) algorithm. Every reference moves its frame
+ * to list end, so list is kept in recency order and victim is its first frame, both O(1)
+ */
+public class PageReplacementLRU extends PageReplacementAdapterList {
+	/**
+	 * Gets LRU name label key
+	 *
+	 * @return	name label key
+	 */
+	public String getName() {
+		return "me_93";
+	}
+
+	/**
+	 * Referenced frame becomes most recently used
+	 *
+	 * @param frame		frame number
+	 * @param next		unused
+	 */
+	public void reference(int frame, long next) {
+		append(frame);
+	}
+
+	/**
+	 * Chooses least recently used page
+	 *
+	 * @return	victim frame number
+	 */
+	public int victim() {
+		return first();
+	}
+}
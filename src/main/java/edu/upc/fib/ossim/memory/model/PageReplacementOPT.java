@@ -0,0 +1,142 @@
+package edu.upc.fib.ossim.memory.model;
+
+import java.util.Arrays;
+
+
+/**
+ * Page replacement implementation for OPT (optimal, Belady) algorithm, victim is the page whose next reference is
+ * the farthest one. Future references are known only when memory references come from a reference string,
+ * otherwise every page is as far as any other one. Frames are kept into an indexed binary heap by next reference,
+ * so updates cost O(log n)
+ */
+public class PageReplacementOPT implements PageReplacement {
+	private int[] heap;		// Frames, farthest next reference first
+	private int[] pos;		// Frame position into heap, -1 if not replaceable
+	private long[] next;	// Frame next reference
+	private int size;
+
+	/**
+	 * Gets OPT name label key
+	 *
+	 * @return	name label key
+	 */
+	public String getName() {
+		return "me_96";
+	}
+
+	/**
+	 * OPT chooses by next references
+	 *
+	 * @return	true
+	 */
+	public boolean needsFuture() {
+		return true;
+	}
+
+	/**
+	 * Starts an empty heap
+	 *
+	 * @param frames	number of memory frames
+	 */
+	public void init(int frames) {
+		heap = new int[frames];
+		pos = new int[frames];
+		next = new long[frames];
+		Arrays.fill(pos, -1);
+		size = 0;
+	}
+
+	/**
+	 * Frame becomes replaceable
+	 *
+	 * @param frame		frame number
+	 * @param next		next reference to this page, Long.MAX_VALUE if unknown
+	 */
+	public void load(int frame, long next) {
+		if (pos[frame] < 0) {
+			pos[frame] = size;
+			heap[size++] = frame;
+		}
+		reference(frame, next);
+	}
+
+	/**
+	 * Updates frame next reference
+	 *
+	 * @param frame		frame number
+	 * @param next		next reference to this page, Long.MAX_VALUE if unknown
+	 */
+	public void reference(int frame, long next) {
+		if (pos[frame] < 0) return;
+		this.next[frame] = next;
+		up(pos[frame]);
+		down(pos[frame]);
+	}
+
+	/**
+	 * Frame is no longer replaceable
+	 *
+	 * @param frame		frame number
+	 */
+	public void release(int frame) {
+		int i = pos[frame];
+		if (i < 0) return;
+		pos[frame] = -1;
+		size--;
+		if (i == size) return;
+		heap[i] = heap[size];
+		pos[heap[i]] = i;
+		up(i);
+		down(pos[heap[i]]);
+	}
+
+	/**
+	 * Chooses page referenced farthest in the future
+	 *
+	 * @return	victim frame number
+	 */
+	public int victim() {
+		return size == 0 ? -1 : heap[0];
+	}
+
+	/**
+	 * Gets number of replaceable frames
+	 *
+	 * @return	replaceable pages
+	 */
+	public int size() {
+		return size;
+	}
+
+	private boolean farther(int i, int j) {
+		// Heap entry i is referenced farther than entry j, ties in frame order
+		long a = next[heap[i]], b = next[heap[j]];
+		return a > b || (a == b && heap[i] < heap[j]);
+	}
+
+	private void up(int i) {
+		while (i > 0 && farther(i, (i - 1) / 2)) {
+			swap(i, (i - 1) / 2);
+			i = (i - 1) / 2;
+		}
+	}
+
+	private void down(int i) {
+		while (true) {
+			int c = 2 * i + 1;
+			if (c >= size) return;
+			if (c + 1 < size && farther(c + 1, c)) c++;
+			if (!farther(c, i)) return;
+			swap(i, c);
+			i = c;
+		}
+	}
+
+	private void swap(int i, int j) {
+		int f = heap[i];
+		heap[i] = heap[j];
+		heap[j] = f;
+		pos[heap[i]] = i;
+		pos[heap[j]] = j;
+	}
+}
@@ -0,0 +1,65 @@
+package edu.upc.fib.ossim.memory.model;
+
+
+/**
+ * Page replacement implementation for Second Chance algorithm. Pages are kept in load order as FIFO does,
+ * but a page referenced since it was loaded or last passed over gets its reference bit cleared and goes to list end
+ */
+public class PageReplacementSecondChance extends PageReplacementAdapterList {
+	private boolean[] referenced;
+
+	/**
+	 * Gets Second Chance name label key
+	 *
+	 * @return	name label key
+	 */
+	public String getName() {
+		return "me_95";
+	}
+
+	/**
+	 * Starts an empty list, every reference bit cleared
+	 *
+	 * @param frames	number of memory frames
+	 */
+	public void init(int frames) {
+		super.init(frames);
+		referenced = new boolean[frames];
+	}
+
+	/**
+	 * Frame is appended at list end, its reference bit cleared
+	 *
+	 * @param frame		frame number
+	 * @param next		unused
+	 */
+	public void load(int frame, long next) {
+		super.load(frame, next);
+		referenced[frame] = false;
+	}
+
+	/**
+	 * Sets frame reference bit
+	 *
+	 * @param frame		frame number
+	 * @param next		unused
+	 */
+	public void reference(int frame, long next) {
+		referenced[frame] = true;
+	}
+
+	/**
+	 * Chooses first page in load order not referenced, referenced ones passed over get a second chance
+	 *
+	 * @return	victim frame number
+	 */
+	public int victim() {
+		int frame = first();
+		while (frame >= 0 && referenced[frame]) {
+			referenced[frame] = false;
+			append(frame);
+			frame = first();
+		}
+		return frame;
+	}
+}
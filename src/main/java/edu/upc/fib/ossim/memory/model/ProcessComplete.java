@@ -1,8 +1,8 @@
 package edu.upc.fib.ossim.memory.model;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Vector;
 
@@ -27,7 +27,12 @@ public class ProcessComplete implements ProcessMemUnit, Cloneable {
 	private int size;
 	private int duration;	// -1 infinite
 	private Color color;
-	private List<ProcessComponent> blocks;
+	private List<ProcessComponent> blocks;	// Indexed by component number, direct lookup on translation
+	private ReferenceSource referenceString;	// null if process makes no memory references
+	// Demand paging statistics
+	private long references;
+	private long faults;
+	private long evictions;		// Pages of this process evicted
 	
 	/** 
 	 * Constructs a process
@@ -44,7 +49,7 @@ public class ProcessComplete implements ProcessMemUnit, Cloneable {
 		this.size = size;
 		this.duration = duration;
 		this.color = color;
-		this.blocks = new LinkedList<ProcessComponent>();
+		this.blocks = new ArrayList<ProcessComponent>();
 		if (pid == 0) maxpid = 1; // Restart pid   
 		else maxpid++;
 	}
@@ -123,6 +128,68 @@ public class ProcessComplete implements ProcessMemUnit, Cloneable {
 		return maxpid;
 	}
 	
+	/**
+	 * Counts a memory reference, a page fault if it is
+	 * 
+	 * @param fault	reference is a page fault
+	 */
+	public void reference(boolean fault) {
+		references++;
+		if (fault) faults++;
+	}
+
+	/**
+	 * Counts a page of this process evicted from memory
+	 */
+	public void evicted() {
+		evictions++;
+	}
+
+	/**
+	 * Gets memory references count
+	 * 
+	 * @return	memory references
+	 */
+	public long getReferences() {
+		return references;
+	}
+
+	/**
+	 * Gets page faults count
+	 * 
+	 * @return	page faults
+	 */
+	public long getFaults() {
+		return faults;
+	}
+
+	/**
+	 * Gets count of pages of this process evicted from memory
+	 * 
+	 * @return	evictions
+	 */
+	public long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Gets process memory reference string
+	 * 
+	 * @return	reference string, null if process makes no memory references
+	 */
+	public ReferenceSource getReferenceString() {
+		return referenceString;
+	}
+
+	/**
+	 * Sets process memory reference string, addresses referenced while process is allocated
+	 * 
+	 * @param referenceString	reference string, null if process makes no memory references
+	 */
+	public void setReferenceString(ReferenceSource referenceString) {
+		this.referenceString = referenceString;
+	}
+
 	/**
 	 * Adds a process component: a page or a segment for example.
 	 * 
@@ -133,7 +200,7 @@ public class ProcessComplete implements ProcessMemUnit, Cloneable {
 	}
 	
 	public void initBlocks() {
-		blocks = new LinkedList<ProcessComponent>();
+		blocks = new ArrayList<ProcessComponent>();
 	}
 
 	
@@ -227,6 +294,7 @@ public class ProcessComplete implements ProcessMemUnit, Cloneable {
 			clone = (ProcessComplete) super.clone();
 			
 			clone.initBlocks();
+			clone.setReferenceString(null); // Reference strings are not shared
 			
 			// Must clone all blocks one by one
 			Iterator<ProcessComponent> it = blocks.iterator();
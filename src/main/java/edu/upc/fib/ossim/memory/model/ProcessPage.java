@@ -11,6 +11,7 @@ import edu.upc.fib.ossim.utils.ColorCell;
  * @author Àlex
  */
 public class ProcessPage extends ProcessComponent {
+	private int frame = -1;	// Page table entry, -1 if page is not into memory
 
 	/**
 	 * Constructs a process page
@@ -24,6 +25,24 @@ public class ProcessPage extends ProcessComponent {
 		super(parent, bid, size, load);
 	}
 
+	/**
+	 * Gets memory frame allocating this page
+	 * 
+	 * @return	frame number, -1 if page is not into memory
+	 */
+	public int getFrame() {
+		return frame;
+	}
+
+	/**
+	 * Sets memory frame allocating this page
+	 * 
+	 * @param frame	frame number, -1 if page is not into memory
+	 */
+	public void setFrame(int frame) {
+		this.frame = frame;
+	}
+
 	/**
 	 * Is this component a process page.
 	 * 
@@ -0,0 +1,101 @@
+package edu.upc.fib.ossim.memory.model;
+
+import java.util.Random;
+
+
+/**
+ * Synthetic memory reference string generator (Memory management context), an endless string of logical addresses
+ * drawn from a reference model:
+ * <ul>
+ * <li>SEQUENTIAL: every address in order, over and over again (a scan of the whole process)</li>
+ * <li>LOOP: first working set size addresses in order, over and over again (a loop)</li>
+ * <li>RANDOM: addresses drawn uniformly, no locality at all</li>
+ * <li>LOCALITY: working set model, references fall uniformly into a locality as wide as working set size
+ * placed at random, every locality lasts an exponentially long phase and then moves elsewhere</li>
+ * </ul>
+ * A generator is seeded, so it hands out the same string again for the same seed. Next address costs constant time
+ * and never allocates
+ */
+public class ReferenceGenerator implements ReferenceSource {
+	public static final int SEQUENTIAL = 0;
+	public static final int LOOP = 1;
+	public static final int RANDOM = 2;
+	public static final int LOCALITY = 3;
+	private int model;
+	private int size;			// Process size, addresses from 0 to size - 1
+	private int span;			// Working set size, at most process size
+	private double phase;		// Locality phase mean length, references
+	private Random random;
+	private int cursor;			// Next address, sequential and loop models
+	private int base;			// Current locality first address
+	private int left;			// References left in current locality phase
+
+	/**
+	 * Constructs a generator, locality phases are 1000 references long on average
+	 *
+	 * @param seed			random seed
+	 * @param model			reference model: SEQUENTIAL, LOOP, RANDOM or LOCALITY
+	 * @param size			process size
+	 * @param workingSet	working set size, loop and locality models
+	 */
+	public ReferenceGenerator(long seed, int model, int size, int workingSet) {
+		this.model = model;
+		this.size = Math.max(1, size);
+		this.span = Math.max(1, Math.min(workingSet, this.size));
+		this.phase = 1000;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Sets locality phases mean length
+	 *
+	 * @param mean	references per locality on average
+	 */
+	public void setPhase(double mean) {
+		this.phase = Math.max(1, mean);
+	}
+
+	/**
+	 * String never ends
+	 *
+	 * @return	true
+	 */
+	public boolean hasNext() {
+		return true;
+	}
+
+	/**
+	 * Hands out next address drawn from reference model
+	 *
+	 * @return	process logical address
+	 */
+	public int next() {
+		int address;
+		switch (model) {
+		case SEQUENTIAL:
+			address = cursor;
+			cursor = cursor + 1 < size ? cursor + 1 : 0;
+			return address;
+		case LOOP:
+			address = cursor;
+			cursor = cursor + 1 < span ? cursor + 1 : 0;
+			return address;
+		case LOCALITY:
+			if (left == 0) {
+				// New locality phase
+				base = random.nextInt(size);
+				left = 1 + (int) Math.min(-phase * Math.log(1 - random.nextDouble()), Integer.MAX_VALUE - 1);
+			}
+			left--;
+			address = base + random.nextInt(span);
+			return address < size ? address : address - size;
+		default:
+			return random.nextInt(size);
+		}
+	}
+
+	/**
+	 * Nothing to release
+	 */
+	public void close() { }
+}
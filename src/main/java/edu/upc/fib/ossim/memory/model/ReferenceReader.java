@@ -0,0 +1,129 @@
+package edu.upc.fib.ossim.memory.model;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+
+/**
+ * Memory reference string reader (Memory management context). Addresses are read from a file line by line as they
+ * are referenced, never loaded as a whole: a string of any length costs constant memory. Every line holds addresses
+ * separated by blanks or commas, a line starting with <code>pid:</code> belongs to that process only, otherwise it
+ * belongs to every process, as <code>3: 0 1 2 8 9</code>. Comments start with '#', lines holding anything else are
+ * skipped. Addresses are parsed in place, so only lines are allocated
+ */
+public class ReferenceReader implements ReferenceSource {
+	private File file;
+	private int pid;
+	private BufferedReader reader;	// null when string is over
+	private int[] line;				// Current line addresses
+	private int count;
+	private int pos;
+
+	/**
+	 * Constructs a reference string reader for a process
+	 *
+	 * @param file	reference strings file
+	 * @param pid	process identifier, lines of other processes are skipped
+	 */
+	public ReferenceReader(File file, int pid) {
+		this.file = file;
+		this.pid = pid;
+		this.line = new int[64];
+		try {
+			reader = new BufferedReader(new FileReader(file));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Gets reference strings file
+	 *
+	 * @return	file
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Are there addresses not referenced yet? Next line is read if needed, file is closed at its end
+	 *
+	 * @return	addresses remaining
+	 */
+	public boolean hasNext() {
+		try {
+			while (pos == count && reader != null) {
+				String s = reader.readLine();
+				if (s == null) close();
+				else parse(s);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return pos < count;
+	}
+
+	/**
+	 * Hands out next address
+	 *
+	 * @return	process logical address
+	 */
+	public int next() {
+		if (!hasNext()) return -1;
+		return line[pos++];
+	}
+
+	/**
+	 * Closes file, no more addresses are read
+	 */
+	public void close() {
+		if (reader == null) return;
+		try {
+			reader.close();
+		} catch (IOException e) {
+			// Nothing else to read
+		}
+		reader = null;
+	}
+
+	private void parse(String s) {
+		// Line addresses, none if line belongs to another process or it is not valid
+		count = 0;
+		pos = 0;
+		int end = s.indexOf('#');
+		if (end < 0) end = s.length();
+		int start = 0;
+		int colon = s.indexOf(':');
+		if (colon >= 0 && colon < end) {
+			try {
+				if (Integer.parseInt(s.substring(0, colon).trim()) != pid) return;
+			} catch (NumberFormatException e) {
+				return;
+			}
+			start = colon + 1;
+		}
+		int address = -1;
+		for (int i = start; i <= end; i++) {
+			char c = i < end ? s.charAt(i) : ' ';
+			if (c >= '0' && c <= '9') {
+				address = (address < 0 ? 0 : address * 10) + (c - '0');
+				if (address < 0) { // Overflow
+					count = 0;
+					return;
+				}
+			} else if (c == ' ' || c == '\t' || c == ',') {
+				if (address < 0) continue;
+				if (count == line.length) line = Arrays.copyOf(line, 2 * count);
+				line[count++] = address;
+				address = -1;
+			} else {
+				count = 0;
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package edu.upc.fib.ossim.memory.model;
+
+
+/**
+ * Memory reference string of a process (Memory management context), its logical addresses in reference order.
+ * Addresses are handed out one by one as they are referenced, never materialized as a whole
+ *
+ * @see ProcessComplete#setReferenceString(ReferenceSource)
+ * @see ReferenceGenerator
+ * @see ReferenceReader
+ */
+public interface ReferenceSource {
+	/**
+	 * Are there addresses not referenced yet?
+	 *
+	 * @return	addresses remaining
+	 */
+	public boolean hasNext();
+
+	/**
+	 * Hands out next address
+	 *
+	 * @return	process logical address
+	 */
+	public int next();
+
+	/**
+	 * Releases any resource held, no more addresses are handed out
+	 */
+	public void close();
+}
@@ -7,6 +7,7 @@ import javax.swing.AbstractButton;
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
 import javax.swing.ButtonGroup;
+import javax.swing.JButton;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -30,7 +31,8 @@ import edu.upc.fib.ossim.utils.Translation;
  * <li>Segmentation (non contiguous)</li>
  * </ul>
  * Contiguous memory management algorithms may select allocation policy among: first fit, best fit and worst fit.   
- * Fixed-size partitions algorithm includes a button for partitions creation, pagination algorithm includes a page size selector.  
+ * Fixed-size partitions algorithm includes a button for partitions creation, pagination algorithm includes a page size selector
+ * and page replacement policy among: FIFO, LRU, clock, second chance and OPT. A button sets programs memory references.  
  * 
  * @author Alex Macia
  */
@@ -46,6 +48,7 @@ public class MemorySettings extends SettingsTemplate {
 	private JLabel lmemSize;	
 	private JComboBox soSize;	// SO Size
 	private JLabel lsoSize;	
+	private JButton references;	// Programs memory references
 	private TitledBorder titleM;
 	private TitledBorder titleP;
 	private JRadioButton fixed;
@@ -59,6 +62,15 @@ public class MemorySettings extends SettingsTemplate {
 	private JRadioButton bestFit;
 	private JRadioButton worstFit;
 	private ButtonGroup bgpolicy;
+
+	private JPanel replacement;
+	private TitledBorder titleR;
+	private JRadioButton fifo;
+	private JRadioButton lru;
+	private JRadioButton clock;
+	private JRadioButton secondChance;
+	private JRadioButton opt;
+	private ButtonGroup bgreplacement;
 	
 	/**
 	 * Constructs a MemorySettings panel
@@ -131,6 +143,30 @@ public class MemorySettings extends SettingsTemplate {
 		bgpolicy.add(firstFit);
 		bgpolicy.add(bestFit);
 		bgpolicy.add(worstFit);
+
+		fifo = new JRadioButton(Translation.getInstance().getLabel("me_92"));
+		fifo.setActionCommand("FIFO");
+		fifo.addActionListener(presenter);
+		fifo.setSelected(true);
+		lru = new JRadioButton(Translation.getInstance().getLabel("me_93"));
+		lru.setActionCommand("LRU");
+		lru.addActionListener(presenter);
+		clock = new JRadioButton(Translation.getInstance().getLabel("me_94"));
+		clock.setActionCommand("CLOCK");
+		clock.addActionListener(presenter);
+		secondChance = new JRadioButton(Translation.getInstance().getLabel("me_95"));
+		secondChance.setActionCommand("SC");
+		secondChance.addActionListener(presenter);
+		opt = new JRadioButton(Translation.getInstance().getLabel("me_96"));
+		opt.setActionCommand("OPT");
+		opt.addActionListener(presenter);
+
+		bgreplacement = new ButtonGroup();
+		bgreplacement.add(fifo);
+		bgreplacement.add(lru);
+		bgreplacement.add(clock);
+		bgreplacement.add(secondChance);
+		bgreplacement.add(opt);
 		
 		JPanel memGen = new JPanel();
 		memGen.setLayout(new BoxLayout(memGen, BoxLayout.PAGE_AXIS));
@@ -145,6 +181,12 @@ public class MemorySettings extends SettingsTemplate {
 		pgenso.add(lsoSize);
 		pgenso.add(soSize);
 		memGen.add(pgenso);
+		JPanel pgenref = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		references = new JButton(Translation.getInstance().getLabel("me_104"));
+		references.setActionCommand("REFS");
+		references.addActionListener(presenter);
+		pgenref.add(references);
+		memGen.add(pgenref);
 	
 		JPanel memMng = new JPanel();
 		memMng.setLayout(new BoxLayout(memMng, BoxLayout.PAGE_AXIS));
@@ -182,11 +224,27 @@ public class MemorySettings extends SettingsTemplate {
 		ass.add(worstFit);
 		assPolicy.add(ass);
 		
+		replacement = new JPanel();
+		replacement.setLayout(new BoxLayout(replacement, BoxLayout.LINE_AXIS));
+		titleR = BorderFactory.createTitledBorder(Translation.getInstance().getLabel("me_91"));
+		replacement.setBorder(titleR);
+		
+		JPanel rep = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		rep.add(fifo);
+		rep.add(lru);
+		rep.add(clock);
+		rep.add(secondChance);
+		rep.add(opt);
+		replacement.add(rep);
+		replacement.setVisible(false);
+		
 		pane.add(memGen);
 		
 		pane.add(memMng);
 		
 		pane.add(assPolicy);
+		
+		pane.add(replacement);
 	}
 	
 	/**
@@ -197,8 +255,10 @@ public class MemorySettings extends SettingsTemplate {
 		titleG.setTitle(Translation.getInstance().getLabel("me_17"));
 		titleM.setTitle(Translation.getInstance().getLabel("me_20"));
 		titleP.setTitle(Translation.getInstance().getLabel("me_21"));
+		titleR.setTitle(Translation.getInstance().getLabel("me_91"));
 		lmemSize.setText(Translation.getInstance().getLabel("me_19"));
 		lsoSize.setText(Translation.getInstance().getLabel("me_18"));
+		references.setText(Translation.getInstance().getLabel("me_104"));
 		fixed.setText(Translation.getInstance().getLabel("me_51"));
 		variable.setText(Translation.getInstance().getLabel("me_52"));
 		pagination.setText(Translation.getInstance().getLabel("me_58"));
@@ -207,6 +267,11 @@ public class MemorySettings extends SettingsTemplate {
 		firstFit.setText(Translation.getInstance().getLabel("me_55"));
 		bestFit.setText(Translation.getInstance().getLabel("me_56"));
 		worstFit.setText(Translation.getInstance().getLabel("me_57"));
+		fifo.setText(Translation.getInstance().getLabel("me_92"));
+		lru.setText(Translation.getInstance().getLabel("me_93"));
+		clock.setText(Translation.getInstance().getLabel("me_94"));
+		secondChance.setText(Translation.getInstance().getLabel("me_95"));
+		opt.setText(Translation.getInstance().getLabel("me_96"));
 		help = presenter.createHelp("me_01");
 		this.pack();
 	}
@@ -250,13 +315,14 @@ public class MemorySettings extends SettingsTemplate {
 	}
 
 	/**
-	 * Sets page size control visibility 
+	 * Sets page size and page replacement controls visibility 
 	 * 
 	 * @param b control visibility 
 	 */
 	public void paginationSetVisible(boolean b) {
 		lpage.setVisible(b);
 		pageSize.setVisible(b);
+		replacement.setVisible(b);
 	}
 
 	/**
@@ -281,6 +347,28 @@ public class MemorySettings extends SettingsTemplate {
 		}
 	}
 	
+	/**
+	 * Gets page replacement policy value 
+	 * 
+	 * @return page replacement policy value
+	 */
+	public String getReplacement() {
+		return bgreplacement.getSelection().getActionCommand();
+	}
+
+	/**
+	 * Selects a page replacement button (whose action command is parameter actionCommand) within its button group 
+	 * 
+	 * @param actionCommand	button action command to select
+	 */
+	public void selectReplacement(String actionCommand) {
+		Enumeration<AbstractButton> policies = bgreplacement.getElements();
+		while (policies.hasMoreElements()) {
+			AbstractButton policy = policies.nextElement();
+			if (actionCommand.equals(policy.getActionCommand())) policy.setSelected(true);
+		}
+	}
+	
 	/**
 	 * Returns page size value
 	 * 
@@ -2,20 +2,37 @@ package edu.upc.fib.ossim.process;
 
 import java.awt.Color;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.Iterator;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
 
+import javax.swing.JOptionPane;
 import javax.swing.JSpinner;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ListSelectionEvent;
 
+import edu.upc.fib.ossim.AppSession;
 import edu.upc.fib.ossim.process.model.ContextProcess;
+import edu.upc.fib.ossim.process.model.IODevice;
+import edu.upc.fib.ossim.process.model.ProcessComparison;
+import edu.upc.fib.ossim.process.model.ProcessStrategyCFS;
+import edu.upc.fib.ossim.process.model.ProcessStrategyEDF;
 import edu.upc.fib.ossim.process.model.ProcessStrategyFCFS;
+import edu.upc.fib.ossim.process.model.ProcessStrategyGang;
+import edu.upc.fib.ossim.process.model.ProcessStrategyLottery;
+import edu.upc.fib.ossim.process.model.ProcessStrategyMLFQ;
 import edu.upc.fib.ossim.process.model.ProcessStrategyPrio;
+import edu.upc.fib.ossim.process.model.ProcessStrategyRM;
 import edu.upc.fib.ossim.process.model.ProcessStrategyRR;
 import edu.upc.fib.ossim.process.model.ProcessStrategySJF;
+import edu.upc.fib.ossim.process.model.ProcessStrategyStride;
 import edu.upc.fib.ossim.process.view.ArrivingPainter;
 import edu.upc.fib.ossim.process.view.FormProcess;
 import edu.upc.fib.ossim.process.view.IOPainter;
@@ -23,12 +40,16 @@ import edu.upc.fib.ossim.process.view.PanelProcess;
 import edu.upc.fib.ossim.process.view.ProcessSettings;
 import edu.upc.fib.ossim.process.view.ProcessorPainter;
 import edu.upc.fib.ossim.process.view.QueuePainter;
+import edu.upc.fib.ossim.process.view.SweepPainter;
+import edu.upc.fib.ossim.process.view.TimelinePainter;
 import edu.upc.fib.ossim.template.Presenter;
 import edu.upc.fib.ossim.template.view.PainterTemplate;
 import edu.upc.fib.ossim.template.view.PanelTemplate;
 import edu.upc.fib.ossim.utils.ColorCell;
+import edu.upc.fib.ossim.utils.EscapeDialog;
 import edu.upc.fib.ossim.utils.Functions;
 import edu.upc.fib.ossim.utils.InfoDialog;
+import edu.upc.fib.ossim.utils.OpenSaveDialog;
 import edu.upc.fib.ossim.utils.SoSimException;
 import edu.upc.fib.ossim.utils.TimerPanel;
 import edu.upc.fib.ossim.utils.Translation;
@@ -54,12 +75,21 @@ public class ProcessPresenter extends Presenter {
 	private static final int IO_HEIGTH = 191;
 	private static final int CPU_WIDTH = 300;
 	private static final int CPU_HEIGHT = 190;
+	private static final int COMPARE_WIDTH = 900;
+	private static final int COMPARE_HEIGTH = 400;
+	private static final int SWEEP_WIDTH = 700;
+	private static final int SWEEP_HEIGTH = 400;
+	private static final int TIMELINE_WIDTH = 900;
+	private static final int TIMELINE_HEIGTH = 200;
+	private static final int SWEEP_QUANTUM = 20;	// Highest quantum size swept
 	public static final String PROCS_PAINTER = "processes";
 	public static final String ARRIVING_PAINTER = "arriving";
 	public static final String IO_PAINTER = "io";
 	public static final String PROCESSOR_PAINTER = "processor";
 	private Vector<String[]> menuItemsMem;
 	private ContextProcess context;
+	private int[] shares = {1};	// Proportional share groups weights
+	private boolean comparing;	// A comparison or sweep is running in background
 	/**************************************************************************************************/
 	/*************************************   Class  management  ***************************************/
 	/**************************************************************************************************/
@@ -102,7 +132,7 @@ public class ProcessPresenter extends Presenter {
 	 * For instance<br/> <code>actions.put(action command, number);</code><br/>
 	 * <ul>
 	 * action command from component that generate the event<br/> 
-	 * number between 20 and 30 
+	 * number from 20 
 	 * </ul>
 	 */
 	public void mapActionsSpecific() {
@@ -115,6 +145,20 @@ public class ProcessPresenter extends Presenter {
 		actions.put("RR",26);
 		actions.put("PRE",27);
 		actions.put("MUL",28);
+		actions.put("MLFQ",29);
+		actions.put("CFS",30);
+		actions.put("EDF",31);
+		actions.put("RM",32);
+		actions.put("CMP",33);
+		actions.put("SWP",34);
+		actions.put("GNT",35);
+		actions.put("TRV",36);
+		actions.put("IOD",37);
+		actions.put("STR",38);
+		actions.put("LOT",39);
+		actions.put("SHG",40);
+		actions.put("SWC",41);
+		actions.put("GNG",42);
 	}
 	
 	/**
@@ -133,7 +177,8 @@ public class ProcessPresenter extends Presenter {
 	/**
 	 * Receive multiples events:
 	 * <ul>
-	 * <li>setting's quantum component change state event. Updates algorithm information (Round Robin algorithm) </li>
+	 * <li>setting's quantum component change state event. Updates algorithm information (Round Robin, Multilevel Feedback Queue, Completely Fair Scheduler, Stride or Lottery algorithm) </li>
+	 * <li>setting's aging component change state event. Updates algorithm information (Shortest Job First or Priority algorithm) </li>
 	 * <li>form's process duration component change state event. Updates number of bursts</li>
 	 * <ul>
 	 */
@@ -142,7 +187,21 @@ public class ProcessPresenter extends Presenter {
 		
 		if ("quantum".equals(spin.getName())) { 
 			// Quantum update algorithm information
-			context.setAlgorithm(new ProcessStrategyRR(((ProcessSettings) settings).getQuantumSize()));
+			if ("MLFQ".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategyMLFQ(((ProcessSettings) settings).getQuantumSize()));
+			else if ("CFS".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategyCFS(((ProcessSettings) settings).getQuantumSize()));
+			else if ("STR".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategyStride(((ProcessSettings) settings).getQuantumSize(), shares));
+			else if ("LOT".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategyLottery(((ProcessSettings) settings).getQuantumSize(), shares, ProcessStrategyLottery.DEFAULT_SEED));
+			else if ("GNG".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategyGang(((ProcessSettings) settings).getQuantumSize()));
+			else context.setAlgorithm(new ProcessStrategyRR(((ProcessSettings) settings).getQuantumSize()));
+			panel.setLabel(getAlgorithmInfo());
+		} 
+
+		if ("aging".equals(spin.getName())) { 
+			// Aging update algorithm information, queued processes order depends on it
+			boolean preemptive = ((ProcessSettings) settings).getPreemptive();
+			int aging = ((ProcessSettings) settings).getAging();
+			if ("SJF".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategySJF(preemptive, aging));
+			else if ("PRI".equals(settings.getAlgorithm())) context.setAlgorithm(new ProcessStrategyPrio(preemptive, aging));
 			panel.setLabel(getAlgorithmInfo());
 		} 
 		
@@ -243,6 +302,12 @@ public class ProcessPresenter extends Presenter {
 	 * <li>Removes a process. Opens a confirmation dialog, and if so deletes process</li>
 	 * <li>Changes current algorithm, updates model (context) and algorithm information</li>
 	 * <li>Changes preemptive value, updates algorithm information</li> 
+	 * <li>Compares every algorithm on current workload, shows a table with a row per algorithm</li> 
+	 * <li>Sweeps Round Robin quantum sizes on current workload, optionally saves results as CSV and shows a chart</li> 
+	 * <li>Shows scheduling history as a timeline</li> 
+	 * <li>Travels back to a past time, restoring nearest scheduler snapshot and replaying forward</li> 
+	 * <li>Sets I/O devices from their specification, before simulation starts</li> 
+	 * <li>Sets proportional share groups weights, updates model (context) and algorithm information</li> 
 	 * </ul>    
 	 * 
 	 * @see Presenter#actionPerformed(ActionEvent e)
@@ -291,6 +356,8 @@ public class ProcessPresenter extends Presenter {
 			((ProcessSettings) settings).enableMultiprogramming(true);
 			((ProcessSettings) settings).enablePreemptive(false);
 			((ProcessSettings) settings).visibleQuantum(false);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
 			context.setAlgorithm(new ProcessStrategyFCFS());
 			panel.setLabel(getAlgorithmInfo());
 			break;
@@ -300,7 +367,9 @@ public class ProcessPresenter extends Presenter {
 			((ProcessSettings) settings).selectMultiprogramming(true);
 			((ProcessSettings) settings).enablePreemptive(true);
 			((ProcessSettings) settings).visibleQuantum(false);
-			context.setAlgorithm(new ProcessStrategySJF(((ProcessSettings) settings).getPreemptive()));
+			((ProcessSettings) settings).visibleAging(true);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategySJF(((ProcessSettings) settings).getPreemptive(), ((ProcessSettings) settings).getAging()));
 			panel.setLabel(getAlgorithmInfo());
 			break;
 		case 25:
@@ -309,7 +378,9 @@ public class ProcessPresenter extends Presenter {
 			((ProcessSettings) settings).selectMultiprogramming(true);
 			((ProcessSettings) settings).enablePreemptive(true);
 			((ProcessSettings) settings).visibleQuantum(false);
-			context.setAlgorithm(new ProcessStrategyPrio(((ProcessSettings) settings).getPreemptive()));
+			((ProcessSettings) settings).visibleAging(true);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategyPrio(((ProcessSettings) settings).getPreemptive(), ((ProcessSettings) settings).getAging()));
 			panel.setLabel(getAlgorithmInfo());
 			break;
 		case 26:
@@ -319,9 +390,57 @@ public class ProcessPresenter extends Presenter {
 			((ProcessSettings) settings).selectPreemptive(true);
 			((ProcessSettings) settings).enablePreemptive(false);
 			((ProcessSettings) settings).visibleQuantum(true);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
 			context.setAlgorithm(new ProcessStrategyRR(((ProcessSettings) settings).getQuantumSize()));
 			panel.setLabel(getAlgorithmInfo());
 			break;
+		case 29:
+			// Multilevel Feedback Queue
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).selectPreemptive(true);
+			((ProcessSettings) settings).enablePreemptive(false);
+			((ProcessSettings) settings).visibleQuantum(true);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategyMLFQ(((ProcessSettings) settings).getQuantumSize()));
+			panel.setLabel(getAlgorithmInfo());
+			break;
+		case 30:
+			// Completely Fair Scheduler, quantum is minimum granularity
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).selectPreemptive(true);
+			((ProcessSettings) settings).enablePreemptive(false);
+			((ProcessSettings) settings).visibleQuantum(true);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategyCFS(((ProcessSettings) settings).getQuantumSize()));
+			panel.setLabel(getAlgorithmInfo());
+			break;
+		case 31:
+			// Earliest Deadline First
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).enablePreemptive(true);
+			((ProcessSettings) settings).visibleQuantum(false);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategyEDF(((ProcessSettings) settings).getPreemptive()));
+			panel.setLabel(getAlgorithmInfo());
+			break;
+		case 32:
+			// Rate Monotonic
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).enablePreemptive(true);
+			((ProcessSettings) settings).visibleQuantum(false);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategyRM(((ProcessSettings) settings).getPreemptive()));
+			panel.setLabel(getAlgorithmInfo());
+			break;
 		case 27:
 			// Preemtive
 			context.setPreemptive(((ProcessSettings) settings).getPreemptive());
@@ -331,6 +450,175 @@ public class ProcessPresenter extends Presenter {
 			// Multiprogramming
 			panel.setLabel(getAlgorithmInfo());
 			break;
+		case 33:
+			// Compare algorithms, in background
+			if (comparing) break;
+			final ProcessComparison comparison = ProcessComparison.createComparison(context.getWorkload(), context.getCpus(), ((ProcessSettings) settings).getMultiprogramming());
+			comparison.setSwitchCosts(context.getSwitchCost(), context.getCachePenalty(), context.getCacheHalfLife());
+			comparison.setLoadBalancing(context.getBalanceInterval(), context.isStealing());
+			comparison.setAging(((ProcessSettings) settings).getAging());
+			comparison.setIODevices(context.getIODevices());
+			comparing = true;
+			new SwingWorker<Void, Void>() {
+				// Runs every scenario off the event dispatch thread, results are shown once finished
+				protected Void doInBackground() {
+					comparison.run();
+					return null;
+				}
+
+				protected void done() {
+					comparing = false;
+					try {
+						get();
+					} catch (Exception e) {
+						JOptionPane.showMessageDialog(AppSession.getInstance().getApp().getComponent(), e.toString(), "Error", JOptionPane.ERROR_MESSAGE);
+						return;
+					}
+					InfoDialog compare = new InfoDialog(ProcessPresenter.this, "pr_93", "sch_info", true, COMPARE_WIDTH, COMPARE_HEIGTH, null, comparison.getTableHeader(), comparison.getTableData());
+					compare.setLocationRelativeTo(AppSession.getInstance().getApp().getComponent());
+					compare.setVisible(true);
+				}
+			}.execute();
+			break;
+		case 34:
+			// Quantum sweep in background, results streamed to CSV file if any 
+			if (comparing) break;
+			final ProcessComparison sweep = ProcessComparison.createSweep(context.getWorkload(), context.getCpus(), 1, SWEEP_QUANTUM);
+			sweep.setSwitchCosts(context.getSwitchCost(), context.getCachePenalty(), context.getCacheHalfLife());
+			sweep.setLoadBalancing(context.getBalanceInterval(), context.isStealing());
+			sweep.setAging(((ProcessSettings) settings).getAging());
+			sweep.setIODevices(context.getIODevices());
+			final File csvFile = new OpenSaveDialog(panel, "csv").showSaveFileChooser();
+			comparing = true;
+			new SwingWorker<Void, Void>() {
+				// Runs every quantum size off the event dispatch thread, chart is shown once finished
+				protected Void doInBackground() throws IOException {
+					if (csvFile == null) sweep.run();
+					else {
+						Writer csv = new FileWriter(csvFile);
+						try {
+							sweep.run(Runtime.getRuntime().availableProcessors(), csv);
+						} finally {
+							csv.close();
+						}
+					}
+					return null;
+				}
+
+				protected void done() {
+					comparing = false;
+					try {
+						get();
+					} catch (ExecutionException e) {
+						String message = e.getCause() instanceof IOException ? Translation.getInstance().getError("all_03") + " : " + e.getCause().getMessage() : e.getCause().toString();
+						JOptionPane.showMessageDialog(AppSession.getInstance().getApp().getComponent(), message, "Error", JOptionPane.ERROR_MESSAGE);
+						return;
+					} catch (InterruptedException e) {
+						return;
+					}
+					EscapeDialog chart = new EscapeDialog();
+					chart.setTitle(Translation.getInstance().getLabel("pr_94"));
+					chart.setModal(true);
+					chart.setContentPane(new SweepPainter(ProcessPresenter.this, sweep, SWEEP_WIDTH, SWEEP_HEIGTH));
+					chart.pack();
+					chart.setLocationRelativeTo(AppSession.getInstance().getApp().getComponent());
+					chart.setVisible(true);
+				}
+			}.execute();
+			break;
+		case 35:
+			// Timeline, scheduling history up to current time
+			EscapeDialog timeline = new EscapeDialog();
+			timeline.setTitle(Translation.getInstance().getLabel("pr_95"));
+			timeline.setModal(true);
+			timeline.setContentPane(new TimelinePainter(this, context.getHistory(), timecontrols.getTime(), TIMELINE_WIDTH, TIMELINE_HEIGTH));
+			timeline.pack();
+			timeline.setLocationRelativeTo(AppSession.getInstance().getApp().getComponent());
+			timeline.setVisible(true);
+			break;
+		case 36:
+			// Travel to a past time, from nearest scheduler snapshot
+			if (!started) break;
+			String input = JOptionPane.showInputDialog(panel, Translation.getInstance().getLabel("pr_101") + " (0 - " + timecontrols.getTime() + ")", Integer.toString(timecontrols.getTime()));
+			if (input == null) break;
+			try {
+				int time = Math.max(0, Math.min(Integer.parseInt(input.trim()), timecontrols.getTime()));
+				simulationComplete = context.travel(time, ((ProcessSettings) settings).getMultiprogramming(), ((ProcessSettings) settings).getPreemptive(), ((ProcessSettings) settings).getQuantumSize());
+				timecontrols.setTime(time);
+			} catch (NumberFormatException e) {
+				// Not a time, nothing to do
+			}
+			break;
+		case 37:
+			// I/O devices
+			if (started) break;
+			String spec = JOptionPane.showInputDialog(panel, Translation.getInstance().getLabel("pr_108"), IODevice.toSpec(context.getIODevices()));
+			if (spec == null) break;
+			try {
+				context.setIODevices(IODevice.parse(spec));
+			} catch (IllegalArgumentException e) {
+				// Not a valid specification, devices are kept
+			}
+			break;
+		case 38:
+			// Stride scheduling, proportional share
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).selectPreemptive(true);
+			((ProcessSettings) settings).enablePreemptive(false);
+			((ProcessSettings) settings).visibleQuantum(true);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(true);
+			context.setAlgorithm(new ProcessStrategyStride(((ProcessSettings) settings).getQuantumSize(), shares));
+			panel.setLabel(getAlgorithmInfo());
+			break;
+		case 39:
+			// Lottery scheduling, proportional share
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).selectPreemptive(true);
+			((ProcessSettings) settings).enablePreemptive(false);
+			((ProcessSettings) settings).visibleQuantum(true);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(true);
+			context.setAlgorithm(new ProcessStrategyLottery(((ProcessSettings) settings).getQuantumSize(), shares, ProcessStrategyLottery.DEFAULT_SEED));
+			panel.setLabel(getAlgorithmInfo());
+			break;
+		case 40:
+			// Proportional share groups weights, group g weight at position g
+			String weights = JOptionPane.showInputDialog(panel, Translation.getInstance().getLabel("pr_115"), ProcessStrategyStride.toSpec(shares));
+			if (weights == null) break;
+			try {
+				shares = ProcessStrategyStride.parseWeights(weights);
+			} catch (IllegalArgumentException e) {
+				// Not valid weights, they are kept
+				break;
+			}
+			actionSpecific(settings.getAlgorithm()); // Updates management
+			break;
+		case 41:
+			// Context switch costs
+			if (started) break;
+			String costs = JOptionPane.showInputDialog(panel, Translation.getInstance().getLabel("pr_118"), context.getSwitchCostsSpec());
+			if (costs == null) break;
+			try {
+				context.setSwitchCosts(costs);
+			} catch (IllegalArgumentException e) {
+				// Not valid costs, they are kept
+			}
+			break;
+		case 42:
+			// Gang scheduling, Ousterhout matrix
+			((ProcessSettings) settings).enableMultiprogramming(false);
+			((ProcessSettings) settings).selectMultiprogramming(true);
+			((ProcessSettings) settings).selectPreemptive(true);
+			((ProcessSettings) settings).enablePreemptive(false);
+			((ProcessSettings) settings).visibleQuantum(true);
+			((ProcessSettings) settings).visibleAging(false);
+			((ProcessSettings) settings).visibleShares(false);
+			context.setAlgorithm(new ProcessStrategyGang(((ProcessSettings) settings).getQuantumSize()));
+			panel.setLabel(getAlgorithmInfo());
+			break;
 		}
 	}
 	
@@ -360,7 +648,7 @@ public class ProcessPresenter extends Presenter {
 		info.updateValues(context.getTableStatsData(timecontrols.getTime()));
 		info.initData(context.getTableInfoData(timecontrols.getTime()));
 		((ArrivingPainter) this.getPainter(ARRIVING_PAINTER)).initData(context.getArrivingInfoData(timecontrols.getTime()));
-		((IOPainter) this.getPainter(IO_PAINTER)).initData(context.getIOInfoData());
+		((IOPainter) this.getPainter(IO_PAINTER)).initData(context.getIOInfoData(timecontrols.getTime()));
 	}
 	
 	/**
@@ -526,6 +814,22 @@ public class ProcessPresenter extends Presenter {
 			attribute.add("quantum");
 			attribute.add(Integer.toString(((ProcessSettings) settings).getQuantumSize()));
 			param.add(attribute);
+			attribute = new Vector<String>();		
+			attribute.add("aging");
+			attribute.add(Integer.toString(((ProcessSettings) settings).getAging()));
+			param.add(attribute);
+			attribute = new Vector<String>();		
+			attribute.add("devices");
+			attribute.add(IODevice.toSpec(context.getIODevices()));
+			param.add(attribute);
+			attribute = new Vector<String>();		
+			attribute.add("shares");
+			attribute.add(ProcessStrategyStride.toSpec(shares));
+			param.add(attribute);
+			attribute = new Vector<String>();		
+			attribute.add("switches");
+			attribute.add(context.getSwitchCostsSpec());
+			param.add(attribute);
 			data.add(param);
 			break;
 		case 1: 	// Ready queue
@@ -555,10 +859,15 @@ public class ProcessPresenter extends Presenter {
 				boolean multiprogramming = new Boolean(sMultiProgramming).booleanValue();
 				boolean preemptive = new Boolean(sPreemptive).booleanValue();
 				int quantum = new Integer(sQuantum).intValue();
+				int aging = data.get(0).size() > 4 ? Integer.parseInt(data.get(0).get(4).get(1)) : 0; // Older files have no aging
 
 				settings.selectAlgorithm(actionCommand);
 				((ProcessSettings) settings).selectMultiprogramming(multiprogramming);
 				((ProcessSettings) settings).setQuantumSize(quantum);
+				((ProcessSettings) settings).setAging(aging);
+				if (data.get(0).size() > 5) context.setIODevices(IODevice.parse(data.get(0).get(5).get(1))); // Older files have default I/O
+				shares = data.get(0).size() > 6 ? ProcessStrategyStride.parseWeights(data.get(0).get(6).get(1)) : new int[] {1}; // Older files have a single group
+				context.setSwitchCosts(data.get(0).size() > 7 ? data.get(0).get(7).get(1) : "0 0 0"); // Older files have free context switches
 				((ProcessSettings) settings).selectPreemptive(preemptive);
 				context.setPreemptive(preemptive);
 				actionSpecific(actionCommand); // Updates management.
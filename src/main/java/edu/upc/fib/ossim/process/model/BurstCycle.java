@@ -0,0 +1,184 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+import java.util.Vector;
+
+
+/**
+ * Process CPU - I/O burst cycle (Process scheduling context). Run length encoded, consecutive time units
+ * of the same burst type are stored as a single run (type and length) besides run's starting moment,
+ * so a long burst costs the same as a short one and burst moments are located by binary search.
+ * I/O bursts target an I/O device: burst type IO + d is an I/O burst on device d (IO is device 0).
+ * Instances are immutable and may be shared among processes and their clones.
+ *
+ * @see IODevice
+ */
+public class BurstCycle {
+	public static final int CPU = 0;
+	public static final int IO = 1;
+	private int[] types;	// Run burst type
+	private int[] lengths;	// Run length
+	private int[] starts;	// Run starting moment (prefix sums of lengths)
+	private int size;
+	private int iosize;
+
+	/**
+	 * Constructs a burst cycle from a bursts vector, one value per time unit, CPU (0) or I/O (1 + device)
+	 *
+	 * @param bursts	process bursts vector
+	 */
+	public BurstCycle(Vector<Integer> bursts) {
+		int[] t = new int[bursts.size()];
+		int[] l = new int[bursts.size()];
+		int runs = 0;
+		for (int i = 0; i < bursts.size(); i++) {
+			int type = bursts.get(i).intValue();
+			if (runs > 0 && t[runs - 1] == type) l[runs - 1]++;
+			else {
+				t[runs] = type;
+				l[runs] = 1;
+				runs++;
+			}
+		}
+		init(Arrays.copyOf(t, runs), Arrays.copyOf(l, runs));
+	}
+
+	/**
+	 * Constructs a burst cycle from its runs, consecutive runs of the same type are merged
+	 *
+	 * @param types		runs burst type, CPU (0) or I/O (1 + device)
+	 * @param lengths	runs length, greater than 0
+	 */
+	public BurstCycle(int[] types, int[] lengths) {
+		int[] t = new int[types.length];
+		int[] l = new int[types.length];
+		int runs = 0;
+		for (int i = 0; i < types.length; i++) {
+			if (runs > 0 && t[runs - 1] == types[i]) l[runs - 1] += lengths[i];
+			else {
+				t[runs] = types[i];
+				l[runs] = lengths[i];
+				runs++;
+			}
+		}
+		init(Arrays.copyOf(t, runs), Arrays.copyOf(l, runs));
+	}
+
+	private void init(int[] types, int[] lengths) {
+		this.types = types;
+		this.lengths = lengths;
+		this.starts = new int[types.length];
+		size = 0;
+		iosize = 0;
+		for (int i = 0; i < types.length; i++) {
+			starts[i] = size;
+			size += lengths[i];
+			if (types[i] != CPU) iosize += lengths[i];
+		}
+	}
+
+	/**
+	 * Gets burst cycle size (time units)
+	 *
+	 * @return	burst cycle size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets number of runs
+	 *
+	 * @return	number of runs
+	 */
+	public int getRuns() {
+		return types.length;
+	}
+
+	/**
+	 * Gets run burst type
+	 *
+	 * @param run	run number
+	 * @return	run burst type
+	 */
+	public int getType(int run) {
+		return types[run];
+	}
+
+	/**
+	 * Gets run length
+	 *
+	 * @param run	run number
+	 * @return	run length
+	 */
+	public int getLength(int run) {
+		return lengths[run];
+	}
+
+	/**
+	 * Gets run starting moment
+	 *
+	 * @param run	run number
+	 * @return	run starting moment
+	 */
+	public int getStart(int run) {
+		return starts[run];
+	}
+
+	/**
+	 * Gets run containing burst moment i, binary search over runs starting moments
+	 *
+	 * @param i		burst moment, between 0 and size - 1
+	 * @return	run number
+	 */
+	public int findRun(int i) {
+		int r = Arrays.binarySearch(starts, i);
+		if (r < 0) r = -r - 2; // insertion point - 1
+		return r;
+	}
+
+	/**
+	 * Gets burst type at moment i
+	 *
+	 * @param i		burst moment
+	 * @return	burst type, CPU (0) or I/O (1 + device)
+	 */
+	public int getBurst(int i) {
+		return types[findRun(i)];
+	}
+
+	/**
+	 * Gets I/O rate, I/O time units / total time units
+	 *
+	 * @return	I/O rate
+	 */
+	public double getIORate() {
+		return (double) iosize / size;
+	}
+
+	/**
+	 * Returns bursts vector, one value per time unit, CPU (0) or I/O (1 + device)
+	 *
+	 * @return	bursts vector
+	 */
+	public Vector<Integer> toVector() {
+		Vector<Integer> bursts = new Vector<Integer>(size);
+		for (int r = 0; r < types.length; r++) {
+			for (int i = 0; i < lengths[r]; i++) bursts.add(types[r]);
+		}
+		return bursts;
+	}
+
+	/**
+	 * Returns bursts converted to String 1 0 0 1 ..., blank between bursts
+	 *
+	 * @return	bursts string
+	 */
+	public String toString() {
+		StringBuilder sbursts = new StringBuilder(2 * size);
+		for (int r = 0; r < types.length; r++) {
+			for (int i = 0; i < lengths[r]; i++) sbursts.append(types[r]).append(' ');
+		}
+		return sbursts.toString();
+	}
+}
@@ -3,11 +3,14 @@ package edu.upc.fib.ossim.process.model;
 import java.awt.Color;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.StringTokenizer;
 import java.util.Vector;
 
 import edu.upc.fib.ossim.utils.ColorCell;
@@ -16,24 +19,63 @@ import edu.upc.fib.ossim.utils.Translation;
 
 /**
  * Process Scheduling Model (Model - View - Presenter Pattern). Different scheduling algorithm are implemented 
- * through Strategy Pattern. Model manage a maximum of <code>"MAX_PROCESSES"</code> processes, 
- * maximum among ready queue and incoming queue.    
+ * through Strategy Pattern. Interactively model manage a maximum of <code>"MAX_PROCESSES"</code> processes, 
+ * maximum among ready queue and incoming queue. Larger workloads are supplied through a process source (a process table 
+ * a synthetic workload generator or a trace), its processes are queued as they are submitted and optionally forgotten once finished. 
+ * Several cpus may be simulated (SMP), every cpu has its own ready queue ordered by the same algorithm, new processes 
+ * go to the least loaded cpu and processes back from I/O to the cpu they ran on. Queues are balanced by periodic 
+ * push (longest to shortest ready queue) and idle cpus steal ready queues heads. 
+ * A periodic process runs a job per burst cycle, when a job ends before next job release the process waits 
+ * into a timing wheel until then. Processes blocked on I/O request the I/O device their burst targets, devices serve requests 
+ * at their own rate and channels and queue the rest, completions are events. Scheduler state is snapshot periodically, copying only processes changed since previous 
+ * snapshot, so simulation can travel back to any past time restoring the nearest snapshot and replaying forward  
+ * 
+ * @see ProcessSource    
  * 
  * @author Alex Macia
  */
 public class ContextProcess {
 	public static final int MAX_PROCESSES = 20;
+	public static final int STATS_WINDOW = 50;	// Time units window to cpu utilisation and throughput  
+	public static final int BALANCE_INTERVAL = 10;	// Default time units between periodic load balancing   
+	public static final int INDEX_LIMIT = 1 << 16;	// Pids indexed into an array, greater ones hashed    
+	public static final int SNAPSHOT_INTERVAL = 100;	// Default time units between scheduler snapshots
+	public static final int MAX_SNAPSHOTS = 128;	// Snapshots kept, every other one is dropped beyond   
 	private ProcessStrategy algorithm;
 	// Separate queue's cause different orders   
-	private PriorityQueue<Process> readyQueue; 		// Process on ready queue, variable order
-	private PriorityQueue<Process> arrivingQueue; 	// Process not already arrived, ordered by init time
-	private PriorityQueue<Process> ioQueue; 		// Process blocked doing IO operations
+	private ReadyQueue[] readyQueues; 			// Process on ready queue, one per cpu, variable order
+	private ProcessQueue arrivingQueue; 			// Process not already arrived, ordered by init time
+	private List<IODevice> devices;				// I/O devices, process blocked doing IO operations
+	private ReleaseWheel releaseWheel;			// Periodic processes waiting next job release
 	private List<Process> doneQueue; 				// Process ended
-	private PriorityQueue<Process> rqBkup; 		// Ready queue backup to restore initial state  
-	private PriorityQueue<Process> aqBkup; 		// Not already arrived queue backup to restore initial state
-	private Process runningProcess;				// Running process
+	private List<Process> rqBkup; 				// Ready queue backup to restore initial state  
+	private List<Process> aqBkup; 				// Not already arrived queue backup to restore initial state
+	private Process[] running;					// Running process, one per cpu
 	private Process selectedProcess;
-	private int idle;
+	private Process[] index;					// Processes not already finished indexed by pid
+	private HashMap<Integer, Process> overflow;	// Processes not already finished with pid beyond INDEX_LIMIT
+	private ProcessRows rows;					// Identity, counters and burst cursors of processes indexed, viewed by them
+	private ProcessSource source;				// Processes not already submitted (optional)
+	private boolean keepFinished;				// Keep finished processes information
+	private int cpus;
+	private int[] idle;							// Idle time, per cpu
+	private int[] blocked;						// Processes doing I/O, per cpu they come back to
+	private boolean[] busy;						// Cpus running a process at current time unit start
+	private Process[] last;						// Running process at current time unit start, to notice context switches
+	private int[] stall;						// Context switch time units left before running process progresses, per cpu
+	private int[] lost;							// Time lost to context switches, per cpu
+	private int switchCost;						// Context switch time units
+	private int cachePenalty;					// Cache refill time units, process resuming cold
+	private int cacheHalfLife;					// Time units off cpu halving process cache warmth
+	private int balanceInterval;				// Time units between periodic load balancing, 0 never
+	private boolean stealing;					// Idle cpus steal processes from other ready queues
+	private ProcessStatistics stats;
+	private GanttRecorder history;				// Gantt chart, running process spans per cpu
+	private List<SchedulerSnapshot> snapshots;	// Scheduler state along simulation, by time
+	private int snapshotInterval;				// Time units between snapshots, 0 none
+	private int interval;						// Current interval, doubled each time snapshots are thinned out
+	private long sourced;						// Processes handed out by process source
+	private boolean started;					// Initial state is kept into backup's
 
 	/**
 	 * Constructs a ContextProcess: sets a concrete algorithm strategy  
@@ -42,13 +84,180 @@ public class ContextProcess {
 	 */
     public ContextProcess(ProcessStrategy algorithm) {
         this.algorithm = algorithm;
-        readyQueue = new PriorityQueue<Process>();
-        arrivingQueue = new PriorityQueue<Process>();
-        ioQueue = new PriorityQueue<Process>();
+        arrivingQueue = new ProcessHeap();
+        devices = new ArrayList<IODevice>();
+        devices.add(new IODevice("I/O"));
+        releaseWheel = new ReleaseWheel();
         doneQueue = new LinkedList<Process>();
-        rqBkup = new PriorityQueue<Process>();
-        aqBkup = new PriorityQueue<Process>();
-        idle = 0;
+        rqBkup = new LinkedList<Process>();
+        aqBkup = new LinkedList<Process>();
+        index = new Process[MAX_PROCESSES + 1];
+        overflow = new HashMap<Integer, Process>();
+        rows = new ProcessRows(MAX_PROCESSES + 1);
+        keepFinished = true;
+        stats = new ProcessStatistics(STATS_WINDOW);
+        history = new GanttRecorder(1);
+        snapshots = new ArrayList<SchedulerSnapshot>();
+        setSnapshotInterval(SNAPSHOT_INTERVAL);
+        balanceInterval = BALANCE_INTERVAL;
+        stealing = true;
+        setCpus(1);
+    }
+
+    /**
+     * Sets number of simulated cpus, each one with its own ready queue. Ready processes are distributed 
+     * again among new cpus, it should be set at initial state (time 0) 
+     * 
+     * @param cpus	number of cpus, at least 1
+     */
+    public void setCpus(int cpus) {
+    	List<Process> ready = new LinkedList<Process>();
+    	if (readyQueues != null) {
+    		for (int c = 0; c < this.cpus; c++) {
+    			while (!readyQueues[c].isEmpty()) ready.add(readyQueues[c].getQueue().poll()); // Still ready, stays go on
+    		}
+    	}
+    	this.cpus = Math.max(1, cpus);
+    	readyQueues = new ReadyQueue[this.cpus];
+    	algorithm.setCpus(this.cpus);
+    	for (int c = 0; c < this.cpus; c++) {
+    		readyQueues[c] = new ReadyQueue(algorithm.createQueue());
+    		readyQueues[c].setStatistics(stats);
+    	}
+    	running = new Process[this.cpus];
+    	idle = new int[this.cpus];
+    	last = new Process[this.cpus];
+    	stall = new int[this.cpus];
+    	lost = new int[this.cpus];
+    	blocked = new int[this.cpus];
+    	busy = new boolean[this.cpus];
+    	stats.setCpus(this.cpus);
+    	history.setCpus(this.cpus);
+    	Iterator<Process> it = ready.iterator();
+    	while (it.hasNext()) enqueue(it.next());
+    }
+
+    /**
+     * Gets number of simulated cpus
+     * 
+     * @return	number of cpus
+     */
+    public int getCpus() {
+    	return cpus;
+    }
+
+    /**
+     * Sets load balancing among cpus ready queues, useless with a single cpu 
+     * 
+     * @param balanceInterval	time units between periodic push from longest to shortest ready queue, 0 never
+     * @param stealing			idle cpus with an empty ready queue take the longest ready queue's head
+     */
+    public void setLoadBalancing(int balanceInterval, boolean stealing) {
+    	this.balanceInterval = Math.max(0, balanceInterval);
+    	this.stealing = stealing;
+    }
+
+    /**
+     * Gets time units between periodic load balancing
+     * 
+     * @return	balance interval, 0 never
+     */
+    public int getBalanceInterval() {
+    	return balanceInterval;
+    }
+
+    /**
+     * Do idle cpus steal ready processes?
+     * 
+     * @return	stealing
+     */
+    public boolean isStealing() {
+    	return stealing;
+    }
+
+    /**
+     * Sets context switch costs, none by default. A cpu switching to another process (or to a process after being 
+     * idle) stalls switch cost time units, plus a cache penalty as process cache is cold: full penalty when process 
+     * never ran or resumes on another cpu than its last one, otherwise its cache warmth halves every half life time 
+     * units it was off cpu and penalty is the part cooled down. Stalled time is lost, neither idle nor useful
+     * 
+     * @param switchCost		context switch time units
+     * @param cachePenalty		cache refill time units, process resuming cold
+     * @param cacheHalfLife		time units off cpu halving cache warmth, 0 cache is cold as soon as process leaves cpu
+     */
+    public void setSwitchCosts(int switchCost, int cachePenalty, int cacheHalfLife) {
+    	this.switchCost = Math.max(0, switchCost);
+    	this.cachePenalty = Math.max(0, cachePenalty);
+    	this.cacheHalfLife = Math.max(0, cacheHalfLife);
+    }
+
+    /**
+     * Sets context switch costs from their specification: switch cost, cache penalty and cache half life 
+     * separated by blanks or commas, as <code>1 4 20</code>
+     * 
+     * @param spec	context switch costs specification
+     * @throws IllegalArgumentException	not three non negative numbers, costs are kept
+     * 
+     * @see #setSwitchCosts(int, int, int)
+     */
+    public void setSwitchCosts(String spec) {
+    	StringTokenizer st = new StringTokenizer(spec, " ,");
+    	if (st.countTokens() != 3) throw new IllegalArgumentException(spec);
+    	int[] costs = new int[3];
+    	try {
+    		for (int i = 0; i < costs.length; i++) costs[i] = Integer.parseInt(st.nextToken());
+    	} catch (NumberFormatException e) {
+    		throw new IllegalArgumentException(e.getMessage());
+    	}
+    	for (int cost : costs) if (cost < 0) throw new IllegalArgumentException(spec);
+    	setSwitchCosts(costs[0], costs[1], costs[2]);
+    }
+
+    /**
+     * Gets context switch costs specification
+     * 
+     * @return	switch cost, cache penalty and cache half life separated by blanks
+     * 
+     * @see #setSwitchCosts(String)
+     */
+    public String getSwitchCostsSpec() {
+    	return switchCost + " " + cachePenalty + " " + cacheHalfLife;
+    }
+
+    /**
+     * Gets context switch time units
+     * 
+     * @return	context switch cost
+     */
+    public int getSwitchCost() {
+    	return switchCost;
+    }
+
+    /**
+     * Gets cache refill time units of a process resuming cold
+     * 
+     * @return	cache penalty
+     */
+    public int getCachePenalty() {
+    	return cachePenalty;
+    }
+
+    /**
+     * Gets time units off cpu halving process cache warmth
+     * 
+     * @return	cache half life
+     */
+    public int getCacheHalfLife() {
+    	return cacheHalfLife;
+    }
+
+    /**
+     * Has context switch a cost?
+     * 
+     * @return	switch cost or cache penalty set
+     */
+    public boolean hasSwitchCosts() {
+    	return switchCost > 0 || cachePenalty > 0;
     }
  
     /**
@@ -57,8 +266,134 @@ public class ContextProcess {
      * @return	processes count
      */
     public int getProcessCount() {
-		return arrivingQueue.size() + readyQueue.size();
+    	int count = arrivingQueue.size();
+    	for (int c = 0; c < cpus; c++) count += readyQueues[c].size();
+    	if (source != null) count += source.remaining();
+		return count;
 	}
+
+    /**
+     * Sets a process table supplying processes as they are submitted, in addition to queued processes 
+     * 
+     * @param table	process table
+     */
+    public void setProcessTable(ProcessTable table) {
+    	setProcessSource(table);
+    }
+
+    /**
+     * Sets a process source supplying processes as they are submitted, in addition to queued processes 
+     * 
+     * @param source	process source
+     */
+    public void setProcessSource(ProcessSource source) {
+    	this.source = source;
+    	source.reset();
+    	sourced = 0;
+    }
+
+    /**
+     * Sets time units between scheduler snapshots, simulation may travel back to any time since its start.
+     * A shorter interval makes travels faster and takes more memory. Beyond MAX_SNAPSHOTS every other snapshot 
+     * is dropped and the interval doubled, so memory is bounded on long runs. It should be set at initial state (time 0)
+     * 
+     * @param snapshotInterval	time units between snapshots, 0 no snapshots (travels replay from time 0)
+     * 
+     * @see #travel(int, boolean, boolean, int)
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+    	this.snapshotInterval = Math.max(0, snapshotInterval);
+    	this.interval = this.snapshotInterval;
+    	snapshots.clear();
+    }
+
+    /**
+     * Gets scheduler snapshots kept
+     * 
+     * @return	snapshots count
+     */
+    public int getSnapshotCount() {
+    	return snapshots.size();
+    }
+
+    /**
+     * Sets whether finished processes are kept to show their information or are forgotten, 
+     * statistics are kept anyway
+     * 
+     * @param keepFinished	keep finished processes 
+     */
+    public void setKeepFinished(boolean keepFinished) {
+    	this.keepFinished = keepFinished;
+    }
+
+    private boolean isEmpty() {
+    	// No more processes to run in any queue
+    	for (int c = 0; c < cpus; c++) {
+    		if (!readyQueues[c].isEmpty()) return false;
+    	}
+    	return arrivingQueue.isEmpty() && getBlocked() == 0 && releaseWheel.isEmpty() && (source == null || !source.hasNext());
+    }
+
+    private int getBlocked() {
+    	// Processes blocked on I/O, on any device
+    	int n = 0;
+    	for (IODevice d : devices) n += d.size();
+    	return n;
+    }
+
+    /**
+     * Sets I/O devices, an I/O burst of type IO + d targets device d (last one if there are less devices). 
+     * It should be set at initial state (time 0) 
+     * 
+     * @param devices	I/O devices, at least one
+     */
+    public void setIODevices(List<IODevice> devices) {
+    	this.devices = new ArrayList<IODevice>(devices);
+    }
+
+    /**
+     * Gets I/O devices
+     * 
+     * @return	I/O devices
+     */
+    public List<IODevice> getIODevices() {
+    	return devices;
+    }
+
+    private IODevice getDevice(Process p) {
+    	// Device process current I/O burst targets
+    	return devices.get(Math.max(0, Math.min(p.getCurrentDevice(), devices.size() - 1)));
+    }
+
+    private void block(Process p, int time) {
+    	// Process requests its current I/O burst device, it comes back to its cpu
+    	getDevice(p).request(p, time);
+    	blocked[p.getProcessor()]++;
+    }
+
+    private boolean isIdle() {
+    	// No process running in any cpu
+    	for (int c = 0; c < cpus; c++) {
+    		if (running[c] != null) return false;
+    	}
+    	return true;
+    }
+
+    private void addTime(int units) {
+    	// Statistics time units split where stalls end, a cpu stalled by a context switch is not busy
+    	int done = 0;
+    	while (done < units) {
+    		int step = units - done;
+    		int n = 0;
+    		for (int c = 0; c < cpus; c++) {
+    			if (running[c] == null) continue;
+    			if (stall[c] <= done) n++;
+    			else step = Math.min(step, stall[c] - done);
+    		}
+    		stats.addTime(step, n);
+    		done += step;
+    	}
+    }
     
     /**
      * Change algorithm strategy and restores initial state (time = 0)    
@@ -67,19 +402,25 @@ public class ContextProcess {
      */
     public void setAlgorithm(ProcessStrategy algorithm){
     	this.algorithm = algorithm;
-    	idle = 0;
+    	Arrays.fill(idle, 0);
+    	Arrays.fill(lost, 0);
     	backup(); // Rebuild requests due to adding processes depends on algorithm  
-    	readyQueue.clear();
+    	algorithm.setCpus(cpus);
+    	for (int c = 0; c < cpus; c++) {
+    		readyQueues[c] = new ReadyQueue(algorithm.createQueue()); // Queue order depends on algorithm
+    		readyQueues[c].setStatistics(stats);
+    	}
     	
-    	// Can't rely on Iterators from PriorityQueue 
-		Object[] pq = rqBkup.toArray();
 		// Restores creation order (pid)
-		for(int i=0;i<pq.length;i++) {
-			Process p = (Process) pq[i];
+		ProcessQueue pq = new ProcessHeap();
+		Iterator<Process> it = rqBkup.iterator();
+		while (it.hasNext()) {
+			Process p = it.next();
 			p.setOrder(p.getPid());
+			pq.add(p.clone());
 		}
-		Arrays.sort(pq);
-		for(int i=0;i<pq.length;i++) algorithm.addProcess(((Process) pq[i]).clone(), readyQueue);
+		while (!pq.isEmpty()) enqueue(pq.poll());
+		reindex();
     }
 
     /**
@@ -127,8 +468,18 @@ public class ContextProcess {
 	 * @return	running process identifier
 	 */
     public int getPIDrunning() {
+		return getPIDrunning(0);
+	}
+
+	/**
+	 * Returns current process in a cpu identifier or 0 if no process is running  
+	 * 
+	 * @param cpu	cpu number
+	 * @return	running process identifier
+	 */
+    public int getPIDrunning(int cpu) {
 		// Returns running process's PID or null if not exists
-		if (runningProcess != null) return runningProcess.getPid();
+		if (running[cpu] != null) return running[cpu].getPid();
 		else return 0;
 	}
     
@@ -138,45 +489,81 @@ public class ContextProcess {
      * @return	Sorted list iterator
      */
     public Iterator<Integer> iteratorReady() {
+		return iteratorReady(0);
+	}
+
+    /**
+     * Returns sorted list iterator with a cpu ready processes identifiers, list order depends on current algorithm 
+     * 
+     * @param cpu	cpu number
+     * @return	Sorted list iterator
+     */
+    public Iterator<Integer> iteratorReady(int cpu) {
 		// Returns LinkedList with ready processes pid's
-		return iterator(readyQueue);
+		return iterator(readyQueues[cpu]);
 	}
 
-    private Iterator<Integer> iterator(PriorityQueue<Process> queue) {
+    private Iterator<Integer> iterator(ProcessQueue queue) {
 		// Returns ordered iterator from queue 
 		LinkedList<Integer> queueInteger = new LinkedList<Integer>();
 		
-		// Can't rely on Iterators from PriorityQueue 
-		Object[] pq = queue.toArray();   
-		Arrays.sort(pq);
-		for(int i=0;i<pq.length;i++) queueInteger.add(new Integer(((Process) pq[i]).getPid()));
+		Iterator<Process> it = queue.orderedIterator();
+		while (it.hasNext()) queueInteger.add(new Integer(it.next().getPid()));
 		
 		return queueInteger.iterator();
 	}
     
 	private Process getByPID(int pid) {
 		// Returns process's PID which processes is running queued and PID = pid or null if not exists
-		Iterator<Process> it = readyQueue.iterator();
-		Iterator<Process> ita = arrivingQueue.iterator();
-		Iterator<Process> itio = ioQueue.iterator();
-		Process p;
-		
-		if (getPIDrunning() == pid) return runningProcess; 
+		if (pid < 0) return null;
+		if (pid >= index.length) return pid >= INDEX_LIMIT ? overflow.get(pid) : null;
+		return index[pid];
+	}
+
+	private void index(Process p) {
+		// Index process by pid, index grows to fit pid up to INDEX_LIMIT, greater pids are hashed so 
+		// index memory is bounded by processes not already finished. Process row moves into shared rows,
+		// a process replaced by an updated one keeps its own row
+		int pid = p.getPid();
+		Process replaced = getByPID(pid);
+		if (replaced != null && replaced != p) rows.detach(replaced);
+		if (pid >= INDEX_LIMIT) overflow.put(pid, p);
 		else {
-			while (it.hasNext()) {
-				p = it.next();
-				if (p.getPid() == pid) return p;
-			}
-			while (ita.hasNext()) {
-				p = ita.next();
-				if (p.getPid() == pid) return p;
-			}
-			while (itio.hasNext()) {
-				p = itio.next();
-				if (p.getPid() == pid) return p;
-			}
+			if (pid >= index.length) index = Arrays.copyOf(index, Math.min(INDEX_LIMIT, Math.max(pid + 1, 2 * index.length)));
+			index[pid] = p;
+		}
+		rows.attach(p);
+	}
+
+	private void unindex(Process p) {
+		// Removes process from index only if it is still indexed (may be replaced by an updated one)
+		if (getByPID(p.getPid()) == p) {
+			if (p.getPid() >= INDEX_LIMIT) overflow.remove(p.getPid());
+			else index[p.getPid()] = null;
+			rows.detach(p);
+		}
+	}
+
+	private void reindex() {
+		// Rebuilds index from running process and queues, processes no longer indexed keep their own row
+		for (int pid = 0; pid < index.length; pid++) if (index[pid] != null) rows.detach(index[pid]);
+		for (Process p : overflow.values()) rows.detach(p);
+		Arrays.fill(index, null);
+		overflow.clear();
+		Iterator<Process> it;
+		for (int c = 0; c < cpus; c++) {
+			if (running[c] != null) index(running[c]);
+			it = readyQueues[c].iterator();
+			while (it.hasNext()) index(it.next());
+		}
+		it = arrivingQueue.iterator();
+		while (it.hasNext()) index(it.next());
+		for (IODevice d : devices) {
+			it = d.iterator();
+			while (it.hasNext()) index(it.next());
 		}
-		return null;
+		it = releaseWheel.iterator();
+		while (it.hasNext()) index(it.next());
 	}
 
 	/**
@@ -236,7 +623,7 @@ public class ContextProcess {
 	 * @return	process cpu burst cycle moment is cpu 
 	 */
 	public boolean isCPUBurst(int pid, int i) {
-		return getByPID(pid).getBurstsCycle().get(i) == 0;
+		return getByPID(pid).isCPUBurst(i);
 	}
 	
 	/**
@@ -246,7 +633,7 @@ public class ContextProcess {
 	 * @return	process size
 	 */
 	public int getSize(int pid) {
-		return getByPID(pid).getBurstsCycle().size();
+		return getByPID(pid).getBurstsSize();
 	}
 
 	/**
@@ -343,30 +730,37 @@ public class ContextProcess {
 		Vector<Object> header = new Vector<Object>();
 		header.add(Translation.getInstance().getLabel("pr_30")); // PID
 		header.add(Translation.getInstance().getLabel("pr_31")); // Name
+		header.add(Translation.getInstance().getLabel("pr_104")); // Device
 		header.add(Translation.getInstance().getLabel("pr_09")); // Time left
 		return header;
 	}
 	
 	/**
-	 * Returns blocked processes doing i/o operations table data order by time left: PID, name and time left to end IO burst
+	 * Returns blocked processes doing i/o operations table data, per device in service order: PID, name, device and 
+	 * time left to end IO burst. Time left of requests still waiting for the device is its service time, in brackets
 	 * 
+	 * @param time	current simulation time
 	 * @return	blocked processes doing i/o operations table data
 	 */
-	public Vector<Vector<Object>> getIOInfoData() {
+	public Vector<Vector<Object>> getIOInfoData(int time) {
 		// Arriving processes information data 
 		Vector<Vector<Object>> data = new Vector<Vector<Object>>();
 		Vector<Object> row = null;
-		int pid = 0;
 
-		// Arriving queue
-		Iterator<Integer> it = iterator(ioQueue);
-		while (it.hasNext()) {
-			pid = it.next().intValue();
-			row = new Vector<Object>();
-			row.add(new ColorCell(new Integer(pid).toString(),getByPID(pid).getColor()));
-			row.add(new ColorCell(getByPID(pid).getName(), Color.WHITE));
-			row.add(new ColorCell(new Integer(getByPID(pid).getCurrentBurstDuration()).toString(), Color.WHITE));
-			data.add(row);
+		// Device queues
+		for (IODevice d : devices) {
+			Iterator<Process> it = d.orderedIterator();
+			while (it.hasNext()) {
+				Process p = it.next();
+				row = new Vector<Object>();
+				row.add(new ColorCell(new Integer(p.getPid()).toString(), p.getColor()));
+				row.add(new ColorCell(p.getName(), Color.WHITE));
+				row.add(new ColorCell(d.getName(), Color.WHITE));
+				int left = d.getTimeLeft(p, time);
+				if (left >= 0) row.add(new ColorCell(new Integer(left).toString(), Color.WHITE));
+				else row.add(new ColorCell("(" + (p.getTimeToBurstEnd() + d.getRate() - 1) / d.getRate() + ")", Color.WHITE));
+				data.add(row);
+			}
 		}
 		
 		if (data.size() == 0) return null;
@@ -385,7 +779,7 @@ public class ContextProcess {
 	
 	/**
 	 * Returns all processes information table data in an appropriate order: 
-	 * finished, process in the cpu, ready queue, blocked doing io operations and arriving processes.       
+	 * finished, process in the cpu, ready queue, blocked doing io operations, waiting next job release and arriving processes.       
 	 * 
 	 * @param time			current simulation time
 	 * 
@@ -407,24 +801,36 @@ public class ContextProcess {
 		}
 
 		// Running 
-		if (runningProcess != null) {
-			row = runningProcess.getProcessTableInfo(time);
-			data.add(row);
+		for (int c = 0; c < cpus; c++) {
+			if (running[c] != null) {
+				row = running[c].getProcessTableInfo(time);
+				data.add(row);
+			}
 		}
 		
 		// Ready queue
-		Iterator<Integer> itr = iteratorReady();
-		while (itr.hasNext()) {
-			pid = itr.next().intValue();
-			row = getByPID(pid).getProcessTableInfo(time);
-			data.add(row);
+		for (int c = 0; c < cpus; c++) {
+			Iterator<Integer> itr = iteratorReady(c);
+			while (itr.hasNext()) {
+				pid = itr.next().intValue();
+				row = getByPID(pid).getProcessTableInfo(time);
+				data.add(row);
+			}
 		}
 		
-		// IO queue
-		Iterator<Integer> itio = iterator(ioQueue);
-		while (itio.hasNext()) {
-			pid = itio.next().intValue();
-			row = getByPID(pid).getProcessTableInfo(time);
+		// IO devices
+		for (IODevice d : devices) {
+			it = d.orderedIterator();
+			while (it.hasNext()) {
+				row = it.next().getProcessTableInfo(time);
+				data.add(row);
+			}
+		}
+		
+		// Waiting next job release
+		it = releaseWheel.iterator();
+		while (it.hasNext()) {
+			row = it.next().getProcessTableInfo(time);
 			data.add(row);
 		}
 		
@@ -442,7 +848,9 @@ public class ContextProcess {
 	
 	/**
 	 * Returns statistical processes scheduling information:
-	 * Efficiency, Throughput, average Turnaround time, average Waiting time and average Response Time
+	 * Efficiency (and time lost to context switches), Throughput, average Turnaround time, average Waiting time, average Response Time,
+	 * Turnaround and Response time percentiles (50, 95 and 99), Turnaround time range,   
+	 * lateness percentiles, ready time, I/O devices utilisation and queueing delay, cpu share per group and gang matrix 
 	 * 	
 	 * @return statistical processes scheduling information
 	 */
@@ -453,7 +861,7 @@ public class ContextProcess {
 		
 		// Efficiency: # temps ocupat / (temps ocupat + temps ociòs)
 		row = new Vector<String>();
-		row.add("pr_68");
+		row.add("pr_116");
 		row.add("--");
 		stats.add(row);
 
@@ -481,12 +889,101 @@ public class ContextProcess {
 		row.add("--");
 		stats.add(row);
 
+		// Turnaround time percentiles: p50 / p95 / p99
+		row = new Vector<String>();
+		row.add("pr_75");
+		row.add("--");
+		stats.add(row);
+
+		// Response time percentiles: p50 / p95 / p99
+		row = new Vector<String>();
+		row.add("pr_76");
+		row.add("--");
+		stats.add(row);
+
+		// Turnaround time range: min / max
+		row = new Vector<String>();
+		row.add("pr_77");
+		row.add("--");
+		stats.add(row);
+
+		// Efficiency along last time units
+		row = new Vector<String>();
+		row.add("pr_78");
+		row.add("--");
+		stats.add(row);
+
+		// Throughput along last time units
+		row = new Vector<String>();
+		row.add("pr_79");
+		row.add("--");
+		stats.add(row);
+
+		// Efficiency per cpu
+		row = new Vector<String>();
+		row.add("pr_80");
+		row.add("--");
+		stats.add(row);
+
+		// Fairness: Jain index of finished processes % CPU
+		row = new Vector<String>();
+		row.add("pr_85");
+		row.add("--");
+		stats.add(row);
+
+		// Deadline miss ratio: periodic jobs ended after their deadline / periodic jobs ended
+		row = new Vector<String>();
+		row.add("pr_90");
+		row.add("--");
+		stats.add(row);
+
+		// Lateness: p50 / p95 / p99 / max
+		row = new Vector<String>();
+		row.add("pr_91");
+		row.add("--");
+		stats.add(row);
+
+		// Ready time (starvation): p99 / max of ended ready queue stays / longest stay in progress
+		row = new Vector<String>();
+		row.add("pr_102");
+		row.add("--");
+		stats.add(row);
+
+		// I/O utilisation per device
+		row = new Vector<String>();
+		row.add("pr_105");
+		row.add("--");
+		stats.add(row);
+
+		// I/O queueing delay per device: avg / p99
+		row = new Vector<String>();
+		row.add("pr_106");
+		row.add("--");
+		stats.add(row);
+
+		// Cpu share per proportional share group
+		row = new Vector<String>();
+		row.add("pr_109");
+		row.add("--");
+		stats.add(row);
+
+		// Gang matrix: rows in use, fragmentation, co-scheduled and alternate cpu time
+		row = new Vector<String>();
+		row.add("pr_121");
+		row.add("--");
+		stats.add(row);
+
 		return stats;
 	}
 	
 	/**
 	 * Returns statistical processes scheduling information at a concrete simulation time:
-	 * Throughput, average Turnaround time, average Waiting time and average Response Time
+	 * Efficiency (and time lost to context switches), Throughput, average Turnaround time, average Waiting time, average Response Time,
+	 * Turnaround and Response time percentiles (50, 95 and 99), Turnaround time range,   
+	 * cpu utilisation and throughput along last time units, efficiency per cpu, fairness, deadline miss ratio, lateness 
+	 * percentiles, ready time (p99 and max ready queue stay, longest stay in progress), I/O devices utilisation and 
+	 * queueing delay, cpu share per proportional share group and gang matrix (rows in use, fragmentation, co-scheduled 
+	 * and alternate cpu time). Values are kept by running aggregates updated once per finished process or job, so its cost is constant  
 	 * 	
 	 * @param time			current simulation time
 	 *  
@@ -497,63 +994,173 @@ public class ContextProcess {
 		Vector<String> values = new Vector<String>();
 		NumberFormat formatter = new DecimalFormat("#0.00");
 
-		// Efficiency: # temps ocupat / (temps ocupat + temps ociòs)
+		// Efficiency: # temps ocupat / (temps ocupat + temps ociòs), and time lost to context switches
 		if (time == 0) values.add("--");
-		else values.add(formatter.format((double) (time - idle)/ (double) time));		
+		else {
+			int idletotal = 0, losttotal = 0;
+			for (int c = 0; c < cpus; c++) {
+				idletotal += idle[c];
+				losttotal += lost[c];
+			}
+			String efficiency = formatter.format((double) (time * cpus - idletotal - losttotal)/ (double) (time * cpus));
+			if (hasSwitchCosts() || losttotal > 0) efficiency += " (" + formatter.format((double) losttotal / (double) (time * cpus)) + ")";
+			values.add(efficiency);
+		}
 
 		// Throughput: # process / unit of time
 		if (time == 0) values.add("--");
-		else values.add(formatter.format((double) doneQueue.size()/ (double) time));		
+		else values.add(formatter.format((double) stats.getFinished()/ (double) time));		
 		
 		// Avg Turnaround time: Avg Interval from the time of submission (incoming) to the time of completion. 
 		if (time == 0) values.add("--");
-		else values.add(formatter.format(avgTurnaroundTime()));
+		else values.add(formatter.format(stats.getTurnaround().getAverage()));
 		
 		// Avg Waiting time: Avg Amount of time that a process spends waiting in the ready queue
 		if (time == 0) values.add("--");
-		else values.add(formatter.format(avgWaitingTime()));
+		else values.add(formatter.format(stats.getWaiting().getAverage()));
 		
 		// Avg Response Time: Avg Interval from the time of submission (incoming) until the first response is produced
 		if (time == 0) values.add("--");
-		else values.add(formatter.format(avgResponseTime()));
+		else values.add(formatter.format(stats.getResponse().getAverage()));
+
+		// Turnaround and Response time percentiles
+		if (time == 0 || stats.getFinished() == 0) {
+			values.add("--");
+			values.add("--");
+			values.add("--");
+		} else {
+			values.add(percentiles(stats.getTurnaround()));
+			values.add(percentiles(stats.getResponse()));
+			values.add(stats.getTurnaround().getMin() + " / " + stats.getTurnaround().getMax());
+		}
+
+		// Efficiency and Throughput along last time units
+		if (time == 0) {
+			values.add("--");
+			values.add("--");
+		} else {
+			values.add(formatter.format(stats.getWindowUtilisation()));
+			values.add(formatter.format(stats.getWindowThroughput()));
+		}
+
+		// Efficiency per cpu
+		if (time == 0) values.add("--");
+		else {
+			String efficiency = formatter.format(getUtilisation(0, time));
+			for (int c = 1; c < cpus; c++) efficiency += " / " + formatter.format(getUtilisation(c, time));
+			values.add(efficiency);
+		}
+
+		// Fairness
+		if (time == 0 || stats.getFinished() == 0) values.add("--");
+		else values.add(formatter.format(stats.getFairness()));
+
+		// Deadline miss ratio and lateness
+		if (time == 0 || stats.getJobs() == 0) {
+			values.add("--");
+			values.add("--");
+		} else {
+			values.add(formatter.format(stats.getDeadlineMissRatio()));
+			values.add(percentiles(stats.getLateness()) + " / " + stats.getLateness().getMax());
+		}
+
+		// Ready time, stays still in progress are looked up in ready queues
+		if (time == 0) values.add("--");
+		else {
+			Histogram ready = stats.getReady();
+			String ended = ready.getCount() == 0 ? "-- / --" : ready.getPercentile(0.99) + " / " + ready.getMax();
+			values.add(ended + " / " + getLongestReady(time));
+		}
+
+		// I/O utilisation and queueing delay per device
+		if (time == 0) {
+			values.add("--");
+			values.add("--");
+		} else {
+			String utilisation = "", delay = "";
+			for (IODevice d : devices) {
+				if (utilisation.length() > 0) {
+					utilisation += " / ";
+					delay += " ; ";
+				}
+				utilisation += formatter.format(d.getUtilisation(time));
+				delay += formatter.format(d.getDelay().getAverage()) + " / " + d.getDelay().getPercentile(0.99);
+			}
+			values.add(utilisation);
+			values.add(delay);
+		}
+
+		// Cpu share per group, meaningful with several groups
+		if (time == 0 || stats.getGroups() < 2) values.add("--");
+		else {
+			String shares = formatter.format(stats.getShare(0));
+			for (int g = 1; g < stats.getGroups(); g++) shares += " / " + formatter.format(stats.getShare(g));
+			values.add(shares);
+		}
+
+		// Gang matrix, gang scheduling only
+		if (time == 0 || !(algorithm instanceof ProcessStrategyGang)) values.add("--");
+		else {
+			GangMatrix matrix = ((ProcessStrategyGang) algorithm).getMatrix();
+			values.add(matrix.getRows() + " / " + formatter.format(matrix.getFragmentation()) + " / " 
+					+ formatter.format((double) matrix.getTogether() / (double) (time * cpus)) + " / " 
+					+ formatter.format((double) matrix.getAlternate() / (double) (time * cpus)));
+		}
 
 		return values;
 	}
-	
-	private double avgTurnaroundTime() {
-		if (doneQueue.size() == 0) return 0;
-		Iterator<Process> it = doneQueue.iterator();
-		Process p;
-		double turnaround = 0;
-		while (it.hasNext()) {
-			p = it.next();
-			turnaround += p.getTimecompletion() - p.getTimesubmission();
-		}
-		return turnaround/(double) doneQueue.size();
+
+	/**
+	 * Gets a cpu utilisation (efficiency) since time 0, time lost to context switches is not useful
+	 * 
+	 * @param cpu	cpu number
+	 * @param time	current simulation time
+	 * @return	cpu useful time / time, between 0 and 1
+	 */
+	public double getUtilisation(int cpu, int time) {
+		if (time == 0) return 0;
+		return (double) (time - idle[cpu] - lost[cpu]) / (double) time;
 	}
-	
-	private double avgWaitingTime() {
-		if (doneQueue.size() == 0) return 0;
-		Iterator<Process> it = doneQueue.iterator();
-		Process p;
-		double waiting = 0;
-		while (it.hasNext()) {
-			p = it.next();
-			waiting += p.getWaiting();
+
+	/**
+	 * Gets longest stay in progress among ready processes, time waited by the most starving one. Ready queues are 
+	 * scanned, so it is meant for statistics display and not per time unit 
+	 * 
+	 * @param time	current simulation time
+	 * @return	time units in ready queue, 0 if there is no ready process
+	 */
+	public int getLongestReady(int time) {
+		int longest = 0;
+		for (int c = 0; c < cpus; c++) {
+			Iterator<Process> it = readyQueues[c].iterator();
+			while (it.hasNext()) {
+				Process p = it.next();
+				if (p.getReadySince() >= 0) longest = Math.max(longest, time - p.getReadySince());
+			}
 		}
-		return waiting/(double) doneQueue.size();
+		return longest;
 	}
-	
-	private double avgResponseTime() {
-		if (doneQueue.size() == 0) return 0;
-		Iterator<Process> it = doneQueue.iterator();
-		Process p;
-		double response = 0;
-		while (it.hasNext()) {
-			p = it.next();
-			response += p.getTimeresponse();
-		}
-		return response/(double) doneQueue.size();
+
+	private String percentiles(Histogram h) {
+		return h.getPercentile(0.50) + " / " + h.getPercentile(0.95) + " / " + h.getPercentile(0.99);
+	}
+
+	/**
+	 * Gets running aggregates of scheduling statistics
+	 * 
+	 * @return	scheduling statistics
+	 */
+	public ProcessStatistics getStatistics() {
+		return stats;
+	}
+
+	/**
+	 * Gets Gantt chart history, running process spans per cpu since initial state
+	 * 
+	 * @return	Gantt chart history
+	 */
+	public GanttRecorder getHistory() {
+		return history;
 	}
 
 	/**
@@ -565,9 +1172,11 @@ public class ContextProcess {
 	 */
 	public Vector<Vector<Vector<String>>> getXMLDataReady() {
 		Vector<Vector<Vector<String>>> data = new Vector<Vector<Vector<String>>>();
-		Iterator<Process> it = readyQueue.iterator();
-		while (it.hasNext()) {
-			data.add(it.next().getProcessXMLInfo());
+		for (int c = 0; c < cpus; c++) {
+			Iterator<Process> it = readyQueues[c].iterator();
+			while (it.hasNext()) {
+				data.add(it.next().getProcessXMLInfo());
+			}
 		}
 		return data;
 	}
@@ -595,7 +1204,8 @@ public class ContextProcess {
 	/**
 	 * Adds a new process to an appropriate queue depending on time, that process becomes current selected process   
 	 *  
-	 * @param data	process data: pid, name, priority, submission time, periodic, burst cycle and color
+	 * @param data	process data: pid, name, priority, submission time, periodic, color, burst cycle and 
+	 * 				optionally period and relative deadline
 	 * @param time	simulation time
 	 */
     @SuppressWarnings("unchecked")
@@ -603,29 +1213,35 @@ public class ContextProcess {
     	// Add process p to its queue depending on actual time and initial process time
     	// Common behavior
     	Process p = new Process(new Integer((String) data.get(0)).intValue(), (String) data.get(1), (Integer) data.get(2), (Integer) data.get(3), (Boolean) data.get(4), (Vector<Integer>) data.get(6), (Color) data.get(5));
+    	if (data.size() > 8) p.setPeriod((Integer) data.get(7), (Integer) data.get(8));
 
+    	setQueuesTime(time);
     	if (p.getTimesubmission() > time) {
     		// At arriving Queue init time determines order
     		p.setOrder(p.getTimesubmission());
     		arrivingQueue.add(p);
     	} else {
     	// Specific behavior
-    		algorithm.addProcess(p, readyQueue);
+    		enqueue(p);
     	}
+    	index(p);
     	selectedProcess = p;
     }
     
     /**
 	 * Updates an existing process    
 	 *  
-	 * @param data	process data: pid, name, priority, submission time, periodic, burst cycle and color
+	 * @param data	process data: pid, name, priority, submission time, periodic, burst cycle, color and 
+	 * 				optionally period and relative deadline
 	 * @param time	simulation time
 	 */
     @SuppressWarnings("unchecked")
 	public void updProcess(Vector<Object> data, int time) {
     	// Common behavior
     	Process p = new Process(new Integer((String) data.get(0)).intValue(), (String) data.get(1), (Integer) data.get(2), (Integer) data.get(3), (Boolean) data.get(4), (Vector<Integer>) data.get(6), (Color) data.get(5));
+    	if (data.size() > 8) p.setPeriod((Integer) data.get(7), (Integer) data.get(8));
     	
+    	setQueuesTime(time);
     	removeProcess();
     	if (p.getTimesubmission() > time) {
     		// At arriving Queue init time determines order
@@ -633,9 +1249,13 @@ public class ContextProcess {
     		arrivingQueue.add(p);
     	} else {
     	// Specific behavior. Upd a process from arriving queue or a process at ready queue
-    		if (selectedProcess.getTimesubmission() > time)  algorithm.addProcess(p, readyQueue);
-    		else algorithm.updProcess(selectedProcess, p, readyQueue);
+    		if (selectedProcess.getTimesubmission() > time) enqueue(p);
+    		else {
+    			p.setProcessor(selectedProcess.getProcessor());
+    			algorithm.updProcess(selectedProcess, p, readyQueues[p.getProcessor()]);
+    		}
     	}
+    	index(p);
     	selectedProcess = p;
     }
 
@@ -646,8 +1266,9 @@ public class ContextProcess {
      */
     public void removeProcess() {
     	// Removes process p from its queue
-    	if (readyQueue.contains(selectedProcess)) readyQueue.remove(selectedProcess);
-    	else arrivingQueue.remove(selectedProcess); 
+    	if (!readyQueues[selectedProcess.getProcessor()].remove(selectedProcess)) arrivingQueue.remove(selectedProcess); 
+    	else algorithm.delProcess(selectedProcess, readyQueues[selectedProcess.getProcessor()]);
+    	unindex(selectedProcess);
     }
 	
     /**
@@ -669,11 +1290,11 @@ public class ContextProcess {
 	}
     
     /**
-     * Forwards simulation time 1 unit. Common tasks such as initial (time 0) state back up, increment all processes 
-     * waiting time in the ready queue, look at arriving queue to move processes to the ready queue and 
-     * move finished processes to the finished queue are implemented here, algorithm concrete tasks such as 
-     * execute running process 1 time unit are implemented into concrete strategies.  Returns true when simulation ends 
-     * (no more processes in any queue)
+     * Forwards simulation time 1 unit on every cpu. Common tasks such as initial (time 0) state back up, look at arriving queue 
+     * to move processes to the ready queue and move finished processes to the finished queue are implemented here, 
+     * algorithm concrete tasks such as execute running process 1 time unit are implemented into concrete strategies. 
+     * Waiting time is accounted by the ready queue when processes leave it, not per time unit. 
+     * Returns true when simulation ends (no more processes in any queue)
      * 
      * @param time			current simulation time
      * @param multiprogram  scheduling is multiprogramming 
@@ -686,87 +1307,303 @@ public class ContextProcess {
      */
     public boolean forwardTime(int time, boolean multiprogram, boolean preemptive, int quantum) {
     	// Common behavior
+    	setQueuesTime(time);
     	if (time == 0) {
-    		if (runningProcess == null) { // avoid pause before 0 seconds
-    			if (readyQueue.isEmpty() && arrivingQueue.isEmpty()) return true;    			
+    		if (isIdle()) { // avoid pause before 0 seconds
+    			if (isEmpty()) return true;    			
     			backup(); // backup to restore initial state
-    			runningProcess = readyQueue.poll();
+    			started = true;
+    			queueSource(time);
+    			notifyTime(time);
+    			for (int c = 0; c < cpus; c++) {
+    				running[c] = dispatch(c);
+    				history.record(time, c, running[c], GanttRecorder.PREEMPTED);
+    			}
     		}
     	} else {
-			incrementWaiting(); // Increments waiting time at ready queue
+    		addTime(1);
 			queueArriving(time); // Add arriving processes to ready queue
-    		// Increments running process runtime and prepares next  
-    		if (runningProcess == null) {
-    			idle++;
-    			if (readyQueue.isEmpty() && arrivingQueue.isEmpty() && ioQueue.isEmpty()) return true;
-    			
-    			checkIO(multiprogram);	// move back IO blocked process to ready queue. 
-    			
-    			// Multiprogramming always try to get next ready while io operations, 
-    			// monoprogramming continues until io finish.
-    			if (multiprogram || (ioQueue.isEmpty() && runningProcess == null))  runningProcess = readyQueue.poll();
+			queueReleased(time); // Add periodic processes whose next job is released
+			notifyTime(time);
+			for (int c = 0; c < cpus; c++) {
+				busy[c] = running[c] != null;
+				if (!busy[c]) idle[c]++;
+			}
+			if (isIdle() && isEmpty()) return true;
+			if (cpus > 1 && balanceInterval > 0 && time % balanceInterval == 0) balance();
+			
+			checkIO(time, multiprogram);	// Increments IO times, move back IO blocked process to ready queue.
+			
+    		// Increments running processes runtime and prepares next  
+			for (int c = 0; c < cpus; c++) {
+				if (!busy[c]) {
+	    			// Multiprogramming always try to get next ready while io operations, 
+	    			// monoprogramming continues until io finish.
+	    			if (multiprogram || (blocked[c] == 0 && running[c] == null)) {
+	    				running[c] = dispatch(c);
+	    				history.record(time, c, running[c], GanttRecorder.PREEMPTED);
+	    			}
+				} else if (execute(c, time, multiprogram)) return true;
+			}
+    	}
+    	for (int c = 0; c < cpus; c++) {
+    		Process p = running[c];
+    		if (p != null && p.getTimeresponse() < 0) p.setTimeresponse(time - p.getTimesubmission()); // Only first response. A process may be preempted before
+    	}
+    	switchContexts(time);
+    	if (started && interval > 0 && (snapshots.isEmpty() || time >= snapshots.get(snapshots.size() - 1).time + interval)) takeSnapshot(time);
+    	return false;
+    }
+
+    private void switchContexts(int time) {
+    	// Running processes changed along current time unit: leaving ones keep their cache on their cpu, 
+    	// entering ones stall their cpu
+    	for (int c = 0; c < cpus; c++) {
+    		if (last[c] != running[c] && last[c] != null) last[c].leaveCpu(time, c);
+    	}
+    	for (int c = 0; c < cpus; c++) {
+    		if (last[c] == running[c]) continue;
+    		last[c] = running[c];
+    		if (running[c] != null) stall[c] = switchCost + getCacheMiss(running[c], c, time);
+    	}
+    }
+
+    private int getCacheMiss(Process p, int c, int time) {
+    	// Cache refill time units, cache warmth halves every half life off cpu
+    	if (cachePenalty == 0) return 0;
+    	if (p.getOffSince() < 0 || p.getCacheCpu() != c || cacheHalfLife == 0) return cachePenalty;
+    	double warmth = Math.pow(0.5, (double) (time - p.getOffSince()) / cacheHalfLife);
+    	return (int) Math.round(cachePenalty * (1 - warmth));
+    }
+
+    private boolean execute(int c, int time, boolean multiprogram) {
+    	// Executes cpu c running process 1 time unit and prepares next, returns true when simulation ends
+    	if (stall[c] > 0) {
+    		// Context switch in progress, process does not progress
+    		stall[c]--;
+    		lost[c]++;
+    		return false;
+    	}
+    	Process p = running[c];
+    	p.incCPU();
+    	p.incCurrent();
+    	stats.addShare(p.getGroup(), 1);
+
+    	if (!p.isPeriodic() && p.getCurrent() >= p.getBurstsSize()) {
+    		p.setTimecompletion(time);
+    		if (keepFinished) doneQueue.add(p); // Finished, get next
+    		stats.addProcess(p);
+    		unindex(p);
+    		algorithm.delProcess(p, readyQueues[c]);
+    		running[c] = null;
+    		history.record(time, c, null, GanttRecorder.FINISHED);
+    		if (isIdle() && isEmpty()) return true;
+    		running[c] = dispatch(c);
+    		history.record(time, c, running[c], GanttRecorder.FINISHED);
+    	} else if (p.isPeriodic() && p.getCurrentBurst() == 0 && endJob(p, time)) {
+    		// Job ended before next job release
+    		running[c] = dispatch(c);
+    		history.record(time, c, running[c], GanttRecorder.JOB_END);
+    	} else {
+    		// Check to move running process to IO
+    		if (p.isCurrentIO()) {
+    			p.setQexecuted(0);
+    			block(p, time);
+    			if (multiprogram) running[c] = dispatch(c);
+    			else running[c] = null;
+    			history.record(time, c, running[c], GanttRecorder.BLOCKED);
     		} else {
-    			checkIO(true);	// Increments IO times. 
-    			runningProcess.incCPU();
-    			runningProcess.incCurrent();
-				    			
- 				if (!runningProcess.isPeriodic() && runningProcess.getCurrent() >= runningProcess.getBurstsCycle().size()) {
-					runningProcess.setTimecompletion(time);
-					doneQueue.add(runningProcess); // Finished, get next
-					if (readyQueue.isEmpty() && arrivingQueue.isEmpty() && ioQueue.isEmpty()) {
-						runningProcess = null;
-						return true;
-					}
-					Process next = readyQueue.poll(); 
- 					runningProcess = next;
-				} else {
-					// Check to move running process to IO
-					if (runningProcess.isCurrentIO()) {
-						runningProcess.setOrder(runningProcess.getCurrentBurstDuration());
-						runningProcess.setQexecuted(0);
-						ioQueue.add(runningProcess);
-				   		if (multiprogram) runningProcess = readyQueue.poll();
-				   		else runningProcess = null;
-					} else {
-						// Specific behavior
-						runningProcess = algorithm.forwardTime(readyQueue, runningProcess);
-					}
-				}
+    			// Specific behavior
+    			running[c] = algorithm.forwardTime(readyQueues[c], p);
+    			history.record(time, c, running[c], GanttRecorder.PREEMPTED);
     		}
     	}
-		if (runningProcess != null && runningProcess.getTimeresponse() < 0) runningProcess.setTimeresponse(time - runningProcess.getTimesubmission()); // Only first response. A process may be preempted before
     	return false;
     }
 
-	private void incrementWaiting() {
-		// Increments waiting time at ready queue
-		Iterator<Process> it = readyQueue.iterator();
-		while (it.hasNext()) {
-			Process p = it.next();
-			p.incWaiting();
+    /**
+     * Returns time units from current simulation time to next time that may change scheduling state:
+     * next process submission, I/O burst completion, running process burst end, periodic job end or release, an algorithm decision
+     * (quantum expiration, preemption, algorithm update) or load balancing. Time units before that one can be skipped through skipTime
+     *
+     * @param time			current simulation time
+     * @param multiprogram  scheduling is multiprogramming
+     *
+     * @return time units to next event, at least 1
+     *
+     * @see #skipTime(int)
+     */
+    public int getTimeToNextEvent(int time, boolean multiprogram) {
+    	int next = Integer.MAX_VALUE;
+
+    	if (!arrivingQueue.isEmpty()) next = arrivingQueue.peek().getTimesubmission() - time;
+    	if (source != null && source.hasNext()) next = Math.min(next, source.peekSubmission() - time);
+
+    	if (!releaseWheel.isEmpty()) next = Math.min(next, releaseWheel.getNextRelease() - time);
+
+    	for (IODevice d : devices) next = Math.min(next, d.getTimeToCompletion(time));
+
+    	for (int c = 0; c < cpus; c++) {
+    		if (running[c] != null) {
+    			// Running process progresses after its context switch stall. Algorithm events assume it progresses
+    			// while ready processes age (aging deadlines are absolute), so they are looked at once stall is over
+    			next = Math.min(next, stall[c] + running[c].getTimeToBurstEnd());
+    			if (stall[c] > 0) next = Math.min(next, stall[c] + 1);
+    			else next = Math.min(next, algorithm.getTimeToEvent(readyQueues[c], running[c]));
+    		} else if (multiprogram || blocked[c] == 0) {
+    			// Idle cpu dispatches (or steals) a ready process next time unit
+    			if (!readyQueues[c].isEmpty() || (stealing && longest() >= 0)) next = 1;
+    		}
+    	}
+    	if (isIdle() && isEmpty()) next = 1; // Simulation ends
+    	if (cpus > 1 && balanceInterval > 0) next = Math.min(next, balanceInterval - time % balanceInterval);
+    	next = Math.min(next, algorithm.getTimeToUpdate(time));
+
+    	return Math.max(1, next);
+    }
+
+    /**
+     * Forwards simulation several time units where no event happens, as forwardTime would do one
+     * time unit at a time: running processes execute, I/O operations progress (nothing to do until they complete) 
+     * and ready processes wait
+     *
+     * @param time	time units to skip, less than getTimeToNextEvent
+     *
+     * @see #getTimeToNextEvent(int, boolean)
+     */
+    public void skipTime(int time) {
+    	setQueuesTime(readyQueues[0].getTime() + time); // Ready processes keep waiting
+
+		addTime(time);
+		for (int c = 0; c < cpus; c++) {
+			if (running[c] != null) {
+				// Context switch stall first, then progress
+				int stalled = Math.min(stall[c], time);
+				stall[c] -= stalled;
+				lost[c] += stalled;
+				int units = time - stalled;
+				if (units == 0) continue;
+				running[c].addCPU(units);
+				running[c].addCurrent(units);
+				stats.addShare(running[c].getGroup(), units);
+				algorithm.skipTime(readyQueues[c], running[c], units);
+			} else {
+				idle[c] += time;
+			}
 		}
+    }
+
+	private void setQueuesTime(int time) {
+		for (int c = 0; c < cpus; c++) readyQueues[c].setTime(time);
 	}
-	
-	private void checkIO(boolean multiprogram) {
-		// Increments process current burst moment, and checks to move back IO blocked process to ready queue or
-		// running is monoprogramming
-		List<Process> pending = new LinkedList<Process>();
-		
-		Iterator<Process> it = ioQueue.iterator();
-		while (it.hasNext()) {
-			Process p = it.next();
-			p.incCurrent();
-			if (!p.isCurrentIO()) pending.add(p);
-			else p.setOrder(p.getCurrentBurstDuration());
+
+	private void notifyTime(int time) {
+		// Algorithm time dependent tasks on every cpu
+		for (int c = 0; c < cpus; c++) algorithm.setTime(time, readyQueues[c], running[c]);
+	}
+
+	private void enqueue(Process p) {
+		// Adds a new ready process to least loaded cpu ready queue (ready and running processes)
+		int cpu = 0;
+		int load = Integer.MAX_VALUE;
+		for (int c = 0; c < cpus; c++) {
+			int l = readyQueues[c].size() + (running[c] != null ? 1 : 0);
+			if (l < load) {
+				cpu = c;
+				load = l;
+			}
 		}
+		p.setProcessor(cpu);
+		algorithm.addProcess(p, readyQueues[cpu]);
+	}
 
-		it = pending.iterator();
+	private Process dispatch(int c) {
+		// Next process to run on cpu c, its ready queue head or longest ready queue head when stealing
+		Process p = readyQueues[c].poll();
+		if (p == null && stealing) {
+			int victim = longest();
+			if (victim >= 0) p = readyQueues[victim].poll();
+		}
+		if (p != null) p.setProcessor(c);
+		return p;
+	}
+
+	private int longest() {
+		// Longest ready queue cpu or -1 if every ready queue is empty
+		int cpu = -1;
+		int size = 0;
+		for (int c = 0; c < cpus; c++) {
+			if (readyQueues[c].size() > size) {
+				cpu = c;
+				size = readyQueues[c].size();
+			}
+		}
+		return cpu;
+	}
+
+	private void balance() {
+		// Periodic push, moves processes from longest to shortest ready queue until lengths differ 1 at most.
+		// Moved processes are taken from heap's last position, among the last ones to run
+		while (true) {
+			int src = longest();
+			if (src < 0) return;
+			int dst = 0;
+			for (int c = 1; c < cpus; c++) {
+				if (readyQueues[c].size() < readyQueues[dst].size()) dst = c;
+			}
+			if (readyQueues[src].size() - readyQueues[dst].size() <= 1) return;
+			Process p = readyQueues[src].peekLast();
+			readyQueues[src].detach(p); // Keeps waiting and aging since it entered source queue
+			p.setProcessor(dst);
+			algorithm.addProcess(p, readyQueues[dst]);
+			if (readyQueues[src].contains(p)) return; // Processes bound to their cpu queue (gang scheduling)
+		}
+	}
+
+	private void checkIO(int time, boolean multiprogram) {
+		// Completes I/O requests ending now, moves their processes back to their cpu ready queue or running if 
+		// monoprogramming. Periodic processes whose job ends doing IO may wait next job release
+		for (IODevice d : devices) {
+			if (d.getTimeToCompletion(time) > 0) continue;
+			Iterator<Process> it = d.complete(time).iterator();
+			while (it.hasNext()) {
+				Process p = it.next();
+				blocked[p.getProcessor()]--;
+				if (p.isPeriodic() && p.getCurrentBurst() == 0) {
+					if (endJob(p, time)) continue; // Waits next job release
+					if (p.isCurrentIO()) { // Next job starts doing IO
+						block(p, time);
+						continue;
+					}
+				}
+				if (p.isCurrentIO()) { // Next burst on another device
+					block(p, time);
+					continue;
+				}
+				if (multiprogram || running[p.getProcessor()] != null) algorithm.addProcess(p, readyQueues[p.getProcessor()]);
+				else running[p.getProcessor()] = p;
+			}
+		}
+	}
+
+	private boolean endJob(Process p, int time) {
+		// Periodic process job ends at time, records its lateness. Returns true when next job is not released yet
+		// and process waits into release wheel
+		stats.addJob(time - p.getAbsoluteDeadline());
+		p.nextRelease();
+		if (p.getRelease() <= time) return false;
+		p.setQexecuted(0);
+		releaseWheel.add(p);
+		return true;
+	}
+
+	private void queueReleased(int time) {
+		// Add periodic processes whose next job is released to their cpu ready queue, or IO queue when job starts doing IO
+		Iterator<Process> it = releaseWheel.advance(time).iterator();
 		while (it.hasNext()) {
 			Process p = it.next();
-			ioQueue.remove(p);
-
-			if (multiprogram) algorithm.addProcess(p, readyQueue);
-			else runningProcess = p;
+			if (p.isCurrentIO()) block(p, time - 1); // I/O progresses this time unit yet, as checkIO comes later
+			else algorithm.addProcess(p, readyQueues[p.getProcessor()]);
 		}
 	}
 	
@@ -785,22 +1622,206 @@ public class ContextProcess {
 			Process p = it.next();
 			arrivingQueue.remove(p);
 			
-			algorithm.addProcess(p, readyQueue);
+			enqueue(p);
+		}
+		
+		queueSource(time);
+	}
+
+	private void queueSource(int time) {
+		// Add submitted processes from process source to ready queue
+		while (source != null && source.hasNext() && source.peekSubmission() <= time) {
+			Process p = source.next();
+			sourced++;
+			index(p);
+			enqueue(p);
 		}
 	}
 
     private void backup() {
     	// backup to restore initial state
     	doneQueue.clear();
-    	ioQueue.clear();
+    	stats.clear();
+    	history.clear();
+    	setSnapshotInterval(snapshotInterval);
+    	for (IODevice d : devices) d.clear();
+    	releaseWheel.clear();
+    	Arrays.fill(blocked, 0);
     	
     	rqBkup.clear();
-    	Iterator<Process> it = readyQueue.iterator();
-		while (it.hasNext()) rqBkup.add(it.next().clone());
+    	aqBkup.clear();
+    	snapshot(rqBkup, aqBkup);
+    }
 
-		aqBkup.clear();
-		it = arrivingQueue.iterator();
-		while (it.hasNext()) aqBkup.add(it.next().clone());
+    private void snapshot(List<Process> ready, List<Process> arriving) {
+    	// Clones ready and arriving queues 
+    	for (int c = 0; c < cpus; c++) {
+    		Iterator<Process> it = readyQueues[c].iterator();
+    		while (it.hasNext()) ready.add(it.next().clone());
+    	}
+		Iterator<Process> it = arrivingQueue.iterator();
+		while (it.hasNext()) arriving.add(it.next().clone());
+    }
+
+    private void takeSnapshot(int time) {
+    	// Scheduler state, processes are copied only when changed since previous snapshot
+    	SchedulerSnapshot last = snapshots.isEmpty() ? null : snapshots.get(snapshots.size() - 1);
+    	SchedulerSnapshot s = new SchedulerSnapshot(time);
+    	boolean all = last == null;
+    	s.ready = new int[cpus][];
+    	s.readyState = new long[cpus][];
+    	s.running = new int[cpus];
+    	for (int c = 0; c < cpus; c++) {
+    		s.ready[c] = save(readyQueues[c].iterator(), readyQueues[c].size(), s, all);
+    		s.readyState[c] = readyQueues[c].getState();
+    		s.running[c] = running[c] == null ? -1 : save(running[c], s, all);
+    	}
+    	s.arriving = save(arrivingQueue.iterator(), arrivingQueue.size(), s, all);
+    	s.devices = new IODevice[devices.size()];
+    	s.served = new int[devices.size()][];
+    	s.waiting = new int[devices.size()][];
+    	for (int d = 0; d < devices.size(); d++) {
+    		IODevice device = devices.get(d);
+    		s.devices[d] = device.copy(all ? null : last.devices[d]);
+    		s.served[d] = save(device.serviceIterator(), device.getServed(), s, all);
+    		s.waiting[d] = save(device.queueIterator(), device.getWaiting(), s, all);
+    	}
+    	s.released = save(releaseWheel.iterator(), releaseWheel.size(), s, all);
+    	s.idle = idle.clone();
+    	s.stall = stall.clone();
+    	s.lost = lost.clone();
+    	s.blocked = blocked.clone();
+    	s.busy = busy.clone();
+    	s.done = doneQueue.size();
+    	s.sourced = sourced;
+    	s.algorithm = algorithm.getState();
+    	s.stats = stats.copy(all ? null : last.stats);
+    	s.spans = history.getTotal();
+    	s.open = history.getOpenSpans();
+    	snapshots.add(s);
+    	if (snapshots.size() > MAX_SNAPSHOTS) thin();
+    }
+
+    private int[] save(Iterator<Process> it, int size, SchedulerSnapshot s, boolean all) {
+    	// Pids in queue internal order
+    	int[] pids = new int[size];
+    	for (int i = 0; i < size; i++) pids[i] = save(it.next(), s, all);
+    	return pids;
+    }
+
+    private int save(Process p, SchedulerSnapshot s, boolean all) {
+    	Process copy = p.save(all);
+    	if (copy != null) s.changed.add(copy);
+    	return p.getPid();
+    }
+
+    private void thin() {
+    	// Drops every other snapshot (first and last kept), its copies of processes alive and unchanged in next one move there
+    	List<SchedulerSnapshot> kept = new ArrayList<SchedulerSnapshot>();
+    	for (int i = 0; i < snapshots.size(); i++) {
+    		SchedulerSnapshot s = snapshots.get(i);
+    		if (i % 2 == 0 || i == snapshots.size() - 1) kept.add(s);
+    		else {
+    			SchedulerSnapshot next = snapshots.get(i + 1);
+    			HashSet<Integer> pids = new HashSet<Integer>(next.getAlive());
+    			for (Process p : next.changed) pids.remove(p.getPid());
+    			for (Process p : s.changed) {
+    				if (pids.contains(p.getPid())) next.changed.add(p);
+    			}
+    		}
+    	}
+    	snapshots = kept;
+    	interval *= 2;
+    }
+
+    /**
+     * Travels to any simulation time since simulation start: restores latest snapshot not after that time and replays  
+     * forward from it with the same scheduling settings (snapshots beyond it are dropped, replay takes them again). 
+     * Processes handed out by a process source are handed out again up to snapshot. Processes added along simulation 
+     * are lost when traveling before they were added 
+     * 
+     * @param time			simulation time to travel to
+     * @param multiprogram  scheduling is multiprogramming 
+     * @param preemptive	scheduling is preemptive
+     * @param quantum		scheduling quantum size
+     * 
+     * @return simulation ends before or at that time
+     */
+    public boolean travel(int time, boolean multiprogram, boolean preemptive, int quantum) {
+    	int k = snapshots.size() - 1;
+    	while (k >= 0 && snapshots.get(k).time > time) k--;
+    	int from = 0;
+    	if (k < 0) {
+    		// No snapshot, replay from initial state
+    		restoreBackup();
+    		if (forwardTime(0, multiprogram, preemptive, quantum)) return true;
+    	} else {
+    		restoreSnapshot(k);
+    		from = snapshots.get(k).time;
+    	}
+    	for (int t = from + 1; t <= time; t++) {
+    		if (forwardTime(t, multiprogram, preemptive, quantum)) return true;
+    	}
+    	return false;
+    }
+
+    private List<Process> processes(int[] pids, HashMap<Integer, Process> alive) {
+    	List<Process> list = new ArrayList<Process>(pids.length);
+    	for (int pid : pids) list.add(alive.get(pid));
+    	return list;
+    }
+
+    private void restoreSnapshot(int k) {
+    	SchedulerSnapshot s = snapshots.get(k);
+    	while (snapshots.size() > k + 1) snapshots.remove(snapshots.size() - 1);
+
+    	// Latest copy of every process alive, looking back from snapshot. Copies are kept unchanged
+    	HashMap<Integer, Process> alive = new HashMap<Integer, Process>();
+    	List<Integer> pids = s.getAlive();
+    	int missing = pids.size();
+    	for (Integer pid : pids) alive.put(pid, null);
+    	for (int i = k; i >= 0 && missing > 0; i--) {
+    		for (Process p : snapshots.get(i).changed) {
+    			if (alive.containsKey(p.getPid()) && alive.get(p.getPid()) == null) {
+    				alive.put(p.getPid(), p.restore());
+    				missing--;
+    			}
+    		}
+    	}
+
+    	// Queues rebuilt in their internal order
+    	setQueuesTime(s.time);
+    	for (int c = 0; c < cpus; c++) {
+    		readyQueues[c].clear();
+    		for (int pid : s.ready[c]) readyQueues[c].getQueue().add(alive.get(pid));
+    		readyQueues[c].setState(s.readyState[c]);
+    		running[c] = s.running[c] < 0 ? null : alive.get(s.running[c]);
+    		last[c] = running[c]; // Snapshot is taken after context switches
+    	}
+    	arrivingQueue.clear();
+    	for (int pid : s.arriving) arrivingQueue.add(alive.get(pid));
+    	for (int d = 0; d < devices.size(); d++) devices.get(d).restore(s.devices[d], processes(s.served[d], alive), processes(s.waiting[d], alive));
+    	releaseWheel.clear();
+    	for (int pid : s.released) releaseWheel.add(alive.get(pid));
+    	releaseWheel.advance(s.time); // Nothing to release, wheel time only
+    	System.arraycopy(s.idle, 0, idle, 0, cpus);
+    	System.arraycopy(s.stall, 0, stall, 0, cpus);
+    	System.arraycopy(s.lost, 0, lost, 0, cpus);
+    	System.arraycopy(s.blocked, 0, blocked, 0, cpus);
+    	System.arraycopy(s.busy, 0, busy, 0, cpus);
+
+    	while (doneQueue.size() > s.done) doneQueue.remove(doneQueue.size() - 1);
+    	if (source != null) {
+    		source.reset();
+    		for (long i = 0; i < s.sourced; i++) source.next();
+    	}
+    	sourced = s.sourced;
+    	algorithm.setState(s.algorithm);
+    	stats = s.stats.copy(null);
+    	for (int c = 0; c < cpus; c++) readyQueues[c].setStatistics(stats);
+    	history.rewind(s.spans, s.open);
+    	selectedProcess = null;
+    	reindex();
     }
 
     /**
@@ -809,14 +1830,75 @@ public class ContextProcess {
      */
     public void restoreBackup() {
     	// Restore initial state (Time 0) from backup's
-    	idle = 0;
-    	readyQueue.clear();
-    	readyQueue.addAll(rqBkup);
+    	Arrays.fill(idle, 0);
+    	Arrays.fill(lost, 0);
+    	Arrays.fill(stall, 0);
+    	Arrays.fill(last, null);
+    	algorithm.setCpus(cpus);
+    	for (int c = 0; c < cpus; c++) {
+    		readyQueues[c] = new ReadyQueue(algorithm.createQueue()); // Queues own state restarts too
+    		readyQueues[c].setStatistics(stats);
+    	}
+    	Iterator<Process> it = rqBkup.iterator();
+    	while (it.hasNext()) {
+    		Process p = it.next();
+    		readyQueues[p.getProcessor()].add(p); // Back to its initial cpu
+    	}
     	arrivingQueue.clear();
     	arrivingQueue.addAll(aqBkup);
-    	runningProcess = null;
+    	Arrays.fill(running, null);
+    	Arrays.fill(blocked, 0);
+    	if (source != null) source.reset();
+    	sourced = 0;
     	doneQueue.clear();
-    	ioQueue.clear();
+    	stats.clear();
+    	history.clear();
+    	setSnapshotInterval(snapshotInterval);
+    	for (IODevice d : devices) d.clear();
+    	releaseWheel.clear();
+    	reindex();
+    	started = false;
+    }
+
+    /**
+     * Gets a copy of initial state workload (time 0), ready and not already arrived processes. Once simulation 
+     * has started it is copied from initial state backup's. Processes supplied by a process source are not included     
+     * 
+     * @return	workload processes copies
+     */
+    public List<Process> getWorkload() {
+    	List<Process> workload = new LinkedList<Process>();
+    	if (started) {
+    		Iterator<Process> it = rqBkup.iterator();
+    		while (it.hasNext()) workload.add(it.next().clone());
+    		it = aqBkup.iterator();
+    		while (it.hasNext()) workload.add(it.next().clone());
+    	} else snapshot(workload, workload);
+    	return workload;
     }
-}
 
+    /**
+     * Adds a workload at initial state (time 0). Copies of its processes are queued by creation order (pid) 
+     * as new processes, ready or not already arrived depending on their submission time 
+     * 
+     * @param workload	workload processes
+     */
+    public void addWorkload(List<Process> workload) {
+		ProcessQueue pq = new ProcessHeap();
+		Iterator<Process> it = workload.iterator();
+		while (it.hasNext()) {
+			Process p = it.next().clone();
+			p.setOrder(p.getPid());
+			pq.add(p);
+		}
+		setQueuesTime(0);
+		while (!pq.isEmpty()) {
+			Process p = pq.poll();
+	    	if (p.getTimesubmission() > 0) {
+	    		p.setOrder(p.getTimesubmission());
+	    		arrivingQueue.add(p);
+	    	} else enqueue(p);
+	    	index(p);
+		}
+    }
+}
@@ -0,0 +1,561 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+
+/**
+ * Ousterhout matrix (Process scheduling context), gang scheduling slots. Every column is a cpu and every row a time
+ * slice, rows take turns a slice each. Every process alive owns a cell, processes of a gang are placed into the same
+ * row as far as it has room, so they run together along its slice. A cpu whose cell in the active row is empty or not
+ * ready runs a ready process of its column from another row (alternate selection) until that cell is ready again.
+ * Every cpu ready queue is a column of a shared matrix: a process is queued into its own column whatever ready queue
+ * it is offered to.
+ * Lookups never scan queues: a process knows its cell, a gang its rows, a column its ready rows (a bit set) and rows
+ * are indexed by free cells count, so placing a process or picking next one costs no more than a few bit set searches
+ * whatever the number of gangs.
+ *
+ * @see Process#getGang()
+ * @see ProcessStrategyGang
+ */
+public class GangMatrix {
+	private static final int FREE = Integer.MIN_VALUE;
+	private int cpus;
+	private int rows;				// Rows in use or used before
+	private int[] owner;			// Cell owner pid, FREE if empty
+	private int[] gang;				// Cell owner gang key
+	private Process[] ready;		// Cell owner while it is ready, null otherwise
+	private int[] used;				// Owned cells per row
+	private int owned;				// Owned cells
+	private BitSet[] free;			// Rows by free cells count
+	private BitSet occupied;		// Rows owning a cell
+	private BitSet[] readyRows;		// Rows with a ready cell, per column
+	private int[] readyCount;		// Ready cells per column
+	private HashMap<Integer, TreeMap<Integer, Integer>> gangs;	// Rows of every gang, cells owned per row
+	private int active;				// Active row, -1 none
+	private int sliceEnd;			// Active row slice end time
+	private long together;			// Cpu time running processes of active row, co-scheduled
+	private long alternate;			// Cpu time running processes of other rows
+	private Column[] columns;
+
+	/**
+	 * Constructs an empty matrix
+	 *
+	 * @param cpus	columns, number of cpus
+	 */
+	public GangMatrix(int cpus) {
+		this.cpus = Math.max(1, cpus);
+		owner = new int[0];
+		gang = new int[0];
+		ready = new Process[0];
+		used = new int[0];
+		free = new BitSet[this.cpus + 1];
+		for (int k = 0; k <= this.cpus; k++) free[k] = new BitSet();
+		occupied = new BitSet();
+		readyRows = new BitSet[this.cpus];
+		readyCount = new int[this.cpus];
+		columns = new Column[this.cpus];
+		for (int c = 0; c < this.cpus; c++) {
+			readyRows[c] = new BitSet();
+			columns[c] = new Column(c);
+		}
+		gangs = new HashMap<Integer, TreeMap<Integer, Integer>>();
+		active = -1;
+	}
+
+	/**
+	 * Gets a column, a cpu ready queue
+	 *
+	 * @param c	cpu
+	 * @return	column queue
+	 */
+	public Column column(int c) {
+		return columns[c];
+	}
+
+	/**
+	 * Gets number of columns
+	 *
+	 * @return	number of cpus
+	 */
+	public int getCpus() {
+		return cpus;
+	}
+
+	private int key(Process p) {
+		// Gang key, a process apart from any gang is a gang of its own
+		return p.getGang() >= 0 ? p.getGang() : -1 - p.getPid();
+	}
+
+	private boolean owns(Process p) {
+		return p.getSlot() >= 0 && p.getSlot() < rows * cpus && owner[p.getSlot()] == p.getPid();
+	}
+
+	/**
+	 * Gets process column, the cpu it is scheduled on
+	 *
+	 * @param p	placed process
+	 * @return	cpu
+	 */
+	public int getColumn(Process p) {
+		return p.getSlot() % cpus;
+	}
+
+	/**
+	 * Places a process into a cell unless it already owns one: into a row of its gang with a free cell if any,
+	 * otherwise into lowest row with room for its gang members still to place (for a single one if no row has room
+	 * for all of them), a new row if every row is full
+	 *
+	 * @param p	process
+	 */
+	public void place(Process p) {
+		if (owns(p)) return;
+		TreeMap<Integer, Integer> rowsOf = gangs.get(key(p));
+		int row = -1, placed = 0;
+		if (rowsOf != null) {
+			for (Map.Entry<Integer, Integer> e : rowsOf.entrySet()) {
+				placed += e.getValue();
+				if (row < 0 && used[e.getKey()] < cpus) row = e.getKey();
+			}
+		}
+		if (row < 0) row = fit(Math.max(1, Math.min(p.getGangSize() - placed, cpus)));
+		int cell = row * cpus;
+		while (owner[cell] != FREE) cell++;
+		p.setSlot(cell);
+		own(cell, p);
+	}
+
+	private int fit(int cells) {
+		// Lowest row with cells free, first fit, or a new row
+		int row = -1;
+		for (int k = cells; k <= cpus; k++) {
+			int r = free[k].nextSetBit(0);
+			if (r >= 0 && (row < 0 || r < row)) row = r;
+		}
+		if (row >= 0) return row;
+		grow(rows + 1);
+		return rows - 1;
+	}
+
+	private void grow(int n) {
+		// At least n rows, new rows are empty
+		if (n <= rows) return;
+		if (n * cpus > owner.length) {
+			int capacity = Math.max(n, 2 * owner.length / cpus) * cpus;
+			int old = owner.length;
+			owner = Arrays.copyOf(owner, capacity);
+			gang = Arrays.copyOf(gang, capacity);
+			ready = Arrays.copyOf(ready, capacity);
+			used = Arrays.copyOf(used, capacity / cpus);
+			Arrays.fill(owner, old, capacity, FREE);
+		}
+		for (int r = rows; r < n; r++) free[cpus].set(r);
+		rows = n;
+	}
+
+	private void own(int cell, Process p) {
+		// Cell owned by process, any former owner loses it
+		if (owner[cell] == p.getPid()) return;
+		if (owner[cell] != FREE) release(cell);
+		int row = cell / cpus;
+		owner[cell] = p.getPid();
+		gang[cell] = key(p);
+		free[cpus - used[row]].clear(row);
+		used[row]++;
+		free[cpus - used[row]].set(row);
+		owned++;
+		occupied.set(row);
+		TreeMap<Integer, Integer> rowsOf = gangs.get(gang[cell]);
+		if (rowsOf == null) {
+			rowsOf = new TreeMap<Integer, Integer>();
+			gangs.put(gang[cell], rowsOf);
+		}
+		Integer n = rowsOf.get(row);
+		rowsOf.put(row, n == null ? 1 : n + 1);
+	}
+
+	private void release(int cell) {
+		// Cell becomes free
+		int row = cell / cpus;
+		if (ready[cell] != null) unready(cell);
+		TreeMap<Integer, Integer> rowsOf = gangs.get(gang[cell]);
+		int n = rowsOf.get(row);
+		if (n == 1) rowsOf.remove(row);
+		else rowsOf.put(row, n - 1);
+		if (rowsOf.isEmpty()) gangs.remove(gang[cell]);
+		owner[cell] = FREE;
+		free[cpus - used[row]].clear(row);
+		used[row]--;
+		free[cpus - used[row]].set(row);
+		owned--;
+		if (used[row] == 0) occupied.clear(row);
+		if (occupied.isEmpty()) active = -1; // Next process placed starts from first row
+	}
+
+	/**
+	 * Frees process cell, process leaves the system
+	 *
+	 * @param p	process not queued
+	 */
+	public void release(Process p) {
+		if (owns(p)) release(p.getSlot());
+	}
+
+	private void unready(int cell) {
+		int c = cell % cpus;
+		ready[cell] = null;
+		readyRows[c].clear(cell / cpus);
+		readyCount[c]--;
+	}
+
+	/**
+	 * Switches to next row at active row slice end, or right away if active row is left empty
+	 *
+	 * @param time		current simulation time
+	 * @param slice		time units per slice
+	 */
+	public void update(int time, int slice) {
+		if (active >= 0 && occupied.get(active) && time < sliceEnd) return;
+		if (occupied.isEmpty()) {
+			active = -1;
+			return;
+		}
+		int next = occupied.nextSetBit(active + 1);
+		active = next >= 0 ? next : occupied.nextSetBit(0);
+		sliceEnd = time + slice;
+	}
+
+	/**
+	 * Gets time units to next row switch
+	 *
+	 * @param time	current simulation time
+	 * @return	time units to next update or Integer.MAX_VALUE if matrix is empty
+	 */
+	public int getTimeToUpdate(int time) {
+		if (active < 0 || !occupied.get(active)) return occupied.isEmpty() ? Integer.MAX_VALUE : 1;
+		return Math.max(1, sliceEnd - time);
+	}
+
+	/**
+	 * Is process in active row?
+	 *
+	 * @param p	process
+	 * @return	process runs along current slice
+	 */
+	public boolean isActive(Process p) {
+		return active >= 0 && owns(p) && p.getSlot() / cpus == active;
+	}
+
+	/**
+	 * Accounts for time run by a process, co-scheduled if it is in active row
+	 *
+	 * @param p		running process
+	 * @param units	time units run
+	 */
+	public void count(Process p, int units) {
+		if (isActive(p)) together += units;
+		else alternate += units;
+	}
+
+	/**
+	 * Gets rows owning a cell, matrix slices
+	 *
+	 * @return	rows in use
+	 */
+	public int getRows() {
+		return occupied.cardinality();
+	}
+
+	/**
+	 * Gets matrix fragmentation, free cells of rows in use. Free cells are idle along their row slice unless an
+	 * alternate process fills them
+	 *
+	 * @return	free cells / rows in use cells, 0 if matrix is empty
+	 */
+	public double getFragmentation() {
+		int cells = getRows() * cpus;
+		if (cells == 0) return 0;
+		return (double) (cells - owned) / (double) cells;
+	}
+
+	/**
+	 * Gets cpu time run by processes of active row, co-scheduled with their gang
+	 *
+	 * @return	co-scheduled time units
+	 */
+	public long getTogether() {
+		return together;
+	}
+
+	/**
+	 * Gets cpu time run by processes of other rows, filling active row holes
+	 *
+	 * @return	alternate time units
+	 */
+	public long getAlternate() {
+		return alternate;
+	}
+
+	/**
+	 * Gets matrix state: active row, its slice end, co-scheduled and alternate time and cell owners (pid and gang).
+	 * Ready cells are not included, they are given by column queues
+	 *
+	 * @return	matrix state
+	 */
+	long[] getState() {
+		long[] state = new long[5 + 2 * rows * cpus];
+		state[0] = active;
+		state[1] = sliceEnd;
+		state[2] = together;
+		state[3] = alternate;
+		state[4] = rows;
+		for (int cell = 0; cell < rows * cpus; cell++) {
+			state[5 + 2 * cell] = owner[cell];
+			state[6 + 2 * cell] = gang[cell];
+		}
+		return state;
+	}
+
+	/**
+	 * Restores matrix state, ready cells are kept
+	 *
+	 * @param state	matrix state
+	 */
+	void setState(long[] state) {
+		int n = (int) state[4];
+		grow(n);
+		for (int k = 0; k <= cpus; k++) free[k].clear();
+		occupied.clear();
+		gangs.clear();
+		Arrays.fill(owner, FREE);
+		Arrays.fill(used, 0);
+		owned = 0;
+		rows = n;
+		for (int r = 0; r < rows; r++) free[cpus].set(r);
+		for (int cell = 0; cell < rows * cpus; cell++) {
+			if (state[5 + 2 * cell] == FREE) continue;
+			int row = cell / cpus;
+			owner[cell] = (int) state[5 + 2 * cell];
+			gang[cell] = (int) state[6 + 2 * cell];
+			free[cpus - used[row]].clear(row);
+			used[row]++;
+			free[cpus - used[row]].set(row);
+			owned++;
+			occupied.set(row);
+			TreeMap<Integer, Integer> rowsOf = gangs.get(gang[cell]);
+			if (rowsOf == null) {
+				rowsOf = new TreeMap<Integer, Integer>();
+				gangs.put(gang[cell], rowsOf);
+			}
+			Integer k = rowsOf.get(row);
+			rowsOf.put(row, k == null ? 1 : k + 1);
+		}
+		active = (int) state[0];
+		sliceEnd = (int) state[1];
+		together = state[2];
+		alternate = state[3];
+	}
+
+	/**
+	 * Matrix column, a cpu ready queue: ready processes of a column by row, from active row on. Its head is its cell
+	 * in active row if ready, otherwise next ready one (alternate selection)
+	 */
+	public class Column extends ProcessQueue {
+		private int c;
+
+		private Column(int c) {
+			this.c = c;
+		}
+
+		/**
+		 * Is this column cell in active row ready?
+		 *
+		 * @return	active row cell is ready
+		 */
+		public boolean isActiveReady() {
+			return active >= 0 && ready[active * cpus + c] != null;
+		}
+
+		/**
+		 * Gets ready processes count
+		 *
+		 * @return	processes count
+		 */
+		public int size() {
+			return readyCount[c];
+		}
+
+		/**
+		 * Queues a process into its own cell, which it owns from now on. A process without cell is placed first
+		 *
+		 * @param p	process
+		 * @return	true
+		 */
+		public boolean offer(Process p) {
+			if (p.getSlot() < 0) place(p);
+			grow(p.getSlot() / cpus + 1);
+			int cell = p.getSlot();
+			own(cell, p);
+			if (ready[cell] == null) {
+				readyRows[cell % cpus].set(cell / cpus);
+				readyCount[cell % cpus]++;
+			}
+			ready[cell] = p;
+			return true;
+		}
+
+		private int first() {
+			// Head row, active row if ready or next ready row
+			if (readyCount[c] == 0) return -1;
+			if (isActiveReady()) return active;
+			int r = readyRows[c].nextSetBit(active + 1);
+			return r >= 0 ? r : readyRows[c].nextSetBit(0);
+		}
+
+		/**
+		 * Retrieves without removing it active row cell if ready, otherwise next ready process
+		 *
+		 * @return	queue's head or null if queue is empty
+		 */
+		public Process peek() {
+			int r = first();
+			return r < 0 ? null : ready[r * cpus + c];
+		}
+
+		/**
+		 * Retrieves and removes active row cell if ready, otherwise next ready process
+		 *
+		 * @return	queue's head or null if queue is empty
+		 */
+		public Process poll() {
+			int r = first();
+			if (r < 0) return null;
+			Process p = ready[r * cpus + c];
+			unready(r * cpus + c);
+			return p;
+		}
+
+		/**
+		 * Is process queued into this column? Constant time
+		 *
+		 * @param o	process
+		 * @return	process is queued
+		 */
+		public boolean contains(Object o) {
+			if (!(o instanceof Process)) return false;
+			Process p = (Process) o;
+			return owns(p) && p.getSlot() % cpus == c && ready[p.getSlot()] == p;
+		}
+
+		/**
+		 * Removes a process from this column, it keeps its cell
+		 *
+		 * @param o	process
+		 * @return	process was queued
+		 */
+		public boolean remove(Object o) {
+			if (!contains(o)) return false;
+			unready(((Process) o).getSlot());
+			return true;
+		}
+
+		/**
+		 * Process cell does not change while queued
+		 *
+		 * @param p	queued process
+		 * @return	process is queued
+		 */
+		public boolean update(Process p) {
+			return contains(p);
+		}
+
+		/**
+		 * Retrieves without removing it last ready process to run, from active row on
+		 *
+		 * @return	last process or null if queue is empty
+		 */
+		public Process peekLast() {
+			if (readyCount[c] == 0) return null;
+			int r = active > 0 ? readyRows[c].previousSetBit(active - 1) : -1;
+			if (r < 0) r = readyRows[c].previousSetBit(rows - 1);
+			return ready[r * cpus + c];
+		}
+
+		/**
+		 * Empties this column, processes keep their cells
+		 */
+		public void clear() {
+			for (int r = readyRows[c].nextSetBit(0); r >= 0; r = readyRows[c].nextSetBit(r + 1)) ready[r * cpus + c] = null;
+			readyRows[c].clear();
+			readyCount[c] = 0;
+		}
+
+		/**
+		 * Gets matrix state, kept by first column only as it is shared
+		 *
+		 * @return	matrix state on first column, null otherwise
+		 */
+		public long[] getState() {
+			return c == 0 ? GangMatrix.this.getState() : null;
+		}
+
+		/**
+		 * Restores matrix state, from first column only
+		 *
+		 * @param state	matrix state, null on other columns
+		 */
+		public void setState(long[] state) {
+			if (state != null) GangMatrix.this.setState(state);
+		}
+
+		/**
+		 * Returns an iterator over ready processes by row, from active row on
+		 *
+		 * @return	iterator
+		 */
+		public Iterator<Process> iterator() {
+			return new ColumnIterator();
+		}
+
+		/**
+		 * Returns an iterator over ready processes by row, from active row on. It is poll order as long as active
+		 * row does not change
+		 *
+		 * @return	ordered iterator
+		 */
+		public Iterator<Process> orderedIterator() {
+			return new ColumnIterator();
+		}
+
+		private class ColumnIterator implements Iterator<Process> {
+			// Ready rows from active row up, then from row 0 up to active row
+			private int start = Math.max(active, 0);
+			private int next = readyRows[c].nextSetBit(start);
+			private boolean wrapped = false;
+
+			public boolean hasNext() {
+				if (next < 0 && !wrapped) {
+					wrapped = true;
+					next = readyRows[c].nextSetBit(0);
+				}
+				return next >= 0 && !(wrapped && next >= start);
+			}
+
+			public Process next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				Process p = ready[next * cpus + c];
+				next = readyRows[c].nextSetBit(next + 1);
+				return p;
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		}
+	}
+}
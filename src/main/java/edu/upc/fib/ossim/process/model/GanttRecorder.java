@@ -0,0 +1,317 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+
+
+/**
+ * Gantt chart history (Process scheduling context). Every cpu keeps an open span, the process it is running
+ * since a given time, a span is closed when cpu switches to another process or becomes idle. Closed spans
+ * (start, end, pid, cpu, reason) are kept as run lengths into a ring of primitive arrays, so recording costs
+ * constant time and no allocation per context switch; once the ring is full oldest spans are overwritten.
+ * Spans are closed in time order, so the ring is ordered by end time and searched by binary search. Idle time
+ * is not recorded, it is the gap between spans
+ *
+ * @see ContextProcess#getHistory()
+ */
+public class GanttRecorder {
+	public static final int CAPACITY = 1 << 16;	// Default closed spans kept
+	public static final byte FINISHED = 0;		// Span end reasons
+	public static final byte BLOCKED = 1;
+	public static final byte PREEMPTED = 2;
+	public static final byte JOB_END = 3;
+	private static final int NONE = -1;			// Idle cpu
+	// Closed spans ring
+	private int[] start;
+	private int[] end;
+	private int[] pid;
+	private int[] color;						// Process color RGB
+	private short[] cpu;
+	private byte[] reason;
+	private int head;							// Oldest span position
+	private int size;
+	private long dropped;						// Spans overwritten
+	// Open spans, per cpu
+	private int[] openStart;
+	private int[] openPid;
+	private int[] openColor;
+
+	/**
+	 * Constructs a recorder keeping up to CAPACITY closed spans
+	 *
+	 * @param cpus	number of cpus
+	 */
+	public GanttRecorder(int cpus) {
+		this(cpus, CAPACITY);
+	}
+
+	/**
+	 * Constructs a recorder
+	 *
+	 * @param cpus		number of cpus
+	 * @param capacity	closed spans kept, at least 1
+	 */
+	public GanttRecorder(int cpus, int capacity) {
+		capacity = Math.max(1, capacity);
+		start = new int[capacity];
+		end = new int[capacity];
+		pid = new int[capacity];
+		color = new int[capacity];
+		cpu = new short[capacity];
+		reason = new byte[capacity];
+		setCpus(cpus);
+	}
+
+	/**
+	 * Sets number of cpus, history is cleared
+	 *
+	 * @param cpus	number of cpus
+	 */
+	public void setCpus(int cpus) {
+		openStart = new int[cpus];
+		openPid = new int[cpus];
+		openColor = new int[cpus];
+		clear();
+	}
+
+	/**
+	 * Gets number of cpus
+	 *
+	 * @return	number of cpus
+	 */
+	public int getCpus() {
+		return openPid.length;
+	}
+
+	/**
+	 * Clears history, every cpu idle
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+		dropped = 0;
+		Arrays.fill(openPid, NONE);
+	}
+
+	/**
+	 * Records cpu c runs process p from time on. Nothing changes if p was already running, otherwise previous
+	 * process span is closed for a reason (span of no time units is discarded) and a new one is opened
+	 *
+	 * @param time		current simulation time
+	 * @param c			cpu
+	 * @param p			running process, null if cpu becomes idle
+	 * @param why		previous span end reason: FINISHED, BLOCKED, PREEMPTED or JOB_END
+	 */
+	public void record(int time, int c, Process p, byte why) {
+		int next = p == null ? NONE : p.getPid();
+		if (next == openPid[c]) return;
+		if (openPid[c] != NONE && openStart[c] < time) {
+			int i;
+			if (size < start.length) i = (head + size++) % start.length;
+			else {
+				i = head;
+				head = (head + 1) % start.length;
+				dropped++;
+			}
+			start[i] = openStart[c];
+			end[i] = time;
+			pid[i] = openPid[c];
+			color[i] = openColor[c];
+			cpu[i] = (short) c;
+			reason[i] = why;
+		}
+		openPid[c] = next;
+		openStart[c] = time;
+		if (p != null && p.getColor() != null) openColor[c] = p.getColor().getRGB();
+	}
+
+	/**
+	 * Gets closed spans kept
+	 *
+	 * @return	closed spans
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets closed spans since history was cleared, kept and overwritten
+	 *
+	 * @return	closed spans
+	 */
+	public long getTotal() {
+		return size + dropped;
+	}
+
+	/**
+	 * Gets closed spans overwritten since history was cleared
+	 *
+	 * @return	spans lost
+	 */
+	public long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Gets open spans of every cpu, to rewind history later
+	 *
+	 * @return	open spans start times, pids and colors
+	 */
+	public int[][] getOpenSpans() {
+		return new int[][] {openStart.clone(), openPid.clone(), openColor.clone()};
+	}
+
+	/**
+	 * Rewinds history to a former moment: spans closed later are discarded (those older spans overwritten
+	 * since then are lost anyway) and cpus open spans are restored
+	 *
+	 * @param spans	closed spans count (kept and overwritten) at that moment
+	 * @param open	open spans at that moment
+	 *
+	 * @see #getOpenSpans()
+	 */
+	public void rewind(long spans, int[][] open) {
+		long later = size + dropped - spans;
+		if (later > 0) {
+			size = (int) Math.max(0, size - later);
+			dropped = spans - size;
+		}
+		openStart = open[0].clone();
+		openPid = open[1].clone();
+		openColor = open[2].clone();
+	}
+
+	/**
+	 * Gets span i start time, spans are numbered from oldest (0) to newest (size - 1)
+	 *
+	 * @param i	span number
+	 * @return	start time
+	 */
+	public int getStart(int i) {
+		return start[(head + i) % start.length];
+	}
+
+	/**
+	 * Gets span i end time
+	 *
+	 * @param i	span number
+	 * @return	end time, excluded
+	 */
+	public int getEnd(int i) {
+		return end[(head + i) % start.length];
+	}
+
+	/**
+	 * Gets span i process identifier
+	 *
+	 * @param i	span number
+	 * @return	process identifier
+	 */
+	public int getPid(int i) {
+		return pid[(head + i) % start.length];
+	}
+
+	/**
+	 * Gets span i process color
+	 *
+	 * @param i	span number
+	 * @return	process color RGB
+	 */
+	public int getColor(int i) {
+		return color[(head + i) % start.length];
+	}
+
+	/**
+	 * Gets span i cpu
+	 *
+	 * @param i	span number
+	 * @return	cpu
+	 */
+	public int getCpu(int i) {
+		return cpu[(head + i) % start.length];
+	}
+
+	/**
+	 * Gets span i end reason
+	 *
+	 * @param i	span number
+	 * @return	FINISHED, BLOCKED, PREEMPTED or JOB_END
+	 */
+	public byte getReason(int i) {
+		return reason[(head + i) % start.length];
+	}
+
+	/**
+	 * Finds first span ending after time
+	 *
+	 * @param time	simulation time
+	 * @return	span number, size if none
+	 */
+	public int search(int time) {
+		int lo = 0, hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (getEnd(mid) <= time) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Gets history first time, oldest span start
+	 *
+	 * @return	first time kept
+	 */
+	public int getFirstTime() {
+		int first = Integer.MAX_VALUE;
+		if (size > 0) {
+			// Oldest span is not the earliest to start, scan spans of any cpu up to end of oldest one
+			int limit = getEnd(0);
+			for (int i = 0; i < size && getStart(i) < limit; i++) first = Math.min(first, getStart(i));
+			if (first == Integer.MAX_VALUE) first = getStart(0);
+		}
+		for (int c = 0; c < openPid.length; c++) {
+			if (openPid[c] != NONE) first = Math.min(first, openStart[c]);
+		}
+		return first == Integer.MAX_VALUE ? 0 : first;
+	}
+
+	/**
+	 * Is cpu c running a process?
+	 *
+	 * @param c	cpu
+	 * @return	cpu has an open span
+	 */
+	public boolean isOpen(int c) {
+		return openPid[c] != NONE;
+	}
+
+	/**
+	 * Gets cpu c open span start time
+	 *
+	 * @param c	cpu
+	 * @return	start time
+	 */
+	public int getOpenStart(int c) {
+		return openStart[c];
+	}
+
+	/**
+	 * Gets cpu c running process identifier
+	 *
+	 * @param c	cpu
+	 * @return	process identifier
+	 */
+	public int getOpenPid(int c) {
+		return openPid[c];
+	}
+
+	/**
+	 * Gets cpu c running process color
+	 *
+	 * @param c	cpu
+	 * @return	process color RGB
+	 */
+	public int getOpenColor(int c) {
+		return openColor[c];
+	}
+}
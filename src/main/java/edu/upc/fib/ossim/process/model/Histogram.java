@@ -0,0 +1,146 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+
+
+/**
+ * Streaming histogram of non negative time values (Process scheduling context). Values lower than 128 are
+ * counted exactly, greater ones into 64 buckets per power of two (less than 2% error), so memory and
+ * percentile queries cost is constant whatever the number of recorded values.
+ */
+public class Histogram implements Cloneable {
+	private static final int SUB_BITS = 6;
+	private static final int SUB = 1 << SUB_BITS;	// Buckets per power of two
+	private static final int EXACT = 2 * SUB;		// Values counted exactly
+	private long[] counts;
+	private long count;
+	private long sum;
+	private int min;
+	private int max;
+
+	/**
+	 * Constructs an empty histogram
+	 */
+	public Histogram() {
+		counts = new long[EXACT + (31 - SUB_BITS) * SUB];
+		clear();
+	}
+
+	/**
+	 * Removes all recorded values
+	 */
+	public void clear() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		min = Integer.MAX_VALUE;
+		max = 0;
+	}
+
+	/**
+	 * Records a value, negative values are recorded as 0
+	 *
+	 * @param value	time value
+	 */
+	public void add(int value) {
+		if (value < 0) value = 0;
+		counts[bucket(value)]++;
+		count++;
+		sum += value;
+		if (value < min) min = value;
+		if (value > max) max = value;
+	}
+
+	private static int bucket(int value) {
+		if (value < EXACT) return value;
+		int shift = 31 - Integer.numberOfLeadingZeros(value) - SUB_BITS; // value >> shift between SUB and 2*SUB - 1
+		return EXACT + (shift - 1) * SUB + (value >> shift) - SUB;
+	}
+
+	private static int lowest(int bucket) {
+		if (bucket < EXACT) return bucket;
+		int shift = (bucket - EXACT) / SUB + 1;
+		return ((bucket - EXACT) % SUB + SUB) << shift;
+	}
+
+	/**
+	 * Gets recorded values count
+	 *
+	 * @return	values count
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Gets recorded values sum
+	 *
+	 * @return	values sum
+	 */
+	public long getSum() {
+		return sum;
+	}
+
+	/**
+	 * Gets recorded values average or 0 if there is no value
+	 *
+	 * @return	values average
+	 */
+	public double getAverage() {
+		if (count == 0) return 0;
+		return (double) sum / (double) count;
+	}
+
+	/**
+	 * Gets minimum recorded value or 0 if there is no value
+	 *
+	 * @return	minimum value
+	 */
+	public int getMin() {
+		if (count == 0) return 0;
+		return min;
+	}
+
+	/**
+	 * Gets maximum recorded value or 0 if there is no value
+	 *
+	 * @return	maximum value
+	 */
+	public int getMax() {
+		return max;
+	}
+
+	/**
+	 * Gets value at percentile q, the lowest value such that at least q of recorded values are lower or equal.
+	 * Exact below 128, otherwise bucket lowest value
+	 *
+	 * @param q		percentile, between 0 and 1
+	 * @return	value at percentile q or 0 if there is no value
+	 */
+	public int getPercentile(double q) {
+		if (count == 0) return 0;
+		long rank = Math.max(1, (long) Math.ceil(q * count));
+		long acc = 0;
+		for (int i = 0; i < counts.length; i++) {
+			acc += counts[i];
+			if (acc >= rank) return Math.min(Math.max(lowest(i), min), max);
+		}
+		return max;
+	}
+
+	/**
+	 * Clones this histogram, counts included
+	 *
+	 * @return	cloned histogram
+	 */
+	protected Histogram clone() {
+		Histogram clone = null;
+		try {
+			clone = (Histogram) super.clone();
+			clone.counts = counts.clone();
+		} catch (CloneNotSupportedException e) {
+			e.printStackTrace();
+		}
+		return clone;
+	}
+}
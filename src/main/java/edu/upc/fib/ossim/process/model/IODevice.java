@@ -0,0 +1,403 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.StringTokenizer;
+
+
+/**
+ * I/O device (Process scheduling context). Processes blocked on an I/O burst request the device its burst targets,
+ * the device serves up to its channels requests at once (unlimited when 0) and the rest wait into its queue, in request
+ * order (FIFO) or by process priority (PRIORITY, same priority by pid). A request is served at device rate, I/O burst
+ * time units per time unit, so it takes burst length / rate time units rounded up. Requests in service are ordered by
+ * completion time, so completions are found at the head and predicted as events: nothing is done per time unit nor per
+ * blocked process while no request completes, process burst moment is advanced once, at completion.
+ * Device keeps its utilisation (busy time, and channels time in service) and queueing delay (time from request to
+ * service start) histogram.
+ * Default device is an unlimited FIFO pool at rate 1, every request served at once as if I/O were infinitely concurrent
+ *
+ * @see BurstCycle
+ * @see ContextProcess#setIODevices(List)
+ */
+public class IODevice implements Iterable<Process>, Cloneable {
+	public static final int FIFO = 0;
+	public static final int PRIORITY = 1;
+	private String name;
+	private int discipline;
+	private int rate;				// I/O burst time units served per time unit
+	private int channels;			// Requests served at once, 0 unlimited
+	private ProcessHeap queue;		// Requests waiting, by request time or priority
+	private ProcessHeap service;	// Requests in service, by completion time
+	// Statistics
+	private int last;				// Last time requests in service changed
+	private long busy;				// Time units with some request in service
+	private long work;				// Requests time units in service
+	private Histogram delay;		// Queueing delay
+
+	/**
+	 * Constructs an unlimited FIFO pool at rate 1
+	 *
+	 * @param name	device name
+	 */
+	public IODevice(String name) {
+		this(name, FIFO, 1, 0);
+	}
+
+	/**
+	 * Constructs an idle device
+	 *
+	 * @param name			device name
+	 * @param discipline	queue discipline, FIFO or PRIORITY
+	 * @param rate			I/O burst time units served per time unit, at least 1
+	 * @param channels		requests served at once, 0 unlimited
+	 */
+	public IODevice(String name, int discipline, int rate, int channels) {
+		this.name = name;
+		this.discipline = discipline;
+		this.rate = Math.max(1, rate);
+		this.channels = Math.max(0, channels);
+		queue = new ProcessHeap();
+		service = new ProcessHeap();
+		delay = new Histogram();
+		clear();
+	}
+
+	/**
+	 * Parses devices specification, comma separated devices as <code>name [fifo|prio] [rate] [channels]</code>,
+	 * for instance <code>disk fifo 1 1, net prio 2 1</code>. Omitted values are FIFO, rate 1 and unlimited channels
+	 *
+	 * @param spec	devices specification
+	 * @return	devices, at least one
+	 * @throws IllegalArgumentException	when specification is not valid
+	 */
+	public static List<IODevice> parse(String spec) {
+		List<IODevice> devices = new ArrayList<IODevice>();
+		StringTokenizer st = new StringTokenizer(spec, ",");
+		while (st.hasMoreTokens()) {
+			StringTokenizer fields = new StringTokenizer(st.nextToken());
+			if (!fields.hasMoreTokens()) continue;
+			String name = fields.nextToken();
+			int discipline = FIFO;
+			int rate = 1, channels = 0;
+			if (fields.hasMoreTokens()) {
+				String d = fields.nextToken().toLowerCase();
+				if (d.startsWith("prio")) discipline = PRIORITY;
+				else if (!d.equals("fifo")) throw new IllegalArgumentException(d);
+			}
+			try {
+				if (fields.hasMoreTokens()) rate = Integer.parseInt(fields.nextToken());
+				if (fields.hasMoreTokens()) channels = Integer.parseInt(fields.nextToken());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException(e.getMessage());
+			}
+			if (rate < 1 || channels < 0 || fields.hasMoreTokens()) throw new IllegalArgumentException(name);
+			devices.add(new IODevice(name, discipline, rate, channels));
+		}
+		if (devices.isEmpty()) throw new IllegalArgumentException(spec);
+		return devices;
+	}
+
+	/**
+	 * Gets devices specification
+	 *
+	 * @param devices	devices
+	 * @return	devices specification
+	 *
+	 * @see #parse(String)
+	 */
+	public static String toSpec(List<IODevice> devices) {
+		StringBuilder spec = new StringBuilder();
+		for (IODevice d : devices) {
+			if (spec.length() > 0) spec.append(", ");
+			spec.append(d.toString());
+		}
+		return spec.toString();
+	}
+
+	/**
+	 * Gets device name
+	 *
+	 * @return	device name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Gets queue discipline
+	 *
+	 * @return	FIFO or PRIORITY
+	 */
+	public int getDiscipline() {
+		return discipline;
+	}
+
+	/**
+	 * Gets service rate
+	 *
+	 * @return	I/O burst time units served per time unit
+	 */
+	public int getRate() {
+		return rate;
+	}
+
+	/**
+	 * Gets requests served at once
+	 *
+	 * @return	channels, 0 unlimited
+	 */
+	public int getChannels() {
+		return channels;
+	}
+
+	/**
+	 * Removes every request and recorded statistics
+	 */
+	public void clear() {
+		queue.clear();
+		service.clear();
+		last = 0;
+		busy = 0;
+		work = 0;
+		delay.clear();
+	}
+
+	/**
+	 * Gets requests in service or waiting
+	 *
+	 * @return	requests count
+	 */
+	public int size() {
+		return queue.size() + service.size();
+	}
+
+	/**
+	 * Are there no requests?
+	 *
+	 * @return	device is idle and its queue empty
+	 */
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Process requests its current I/O burst, till its end or its job end if periodic. Request is served at once
+	 * when a channel is free, otherwise it waits into queue
+	 *
+	 * @param p		process blocked on I/O
+	 * @param time	request time, service progresses along next time units
+	 */
+	public void request(Process p, int time) {
+		p.setIOSince(time);
+		if (channels == 0 || service.size() < channels) start(p, time);
+		else {
+			p.setOrder(discipline == FIFO ? time : -p.getPrio());
+			queue.add(p);
+		}
+	}
+
+	private void start(Process p, int time) {
+		account(time);
+		delay.add(time - p.getIOSince());
+		int units = p.getTimeToBurstEnd();
+		p.setOrder(time + (units + rate - 1) / rate); // Completion time
+		service.add(p);
+	}
+
+	private void account(int time) {
+		// Busy and channels time since last change of requests in service
+		if (time <= last) return;
+		if (!service.isEmpty()) {
+			busy += time - last;
+			work += (long) service.size() * (time - last);
+		}
+		last = time;
+	}
+
+	/**
+	 * Completes requests whose service ends at time or before and starts waiting ones on freed channels. Completed
+	 * processes are left at their I/O burst (or job) end moment
+	 *
+	 * @param time	current simulation time
+	 * @return	completed processes, by completion time and pid
+	 */
+	public List<Process> complete(int time) {
+		if (service.isEmpty() || service.peek().getOrder() > time) return Collections.emptyList();
+		List<Process> done = new ArrayList<Process>();
+		account(time);
+		while (!service.isEmpty() && service.peek().getOrder() <= time) {
+			Process p = service.poll();
+			p.addCurrent(p.getTimeToBurstEnd());
+			done.add(p);
+		}
+		while (!queue.isEmpty() && (channels == 0 || service.size() < channels)) start(queue.poll(), time);
+		return done;
+	}
+
+	/**
+	 * Gets time units to next request completion
+	 *
+	 * @param time	current simulation time
+	 * @return	time units to next completion, Integer.MAX_VALUE when no request is in service
+	 */
+	public int getTimeToCompletion(int time) {
+		if (service.isEmpty()) return Integer.MAX_VALUE;
+		return service.peek().getOrder() - time;
+	}
+
+	/**
+	 * Gets time units left to a request completion
+	 *
+	 * @param p		requesting process
+	 * @param time	current simulation time
+	 * @return	time units left, -1 when request is still waiting
+	 */
+	public int getTimeLeft(Process p, int time) {
+		if (!service.contains(p)) return -1;
+		return p.getOrder() - time;
+	}
+
+	/**
+	 * Gets device utilisation since time 0: busy time ratio when channels are unlimited, channels time in service
+	 * ratio otherwise
+	 *
+	 * @param time	current simulation time
+	 * @return	utilisation, between 0 and 1
+	 */
+	public double getUtilisation(int time) {
+		if (time == 0) return 0;
+		int elapsed = Math.max(0, time - last);
+		if (channels == 0) return (double) (busy + (service.isEmpty() ? 0 : elapsed)) / time;
+		return (double) (work + (long) service.size() * elapsed) / ((double) channels * time);
+	}
+
+	/**
+	 * Gets queueing delay histogram, time from request to service start of requests served
+	 *
+	 * @return	queueing delay histogram
+	 */
+	public Histogram getDelay() {
+		return delay;
+	}
+
+	/**
+	 * Returns an iterator over requests, in service ones first, in no particular order
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		return concat(service.iterator(), queue.iterator());
+	}
+
+	/**
+	 * Returns an iterator over requests: in service ones by completion time and then waiting ones in service order
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> orderedIterator() {
+		return concat(service.orderedIterator(), queue.orderedIterator());
+	}
+
+	private static Iterator<Process> concat(final Iterator<Process> first, final Iterator<Process> second) {
+		return new Iterator<Process>() {
+			public boolean hasNext() {
+				return first.hasNext() || second.hasNext();
+			}
+			public Process next() {
+				if (first.hasNext()) return first.next();
+				if (second.hasNext()) return second.next();
+				throw new NoSuchElementException();
+			}
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Gets requests in service, internal order
+	 *
+	 * @return	iterator
+	 */
+	Iterator<Process> serviceIterator() {
+		return service.iterator();
+	}
+
+	/**
+	 * Gets requests in service count
+	 *
+	 * @return	requests in service
+	 */
+	int getServed() {
+		return service.size();
+	}
+
+	/**
+	 * Gets requests waiting, internal order
+	 *
+	 * @return	iterator
+	 */
+	Iterator<Process> queueIterator() {
+		return queue.iterator();
+	}
+
+	/**
+	 * Gets requests waiting count
+	 *
+	 * @return	requests waiting
+	 */
+	int getWaiting() {
+		return queue.size();
+	}
+
+	/**
+	 * Copies device for a scheduler snapshot, requests excluded. Delay histogram is shared with previous copy when
+	 * nothing has been recorded since then
+	 *
+	 * @param previous	previous copy or null
+	 * @return	device copy without requests
+	 */
+	IODevice copy(IODevice previous) {
+		IODevice copy = null;
+		try {
+			copy = (IODevice) super.clone();
+		} catch (CloneNotSupportedException e) {
+			e.printStackTrace();
+		}
+		copy.queue = new ProcessHeap();
+		copy.service = new ProcessHeap();
+		if (previous != null && previous.delay.getCount() == delay.getCount()) copy.delay = previous.delay;
+		else copy.delay = delay.clone();
+		return copy;
+	}
+
+	/**
+	 * Restores device from a snapshot copy, copy is left unchanged
+	 *
+	 * @param saved		snapshot copy
+	 * @param served	requests in service, internal order
+	 * @param waiting	requests waiting, internal order
+	 */
+	void restore(IODevice saved, List<Process> served, List<Process> waiting) {
+		queue.clear();
+		service.clear();
+		for (Process p : served) service.add(p);
+		for (Process p : waiting) queue.add(p);
+		last = saved.last;
+		busy = saved.busy;
+		work = saved.work;
+		delay = saved.delay.clone();
+	}
+
+	/**
+	 * Gets device specification
+	 *
+	 * @return	name, discipline, rate and channels
+	 */
+	public String toString() {
+		return name + " " + (discipline == FIFO ? "fifo" : "prio") + " " + rate + " " + channels;
+	}
+}
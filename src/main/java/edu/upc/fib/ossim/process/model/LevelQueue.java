@@ -0,0 +1,185 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Multilevel process queue (Process scheduling context). One indexed heap per level, processes are queued at
+ * their own level (level 0 first) and ordered by their natural order within it. A bitmap of non empty levels
+ * locates the first (or last) non empty level with a single instruction, so selection cost does not grow
+ * with the number of levels. Process level must not change while it is queued.
+ *
+ * @see Process#getLevel()
+ * @see ProcessStrategyMLFQ
+ */
+public class LevelQueue extends ProcessQueue {
+	public static final int MAX_LEVELS = 64;	// Bitmap size
+	private ProcessHeap[] levels;
+	private long bitmap;	// Bit l set when level l is not empty
+	private int size;
+
+	/**
+	 * Constructs an empty multilevel queue
+	 *
+	 * @param levels	number of levels, between 1 and MAX_LEVELS
+	 */
+	public LevelQueue(int levels) {
+		this.levels = new ProcessHeap[Math.max(1, Math.min(levels, MAX_LEVELS))];
+		for (int l = 0; l < this.levels.length; l++) this.levels[l] = new ProcessHeap();
+		bitmap = 0;
+		size = 0;
+	}
+
+	private int level(Process p) {
+		return Math.max(0, Math.min(p.getLevel(), levels.length - 1));
+	}
+
+	/**
+	 * Gets queued processes count
+	 *
+	 * @return	processes count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Inserts a process into its level
+	 *
+	 * @param p	process
+	 * @return	true
+	 */
+	public boolean offer(Process p) {
+		int l = level(p);
+		levels[l].offer(p);
+		bitmap |= 1L << l;
+		size++;
+		return true;
+	}
+
+	/**
+	 * Retrieves first non empty level's head without removing it
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process peek() {
+		if (bitmap == 0) return null;
+		return levels[Long.numberOfTrailingZeros(bitmap)].peek();
+	}
+
+	/**
+	 * Retrieves and removes first non empty level's head
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process poll() {
+		if (bitmap == 0) return null;
+		int l = Long.numberOfTrailingZeros(bitmap);
+		Process p = levels[l].poll();
+		if (levels[l].isEmpty()) bitmap &= ~(1L << l);
+		size--;
+		return p;
+	}
+
+	/**
+	 * Is process queued? Constant time
+	 *
+	 * @param o	process
+	 * @return	process is queued
+	 */
+	public boolean contains(Object o) {
+		return (o instanceof Process) && levels[level((Process) o)].contains(o);
+	}
+
+	/**
+	 * Removes a process from its level, logarithmic time
+	 *
+	 * @param o	process
+	 * @return	process was queued
+	 */
+	public boolean remove(Object o) {
+		if (!contains(o)) return false;
+		int l = level((Process) o);
+		levels[l].remove(o);
+		if (levels[l].isEmpty()) bitmap &= ~(1L << l);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Restores process position within its level after its order has changed
+	 *
+	 * @param p	queued process
+	 * @return	process is queued
+	 */
+	public boolean update(Process p) {
+		return levels[level(p)].update(p);
+	}
+
+	/**
+	 * Retrieves without removing it one of the last processes of last non empty level
+	 *
+	 * @return	one of the last processes or null if queue is empty
+	 */
+	public Process peekLast() {
+		if (bitmap == 0) return null;
+		return levels[63 - Long.numberOfLeadingZeros(bitmap)].peekLast();
+	}
+
+	/**
+	 * Removes all processes
+	 */
+	public void clear() {
+		for (int l = 0; l < levels.length; l++) levels[l].clear();
+		bitmap = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns an iterator over queued processes level by level, in no particular order within a level
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		return new LevelIterator(false);
+	}
+
+	/**
+	 * Returns an iterator over queued processes in queue order, as they would be polled
+	 *
+	 * @return	ordered iterator
+	 */
+	public Iterator<Process> orderedIterator() {
+		return new LevelIterator(true);
+	}
+
+	private class LevelIterator implements Iterator<Process> {
+		// Chains non empty levels iterators
+		private boolean ordered;
+		private long pending = bitmap;	// Non empty levels not visited yet
+		private Iterator<Process> it;
+
+		private LevelIterator(boolean ordered) {
+			this.ordered = ordered;
+		}
+
+		public boolean hasNext() {
+			while ((it == null || !it.hasNext()) && pending != 0) {
+				int l = Long.numberOfTrailingZeros(pending);
+				pending &= pending - 1;
+				it = ordered ? levels[l].orderedIterator() : levels[l].iterator();
+			}
+			return it != null && it.hasNext();
+		}
+
+		public Process next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return it.next();
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
@@ -8,26 +8,52 @@ import edu.upc.fib.ossim.utils.Translation;
 
 /**
  * Process definition (Process scheduling context), instance are comparable to sort them, and cloneable to clone them.  
+ * Instances are views: identity, counters and burst cursors live into a primitive row, shared rows while process is 
+ * in the system or a private one otherwise. Name, color and burst cycle are kept by the view  
+ * 
+ * @see ProcessRows
  * 
  * @author Alex Macia
  */
 public class Process implements Comparable<Process>, Cloneable { 
 	private static int maxpid = 1;
-	private int pid;
+	// Columns of process row
+	private static final int PID = 0;
+	private static final int PRIO = 1;	// more value --> more priority 
+	private static final int GROUP = 2;	// Proportional share group, 0 by default
+	private static final int GANG = 3;	// Gang of processes running together, -1 none
+	private static final int GANG_SIZE = 4;	// Processes in its gang
+	private static final int SUBMISSION = 5;
+	private static final int PERIODIC = 6;	// 1 if periodic
+	private static final int PERIOD = 7;	// Time between job releases, 0 means burst cycle size
+	private static final int DEADLINE = 8;	// Job relative deadline, 0 means period
+	private static final int RELEASE = 9;	// Current job release time
+	private static final int CURRENT = 10;
+	private static final int RUN = 11;	// Burst cycle run at current burst moment 
+	private static final int OFFSET = 12;	// Current burst moment offset within its run
+	private static final int WAITING = 13;
+	private static final int READY_SINCE = 14;	// Time entering ready queue, -1 when not in ready queue
+	private static final int IO_SINCE = 15;	// Time current I/O burst was requested to its device
+	private static final int CPU = 16;
+	private static final int QEXECUTED = 17;	// Quantum consumed
+	private static final int LEVEL = 18;	// Multilevel queue level, 0 is the highest
+	private static final int VRUNTIME_HIGH = 19;	// Weighted cpu time, fair scheduling (high and low halves)
+	private static final int VRUNTIME_LOW = 20;
+	private static final int COMPLETION = 21;
+	private static final int RESPONSE = 22;
+	private static final int ORDER = 23;	// value to compare
+	private static final int PROCESSOR = 24;	// Cpu running process or last one
+	private static final int OFF_SINCE = 25;	// Time it left the cpu holding its cache, -1 if it never ran
+	private static final int CACHE_CPU = 26;	// Cpu holding its cache
+	private static final int SLOT = 27;	// Gang matrix cell, -1 none
 	private String name;
-	private int prio;  // more value --> more priority 
-	private int timesubmission;	
-	private boolean periodic;
-	private Vector<Integer> burstsCycle;
-	private int current;
-	private int waiting;
-	private int cpu;
-	private int qexecuted; // Quantum consumed
-	private int timecompletion;
-	private int timeresponse;
-	private double iorate;
-	private int order; // value to compare
+	private BurstCycle burstsCycle;
 	private Color color;
+	private ProcessRows rows;	// Rows this process views, null if its row is private 
+	private int[] block;	// Rows block (columns), or private single row block
+	private int row;
+	private int queueIndex; // Position of this view into its process queue's heap, -1 when not queued
+	private Process saved; // Copy kept by last scheduler snapshot, shared by later ones while process does not change
 	
 	/** 
 	 * Constructs a process
@@ -41,27 +67,96 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @param color	process  color
 	 */
 	public Process(int pid, String name, int prio, int timesubmission, boolean periodic, Vector<Integer> burstsCycle, Color color) {
-		this.pid = pid;
+		this(pid, name, prio, timesubmission, periodic, new BurstCycle(burstsCycle), color);
+	}
+
+	/** 
+	 * Constructs a process from a run length encoded burst cycle
+	 * 
+	 * @param pid	process identifier
+	 * @param name	process name	
+	 * @param prio	process priority
+	 * @param timesubmission	process initial time. (entering ready queue)
+	 * @param periodic	true means endless process that repeats burst cycle indefinitely, otherwise	only once
+	 * @param burstsCycle process burst cycle  
+	 * @param color	process  color
+	 */
+	public Process(int pid, String name, int prio, int timesubmission, boolean periodic, BurstCycle burstsCycle, Color color) {
 		this.name = name;
-		this.prio = prio;
-		this.timesubmission = timesubmission;
-		this.periodic = periodic;
 		this.burstsCycle = burstsCycle;
 		this.color = color;
-		this.timeresponse = -1;
-		int ioburst = 0;
-		for (int i=0; i < burstsCycle.size(); i++) ioburst += burstsCycle.get(i);
-		this.iorate = (double) ioburst / burstsCycle.size();
+		this.block = ProcessRows.single();
+		this.row = 0;
+		this.queueIndex = -1;
+		set(PID, pid);
+		set(PRIO, prio);
+		set(SUBMISSION, timesubmission);
+		set(PERIODIC, periodic ? 1 : 0);
+		set(RESPONSE, -1);
+		set(READY_SINCE, -1);
+		set(OFF_SINCE, -1);
+		set(GANG, -1);
+		set(GANG_SIZE, 1);
+		set(SLOT, -1);
+		set(RELEASE, timesubmission);
 		maxpid++;
 	}
 
+	private int get(int column) {
+		return block[row * ProcessRows.COLUMNS + column];
+	}
+
+	private void set(int column, int value) {
+		block[row * ProcessRows.COLUMNS + column] = value;
+	}
+
+	/**
+	 * Gets rows this process views
+	 * 
+	 * @return	rows, null if process row is private
+	 */
+	ProcessRows getRows() {
+		return rows;
+	}
+
+	/**
+	 * Gets block holding process row
+	 * 
+	 * @return	rows block or private single row block
+	 */
+	int[] getBlock() {
+		return block;
+	}
+
+	/**
+	 * Gets process row into its block
+	 * 
+	 * @return	row
+	 */
+	int getRow() {
+		return row;
+	}
+
+	/**
+	 * Process views a row, its values are already there
+	 * 
+	 * @param rows	rows, null for a private single row block
+	 * @param block	rows block
+	 * @param row	row
+	 */
+	void view(ProcessRows rows, int[] block, int row) {
+		this.rows = rows;
+		this.block = block;
+		this.row = row;
+	}
+
 	/**
 	 * Gets process identifier
 	 * 
 	 * @return process identifier
 	 */
 	public int getPid() {
-		return pid;
+		return get(PID);
 	}
 
 	/**
@@ -88,7 +183,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process submission time
 	 */
 	public int getTimesubmission() {
-		return timesubmission;
+		return get(SUBMISSION);
 	}
 
 	/**
@@ -97,16 +192,91 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return Is process periodic? 	
 	 */
 	public boolean isPeriodic() {
-		return periodic;
+		return get(PERIODIC) != 0;
 	}
 	
+	/**
+	 * Gets time between process job releases, a job is a burst cycle execution. Burst cycle size unless set
+	 * 
+	 * @return	process period
+	 */
+	public int getPeriod() {
+		int period = get(PERIOD);
+		return period > 0 ? period : burstsCycle.size();
+	}
+
+	/**
+	 * Gets process job relative deadline, time from job release to job end. Period unless set
+	 * 
+	 * @return	process relative deadline
+	 */
+	public int getDeadline() {
+		int deadline = get(DEADLINE);
+		return deadline > 0 ? deadline : getPeriod();
+	}
+
+	/**
+	 * Sets process period and relative deadline, 0 means default value
+	 * 
+	 * @param period	time between job releases
+	 * @param deadline	job relative deadline
+	 */
+	public void setPeriod(int period, int deadline) {
+		set(PERIOD, Math.max(0, period));
+		set(DEADLINE, Math.max(0, deadline));
+	}
+
+	/**
+	 * Gets process current job release time
+	 * 
+	 * @return	current job release time
+	 */
+	public int getRelease() {
+		return get(RELEASE);
+	}
+
+	/**
+	 * Gets process current job absolute deadline
+	 * 
+	 * @return	current job release time plus relative deadline
+	 */
+	public int getAbsoluteDeadline() {
+		return get(RELEASE) + getDeadline();
+	}
+
+	/**
+	 * Current job ends, next job is released one period later
+	 */
+	public void nextRelease() {
+		set(RELEASE, get(RELEASE) + getPeriod());
+	}
+
 	/**
 	 * Gets process bursts cycle vector. 	
 	 * 
 	 * @return process bursts cycle vector
 	 */
 	public Vector<Integer> getBurstsCycle() {
-		return burstsCycle;
+		return burstsCycle.toVector();
+	}
+
+	/**
+	 * Gets process burst cycle size (CPU + I/O)
+	 * 
+	 * @return	process burst cycle size
+	 */
+	public int getBurstsSize() {
+		return burstsCycle.size();
+	}
+
+	/**
+	 * Is burst cycle moment i a cpu burst? 
+	 * 
+	 * @param i 	burst cycle moment
+	 * @return	burst cycle moment is cpu 
+	 */
+	public boolean isCPUBurst(int i) {
+		return burstsCycle.getBurst(i) == BurstCycle.CPU;
 	}
 	
 	/**
@@ -115,7 +285,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process current execution moment
 	 */
 	public int getCurrent() {
-		return current;
+		return get(CURRENT);
 	}
 
 	/**
@@ -124,8 +294,8 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process current bursts moment
 	 */
 	public int getCurrentBurst() {
-		if (periodic) return current%burstsCycle.size();
-		else return current;
+		if (isPeriodic()) return get(CURRENT)%burstsCycle.size();
+		else return get(CURRENT);
 	}
 
 	/**
@@ -133,24 +303,89 @@ public class Process implements Comparable<Process>, Cloneable {
 	 *  
 	 */
 	public void incCurrent() {
-		this.current++;
+		set(CURRENT, get(CURRENT) + 1);
+		int run = get(RUN);
+		if (run < burstsCycle.getRuns()) {
+			int offset = get(OFFSET) + 1;
+			if (offset == burstsCycle.getLength(run)) { // Next run
+				run++;
+				offset = 0;
+				if (isPeriodic() && run == burstsCycle.getRuns()) run = 0;
+				set(RUN, run);
+			}
+			set(OFFSET, offset);
+		}
+	}
+	
+	/**
+	 * Adds time to current process burst moment
+	 * 
+	 * @param x	time to add
+	 */
+	public void addCurrent(int x) {
+		set(CURRENT, get(CURRENT) + x);
+		int i = getCurrentBurst();
+		if (i < burstsCycle.size()) {
+			int run = burstsCycle.findRun(i);
+			set(RUN, run);
+			set(OFFSET, i - burstsCycle.getStart(run));
+		} else { // Process end's
+			set(RUN, burstsCycle.getRuns());
+			set(OFFSET, 0);
+		}
 	}
 	
 	/**
-	 * Gets process waiting time
+	 * Gets process waiting time, time at ready queue not included while process is still there
 	 * 
 	 * @return process waiting time
 	 */
 	public int getWaiting() {
-		return waiting;
+		return get(WAITING);
+	}
+
+	/**
+	 * Gets process waiting time at a given time, including time at ready queue while process is still there
+	 * 
+	 * @param time	current simulation time
+	 * @return process waiting time
+	 */
+	public int getWaiting(int time) {
+		int readySince = get(READY_SINCE);
+		if (readySince < 0) return get(WAITING);
+		return get(WAITING) + time - readySince;
 	}
 	
 	/**
-	 * Increments waiting process time
-	 *  
+	 * Gets time process entered ready queue
+	 * 
+	 * @return	entering time, -1 when not in ready queue
+	 */
+	public int getReadySince() {
+		return get(READY_SINCE);
+	}
+
+	/**
+	 * Process enters ready queue, waiting time starts counting
+	 * 
+	 * @param time	current simulation time
+	 */
+	public void enterReady(int time) {
+		set(READY_SINCE, time);
+	}
+	
+	/**
+	 * Process leaves ready queue, time waited is added to waiting time
+	 * 
+	 * @param time	current simulation time
+	 * @return	time waited since entering ready queue, -1 if process was not there
 	 */
-	public void incWaiting() {
-		this.waiting++;
+	public int leaveReady(int time) {
+		int readySince = get(READY_SINCE);
+		int stay = readySince < 0 ? -1 : time - readySince;
+		if (stay >= 0) set(WAITING, get(WAITING) + stay);
+		set(READY_SINCE, -1);
+		return stay;
 	}
 
 	/**
@@ -158,7 +393,25 @@ public class Process implements Comparable<Process>, Cloneable {
 	 *  
 	 */
 	public void incCPU() {
-		this.cpu++;
+		set(CPU, get(CPU) + 1);
+	}
+	
+	/**
+	 * Adds time to cpu process time
+	 * 
+	 * @param x	time to add
+	 */
+	public void addCPU(int x) {
+		set(CPU, get(CPU) + x);
+	}
+
+	/**
+	 * Gets cpu process time
+	 * 
+	 * @return cpu process time
+	 */
+	public int getCPU() {
+		return get(CPU);
 	}
 
 	/**
@@ -167,7 +420,78 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process priority
 	 */
 	public int getPrio() {
-		return prio;
+		return get(PRIO);
+	}
+
+	/**
+	 * Gets process proportional share group
+	 * 
+	 * @return	group, 0 by default
+	 * 
+	 * @see ShareQueue
+	 */
+	public int getGroup() {
+		return get(GROUP);
+	}
+
+	/**
+	 * Sets process proportional share group, processes of a group share its cpu share by their tickets
+	 * 
+	 * @param group	group, 0 or higher
+	 */
+	public void setGroup(int group) {
+		set(GROUP, Math.max(0, group));
+	}
+
+	/**
+	 * Gets process gang, processes of a gang are scheduled to run together
+	 * 
+	 * @return	gang, -1 if process is not part of a gang
+	 * 
+	 * @see GangMatrix
+	 */
+	public int getGang() {
+		return get(GANG);
+	}
+
+	/**
+	 * Gets processes count of process gang
+	 * 
+	 * @return	gang size, 1 if process is not part of a gang
+	 */
+	public int getGangSize() {
+		return get(GANG_SIZE);
+	}
+
+	/**
+	 * Sets process gang
+	 * 
+	 * @param gang	gang, 0 or higher, negative if process is not part of a gang
+	 * @param size	processes in the gang, at least 1
+	 */
+	public void setGang(int gang, int size) {
+		set(GANG, Math.max(-1, gang));
+		set(GANG_SIZE, gang < 0 ? 1 : Math.max(1, size));
+	}
+
+	/**
+	 * Gets process gang matrix cell
+	 * 
+	 * @return	cell, -1 if it has none
+	 * 
+	 * @see GangMatrix
+	 */
+	public int getSlot() {
+		return get(SLOT);
+	}
+
+	/**
+	 * Sets process gang matrix cell
+	 * 
+	 * @param slot	cell, -1 none
+	 */
+	public void setSlot(int slot) {
+		set(SLOT, slot);
 	}
 	
 	/**
@@ -176,7 +500,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process completion time
 	 */
 	public int getTimecompletion() {
-		return timecompletion;
+		return get(COMPLETION);
 	}
 
 	/**
@@ -185,7 +509,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @param timecompletion	
 	 */
 	public void setTimecompletion(int timecompletion) {
-		this.timecompletion = timecompletion;
+		set(COMPLETION, timecompletion);
 	}
 
 	/**
@@ -194,7 +518,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process response time
 	 */
 	public int getTimeresponse() {
-		return timeresponse;
+		return get(RESPONSE);
 	}
 
 	/**
@@ -203,7 +527,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @param timeresponse
 	 */
 	public void setTimeresponse(int timeresponse) {
-		this.timeresponse = timeresponse;
+		set(RESPONSE, timeresponse);
 	}
 	
 	/**
@@ -212,7 +536,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return process quantum run time
 	 */
 	public int getQexecuted() {
-		return qexecuted;
+		return get(QEXECUTED);
 	}
 
 	/**
@@ -221,7 +545,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @param x	time to add
 	 */
 	public void addQexecuted(int x) {
-		this.qexecuted += x;
+		set(QEXECUTED, get(QEXECUTED) + x);
 	}
 
 	/**
@@ -230,7 +554,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @param qexecuted	time
 	 */
 	public void setQexecuted(int qexecuted) {
-		this.qexecuted = qexecuted;
+		set(QEXECUTED, qexecuted);
 	}
 
 	/**
@@ -239,7 +563,7 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return	order
 	 */
 	public int getOrder() {
-		return order;
+		return get(ORDER);
 	}
 
 	/**
@@ -248,7 +572,53 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @param order	process order
 	 */
 	public void setOrder(int order) {
-		this.order = order;
+		set(ORDER, order);
+	}
+
+	/**
+	 * Gets process multilevel queue level
+	 * 
+	 * @return	level, 0 is the highest
+	 */
+	public int getLevel() {
+		return get(LEVEL);
+	}
+
+	/**
+	 * Sets process multilevel queue level
+	 * 
+	 * @param level	level, 0 is the highest
+	 */
+	public void setLevel(int level) {
+		set(LEVEL, level);
+	}
+
+	/**
+	 * Gets process virtual runtime, cpu time weighted by its priority
+	 * 
+	 * @return	virtual runtime
+	 */
+	public long getVruntime() {
+		return ((long) get(VRUNTIME_HIGH) << 32) | (get(VRUNTIME_LOW) & 0xffffffffL);
+	}
+
+	/**
+	 * Sets process virtual runtime
+	 * 
+	 * @param vruntime	virtual runtime
+	 */
+	public void setVruntime(long vruntime) {
+		set(VRUNTIME_HIGH, (int) (vruntime >>> 32));
+		set(VRUNTIME_LOW, (int) vruntime);
+	}
+
+	/**
+	 * Adds weighted cpu time to process virtual runtime
+	 * 
+	 * @param x	virtual time to add
+	 */
+	public void addVruntime(long x) {
+		setVruntime(getVruntime() + x);
 	}
 
 	/**
@@ -268,31 +638,75 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return Gets current burst duration
 	 */
 	public int getCurrentBurstDuration() {
-		int cbduration = 0;
-		int cb = burstsCycle.get(getCurrentBurst());
-		int i = getCurrentBurst();
-		while (i < burstsCycle.size() && burstsCycle.get(i) == cb) {
-			cbduration++;
-			i++;
-		}
-		if (periodic && i >= burstsCycle.size() && burstsCycle.get(0) == cb) {  
-			i = 0;
-			while (i < getCurrentBurst() && burstsCycle.get(i) == cb) {
-				cbduration++;
-				i++;
-			}
+		int runs = burstsCycle.getRuns();
+		int run = get(RUN);
+		if (run >= runs) return 0;
+		boolean periodic = isPeriodic();
+		if (periodic && runs == 1) return burstsCycle.size(); // Endless burst, whole cycle 
+
+		int cbduration = burstsCycle.getLength(run) - get(OFFSET);
+		if (periodic && run == runs - 1 && burstsCycle.getType(0) == burstsCycle.getType(run)) {
+			cbduration += burstsCycle.getLength(0);
 		}
-		
 		return cbduration;
 	}
 	
+	/**
+	 * Is current burst endless? A periodic process with a single run repeats the same burst forever, 
+	 * its current burst duration does not get shorter as it runs 
+	 * 
+	 * @return	current burst is endless
+	 */
+	public boolean isEndlessBurst() {
+		return isPeriodic() && burstsCycle.getRuns() == 1;
+	}
+
+	/**
+	 * Gets time units to current burst end, a periodic process job ends at burst cycle end even when burst goes on
+	 * 
+	 * @return	time units to current burst or job end
+	 */
+	public int getTimeToBurstEnd() {
+		if (isPeriodic()) return Math.min(getCurrentBurstDuration(), burstsCycle.size() - getCurrentBurst());
+		return getCurrentBurstDuration();
+	}
+
+	/**
+	 * Gets I/O device current burst targets
+	 * 
+	 * @return	device number, from 0, -1 if current burst is not I/O
+	 */
+	public int getCurrentDevice() {
+		if (!isCurrentIO()) return -1;
+		return burstsCycle.getType(get(RUN)) - BurstCycle.IO;
+	}
+
+	/**
+	 * Gets time current I/O burst was requested to its device
+	 * 
+	 * @return	request time
+	 */
+	public int getIOSince() {
+		return get(IO_SINCE);
+	}
+
+	/**
+	 * Sets time current I/O burst is requested to its device
+	 * 
+	 * @param time	request time
+	 */
+	public void setIOSince(int time) {
+		set(IO_SINCE, time);
+	}
+
 	/**
 	 * Is current burst IO?
 	 * 
 	 * @return current burst is IO
 	 */
 	public boolean isCurrentIO() {
-		return burstsCycle.get(getCurrentBurst()) == 1;
+		int run = get(RUN);
+		return run < burstsCycle.getRuns() && burstsCycle.getType(run) != BurstCycle.CPU;
 	}
 	
 	/**
@@ -330,18 +744,23 @@ public class Process implements Comparable<Process>, Cloneable {
 	public Vector<Object> getProcessTableInfo(int currenttime) {
 		// Process information table header 
 		Vector<Object> info = new Vector<Object>();
-		info.add(new ColorCell(new Integer(pid).toString(), color));
+		int timesubmission = getTimesubmission();
+		info.add(new ColorCell(new Integer(getPid()).toString(), color));
 		info.add(new ColorCell(name, Color.WHITE));
-		info.add(new ColorCell(new Integer(prio).toString(), Color.WHITE));
+		info.add(new ColorCell(new Integer(getPrio()).toString(), Color.WHITE));
 		info.add(new ColorCell(new Integer(timesubmission).toString(), Color.WHITE));
-		if (periodic) info.add(new ColorCell("\u2713", Color.WHITE));
+		if (isPeriodic()) info.add(new ColorCell("\u2713", Color.WHITE));
 		else info.add(new ColorCell("-", Color.WHITE));
 		if (currenttime > 0 && currenttime >= timesubmission) { // Ready queue 
+			int waiting = getWaiting(currenttime);
+			int cpu = getCPU();
+			int timeresponse = getTimeresponse();
+			int timecompletion = getTimecompletion();
 			info.add(new ColorCell(new Integer(cpu).toString(), Color.WHITE));
 			if (timeresponse >= 0) info.add(new ColorCell(new Integer(timeresponse).toString(), Color.WHITE)); // Response Time
 			else info.add(new ColorCell("", Color.WHITE));
 			info.add(new ColorCell(new Integer(waiting).toString(), Color.WHITE));  // Waiting time
-			if (periodic) info.add(new ColorCell("\u221e", Color.WHITE)); // infinite
+			if (isPeriodic()) info.add(new ColorCell("\u221e", Color.WHITE)); // infinite
 			else {
 				if (timecompletion > 0) info.add(new ColorCell(new Integer(timecompletion - timesubmission).toString(), Color.WHITE)); // Turnaround Time
 				else info.add(new ColorCell("", Color.WHITE));
@@ -356,7 +775,7 @@ public class Process implements Comparable<Process>, Cloneable {
 			info.add(new ColorCell("", Color.WHITE)); 
 			info.add(new ColorCell("", Color.WHITE)); 
 		}
-		info.add(new ColorCell(new Double(iorate).toString(), Color.WHITE)); // IO rate
+		info.add(new ColorCell(new Double(burstsCycle.getIORate()).toString(), Color.WHITE)); // IO rate
 		return info;
 	}
 	
@@ -372,7 +791,7 @@ public class Process implements Comparable<Process>, Cloneable {
 		
 		attribute = new Vector<String>();
 		attribute.add("pid");
-		attribute.add(Integer.toString(pid));
+		attribute.add(Integer.toString(getPid()));
 		data.add(attribute);
 		attribute = new Vector<String>();
 		attribute.add("name");
@@ -380,24 +799,20 @@ public class Process implements Comparable<Process>, Cloneable {
 		data.add(attribute);
 		attribute = new Vector<String>();
 		attribute.add("prio");
-		attribute.add(Integer.toString(prio));
+		attribute.add(Integer.toString(getPrio()));
 		data.add(attribute);
 		attribute = new Vector<String>();
 		attribute.add("submission");
-		attribute.add(Integer.toString(timesubmission));
+		attribute.add(Integer.toString(getTimesubmission()));
 		data.add(attribute);
 		attribute = new Vector<String>();
 		attribute.add("periodic");
-		attribute.add(Boolean.toString(periodic));
+		attribute.add(Boolean.toString(isPeriodic()));
 		data.add(attribute);
 		
-		String sbursts = ""; // Convert bursts to String 1 0 0 1 ..., blank between bursts
-		for(int i = 0; i < burstsCycle.size(); i++) {
-			sbursts += burstsCycle.get(i) + " ";
-		}
 		attribute = new Vector<String>();
 		attribute.add("bursts");
-		attribute.add(sbursts);
+		attribute.add(burstsCycle.toString()); // Convert bursts to String 1 0 0 1 ..., blank between bursts
 		data.add(attribute);
 		attribute = new Vector<String>();
 		attribute.add("color");
@@ -413,10 +828,105 @@ public class Process implements Comparable<Process>, Cloneable {
 	 * @return 	comparison result 
 	 */
 	public int compareTo(Process p) {
-		if (this.order == p.getOrder()) return this.pid - p.getPid();
-		else return this.order - p.getOrder();
+		int order = getOrder(), other = p.getOrder();
+		if (order == other) return getPid() - p.getPid();
+		else return order < other ? -1 : 1;
 	}
 	
+	/**
+	 * Gets cpu running process, or last one it ran on (or is queued to)
+	 * 
+	 * @return	cpu number
+	 */
+	public int getProcessor() {
+		return get(PROCESSOR);
+	}
+
+	/**
+	 * Sets cpu running process, or queued to
+	 * 
+	 * @param processor	cpu number
+	 */
+	public void setProcessor(int processor) {
+		set(PROCESSOR, processor);
+	}
+
+	/**
+	 * Gets time process left the cpu holding its cache
+	 * 
+	 * @return	time it left its cache cpu, -1 if it never ran
+	 */
+	public int getOffSince() {
+		return get(OFF_SINCE);
+	}
+
+	/**
+	 * Gets cpu holding process cache, meaningless if it never ran
+	 * 
+	 * @return	cpu number
+	 */
+	public int getCacheCpu() {
+		return get(CACHE_CPU);
+	}
+
+	/**
+	 * Process leaves a cpu, its cache stays there and cools down from now on
+	 * 
+	 * @param time	current time
+	 * @param cpu	cpu it leaves
+	 */
+	public void leaveCpu(int time, int cpu) {
+		set(OFF_SINCE, time);
+		set(CACHE_CPU, cpu);
+	}
+
+	/**
+	 * Gets process position into its process queue's heap
+	 * 
+	 * @return	heap position or -1 when not queued
+	 */
+	int getQueueIndex() {
+		return queueIndex;
+	}
+
+	/**
+	 * Sets process position into its process queue's heap
+	 * 
+	 * @param queueIndex	heap position or -1 when not queued
+	 */
+	void setQueueIndex(int queueIndex) {
+		this.queueIndex = queueIndex;
+	}
+
+	/**
+	 * Copies this process for a scheduler snapshot when it has changed since last copy  
+	 * 
+	 * @param force	copy it anyway
+	 * @return	new copy or null if process has not changed since last one
+	 */
+	Process save(boolean force) {
+		if (!force && saved != null && sameState(saved)) return null;
+		saved = clone();
+		saved.queueIndex = -1;
+		return saved;
+	}
+
+	/**
+	 * Restores a process from this snapshot copy, copy is left unchanged to be restored again
+	 * 
+	 * @return	restored process
+	 */
+	Process restore() {
+		Process p = clone();
+		p.saved = this;
+		return p;
+	}
+
+	private boolean sameState(Process p) {
+		// Scheduling state, every column
+		return ProcessRows.equals(block, row, p.block, p.row);
+	}
+
 	/**
 	 * Clones this process
 	 * 
@@ -426,6 +936,11 @@ public class Process implements Comparable<Process>, Cloneable {
 	    Process clone = null;
 		try {
 			clone = (Process) super.clone();
+			clone.saved = null;
+			clone.rows = null;
+			clone.block = ProcessRows.single();
+			clone.row = 0;
+			ProcessRows.copy(block, row, clone.block, 0);
 		} catch (CloneNotSupportedException e) {
 			e.printStackTrace();
 		}
@@ -0,0 +1,513 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.upc.fib.ossim.utils.Translation;
+
+
+/**
+ * What-if comparison of scheduling algorithms (Process scheduling context). The same workload is run once per scenario,
+ * for instance every algorithm with and without preemption and every quantum size, or a quantum sizes sweep. Each scenario 
+ * runs on its own ProcessSimulationEngine with its own workload copy and its own strategy. Copies are shallow, burst cycles 
+ * are immutable and shared, so a run costs no parsing nor burst copying. Runs share nothing, so they are forked concurrently 
+ * on a fork-join pool, and results are kept by scenario position, so comparison table and CSV output are the same whatever 
+ * the number of threads
+ *
+ * @see ProcessSimulationEngine
+ */
+public class ProcessComparison {
+	public static final int FCFS = 0;
+	public static final int SJF = 1;
+	public static final int PRIO = 2;
+	public static final int RR = 3;
+	public static final int MLFQ = 4;
+	public static final int CFS = 5;
+	public static final int EDF = 6;
+	public static final int RM = 7;
+	public static final int STRIDE = 8;
+	public static final int LOTTERY = 9;
+	public static final int GANG = 10;
+	private static final String[] NAMES = {"pr_51", "pr_52", "pr_53", "pr_54", "pr_82", "pr_84", "pr_87", "pr_89", "pr_110", "pr_112", "pr_119"};
+	private static final String[] CODES = {"FCFS", "SJF", "PRIO", "RR", "MLFQ", "CFS", "EDF", "RM", "STRIDE", "LOTTERY", "GANG"};
+	// Result values
+	public static final int EFFICIENCY = 0;
+	public static final int THROUGHPUT = 1;
+	public static final int TURNAROUND = 2;		// Average, then p50, p95 and p99 from TURNAROUND_P50
+	public static final int WAITING = 3;
+	public static final int RESPONSE = 4;
+	public static final int TURNAROUND_P50 = 5;
+	public static final int WAITING_P50 = 8;
+	public static final int RESPONSE_P50 = 11;
+	private static final int VALUES = 14;
+	private static final double[] PERCENTILES = {0.50, 0.95, 0.99};
+	public static final int[] QUANTA = {1, 2, 4, 8};	// Default quantum sizes
+	public static final int MAX_TIME = 100000;			// Simulation time limit, periodic processes never finish
+	private List<Process> workload;
+	private int cpus;
+	private boolean multiprogram;
+	private int[] switchCosts;		// Context switch, cache penalty and cache half life time units
+	private int balanceInterval;	// Load balancing among cpus
+	private boolean stealing;
+	private int aging;				// SJF and PRIO aging
+	private String devices;			// I/O devices specification, every run gets its own devices, null default
+	private Vector<Scenario> scenarios;
+	private double[][] results;		// Per scenario result values, NaN when undefined
+	private int published;			// Results already written to CSV output, in scenario order
+	private Writer csv;
+	private IOException csvException;
+
+	/**
+	 * Scheduling settings of a single comparison run
+	 */
+	public static class Scenario {
+		private int algorithm;
+		private boolean preemptive;
+		private int quantum;
+
+		/**
+		 * Constructs a scenario
+		 *
+		 * @param algorithm		algorithm, one of FCFS, SJF, PRIO, RR, MLFQ, CFS, EDF, RM, STRIDE, LOTTERY, GANG
+		 * @param preemptive	scheduling is preemptive (SJF, PRIO, EDF and RM)
+		 * @param quantum		quantum size (RR, MLFQ, CFS, STRIDE, LOTTERY and GANG)
+		 */
+		public Scenario(int algorithm, boolean preemptive, int quantum) {
+			this.algorithm = algorithm;
+			this.preemptive = preemptive;
+			this.quantum = quantum;
+		}
+
+		/**
+		 * Creates a new strategy for this scenario, every run needs its own
+		 *
+		 * @return	scheduling algorithm
+		 */
+		public ProcessStrategy createStrategy() {
+			return createStrategy(0);
+		}
+
+		/**
+		 * Creates a new strategy for this scenario with aging, every run needs its own
+		 *
+		 * @param aging		time units per priority level (SJF and PRIO), 0 none
+		 * @return	scheduling algorithm
+		 */
+		public ProcessStrategy createStrategy(int aging) {
+			switch (algorithm) {
+			case SJF: return new ProcessStrategySJF(preemptive, aging);
+			case PRIO: return new ProcessStrategyPrio(preemptive, aging);
+			case RR: return new ProcessStrategyRR(quantum);
+			case MLFQ: return new ProcessStrategyMLFQ(quantum);
+			case CFS: return new ProcessStrategyCFS(quantum);
+			case EDF: return new ProcessStrategyEDF(preemptive);
+			case RM: return new ProcessStrategyRM(preemptive);
+			case STRIDE: return new ProcessStrategyStride(quantum);
+			case LOTTERY: return new ProcessStrategyLottery(quantum);
+			case GANG: return new ProcessStrategyGang(quantum);
+			default: return new ProcessStrategyFCFS();
+			}
+		}
+
+		/**
+		 * Is this scenario preemptive? Quantum based algorithms always are and FCFS never is
+		 *
+		 * @return	scheduling is preemptive
+		 */
+		public boolean isPreemptive() {
+			if (algorithm == FCFS) return false;
+			if (hasQuantum()) return true;
+			return preemptive;
+		}
+
+		/**
+		 * Gets scenario algorithm
+		 *
+		 * @return	algorithm, one of FCFS, SJF, PRIO, RR, MLFQ, CFS, EDF, RM, STRIDE, LOTTERY, GANG
+		 */
+		public int getAlgorithm() {
+			return algorithm;
+		}
+
+		/**
+		 * Does this scenario use a quantum size?
+		 *
+		 * @return	algorithm uses quantum size
+		 */
+		public boolean hasQuantum() {
+			return algorithm == RR || algorithm == MLFQ || algorithm == CFS || algorithm == STRIDE || algorithm == LOTTERY || algorithm == GANG;
+		}
+
+		/**
+		 * Gets scenario quantum size
+		 *
+		 * @return	quantum size
+		 */
+		public int getQuantum() {
+			return quantum;
+		}
+
+		/**
+		 * Gets scenario name in current session language: algorithm, preemptiveness and quantum size if any
+		 *
+		 * @return	scenario name
+		 */
+		public String getName() {
+			String name = Translation.getInstance().getLabel(NAMES[algorithm]);
+			if (hasQuantum()) name += ", " + Translation.getInstance().getLabel("pr_56") + " : " + quantum;
+			else if (algorithm != FCFS) name += ", " + Translation.getInstance().getLabel(preemptive ? "pr_24" : "pr_25");
+			return name;
+		}
+	}
+
+	/**
+	 * Constructs a comparison without scenarios. Only FCFS follows multiprogramming setting, 
+	 * other algorithms are always multiprogramming
+	 *
+	 * @param workload		workload processes, initial state
+	 * @param cpus			number of cpus
+	 * @param multiprogram	FCFS scheduling is multiprogramming
+	 *
+	 * @see ContextProcess#getWorkload()
+	 */
+	public ProcessComparison(List<Process> workload, int cpus, boolean multiprogram) {
+		this.workload = workload;
+		this.cpus = cpus;
+		this.multiprogram = multiprogram;
+		switchCosts = new int[3];
+		balanceInterval = ContextProcess.BALANCE_INTERVAL;
+		stealing = true;
+		scenarios = new Vector<Scenario>();
+	}
+
+	/**
+	 * Sets load balancing among cpus of every run, periodic push every ContextProcess.BALANCE_INTERVAL and stealing by default
+	 *
+	 * @param balanceInterval	time units between periodic push, 0 never
+	 * @param stealing			idle cpus steal ready processes
+	 *
+	 * @see ContextProcess#setLoadBalancing(int, boolean)
+	 */
+	public void setLoadBalancing(int balanceInterval, boolean stealing) {
+		this.balanceInterval = balanceInterval;
+		this.stealing = stealing;
+	}
+
+	/**
+	 * Sets I/O devices of every run, an unlimited FIFO pool by default. Runs are concurrent, so each one 
+	 * gets its own idle copy of the devices
+	 *
+	 * @param devices	I/O devices, at least one
+	 *
+	 * @see ContextProcess#setIODevices(List)
+	 */
+	public void setIODevices(List<IODevice> devices) {
+		this.devices = IODevice.toSpec(devices);
+	}
+
+	/**
+	 * Sets SJF and Priority scenarios aging, none by default
+	 *
+	 * @param aging		time units per priority level, 0 none
+	 */
+	public void setAging(int aging) {
+		this.aging = aging;
+	}
+
+	/**
+	 * Sets context switch costs of every run, none by default
+	 *
+	 * @param switchCost		context switch time units
+	 * @param cachePenalty		cache refill time units, process resuming cold
+	 * @param cacheHalfLife		time units off cpu halving cache warmth
+	 *
+	 * @see ContextProcess#setSwitchCosts(int, int, int)
+	 */
+	public void setSwitchCosts(int switchCost, int cachePenalty, int cacheHalfLife) {
+		switchCosts = new int[] {switchCost, cachePenalty, cacheHalfLife};
+	}
+
+	/**
+	 * Creates a comparison of every algorithm, preemptive and nonpreemptive, and default quantum sizes
+	 *
+	 * @param workload		workload processes, initial state
+	 * @param cpus			number of cpus
+	 * @param multiprogram	FCFS scheduling is multiprogramming
+	 * @return	comparison
+	 */
+	public static ProcessComparison createComparison(List<Process> workload, int cpus, boolean multiprogram) {
+		ProcessComparison comparison = new ProcessComparison(workload, cpus, multiprogram);
+		comparison.addScenario(new Scenario(FCFS, false, 0));
+		for (int a = SJF; a <= GANG; a++) {
+			if (a == RR || a == MLFQ || a == CFS || a == STRIDE || a == LOTTERY || a == GANG) {
+				for (int q = 0; q < QUANTA.length; q++) comparison.addScenario(new Scenario(a, true, QUANTA[q]));
+			} else {
+				comparison.addScenario(new Scenario(a, false, 0));
+				comparison.addScenario(new Scenario(a, true, 0));
+			}
+		}
+		return comparison;
+	}
+
+	/**
+	 * Creates a quantum sweep: Round Robin for every quantum size within a range, besides SJF and Priority  
+	 * nonpreemptive and preemptive as reference 
+	 *
+	 * @param workload		workload processes, initial state
+	 * @param cpus			number of cpus
+	 * @param from			lowest quantum size
+	 * @param to			highest quantum size
+	 * @return	comparison
+	 */
+	public static ProcessComparison createSweep(List<Process> workload, int cpus, int from, int to) {
+		ProcessComparison comparison = new ProcessComparison(workload, cpus, true);
+		for (int q = Math.max(1, from); q <= to; q++) comparison.addScenario(new Scenario(RR, true, q));
+		comparison.addScenario(new Scenario(SJF, false, 0));
+		comparison.addScenario(new Scenario(SJF, true, 0));
+		comparison.addScenario(new Scenario(PRIO, false, 0));
+		comparison.addScenario(new Scenario(PRIO, true, 0));
+		return comparison;
+	}
+
+	/**
+	 * Gets comparison scenarios count
+	 *
+	 * @return	scenarios count
+	 */
+	public int size() {
+		return scenarios.size();
+	}
+
+	/**
+	 * Gets a comparison scenario
+	 *
+	 * @param i	scenario position
+	 * @return	scenario
+	 */
+	public Scenario getScenario(int i) {
+		return scenarios.get(i);
+	}
+
+	/**
+	 * Gets a scenario result value, scenarios are run first if needed
+	 *
+	 * @param i		scenario position
+	 * @param value	result value: EFFICIENCY, THROUGHPUT, TURNAROUND, WAITING, RESPONSE or a percentile
+	 * @return	result value, NaN when undefined (no finished process)
+	 */
+	public double getResult(int i, int value) {
+		if (results == null) run();
+		return results[i][value];
+	}
+
+	/**
+	 * Adds a scenario to compare, after the existing ones
+	 *
+	 * @param s	scenario
+	 */
+	public void addScenario(Scenario s) {
+		scenarios.add(s);
+		results = null;
+	}
+
+	/**
+	 * Runs every scenario using as many threads as available processors
+	 */
+	public void run() {
+		run(Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Runs every scenario concurrently, scenarios are split in halves recursively on a fork-join pool
+	 *
+	 * @param parallelism	number of threads
+	 */
+	public void run(int parallelism) {
+		try {
+			run(parallelism, null);
+		} catch (IOException e) {
+			// No output
+		}
+	}
+
+	/**
+	 * Runs every scenario concurrently and streams results as CSV lines, a header line and then a line per scenario.
+	 * A scenario line is written as soon as it and every previous scenario have finished, so lines keep 
+	 * scenario order. Output is not closed
+	 *
+	 * @param parallelism	number of threads
+	 * @param csv			CSV output, null means none
+	 * @throws IOException	writing output
+	 */
+	public void run(int parallelism, Writer csv) throws IOException {
+		results = new double[scenarios.size()][];
+		published = 0;
+		this.csv = csv;
+		csvException = null;
+		if (csv != null) csv.write(getCSVHeader());
+		if (!scenarios.isEmpty()) {
+			ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+			try {
+				pool.invoke(new RunAction(0, scenarios.size()));
+			} finally {
+				pool.shutdown();
+			}
+		}
+		this.csv = null;
+		if (csv != null) csv.flush();
+		if (csvException != null) throw csvException;
+	}
+
+	private synchronized void publish(int i, double[] result) {
+		// Keeps result and writes every consecutive finished one
+		results[i] = result;
+		while (published < results.length && results[published] != null) {
+			if (csv != null && csvException == null) {
+				try {
+					csv.write(getCSVLine(published));
+				} catch (IOException e) {
+					csvException = e;
+				}
+			}
+			published++;
+		}
+	}
+
+	private class RunAction extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private int from;
+		private int to;
+
+		private RunAction(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		protected void compute() {
+			if (to - from == 1) publish(from, run(scenarios.get(from)));
+			else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RunAction(from, middle), new RunAction(middle, to));
+			}
+		}
+	}
+
+	private double[] run(Scenario s) {
+		// Single run, event driven as results are the same
+		ProcessSimulationEngine engine = new ProcessSimulationEngine(s.createStrategy(aging),
+				multiprogram || s.algorithm != FCFS, s.isPreemptive(), s.getQuantum(), cpus);
+		engine.setLoadBalancing(balanceInterval, stealing);
+		if (devices != null) engine.setIODevices(IODevice.parse(devices));
+		engine.setSwitchCosts(switchCosts[0], switchCosts[1], switchCosts[2]);
+		engine.addWorkload(workload);
+		engine.setEventDriven(true);
+		engine.run(MAX_TIME);
+		return getResult(engine.getContext(), engine.getTime());
+	}
+
+	private double[] getResult(ContextProcess context, int time) {
+		// Efficiency, Throughput, average Turnaround, Waiting and Response time and their percentiles
+		double[] result = new double[VALUES];
+		Arrays.fill(result, Double.NaN);
+		if (time == 0) return result;
+		ProcessStatistics stats = context.getStatistics();
+		double efficiency = 0;
+		for (int c = 0; c < cpus; c++) efficiency += context.getUtilisation(c, time);
+		result[EFFICIENCY] = efficiency / cpus;
+		result[THROUGHPUT] = (double) stats.getFinished() / (double) time;
+		if (stats.getFinished() == 0) return result;
+		result[TURNAROUND] = stats.getTurnaround().getAverage();
+		result[WAITING] = stats.getWaiting().getAverage();
+		result[RESPONSE] = stats.getResponse().getAverage();
+		for (int p = 0; p < PERCENTILES.length; p++) {
+			result[TURNAROUND_P50 + p] = stats.getTurnaround().getPercentile(PERCENTILES[p]);
+			result[WAITING_P50 + p] = stats.getWaiting().getPercentile(PERCENTILES[p]);
+			result[RESPONSE_P50 + p] = stats.getResponse().getPercentile(PERCENTILES[p]);
+		}
+		return result;
+	}
+
+	private String getCSVHeader() {
+		return "algorithm,preemptive,quantum,efficiency,throughput,turnaround,waiting,response," 
+			+ "turnaround_p50,turnaround_p95,turnaround_p99,waiting_p50,waiting_p95,waiting_p99,"
+			+ "response_p50,response_p95,response_p99\n";
+	}
+
+	private String getCSVLine(int i) {
+		// Locale independent numbers, undefined values are left empty
+		NumberFormat formatter = new DecimalFormat("0.####", new DecimalFormatSymbols(Locale.US));
+		Scenario s = scenarios.get(i);
+		StringBuffer line = new StringBuffer(CODES[s.algorithm]);
+		line.append(',').append(s.isPreemptive());
+		line.append(',').append(s.hasQuantum() ? Integer.toString(s.quantum) : "");
+		for (int v = 0; v < VALUES; v++) {
+			line.append(',');
+			if (!Double.isNaN(results[i][v])) line.append(formatter.format(results[i][v]));
+		}
+		return line.append('\n').toString();
+	}
+
+	private String format(NumberFormat formatter, double value) {
+		if (Double.isNaN(value)) return "--";
+		return formatter.format(value);
+	}
+
+	private String percentiles(double[] result, int p50) {
+		if (Double.isNaN(result[p50])) return "--";
+		return (int) result[p50] + " / " + (int) result[p50 + 1] + " / " + (int) result[p50 + 2];
+	}
+
+	/**
+	 * Gets comparison table header: scenario, Efficiency, Throughput, average Turnaround time, average Waiting time,
+	 * average Response Time and Turnaround, Waiting and Response time percentiles (50, 95 and 99)
+	 *
+	 * @return	table header
+	 */
+	public Vector<Object> getTableHeader() {
+		Vector<Object> header = new Vector<Object>();
+		header.add(Translation.getInstance().getLabel("pr_50"));
+		header.add(Translation.getInstance().getLabel("pr_68"));
+		header.add(Translation.getInstance().getLabel("pr_60"));
+		header.add(Translation.getInstance().getLabel("pr_61"));
+		header.add(Translation.getInstance().getLabel("pr_62"));
+		header.add(Translation.getInstance().getLabel("pr_63"));
+		header.add(Translation.getInstance().getLabel("pr_75"));
+		header.add(Translation.getInstance().getLabel("pr_92"));
+		header.add(Translation.getInstance().getLabel("pr_76"));
+		return header;
+	}
+
+	/**
+	 * Gets comparison table data, a row per scenario in scenario order. Scenarios are run first if needed
+	 *
+	 * @return	table data
+	 */
+	public Vector<Vector<Object>> getTableData() {
+		if (results == null) run();
+		Vector<Vector<Object>> data = new Vector<Vector<Object>>();
+		NumberFormat formatter = new DecimalFormat("#0.00");
+		Iterator<Scenario> it = scenarios.iterator();
+		int i = 0;
+		while (it.hasNext()) {
+			double[] result = results[i++];
+			Vector<Object> row = new Vector<Object>();
+			row.add(it.next().getName());
+			for (int v = EFFICIENCY; v <= RESPONSE; v++) row.add(format(formatter, result[v]));
+			row.add(percentiles(result, TURNAROUND_P50));
+			row.add(percentiles(result, WAITING_P50));
+			row.add(percentiles(result, RESPONSE_P50));
+			data.add(row);
+		}
+		return data;
+	}
+}
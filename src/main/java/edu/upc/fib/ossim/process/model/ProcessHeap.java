@@ -0,0 +1,322 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Process heap (Process scheduling context). Indexed binary heap of processes ordered by their natural order,
+ * or by a comparator given at construction, every process knows its own position in the heap, so removing a process or updating its order (decrease or
+ * increase key) costs O(log n) instead of a linear scan. Sift rules are the same as java.util.PriorityQueue ones,
+ * so heap layout and iterator order (unordered) do not change from it. In natural order every heap position keeps its process 
+ * order and pid packed as a primitive key, so sifting compares heap's own keys and never reads processes rows.
+ * A process can be in a single queue at a time, its position is checked against the heap before trusting it.
+ *
+ * @see Process#compareTo(Process)
+ */
+public class ProcessHeap extends ProcessQueue {
+	private Process[] heap;
+	private long[] keys;	// Natural order key at every heap position, order << 32 | pid
+	private int size;
+	private int modCount;
+	private Comparator<Process> comparator;	// null for natural order
+
+	/**
+	 * Constructs an empty process heap ordered by processes natural order
+	 */
+	public ProcessHeap() {
+		this(null);
+	}
+
+	/**
+	 * Constructs an empty process heap
+	 *
+	 * @param comparator	processes order, null for their natural order
+	 */
+	public ProcessHeap(Comparator<Process> comparator) {
+		this.comparator = comparator;
+		heap = new Process[11];
+		keys = new long[11];
+		size = 0;
+		modCount = 0;
+	}
+
+	/**
+	 * Gets queued processes count
+	 *
+	 * @return	processes count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Inserts a process into queue
+	 *
+	 * @param p	process
+	 * @return	true
+	 */
+	public boolean offer(Process p) {
+		if (p == null) throw new NullPointerException();
+		modCount++;
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length < 64 ? 2 * heap.length + 2 : heap.length + (heap.length >> 1));
+			keys = Arrays.copyOf(keys, heap.length);
+		}
+		int i = size;
+		size++;
+		if (i == 0) set(0, p, key(p));
+		else siftUp(i, p, key(p));
+		return true;
+	}
+
+	/**
+	 * Retrieves queue's head without removing it
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process peek() {
+		return size == 0 ? null : heap[0];
+	}
+
+	/**
+	 * Retrieves process at heap's last position without removing it, a heap leaf, so one of the last processes
+	 * in queue order, in constant time
+	 *
+	 * @return	process at heap's last position or null if queue is empty
+	 */
+	public Process peekLast() {
+		return size == 0 ? null : heap[size - 1];
+	}
+
+	/**
+	 * Retrieves and removes queue's head
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process poll() {
+		if (size == 0) return null;
+		modCount++;
+		Process head = heap[0];
+		int s = --size;
+		Process last = heap[s];
+		heap[s] = null;
+		if (s != 0) siftDown(0, last, keys[s]);
+		head.setQueueIndex(-1);
+		return head;
+	}
+
+	/**
+	 * Is process queued? Constant time
+	 *
+	 * @param o	process
+	 * @return	process is queued
+	 */
+	public boolean contains(Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * Removes a process from queue, logarithmic time
+	 *
+	 * @param o	process
+	 * @return	process was queued
+	 */
+	public boolean remove(Object o) {
+		int i = indexOf(o);
+		if (i < 0) return false;
+		removeAt(i);
+		return true;
+	}
+
+	/**
+	 * Restores process position after its order has changed (increased or decreased), logarithmic time
+	 *
+	 * @param p	queued process
+	 * @return	process is queued
+	 */
+	public boolean update(Process p) {
+		int i = indexOf(p);
+		if (i < 0) return false;
+		long key = key(p);
+		siftDown(i, p, key);
+		if (heap[i] == p) siftUp(i, p, key);
+		return true;
+	}
+
+	/**
+	 * Rebuilds heap after several processes order have changed, linear time
+	 */
+	public void reorder() {
+		modCount++;
+		for (int i = 0; i < size; i++) keys[i] = key(heap[i]);
+		for (int i = (size >>> 1) - 1; i >= 0; i--) siftDown(i, heap[i], keys[i]);
+	}
+
+	/**
+	 * Removes all processes
+	 */
+	public void clear() {
+		modCount++;
+		for (int i = 0; i < size; i++) {
+			if (heap[i].getQueueIndex() == i) heap[i].setQueueIndex(-1);
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Returns an iterator over queued processes in no particular order (heap order)
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		return new Iterator<Process>() {
+			private int cursor = 0;
+			private int expected = modCount;
+
+			public boolean hasNext() {
+				return cursor < size;
+			}
+
+			public Process next() {
+				if (expected != modCount) throw new ConcurrentModificationException();
+				if (cursor >= size) throw new NoSuchElementException();
+				return heap[cursor++];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns an iterator over queued processes in queue order, as they would be polled. Processes are visited
+	 * through heap frontier, so first k processes cost O(k log k) and queue is neither copied nor sorted
+	 *
+	 * @return	ordered iterator
+	 */
+	public Iterator<Process> orderedIterator() {
+		return new Iterator<Process>() {
+			private int[] frontier = new int[8];	// Binary heap of heap positions
+			private int count = size > 0 ? 1 : 0;	// frontier[0] = 0, heap's head
+			private int expected = modCount;
+
+			public boolean hasNext() {
+				return count > 0;
+			}
+
+			public Process next() {
+				if (expected != modCount) throw new ConcurrentModificationException();
+				if (count == 0) throw new NoSuchElementException();
+				int i = frontier[0];
+				int last = frontier[--count];
+				if (count > 0) down(last);
+				int child = 2 * i + 1;
+				if (child < size) up(child);
+				if (child + 1 < size) up(child + 1);
+				return heap[i];
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+			private void up(int i) {
+				if (count == frontier.length) frontier = Arrays.copyOf(frontier, 2 * count);
+				int k = count++;
+				while (k > 0) {
+					int parent = (k - 1) >>> 1;
+					if (compare(i, frontier[parent]) >= 0) break;
+					frontier[k] = frontier[parent];
+					k = parent;
+				}
+				frontier[k] = i;
+			}
+
+			private void down(int i) {
+				int k = 0;
+				int half = count >>> 1;
+				while (k < half) {
+					int child = 2 * k + 1;
+					if (child + 1 < count && compare(frontier[child], frontier[child + 1]) > 0) child++;
+					if (compare(i, frontier[child]) <= 0) break;
+					frontier[k] = frontier[child];
+					k = child;
+				}
+				frontier[k] = i;
+			}
+		};
+	}
+
+	private int indexOf(Object o) {
+		// Process position, checked against heap (process may have been cloned or moved to another queue)
+		if (!(o instanceof Process)) return -1;
+		int i = ((Process) o).getQueueIndex();
+		if (i >= 0 && i < size && heap[i] == o) return i;
+		return -1;
+	}
+
+	private void removeAt(int i) {
+		modCount++;
+		Process removed = heap[i];
+		int s = --size;
+		if (s == i) heap[i] = null;
+		else {
+			Process moved = heap[s];
+			long key = keys[s];
+			heap[s] = null;
+			siftDown(i, moved, key);
+			if (heap[i] == moved) siftUp(i, moved, key);
+		}
+		removed.setQueueIndex(-1);
+	}
+
+	private long key(Process p) {
+		// Natural order key, order first and pid on ties (pids are not negative), unused with a comparator
+		return comparator == null ? ((long) p.getOrder() << 32) | p.getPid() : 0;
+	}
+
+	private int compare(int i, int j) {
+		// Compares processes at heap positions i and j
+		return comparator == null ? Long.compare(keys[i], keys[j]) : comparator.compare(heap[i], heap[j]);
+	}
+
+	private int compare(Process p1, long key1, int j) {
+		// Compares a process, not into heap yet, with process at heap position j
+		return comparator == null ? Long.compare(key1, keys[j]) : comparator.compare(p1, heap[j]);
+	}
+
+	private void set(int i, Process p, long key) {
+		heap[i] = p;
+		keys[i] = key;
+		p.setQueueIndex(i);
+	}
+
+	private void siftUp(int k, Process p, long key) {
+		while (k > 0) {
+			int parent = (k - 1) >>> 1;
+			if (compare(p, key, parent) >= 0) break;
+			set(k, heap[parent], keys[parent]);
+			k = parent;
+		}
+		set(k, p, key);
+	}
+
+	private void siftDown(int k, Process p, long key) {
+		int half = size >>> 1;
+		while (k < half) {
+			int child = 2 * k + 1;
+			int right = child + 1;
+			if (right < size && compare(child, right) > 0) child = right;
+			if (compare(p, key, child) <= 0) break;
+			set(k, heap[child], keys[child]);
+			k = child;
+		}
+		set(k, p, key);
+	}
+}
@@ -0,0 +1,69 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+
+
+/**
+ * Process queue (Process scheduling context). Queue of processes where a concrete process can be found, 
+ * removed or repositioned without scanning the queue. Algorithms choose their ready queue implementation,  
+ * an indexed heap by default 
+ *
+ * @see ProcessHeap
+ * @see ProcessStrategy#createQueue()
+ */
+public abstract class ProcessQueue extends AbstractQueue<Process> {
+	/**
+	 * Is process queued? 
+	 *
+	 * @param o	process
+	 * @return	process is queued
+	 */
+	public abstract boolean contains(Object o);
+
+	/**
+	 * Removes a process from queue 
+	 *
+	 * @param o	process
+	 * @return	process was queued
+	 */
+	public abstract boolean remove(Object o);
+
+	/**
+	 * Restores process position after its order has changed (increased or decreased)
+	 *
+	 * @param p	queued process
+	 * @return	process is queued
+	 */
+	public abstract boolean update(Process p);
+
+	/**
+	 * Retrieves without removing it one of the last processes in queue order, in constant time
+	 *
+	 * @return	one of the last processes or null if queue is empty
+	 */
+	public abstract Process peekLast();
+
+	/**
+	 * Returns an iterator over queued processes in queue order, as they would be polled
+	 *
+	 * @return	ordered iterator
+	 */
+	public abstract Iterator<Process> orderedIterator();
+
+	/**
+	 * Gets queue own state apart from its processes, to restore it along with them. None by default
+	 *
+	 * @return	queue state, null when none
+	 */
+	public long[] getState() {
+		return null;
+	}
+
+	/**
+	 * Restores queue own state, once its processes are queued again. Nothing to do by default
+	 *
+	 * @param state	queue state, as got from getState
+	 */
+	public void setState(long[] state) { }
+}
@@ -0,0 +1,134 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+
+
+/**
+ * Live process rows (Process scheduling context). Identity, counters and burst cursors of processes in the system
+ * are stored into a single primitive int block, a row of <code>COLUMNS</code> values per process. A row keeps its columns 
+ * together, scheduling a process reads and updates several of them at once, so it touches a single cache line pair.
+ * Process instances are thin views over their row, so every process of a simulation shares the same block.
+ * A process out of any rows (not already submitted, finished or a snapshot copy) holds a private single row block.
+ * Rows of processes leaving are reused, so block is bounded by processes in the system at the same time
+ *
+ * @see Process
+ */
+class ProcessRows {
+	public static final int COLUMNS = 32;	// Values per row
+	private int[] block;		// Row after row, COLUMNS * capacity
+	private Process[] views;	// Process viewing a row, null if row is free
+	private int[] free;			// Free rows stack
+	private int frees;
+	private int size;			// Rows in use
+
+	/**
+	 * Constructs empty rows
+	 *
+	 * @param capacity	initial rows capacity
+	 */
+	public ProcessRows(int capacity) {
+		capacity = Math.max(capacity, 1);
+		block = new int[COLUMNS * capacity];
+		views = new Process[capacity];
+		free = new int[capacity];
+		for (int r = 0; r < capacity; r++) free[r] = capacity - 1 - r; // Lower rows first
+		frees = capacity;
+		size = 0;
+	}
+
+	/**
+	 * Creates a private single row block
+	 *
+	 * @return	single row block
+	 */
+	public static int[] single() {
+		return new int[COLUMNS];
+	}
+
+	/**
+	 * Copies a row from a block into another block row
+	 *
+	 * @param from		source block
+	 * @param fromRow	source row
+	 * @param to		target block
+	 * @param toRow		target row
+	 */
+	public static void copy(int[] from, int fromRow, int[] to, int toRow) {
+		System.arraycopy(from, fromRow * COLUMNS, to, toRow * COLUMNS, COLUMNS);
+	}
+
+	/**
+	 * Are two rows equal?
+	 *
+	 * @param a			first block
+	 * @param aRow		first row
+	 * @param b			second block
+	 * @param bRow		second row
+	 * @return	rows are equal
+	 */
+	public static boolean equals(int[] a, int aRow, int[] b, int bRow) {
+		int i = aRow * COLUMNS, j = bRow * COLUMNS;
+		for (int c = 0; c < COLUMNS; c++) {
+			if (a[i + c] != b[j + c]) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets rows in use
+	 *
+	 * @return	rows in use
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Moves process view into these rows, copying its row. Nothing to do if it is already here
+	 *
+	 * @param p	process
+	 */
+	public void attach(Process p) {
+		if (p.getRows() == this) return;
+		if (frees == 0) grow();
+		int row = free[--frees];
+		copy(p.getBlock(), p.getRow(), block, row);
+		if (p.getRows() != null) p.getRows().release(p.getRow());
+		views[row] = p;
+		size++;
+		p.view(this, block, row);
+	}
+
+	/**
+	 * Moves process view out of these rows into a private single row block. Nothing to do if it is not here
+	 *
+	 * @param p	process
+	 */
+	public void detach(Process p) {
+		if (p.getRows() != this) return;
+		int row = p.getRow();
+		int[] single = single();
+		copy(block, row, single, 0);
+		release(row);
+		p.view(null, single, 0);
+	}
+
+	private void release(int row) {
+		// Row becomes free
+		views[row] = null;
+		free[frees++] = row;
+		size--;
+	}
+
+	private void grow() {
+		// Doubles capacity, views are given new block
+		int capacity = views.length, grown = 2 * capacity;
+		block = Arrays.copyOf(block, COLUMNS * grown);
+		views = Arrays.copyOf(views, grown);
+		free = Arrays.copyOf(free, grown);
+		for (int r = grown - 1; r >= capacity; r--) free[frees++] = r;
+		for (int r = 0; r < capacity; r++) {
+			if (views[r] != null) views[r].view(this, block, r);
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.List;
+import java.util.Vector;
+
+
+/**
+ * Headless process scheduling engine. Runs a scenario on a ContextProcess without any view or timer,
+ * forwarding time in a tight loop until simulation ends, so workloads can be evaluated at full CPU speed.
+ * Processes are added as in the interactive simulation, scheduling settings are fixed on construction.
+ * In event driven mode time units where nothing can change are skipped in a single step, 
+ * jumping straight to next event (submission, burst end, quantum expiration...) with the same results.
+ * Several cpus may be simulated, each one scheduling its own ready queue with the same algorithm.
+ * Scheduler snapshots are not taken unless a snapshot interval is set, a run may then travel back to past times 
+ *
+ * @see ContextProcess
+ */
+public class ProcessSimulationEngine {
+	private ContextProcess context;
+	private boolean multiprogram;
+	private boolean preemptive;
+	private int quantum;
+	private int time;
+	private boolean eventDriven;
+
+	/**
+	 * Constructs a ProcessSimulationEngine with an empty workload
+	 *
+	 * @param algorithm		scheduling algorithm
+	 * @param multiprogram	scheduling is multiprogramming
+	 * @param preemptive	scheduling is preemptive
+	 * @param quantum		scheduling quantum size
+	 */
+	public ProcessSimulationEngine(ProcessStrategy algorithm, boolean multiprogram, boolean preemptive, int quantum) {
+		this.context = new ContextProcess(algorithm);
+		this.multiprogram = multiprogram;
+		this.preemptive = preemptive;
+		this.quantum = quantum;
+		this.time = 0;
+		this.eventDriven = false;
+		context.setPreemptive(preemptive);
+		context.setSnapshotInterval(0);
+	}
+
+	/**
+	 * Constructs a ProcessSimulationEngine with an empty workload on several cpus  
+	 *
+	 * @param algorithm		scheduling algorithm
+	 * @param multiprogram	scheduling is multiprogramming
+	 * @param preemptive	scheduling is preemptive
+	 * @param quantum		scheduling quantum size
+	 * @param cpus			number of cpus
+	 * 
+	 * @see ContextProcess#setCpus(int)
+	 */
+	public ProcessSimulationEngine(ProcessStrategy algorithm, boolean multiprogram, boolean preemptive, int quantum, int cpus) {
+		this(algorithm, multiprogram, preemptive, quantum);
+		context.setCpus(cpus);
+	}
+
+	/**
+	 * Sets load balancing among cpus
+	 * 
+	 * @param balanceInterval	time units between periodic push, 0 never
+	 * @param stealing			idle cpus steal ready processes
+	 * 
+	 * @see ContextProcess#setLoadBalancing(int, boolean)
+	 */
+	public void setLoadBalancing(int balanceInterval, boolean stealing) {
+		context.setLoadBalancing(balanceInterval, stealing);
+	}
+
+	/**
+	 * Sets context switch costs
+	 * 
+	 * @param switchCost		context switch time units
+	 * @param cachePenalty		cache refill time units, process resuming cold
+	 * @param cacheHalfLife		time units off cpu halving cache warmth
+	 * 
+	 * @see ContextProcess#setSwitchCosts(int, int, int)
+	 */
+	public void setSwitchCosts(int switchCost, int cachePenalty, int cacheHalfLife) {
+		context.setSwitchCosts(switchCost, cachePenalty, cacheHalfLife);
+	}
+
+	/**
+	 * Sets I/O devices, engine devices must not be shared with any other context
+	 * 
+	 * @param devices	I/O devices, at least one
+	 * 
+	 * @see ContextProcess#setIODevices(List)
+	 */
+	public void setIODevices(List<IODevice> devices) {
+		context.setIODevices(devices);
+	}
+
+	/**
+	 * Adds a process to the workload, see ContextProcess for data format
+	 *
+	 * @param data	process data: pid, name, priority, submission time, periodic, color, burst cycle and 
+	 * 				optionally period and relative deadline
+	 *
+	 * @see ContextProcess#addProcess(Vector, int)
+	 */
+	public void addProcess(Vector<Object> data) {
+		context.addProcess(data, 0);
+	}
+
+	/**
+	 * Adds copies of workload processes, see ContextProcess for workload state
+	 *
+	 * @param workload	workload processes
+	 *
+	 * @see ContextProcess#addWorkload(List)
+	 */
+	public void addWorkload(List<Process> workload) {
+		context.addWorkload(workload);
+	}
+
+	/**
+	 * Adds a process source to the workload, its processes are created as they are submitted. 
+	 * Finished processes information is not kept, only statistics
+	 *
+	 * @param source	process source, a process table, a synthetic workload generator or a trace
+	 *
+	 * @see ContextProcess#setProcessSource(ProcessSource)
+	 */
+	public void addProcesses(ProcessSource source) {
+		context.setProcessSource(source);
+		context.setKeepFinished(false);
+	}
+
+	/**
+	 * Runs simulation from time 0 until every process has finished or time reaches maxTime
+	 * (periodic processes never finish) and returns final statistics
+	 *
+	 * @param maxTime	simulation time limit
+	 *
+	 * @return	final statistical information
+	 *
+	 * @see ContextProcess#getTableStatsData(int)
+	 */
+	public Vector<String> run(int maxTime) {
+		time = 0;
+		boolean end = context.forwardTime(time, multiprogram, preemptive, quantum);
+		while (!end && time < maxTime) {
+			if (eventDriven) {
+				int skip = Math.min(context.getTimeToNextEvent(time, multiprogram), maxTime - time) - 1;
+				if (skip > 0) {
+					context.skipTime(skip);
+					time += skip;
+				}
+			}
+			time++;
+			end = context.forwardTime(time, multiprogram, preemptive, quantum);
+		}
+		return context.getTableStatsData(time);
+	}
+
+	/**
+	 * Sets event driven mode, skipping time units where no event happens
+	 * 
+	 * @param eventDriven	event driven mode
+	 */
+	public void setEventDriven(boolean eventDriven) {
+		this.eventDriven = eventDriven;
+	}
+
+	/**
+	 * Sets time units between scheduler snapshots, 0 none
+	 * 
+	 * @param snapshotInterval	time units between snapshots
+	 * 
+	 * @see ContextProcess#setSnapshotInterval(int)
+	 */
+	public void setSnapshotInterval(int snapshotInterval) {
+		context.setSnapshotInterval(snapshotInterval);
+	}
+
+	/**
+	 * Travels to any time since last run start, from nearest snapshot, and returns statistics at that time 
+	 * 
+	 * @param time	simulation time
+	 * 
+	 * @return	statistical information at that time
+	 * 
+	 * @see ContextProcess#travel(int, boolean, boolean, int)
+	 */
+	public Vector<String> travel(int time) {
+		context.travel(time, multiprogram, preemptive, quantum);
+		this.time = time;
+		return context.getTableStatsData(time);
+	}
+
+	/**
+	 * Restores initial workload state (time 0) so the same scenario can run again
+	 */
+	public void reset() {
+		context.restoreBackup();
+		time = 0;
+	}
+
+	/**
+	 * Gets simulation time reached by last run
+	 *
+	 * @return	simulation time
+	 */
+	public int getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets engine scheduling context
+	 *
+	 * @return	scheduling context
+	 */
+	public ContextProcess getContext() {
+		return context;
+	}
+}
@@ -0,0 +1,44 @@
+package edu.upc.fib.ossim.process.model;
+
+
+/**
+ * Source of processes not already submitted (Process scheduling context). Processes are handed out in submission 
+ * order and only then materialized, so large workloads (a process table, a synthetic workload generator or a trace) 
+ * cost no memory for processes far from their submission  
+ *
+ * @see ContextProcess#setProcessSource(ProcessSource)
+ */
+public interface ProcessSource {
+	/**
+	 * Gets processes not already handed out
+	 *
+	 * @return	processes remaining
+	 */
+	public int remaining();
+
+	/**
+	 * Are there processes not already handed out?
+	 *
+	 * @return	processes remaining
+	 */
+	public boolean hasNext();
+
+	/**
+	 * Gets submission time of next process to hand out
+	 *
+	 * @return	next submission time
+	 */
+	public int peekSubmission();
+
+	/**
+	 * Hands out next process in submission order
+	 *
+	 * @return	process
+	 */
+	public Process next();
+
+	/**
+	 * Restarts handing out processes from the first one, the same ones again
+	 */
+	public void reset();
+}
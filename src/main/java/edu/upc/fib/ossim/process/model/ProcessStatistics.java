@@ -0,0 +1,328 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+
+
+/**
+ * Running aggregates of process scheduling statistics. Finished processes and periodic jobs are recorded once
+ * (turnaround, waiting, response time and lateness histograms and % CPU sums), ready queue stays are recorded when they end 
+ * (ready time histogram, a starvation measure), cpu time is summed per proportional share group as it runs, and every simulation time unit is recorded with its
+ * busy cpus count into a window of the last time units, so statistics cost does not grow with simulation length
+ * nor with finished processes
+ *
+ * @see Histogram
+ */
+public class ProcessStatistics implements Cloneable {
+	private Histogram turnaround;
+	private Histogram waiting;
+	private Histogram response;
+	private Histogram lateness;		// Periodic jobs lateness, 0 when on time
+	private Histogram ready;		// Ready queue stays
+	private long missed;			// Periodic jobs ended after their deadline
+	private double cpuRate;			// Finished processes % CPU sum
+	private double cpuRateSquares;	// Finished processes % CPU squares sum
+	private long[] shares;			// Cpu time per proportional share group
+	// Last time units window, circular
+	private int[] busy;
+	private int[] done;
+	private int window;
+	private int cpus;
+	private int slot;
+	private long time;
+	private int busyWindow;
+	private int doneWindow;
+
+	/**
+	 * Constructs empty statistics
+	 *
+	 * @param window	time units window size
+	 */
+	public ProcessStatistics(int window) {
+		this.window = window;
+		turnaround = new Histogram();
+		waiting = new Histogram();
+		response = new Histogram();
+		lateness = new Histogram();
+		ready = new Histogram();
+		busy = new int[window];
+		done = new int[window];
+		cpus = 1;
+		clear();
+	}
+
+	/**
+	 * Removes all recorded information
+	 */
+	public void clear() {
+		turnaround.clear();
+		waiting.clear();
+		response.clear();
+		lateness.clear();
+		ready.clear();
+		shares = new long[1];
+		missed = 0;
+		cpuRate = 0;
+		cpuRateSquares = 0;
+		Arrays.fill(busy, 0);
+		Arrays.fill(done, 0);
+		slot = 0;
+		time = 0;
+		busyWindow = 0;
+		doneWindow = 0;
+	}
+
+	/**
+	 * Records a finished process, its completion time is counted into current time unit
+	 *
+	 * @param p	finished process
+	 */
+	public void addProcess(Process p) {
+		turnaround.add(p.getTimecompletion() - p.getTimesubmission());
+		waiting.add(p.getWaiting());
+		response.add(p.getTimeresponse());
+		if (p.getCPU() + p.getWaiting() > 0) {
+			double rate = (double) p.getCPU() / (p.getCPU() + p.getWaiting());
+			cpuRate += rate;
+			cpuRateSquares += rate * rate;
+		}
+		if (time > 0) {
+			done[slot]++;
+			doneWindow++;
+		}
+	}
+
+	/**
+	 * Records a periodic process job end
+	 *
+	 * @param lateness	job end time - job absolute deadline, negative when ended before its deadline
+	 */
+	public void addJob(int lateness) {
+		this.lateness.add(lateness);
+		if (lateness > 0) missed++;
+	}
+
+	/**
+	 * Records a ready queue stay, from entering the queue to leaving it to run or to move elsewhere
+	 *
+	 * @param time	time units in ready queue
+	 */
+	public void addReady(int time) {
+		ready.add(time);
+	}
+
+	/**
+	 * Records cpu time run by a process of a proportional share group
+	 *
+	 * @param group	process group
+	 * @param units	time units run
+	 *
+	 * @see Process#getGroup()
+	 */
+	public void addShare(int group, int units) {
+		if (group >= shares.length) shares = Arrays.copyOf(shares, group + 1);
+		shares[group] += units;
+	}
+
+	/**
+	 * Sets number of cpus, utilisation is averaged among them
+	 *
+	 * @param cpus	number of cpus
+	 */
+	public void setCpus(int cpus) {
+		this.cpus = cpus;
+	}
+
+	/**
+	 * Records time units and how many cpus have been busy along them
+	 *
+	 * @param units		time units
+	 * @param cpubusy	busy cpus
+	 */
+	public void addTime(int units, int cpubusy) {
+		int n = Math.min(units, window);
+		for (int i = 0; i < n; i++) {
+			slot = (slot + 1) % window;
+			busyWindow -= busy[slot];
+			doneWindow -= done[slot];
+			busy[slot] = cpubusy;
+			done[slot] = 0;
+			busyWindow += cpubusy;
+		}
+		time += units;
+	}
+
+	/**
+	 * Gets proportional share groups count, highest group that has run + 1
+	 *
+	 * @return	groups count
+	 */
+	public int getGroups() {
+		return shares.length;
+	}
+
+	/**
+	 * Gets a proportional share group achieved share, its cpu time / cpu time run
+	 *
+	 * @param group	group
+	 * @return	share, between 0 and 1
+	 */
+	public double getShare(int group) {
+		long total = 0;
+		for (long t : shares) total += t;
+		if (total == 0 || group >= shares.length) return 0;
+		return (double) shares[group] / total;
+	}
+
+	/**
+	 * Gets finished processes count
+	 *
+	 * @return	finished processes
+	 */
+	public long getFinished() {
+		return turnaround.getCount();
+	}
+
+	/**
+	 * Gets turnaround time histogram
+	 *
+	 * @return	turnaround time histogram
+	 */
+	public Histogram getTurnaround() {
+		return turnaround;
+	}
+
+	/**
+	 * Gets waiting time histogram
+	 *
+	 * @return	waiting time histogram
+	 */
+	public Histogram getWaiting() {
+		return waiting;
+	}
+
+	/**
+	 * Gets response time histogram
+	 *
+	 * @return	response time histogram
+	 */
+	public Histogram getResponse() {
+		return response;
+	}
+
+	/**
+	 * Gets ready queue stays histogram, stays still in progress are not included
+	 *
+	 * @return	ready time histogram
+	 */
+	public Histogram getReady() {
+		return ready;
+	}
+
+	/**
+	 * Gets periodic jobs ended count
+	 *
+	 * @return	jobs ended
+	 */
+	public long getJobs() {
+		return lateness.getCount();
+	}
+
+	/**
+	 * Gets ratio of periodic jobs ended after their deadline
+	 *
+	 * @return	deadline miss ratio, between 0 and 1, or 0 if there is no job ended
+	 */
+	public double getDeadlineMissRatio() {
+		if (getJobs() == 0) return 0;
+		return (double) missed / (double) getJobs();
+	}
+
+	/**
+	 * Gets periodic jobs lateness histogram, jobs ended on time are recorded as 0
+	 *
+	 * @return	lateness histogram
+	 */
+	public Histogram getLateness() {
+		return lateness;
+	}
+
+	/**
+	 * Gets Jain fairness index of finished processes % CPU (cpu time / (cpu time + waiting time)),
+	 * 1 when every process got the same share
+	 *
+	 * @return	fairness index, between 0 and 1, or 0 if there is no finished process
+	 */
+	public double getFairness() {
+		if (cpuRateSquares == 0) return 0;
+		return cpuRate * cpuRate / (getFinished() * cpuRateSquares);
+	}
+
+	/**
+	 * Gets cpu utilisation along last time units window, average among cpus
+	 *
+	 * @return	cpu utilisation, between 0 and 1
+	 */
+	public double getWindowUtilisation() {
+		if (time == 0) return 0;
+		return (double) busyWindow / (double) (Math.min(time, window) * cpus);
+	}
+
+	/**
+	 * Gets throughput along last time units window
+	 *
+	 * @return	finished processes per time unit
+	 */
+	public double getWindowThroughput() {
+		if (time == 0) return 0;
+		return (double) doneWindow / (double) Math.min(time, window);
+	}
+
+	/**
+	 * Gets time units window size
+	 *
+	 * @return	window size
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * Copies statistics for a scheduler snapshot. Histograms are large, so those where no value has been recorded 
+	 * since previous copy are shared with it
+	 *
+	 * @param previous	previous copy or null
+	 * @return	statistics copy
+	 */
+	ProcessStatistics copy(ProcessStatistics previous) {
+		ProcessStatistics copy = null;
+		try {
+			copy = (ProcessStatistics) super.clone();
+		} catch (CloneNotSupportedException e) {
+			e.printStackTrace();
+		}
+		copy.turnaround = copy(turnaround, previous == null ? null : previous.turnaround);
+		copy.waiting = copy(waiting, previous == null ? null : previous.waiting);
+		copy.response = copy(response, previous == null ? null : previous.response);
+		copy.lateness = copy(lateness, previous == null ? null : previous.lateness);
+		copy.ready = copy(ready, previous == null ? null : previous.ready);
+		copy.shares = shares.clone();
+		copy.busy = busy.clone();
+		copy.done = done.clone();
+		return copy;
+	}
+
+	private static Histogram copy(Histogram h, Histogram previous) {
+		// Histograms only grow until cleared, same count means same values
+		if (previous != null && previous.getCount() == h.getCount()) return previous;
+		return h.clone();
+	}
+
+	/**
+	 * Clones these statistics, histograms and window included
+	 *
+	 * @return	cloned statistics
+	 */
+	protected ProcessStatistics clone() {
+		return copy(null);
+	}
+}
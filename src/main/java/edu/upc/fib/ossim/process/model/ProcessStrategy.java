@@ -1,7 +1,5 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
 /**
  * Strategy Interface for process scheduling model (Strategy Pattern).
  * Any process scheduling algorithm must implement this strategy.  
@@ -23,6 +21,46 @@ public interface ProcessStrategy {
 	 * @param preemptive is algorithm preemptive
 	 */
 	public void setPreemptive(boolean preemptive);
+
+	/**
+	 * Sets aging, ready processes effective priority rises 1 level every aging time units waiting 
+	 * 
+	 * @param aging	time units per priority level, 0 for no aging
+	 */
+	public void setAging(int aging);
+
+	/**
+	 * Notifies number of cpus right before creating their ready queues, one per cpu in cpu order
+	 * 
+	 * @param cpus	number of cpus
+	 */
+	public void setCpus(int cpus);
+
+	/**
+	 * Creates an empty queue ordered as this algorithm requires, to keep ready processes  
+	 * 
+	 * @return	empty queue
+	 */
+	public ProcessQueue createQueue();
+
+	/**
+	 * Notifies current simulation time before scheduling at that time, algorithms depending on time 
+	 * (for instance periodic priority boost) update processes here  
+	 * 
+	 * @param time				current simulation time
+	 * @param queue				ready queue
+	 * @param running_process	current process in the cpu or null
+	 */
+	public void setTime(int time, ProcessQueue queue, Process running_process);
+
+	/**
+	 * Gets time units from current simulation time to next time setTime may update processes, 
+	 * whether cpus are running, idle or blocked  
+	 * 
+	 * @param time	current simulation time
+	 * @return	time units to next update or Integer.MAX_VALUE if none is expected
+	 */
+	public int getTimeToUpdate(int time);
 		
 	/**
 	 * Execute running process 1 time unit and returns next process in the cpu
@@ -31,7 +69,26 @@ public interface ProcessStrategy {
 	 * @param running_process	current process in the cpu not even completely finished
 	 * @return	next process in the cpu
 	 */
-	public Process forwardTime(PriorityQueue<Process> queue, Process running_process);
+	public Process forwardTime(ProcessQueue queue, Process running_process);
+	
+	/**
+	 * Gets time units the running process may execute before algorithm could take a different decision 
+	 * (preempt or swap it), assuming ready queue does not change meanwhile   
+	 * 
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time units to next algorithm decision or Integer.MAX_VALUE if none is expected
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process);
+	
+	/**
+	 * Accounts for running process executing several time units with no algorithm decision    
+	 * 
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @param time	time units executed
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time);
 	
 	/** 
 	 * Adds process to ready queue 
@@ -39,7 +96,7 @@ public interface ProcessStrategy {
 	 * @param p		process
 	 * @param queue	queue
 	 */
-	public void addProcess(Process p, PriorityQueue<Process> queue);
+	public void addProcess(Process p, ProcessQueue queue);
 	
 	/** 
 	 * Updates process from ready queue 
@@ -48,6 +105,29 @@ public interface ProcessStrategy {
 	 * @param new		new process to add 
 	 * @param queue	queue
 	 */
-	public void updProcess(Process pold, Process pnew, PriorityQueue<Process> queue);
+	public void updProcess(Process pold, Process pnew, ProcessQueue queue);
+
+	/** 
+	 * Notifies a process leaves the system, finished or removed. It is not queued 
+	 * 
+	 * @param p		process
+	 * @param queue	ready queue of its cpu
+	 */
+	public void delProcess(Process p, ProcessQueue queue);
+
+	/**
+	 * Gets algorithm own state apart from processes and queues (for instance an arrival counter), 
+	 * to restore it from a scheduler snapshot
+	 * 
+	 * @return	algorithm state
+	 */
+	public long getState();
+
+	/**
+	 * Restores algorithm own state
+	 * 
+	 * @param state	algorithm state
+	 */
+	public void setState(long state);
 }
 
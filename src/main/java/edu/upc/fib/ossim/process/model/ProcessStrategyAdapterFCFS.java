@@ -1,14 +1,12 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
 /**
  * Abstract class that implements interface ProcessStrategy (FCFS family: FCFS, RR)
  * 
  * @author Àlex
  */
 public abstract class ProcessStrategyAdapterFCFS implements ProcessStrategy {
-	private static int order = 0;
+	private int order = 0;	// Own arrival counter, strategies running concurrently share nothing
 	
 	/**
 	 * Nothing to do 
@@ -16,6 +14,68 @@ public abstract class ProcessStrategyAdapterFCFS implements ProcessStrategy {
 	 * @param preemptive unused
 	 */
 	public void setPreemptive(boolean preemptive) { }
+
+	/**
+	 * Nothing to do, arrival order never starves 
+	 * 
+	 * @param aging unused
+	 */
+	public void setAging(int aging) { }
+
+	/**
+	 * Nothing to do, ready queues are independent 
+	 * 
+	 * @param cpus unused
+	 */
+	public void setCpus(int cpus) { }
+	
+	/**
+	 * Running process is never swapped while queue does not change 
+	 * 
+	 * @param queue			unused
+	 * @param running_process	unused
+	 * @return	Integer.MAX_VALUE
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		return Integer.MAX_VALUE;
+	}
+	
+	/**
+	 * Nothing to do 
+	 * 
+	 * @param queue			unused
+	 * @param running_process	unused
+	 * @param time	unused
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) { }
+
+	/**
+	 * Ready processes are kept into an indexed heap  
+	 * 
+	 * @return	empty heap
+	 */
+	public ProcessQueue createQueue() {
+		return new ProcessHeap();
+	}
+
+	/**
+	 * Nothing to do, scheduling does not depend on time 
+	 * 
+	 * @param time				unused
+	 * @param queue				unused
+	 * @param running_process	unused
+	 */
+	public void setTime(int time, ProcessQueue queue, Process running_process) { }
+
+	/**
+	 * Scheduling does not depend on time 
+	 * 
+	 * @param time	unused
+	 * @return	Integer.MAX_VALUE
+	 */
+	public int getTimeToUpdate(int time) {
+		return Integer.MAX_VALUE;
+	}
 	
 	/** 
 	 * Adds process directly to queue's tail  
@@ -23,7 +83,7 @@ public abstract class ProcessStrategyAdapterFCFS implements ProcessStrategy {
 	 * @param p		process
 	 * @param queue	queue
 	 */
-	public void addProcess(Process p, PriorityQueue<Process> queue){
+	public void addProcess(Process p, ProcessQueue queue){
    		// FCFS add's process directly to the end. 
 		p.setOrder(order);
 		order++;
@@ -37,9 +97,35 @@ public abstract class ProcessStrategyAdapterFCFS implements ProcessStrategy {
 	 * @param pold		new process to add 
 	 * @param queue	queue
 	 */
-	public void updProcess(Process pold, Process pnew, PriorityQueue<Process> queue) {
+	public void updProcess(Process pold, Process pnew, ProcessQueue queue) {
 		int oldorder = pold.getOrder();
 		pnew.setOrder(oldorder);
 		queue.add(pnew);
 	}
+
+	/** 
+	 * Nothing to do, no process is kept apart from queues 
+	 * 
+	 * @param p		unused
+	 * @param queue	unused
+	 */
+	public void delProcess(Process p, ProcessQueue queue) { }
+
+	/**
+	 * Gets arrival counter 
+	 * 
+	 * @return	next arrival order
+	 */
+	public long getState() {
+		return order;
+	}
+
+	/**
+	 * Restores arrival counter 
+	 * 
+	 * @param state	next arrival order
+	 */
+	public void setState(long state) {
+		order = (int) state;
+	}
 }
@@ -1,21 +1,30 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
 import edu.upc.fib.ossim.utils.Translation;
 
 /**
- * Abstract class that implements interface ProcessStrategy (Priority family: Priority, SJF)
+ * Abstract class that implements interface ProcessStrategy (Priority family: Priority, SJF, EDF, RM).
+ * Priority and SJF may age ready processes: effective priority rises with time waiting, so low priority (long) 
+ * processes do not starve. Aging is lazy: a process order is its priority scaled by aging plus the time it entered 
+ * ready queue, an epoch of its own. As every queued process ages at the same pace, their relative order never 
+ * changes, so nothing is rescanned nor heap reordered per time unit; effective priority is only computed when a 
+ * queued process is compared with the running one
  * 
  * @author Àlex
  */
 public abstract class ProcessStrategyAdapterPrio implements ProcessStrategy {
 	protected boolean preemptive;
+	protected int aging;	// Time units per priority level, 0 for no aging (Priority and SJF)
 	
 	public ProcessStrategyAdapterPrio(boolean preemptive) {
 		super();
 		this.preemptive = preemptive;
 	}
+
+	public ProcessStrategyAdapterPrio(boolean preemptive, int aging) {
+		this(preemptive);
+		setAging(aging);
+	}
 	
 	/**
 	 * Sets algorithm to be preemptive 
@@ -26,6 +35,69 @@ public abstract class ProcessStrategyAdapterPrio implements ProcessStrategy {
 		this.preemptive = preemptive;
 	}
 
+	/**
+	 * Sets aging, ready processes effective priority rises 1 level (1 time unit shorter burst on SJF) every aging 
+	 * time units waiting. It should be set at initial state (time 0) 
+	 * 
+	 * @param aging	time units per priority level, 0 for no aging
+	 */
+	public void setAging(int aging) {
+		this.aging = Math.max(0, aging);
+	}
+
+	/**
+	 * Nothing to do, ready queues are independent 
+	 * 
+	 * @param cpus unused
+	 */
+	public void setCpus(int cpus) { }
+
+	/**
+	 * Gets time a ready process entered ready queue, its aging epoch. A process being queued enters at queue 
+	 * current time unless it is moving from another ready queue 
+	 * 
+	 * @param p		process
+	 * @param queue	ready queue
+	 * @return	ready queue entering time
+	 */
+	protected int getEpoch(Process p, ProcessQueue queue) {
+		if (p.getReadySince() >= 0) return p.getReadySince();
+		return getTime(queue);
+	}
+
+	/**
+	 * Gets priority levels gained by a ready process at a given time 
+	 * 
+	 * @param p		ready process
+	 * @param time	current simulation time
+	 * @return	priority levels gained waiting, 0 without aging
+	 */
+	protected int getAge(Process p, int time) {
+		if (aging == 0 || p.getReadySince() < 0) return 0;
+		return (time - p.getReadySince()) / aging;
+	}
+
+	/**
+	 * Gets queue current simulation time, only ready queues know it 
+	 * 
+	 * @param queue	queue
+	 * @return	current simulation time, 0 if unknown
+	 */
+	protected int getTime(ProcessQueue queue) {
+		if (queue instanceof ReadyQueue) return ((ReadyQueue) queue).getTime();
+		return 0;
+	}
+
+	/**
+	 * Narrows an order key to process order range 
+	 * 
+	 * @param key	order key
+	 * @return	process order
+	 */
+	protected int toOrder(long key) {
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, key));
+	}
+
 	/**
 	 * Gets shortest job first algorithm information and its preemptive state   
 	 * 
@@ -43,6 +115,43 @@ public abstract class ProcessStrategyAdapterPrio implements ProcessStrategy {
 		}
 	}
 	
+	/**
+	 * Nothing to do, queue order does not depend on running time  
+	 * 
+	 * @param queue			unused
+	 * @param running_process	unused
+	 * @param time	unused
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) { }
+
+	/**
+	 * Ready processes are kept into an indexed heap  
+	 * 
+	 * @return	empty heap
+	 */
+	public ProcessQueue createQueue() {
+		return new ProcessHeap();
+	}
+
+	/**
+	 * Nothing to do, scheduling does not depend on time 
+	 * 
+	 * @param time				unused
+	 * @param queue				unused
+	 * @param running_process	unused
+	 */
+	public void setTime(int time, ProcessQueue queue, Process running_process) { }
+
+	/**
+	 * Scheduling does not depend on time 
+	 * 
+	 * @param time	unused
+	 * @return	Integer.MAX_VALUE
+	 */
+	public int getTimeToUpdate(int time) {
+		return Integer.MAX_VALUE;
+	}
+	
 	/** 
 	 * Removes pold process from ready queue and then adds the new one in the proper order 
 	 * 
@@ -50,8 +159,32 @@ public abstract class ProcessStrategyAdapterPrio implements ProcessStrategy {
 	 * @param pold		new process to add 
 	 * @param queue	queue
 	 */
-	public void updProcess(Process pold, Process pnew, PriorityQueue<Process> queue) {
+	public void updProcess(Process pold, Process pnew, ProcessQueue queue) {
 		queue.remove(pold);
 		addProcess(pnew, queue);
 	}
+
+	/** 
+	 * Nothing to do, no process is kept apart from queues 
+	 * 
+	 * @param p		unused
+	 * @param queue	unused
+	 */
+	public void delProcess(Process p, ProcessQueue queue) { }
+
+	/**
+	 * No own state, order is given by processes 
+	 * 
+	 * @return	0
+	 */
+	public long getState() {
+		return 0;
+	}
+
+	/**
+	 * Nothing to do 
+	 * 
+	 * @param state	unused
+	 */
+	public void setState(long state) { }
 }
@@ -0,0 +1,177 @@
+package edu.upc.fib.ossim.process.model;
+
+import edu.upc.fib.ossim.utils.Translation;
+
+/**
+ * Process Scheduling Strategy implementation for Completely Fair Scheduler algorithm.
+ * Every process accumulates a virtual runtime, its cpu time weighted by its priority (higher priority, slower
+ * virtual time), and the ready process with the lowest virtual runtime runs next. Instead of a fixed quantum
+ * a target latency is shared among runnable processes by weight, each one running a time slice not shorter than a
+ * minimum granularity. A ready process whose virtual runtime falls behind running one by more than minimum granularity
+ * preempts it. New processes start at ready queue minimum virtual runtime, processes back from I/O keep their own
+ * but no lower than half target latency before it. It is always preemptive
+ *
+ * @see VruntimeTree
+ */
+public class ProcessStrategyCFS extends ProcessStrategyAdapterFCFS {
+	public static final int NICE_0_LOAD = 1024;	// Lowest priority weight, virtual runtime unit is 1/NICE_0_LOAD time units
+	public static final int NR_LATENCY = 8;		// Default target latency / minimum granularity
+	// Priority 1 to 10 weights, each priority gets about 25% more cpu than the previous one
+	private static final int[] WEIGHTS = {1024, 1277, 1586, 1991, 2501, 3121, 3906, 4904, 6100, 7620};
+	private int targetLatency;
+	private int minGranularity;
+	private int nrLatency;	// Runnable processes sharing target latency, beyond that it stretches
+
+	/**
+	 * Constructs a CFS with default target latency, NR_LATENCY times minimum granularity
+	 *
+	 * @param minGranularity	minimum time slice
+	 */
+	public ProcessStrategyCFS(int minGranularity) {
+		this(NR_LATENCY * Math.max(1, minGranularity), minGranularity);
+	}
+
+	/**
+	 * Constructs a CFS
+	 *
+	 * @param targetLatency		time every runnable process should run once within
+	 * @param minGranularity	minimum time slice
+	 */
+	public ProcessStrategyCFS(int targetLatency, int minGranularity) {
+		super();
+		this.minGranularity = Math.max(1, minGranularity);
+		this.targetLatency = Math.max(this.minGranularity, targetLatency);
+		this.nrLatency = this.targetLatency / this.minGranularity;
+	}
+
+	/**
+	 * Gets process weight from its priority
+	 *
+	 * @param p	process
+	 * @return	process weight
+	 */
+	public static int getWeight(Process p) {
+		return WEIGHTS[Math.max(1, Math.min(p.getPrio(), WEIGHTS.length)) - 1];
+	}
+
+	/**
+	 * Gets completely fair scheduler algorithm information and its minimum granularity. It is always preemptive
+	 *
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		if (multiprogramming) return Translation.getInstance().getLabel("pr_83", minGranularity, "pr_26");
+		else return Translation.getInstance().getLabel("pr_83", minGranularity, "pr_27");
+	}
+
+	/**
+	 * Ready processes are kept into a virtual runtime tree
+	 *
+	 * @return	empty virtual runtime tree
+	 */
+	public ProcessQueue createQueue() {
+		return new VruntimeTree();
+	}
+
+	/**
+	 * Increments running process virtual runtime and its time slice executed. If it has spent its time slice it
+	 * returns to queue and lowest virtual runtime process is next (may be the same one), if a ready process
+	 * virtual runtime is lower enough it preempts running process, otherwise running process continues
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu not even completely finished
+	 * @return	next process in the cpu
+	 */
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
+		VruntimeTree tree = tree(queue);
+		running_process.addQexecuted(1);
+		running_process.addVruntime(getDelta(running_process));
+		tree.advance(running_process.getVruntime());
+
+		Process candidate = queue.peek();
+		if (running_process.getQexecuted() >= getSlice(tree, running_process)
+				|| (candidate != null && candidate.getVruntime() + (long) minGranularity * NICE_0_LOAD < running_process.getVruntime())) {
+			running_process.setQexecuted(0);
+			queue.add(running_process); // Virtual runtime is already placed
+			return queue.poll();
+		}
+		return running_process;
+	}
+
+	/**
+	 * Gets time left to running process time slice expiration or its virtual runtime exceeding lowest
+	 * ready one by minimum granularity
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time units to next algorithm decision
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		int next = Math.max(1, getSlice(tree(queue), running_process) - running_process.getQexecuted());
+		Process candidate = queue.peek();
+		if (candidate != null) {
+			long lag = candidate.getVruntime() + (long) minGranularity * NICE_0_LOAD - running_process.getVruntime();
+			if (lag < 0) return 1;
+			next = (int) Math.min(next, lag / getDelta(running_process) + 1);
+		}
+		return next;
+	}
+
+	/**
+	 * Adds executed time to running process time slice and its weighted time to virtual runtime
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @param time	time units executed
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) {
+		running_process.addQexecuted(time);
+		running_process.addVruntime(time * getDelta(running_process));
+		tree(queue).advance(running_process.getVruntime());
+	}
+
+	/**
+	 * Places process virtual runtime and adds it to virtual runtime tree. A new process starts at tree minimum
+	 * virtual runtime, other processes (back from I/O or moved from another cpu) no lower than half target latency before it
+	 *
+	 * @param p		process
+	 * @param queue	queue
+	 */
+	public void addProcess(Process p, ProcessQueue queue) {
+		long min = tree(queue).getMinVruntime();
+		if (p.getCurrent() == 0) p.setVruntime(Math.max(p.getVruntime(), min));
+		else p.setVruntime(Math.max(p.getVruntime(), min - (long) targetLatency * NICE_0_LOAD / 2));
+		queue.add(p);
+	}
+
+	/**
+	 * Adds the new process with old process virtual runtime
+	 *
+	 * @param pold		old process to remove
+	 * @param pnew		new process to add
+	 * @param queue	queue
+	 */
+	public void updProcess(Process pold, Process pnew, ProcessQueue queue) {
+		pnew.setVruntime(pold.getVruntime());
+		queue.add(pnew);
+	}
+
+	private int getSlice(VruntimeTree tree, Process running_process) {
+		// Running process share of target latency, stretched when there are too many runnable processes
+		int nr = tree.size() + 1;
+		long period = nr > nrLatency ? (long) nr * minGranularity : targetLatency;
+		long weight = getWeight(running_process);
+		return (int) Math.max(minGranularity, period * weight / (tree.getLoad() + weight));
+	}
+
+	private long getDelta(Process p) {
+		// Virtual runtime of 1 time unit
+		return (long) NICE_0_LOAD * NICE_0_LOAD / getWeight(p);
+	}
+
+	private VruntimeTree tree(ProcessQueue queue) {
+		if (queue instanceof ReadyQueue) queue = ((ReadyQueue) queue).getQueue();
+		return (VruntimeTree) queue;
+	}
+}
@@ -0,0 +1,68 @@
+package edu.upc.fib.ossim.process.model;
+
+/**
+ * Process Scheduling Strategy implementation for Earliest Deadline First algorithm (real time).
+ * Ready processes are ordered by their current job absolute deadline, a periodic process job is released every period
+ * and must end within its relative deadline, a non periodic process deadline is its submission time plus its burst cycle size
+ *
+ * @see Process#getAbsoluteDeadline()
+ */
+public class ProcessStrategyEDF extends ProcessStrategyAdapterPrio {
+	public ProcessStrategyEDF(boolean preemptive) {
+		super(preemptive);
+	}
+
+	/**
+	 * Gets earliest deadline first algorithm information and its preemptive state   
+	 * 
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		return getAlgorithmInfo(multiprogramming, "pr_86");
+	}
+
+	/**
+	 * Prepares next running process, detects possible earlier deadline job at head's queue, 
+	 * if preemptive is set returns that one, otherwise returns current process in the cpu   
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu not even completely finished
+	 * @return	next process in the cpu
+	 */
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek(); // detects possible earliest deadline job at head's queue
+		if (preemptive && candidate != null && candidate.getAbsoluteDeadline() < running_process.getAbsoluteDeadline()) {
+			addProcess(running_process, queue); // Queued again
+			return queue.poll(); // Swaps running process 
+		} else { // keeps going on  
+			return running_process;
+		}
+	}
+
+	/**
+	 * Detects whether next time unit swaps running process, deadlines only change when a job ends 
+	 * so otherwise it keeps going on until ready queue changes  
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	1 when next time unit preempts running process, Integer.MAX_VALUE otherwise
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek();
+		if (preemptive && candidate != null && candidate.getAbsoluteDeadline() < running_process.getAbsoluteDeadline()) return 1;
+		return Integer.MAX_VALUE;
+	}
+
+	/** 
+	 * Sets process order to its current job absolute deadline, and adds process in the proper order  
+	 * 
+	 * @param p		process
+	 * @param queue	queue
+	 */
+	public void addProcess(Process p, ProcessQueue queue) {
+   		// EDF add's process ordered by its absolute deadline. 
+		p.setOrder(p.getAbsoluteDeadline());
+   		queue.add(p);
+	}
+}
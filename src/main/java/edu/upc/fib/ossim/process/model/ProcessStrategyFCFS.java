@@ -1,7 +1,5 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
 import edu.upc.fib.ossim.utils.Translation;
 
 /**
@@ -29,7 +27,7 @@ public class ProcessStrategyFCFS extends ProcessStrategyAdapterFCFS {
 	 * @param running_process	current process in the cpu not even completely finished
 	 * @return	same process in the cpu
 	 */
-	public Process forwardTime(PriorityQueue<Process> queue, Process running_process) {
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
 		return running_process;	
 	}
 }
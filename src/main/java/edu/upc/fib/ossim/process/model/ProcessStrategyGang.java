@@ -0,0 +1,167 @@
+package edu.upc.fib.ossim.process.model;
+
+import edu.upc.fib.ossim.utils.Translation;
+
+/**
+ * Process Scheduling Strategy implementation for Gang scheduling (co-scheduling), Ousterhout matrix.
+ * Every process owns a cell of a matrix of cpus by time slices, processes of a gang share a row as far as it has room.
+ * Rows take turns a slice (quantum) long and every cpu runs its cell in active row, so gangs run together. A cpu
+ * whose active row cell is empty or not ready runs another row process of its column meanwhile (alternate selection),
+ * preempted as soon as the active row cell is ready. Processes apart from any gang are gangs of their own. Every cpu
+ * ready queue is a matrix column, so load balancing does not apply. It is always preemptive
+ *
+ * @see GangMatrix
+ */
+public class ProcessStrategyGang extends ProcessStrategyAdapterFCFS {
+	private int quantum;
+	private GangMatrix matrix;
+	private int next;		// Next column to create
+
+	/**
+	 * Constructs a gang scheduler
+	 *
+	 * @param quantum	slice size
+	 */
+	public ProcessStrategyGang(int quantum) {
+		super();
+		this.quantum = Math.max(1, quantum);
+		setCpus(1);
+	}
+
+	/**
+	 * Gets gang scheduling algorithm information and its slice size. It is always preemptive
+	 *
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		if (multiprogramming) return Translation.getInstance().getLabel("pr_120", quantum, "pr_26");
+		else return Translation.getInstance().getLabel("pr_120", quantum, "pr_27");
+	}
+
+	/**
+	 * Starts an empty matrix, a column per cpu
+	 *
+	 * @param cpus	number of cpus
+	 */
+	public void setCpus(int cpus) {
+		matrix = new GangMatrix(cpus);
+		next = 0;
+	}
+
+	/**
+	 * Gets gang matrix
+	 *
+	 * @return	matrix
+	 */
+	public GangMatrix getMatrix() {
+		return matrix;
+	}
+
+	/**
+	 * Ready processes are kept into matrix columns, next column in cpu order
+	 *
+	 * @return	matrix column
+	 */
+	public ProcessQueue createQueue() {
+		return matrix.column(next++ % matrix.getCpus());
+	}
+
+	/**
+	 * Switches active row at its slice end
+	 *
+	 * @param time				current simulation time
+	 * @param queue				unused
+	 * @param running_process	unused
+	 */
+	public void setTime(int time, ProcessQueue queue, Process running_process) {
+		matrix.update(time, quantum);
+	}
+
+	/**
+	 * Gets time left to active row slice end
+	 *
+	 * @param time	current simulation time
+	 * @return	time units to next row switch
+	 */
+	public int getTimeToUpdate(int time) {
+		return matrix.getTimeToUpdate(time);
+	}
+
+	/**
+	 * Accounts 1 time unit to running process. A process of active row keeps running, any other one returns to
+	 * its column if this cpu cell in active row is ready, which is next
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu not even completely finished
+	 * @return	next process in the cpu
+	 */
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
+		matrix.count(running_process, 1);
+		if (matrix.isActive(running_process) || !column(queue).isActiveReady()) return running_process;
+		addProcess(running_process, queue);
+		return queue.poll();
+	}
+
+	/**
+	 * Gets time to preempt running process: right away if it is not in active row and this cpu cell in
+	 * active row is ready, otherwise not before row switch
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	1 or Integer.MAX_VALUE
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		if (matrix.isActive(running_process) || !column(queue).isActiveReady()) return Integer.MAX_VALUE;
+		return 1;
+	}
+
+	/**
+	 * Accounts executed time to running process
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @param time	time units executed
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) {
+		matrix.count(running_process, time);
+	}
+
+	/**
+	 * Places process into a matrix cell unless it owns one and queues it into its column, whatever queue is given
+	 *
+	 * @param p		process
+	 * @param queue	queue
+	 */
+	public void addProcess(Process p, ProcessQueue queue) {
+		matrix.place(p);
+		p.setProcessor(matrix.getColumn(p));
+		queue.add(p);
+	}
+
+	/**
+	 * Adds the new process, old one has left its cell
+	 *
+	 * @param pold		old process, removed
+	 * @param pnew		new process to add
+	 * @param queue	queue
+	 */
+	public void updProcess(Process pold, Process pnew, ProcessQueue queue) {
+		addProcess(pnew, queue);
+	}
+
+	/**
+	 * Frees process cell
+	 *
+	 * @param p		process
+	 * @param queue	unused
+	 */
+	public void delProcess(Process p, ProcessQueue queue) {
+		matrix.release(p);
+	}
+
+	private GangMatrix.Column column(ProcessQueue queue) {
+		if (queue instanceof ReadyQueue) queue = ((ReadyQueue) queue).getQueue();
+		return (GangMatrix.Column) queue;
+	}
+}
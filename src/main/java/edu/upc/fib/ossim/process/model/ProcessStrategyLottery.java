@@ -0,0 +1,100 @@
+package edu.upc.fib.ossim.process.model;
+
+import edu.upc.fib.ossim.utils.Translation;
+
+/**
+ * Process Scheduling Strategy implementation for Lottery scheduling, a proportional share algorithm.
+ * Every process holds as many tickets as its priority and groups hold their weights as tickets (a single group by
+ * default). Every quantum a lottery picks a group with probability proportional to its tickets and then one of its
+ * processes the same way, so shares are met on average. Lotteries are run as races of exponential draws in a
+ * proportional share queue, O(log n) per round. Draws come from a seeded generator kept as algorithm state, so a run is
+ * repeated exactly and travelling back in time restores them. It is always preemptive
+ *
+ * @see ShareQueue
+ */
+public class ProcessStrategyLottery extends ProcessStrategyStride {
+	public static final long DEFAULT_SEED = 1;
+	// Linear congruential generator, as java.util.Random, its state is a single long
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+	private long seed;
+
+	/**
+	 * Constructs a lottery scheduler with a single group and default seed
+	 *
+	 * @param quantum	quantum size
+	 */
+	public ProcessStrategyLottery(int quantum) {
+		this(quantum, new int[] {1}, DEFAULT_SEED);
+	}
+
+	/**
+	 * Constructs a lottery scheduler
+	 *
+	 * @param quantum	quantum size
+	 * @param weights	groups weights (tickets), group g weight at position g
+	 * @param seed		random seed
+	 */
+	public ProcessStrategyLottery(int quantum, int[] weights, long seed) {
+		super(quantum, weights);
+		this.seed = (seed ^ MULTIPLIER) & MASK;
+	}
+
+	/**
+	 * Gets lottery scheduling algorithm information and its quantum size. It is always preemptive
+	 *
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		if (multiprogramming) return Translation.getInstance().getLabel("pr_113", getQuantum(), "pr_26");
+		else return Translation.getInstance().getLabel("pr_113", getQuantum(), "pr_27");
+	}
+
+	/**
+	 * Ready processes are kept into a proportional share queue drawing from this algorithm
+	 *
+	 * @return	empty proportional share queue
+	 */
+	public ProcessQueue createQueue() {
+		return new ShareQueue(getWeights(), this);
+	}
+
+	/**
+	 * Draws an exponential time
+	 *
+	 * @param mean	mean
+	 * @return	exponential draw, rounded down
+	 */
+	long draw(long mean) {
+		return (long) (-mean * Math.log(1 - nextDouble()));
+	}
+
+	private double nextDouble() {
+		return (((long) next(26) << 27) + next(27)) * 0x1.0p-53;
+	}
+
+	private int next(int bits) {
+		seed = (seed * MULTIPLIER + ADDEND) & MASK;
+		return (int) (seed >>> (48 - bits));
+	}
+
+	/**
+	 * Gets generator state
+	 *
+	 * @return	generator state
+	 */
+	public long getState() {
+		return seed;
+	}
+
+	/**
+	 * Restores generator state
+	 *
+	 * @param state	generator state
+	 */
+	public void setState(long state) {
+		seed = state;
+	}
+}
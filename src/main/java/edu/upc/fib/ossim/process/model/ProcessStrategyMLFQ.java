@@ -0,0 +1,183 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import edu.upc.fib.ossim.utils.Translation;
+
+/**
+ * Process Scheduling Strategy implementation for Multilevel Feedback Queue algorithm.
+ * Ready processes are queued by level (Round Robin within a level, each level with its own quantum),
+ * a process that spends its whole quantum is demoted to next level, a process back from I/O is promoted
+ * to the highest level, and periodically every process is boosted to the highest level to avoid starvation.
+ * A ready process in a higher level preempts the running one. It is always preemptive
+ *
+ * @see LevelQueue
+ */
+public class ProcessStrategyMLFQ extends ProcessStrategyAdapterFCFS {
+	public static final int LEVELS = 3;				// Default levels
+	public static final int BOOST_INTERVAL = 50;	// Default time units between priority boosts
+	private int[] quanta;
+	private int boostInterval;
+
+	/**
+	 * Constructs a MLFQ with default levels and boost interval, quantum doubles at every level
+	 *
+	 * @param quantum	highest level quantum
+	 */
+	public ProcessStrategyMLFQ(int quantum) {
+		this(doubling(quantum, LEVELS), BOOST_INTERVAL);
+	}
+
+	/**
+	 * Constructs a MLFQ
+	 *
+	 * @param quanta		quantum of every level, highest level first (at most LevelQueue.MAX_LEVELS levels)
+	 * @param boostInterval	time units between priority boosts, 0 never
+	 */
+	public ProcessStrategyMLFQ(int[] quanta, int boostInterval) {
+		super();
+		this.quanta = new int[Math.max(1, Math.min(quanta.length, LevelQueue.MAX_LEVELS))];
+		for (int l = 0; l < this.quanta.length; l++) this.quanta[l] = Math.max(1, l < quanta.length ? quanta[l] : 1);
+		this.boostInterval = Math.max(0, boostInterval);
+	}
+
+	private static int[] doubling(int quantum, int levels) {
+		int[] quanta = new int[levels];
+		for (int l = 0; l < levels; l++) quanta[l] = quantum << l;
+		return quanta;
+	}
+
+	/**
+	 * Gets multilevel feedback queue algorithm information and its highest level quantum size. It is always preemptive
+	 *
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		if (multiprogramming) return Translation.getInstance().getLabel("pr_81", quanta[0], "pr_26");
+		else return Translation.getInstance().getLabel("pr_81", quanta[0], "pr_27");
+	}
+
+	/**
+	 * Ready processes are kept into a multilevel queue
+	 *
+	 * @return	empty multilevel queue
+	 */
+	public ProcessQueue createQueue() {
+		return new LevelQueue(quanta.length);
+	}
+
+	/**
+	 * Boosts every process to highest level when boost interval expires
+	 *
+	 * @param time				current simulation time
+	 * @param queue				ready queue
+	 * @param running_process	current process in the cpu or null
+	 */
+	public void setTime(int time, ProcessQueue queue, Process running_process) {
+		if (boostInterval == 0 || time == 0 || time % boostInterval != 0) return;
+
+		if (running_process != null) {
+			running_process.setLevel(0);
+			running_process.setQexecuted(0);
+		}
+		// Level can't change while queued, requeue keeping order within level
+		List<Process> boosted = new LinkedList<Process>();
+		while (!queue.isEmpty()) boosted.add(queue.poll());
+		Iterator<Process> it = boosted.iterator();
+		while (it.hasNext()) {
+			Process p = it.next();
+			p.setLevel(0);
+			p.setQexecuted(0);
+			queue.add(p);
+		}
+	}
+
+	/**
+	 * Increments quantum's executed, if running process has spent its level quantum it is demoted to next level
+	 * and returned to queue, if there is a ready process in a higher level it preempts running process,
+	 * otherwise running process continues
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu not even completely finished
+	 * @return	next process in the cpu
+	 */
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
+		running_process.addQexecuted(1); // Increments quantum
+		int level = level(running_process);
+
+		if (running_process.getQexecuted() >= quanta[level]) {
+			running_process.setQexecuted(0);
+			running_process.setLevel(Math.min(level + 1, quanta.length - 1)); // Demoted
+			super.addProcess(running_process, queue); // Return process to its level queue's tail
+			return queue.poll();
+		}
+
+		Process candidate = queue.peek();
+		if (candidate != null && candidate.getLevel() < level) {
+			super.addProcess(running_process, queue); // Preempted, keeps level and quantum executed
+			return queue.poll();
+		}
+		return running_process;
+	}
+
+	/**
+	 * Gets time units to next boost
+	 *
+	 * @param time	current simulation time
+	 * @return	time units to next boost or Integer.MAX_VALUE if boost is disabled
+	 */
+	public int getTimeToUpdate(int time) {
+		if (boostInterval == 0) return Integer.MAX_VALUE;
+		return boostInterval - time % boostInterval;
+	}
+
+	/**
+	 * Gets time left to running process quantum expiration or higher level process preemption
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time units to next algorithm decision
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek();
+		if (candidate != null && candidate.getLevel() < level(running_process)) return 1;
+		return Math.max(1, quanta[level(running_process)] - running_process.getQexecuted());
+	}
+
+	/**
+	 * Adds executed time to running process quantum
+	 *
+	 * @param queue			unused
+	 * @param running_process	current process in the cpu
+	 * @param time	time units executed
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) {
+		running_process.addQexecuted(time);
+	}
+
+	/**
+	 * Adds process to its level queue's tail, a process back from I/O is promoted to highest level
+	 *
+	 * @param p		process
+	 * @param queue	queue
+	 */
+	public void addProcess(Process p, ProcessQueue queue) {
+		if (isBackFromIO(p)) p.setLevel(0);
+		super.addProcess(p, queue);
+	}
+
+	private int level(Process p) {
+		return Math.max(0, Math.min(p.getLevel(), quanta.length - 1));
+	}
+
+	private boolean isBackFromIO(Process p) {
+		// Previous burst moment was I/O
+		if (p.getCurrent() == 0) return false; // Not started
+		int i = p.getCurrentBurst() - 1;
+		if (i < 0) i = p.getBurstsSize() - 1; // Periodic process, burst cycle restarted
+		return !p.isCPUBurst(i);
+	}
+}
@@ -1,7 +1,5 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
 /**
  * Process Scheduling Strategy implementation for priority algorithm
  * 
@@ -12,6 +10,10 @@ public class ProcessStrategyPrio extends ProcessStrategyAdapterPrio {
 		super(preemptive);
 	}
 
+	public ProcessStrategyPrio(boolean preemptive, int aging) {
+		super(preemptive, aging);
+	}
+
 	/**
 	 * Gets priority algorithm information and its preemptive state   
 	 * 
@@ -24,15 +26,16 @@ public class ProcessStrategyPrio extends ProcessStrategyAdapterPrio {
 
 	/**
 	 * Prepares next running process, detects possible most priority job at head's queue, 
-	 * if preemptive is set returns that one, otherwise returns current process in the cpu   
+	 * if preemptive is set returns that one, otherwise returns current process in the cpu. 
+	 * Queued process priority is its effective (aged) one   
 	 *  
 	 * @param queue			ready queue
 	 * @param running_process	current process in the cpu not even completely finished
 	 * @return	next process in the cpu
 	 */
-	public Process forwardTime(PriorityQueue<Process> queue, Process running_process) {
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
 		Process candidate = queue.peek(); // detects possible most priority job at head's queue
-		if (preemptive && candidate != null && candidate.getPrio() > running_process.getPrio()) {
+		if (preemptive && candidate != null && candidate.getPrio() + getAge(candidate, getTime(queue)) > running_process.getPrio()) {
 			addProcess(running_process, queue); // Queued again
 			return queue.poll(); // Swaps running process 
 		} else { // keeps going on  
@@ -40,15 +43,36 @@ public class ProcessStrategyPrio extends ProcessStrategyAdapterPrio {
 		}
 	}
 	
+	/**
+	 * Detects when running process is swapped, priorities do not change while running. Without aging it is 
+	 * next time unit or it keeps going on until ready queue changes, with aging it is when queue's head 
+	 * effective priority overtakes running process priority (head is always the first one to do so)  
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time units until running process is preempted, Integer.MAX_VALUE if it is not while queue does not change
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek();
+		if (!preemptive || candidate == null) return Integer.MAX_VALUE;
+		int levels = running_process.getPrio() - candidate.getPrio() + 1; // Levels to gain
+		if (levels <= 0) return 1;
+		if (aging == 0 || candidate.getReadySince() < 0) return Integer.MAX_VALUE;
+		long preempt = candidate.getReadySince() + (long) levels * aging;
+		return toOrder(Math.max(1, preempt - getTime(queue)));
+	}
+	
 	/** 
-	 * Sets process order to its priority, and adds process in the proper order  
+	 * Sets process order to its priority, and adds process in the proper order. With aging order is 
+	 * ready queue entering time - priority * aging, so that effective priority order holds over time  
 	 * 
 	 * @param p		process
 	 * @param queue	queue
 	 */
-	public void addProcess(Process p, PriorityQueue<Process> queue) {
+	public void addProcess(Process p, ProcessQueue queue) {
    		// Priority add's process ordered by its priority. 
-		p.setOrder(p.getPrio() * -1);
+		if (aging == 0) p.setOrder(p.getPrio() * -1);
+		else p.setOrder(toOrder(getEpoch(p, queue) - (long) p.getPrio() * aging));
    		queue.add(p);
 	}
 }
@@ -0,0 +1,68 @@
+package edu.upc.fib.ossim.process.model;
+
+/**
+ * Process Scheduling Strategy implementation for Rate Monotonic algorithm (real time).
+ * Static priorities, the shorter process period the higher its priority. A non periodic process period 
+ * is its burst cycle size
+ *
+ * @see Process#getPeriod()
+ */
+public class ProcessStrategyRM extends ProcessStrategyAdapterPrio {
+	public ProcessStrategyRM(boolean preemptive) {
+		super(preemptive);
+	}
+
+	/**
+	 * Gets rate monotonic algorithm information and its preemptive state   
+	 * 
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		return getAlgorithmInfo(multiprogramming, "pr_88");
+	}
+
+	/**
+	 * Prepares next running process, detects possible shorter period job at head's queue, 
+	 * if preemptive is set returns that one, otherwise returns current process in the cpu   
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu not even completely finished
+	 * @return	next process in the cpu
+	 */
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek(); // detects possible shortest period job at head's queue
+		if (preemptive && candidate != null && candidate.getPeriod() < running_process.getPeriod()) {
+			addProcess(running_process, queue); // Queued again
+			return queue.poll(); // Swaps running process 
+		} else { // keeps going on  
+			return running_process;
+		}
+	}
+
+	/**
+	 * Detects whether next time unit swaps running process, periods do not change 
+	 * so otherwise it keeps going on until ready queue changes  
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	1 when next time unit preempts running process, Integer.MAX_VALUE otherwise
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek();
+		if (preemptive && candidate != null && candidate.getPeriod() < running_process.getPeriod()) return 1;
+		return Integer.MAX_VALUE;
+	}
+
+	/** 
+	 * Sets process order to its period, and adds process in the proper order  
+	 * 
+	 * @param p		process
+	 * @param queue	queue
+	 */
+	public void addProcess(Process p, ProcessQueue queue) {
+   		// RM add's process ordered by its period. 
+		p.setOrder(p.getPeriod());
+   		queue.add(p);
+	}
+}
@@ -1,7 +1,5 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
 import edu.upc.fib.ossim.utils.Translation;
 
 /**
@@ -37,7 +35,7 @@ public class ProcessStrategyRR extends ProcessStrategyAdapterFCFS {
 	 * @param running_process	current process in the cpu not even completely finished
 	 * @return	next process in the cpu
 	 */
-	public Process forwardTime(PriorityQueue<Process> queue, Process running_process) {
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
 		running_process.addQexecuted(1); // Increments quantum
 		
 		if (running_process.getQexecuted() >= quantum) {
@@ -48,4 +46,26 @@ public class ProcessStrategyRR extends ProcessStrategyAdapterFCFS {
 			return running_process;
 		}
 	}
+	
+	/**
+	 * Gets time left to spend running process quantum  
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time left to quantum expiration
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		return Math.max(1, quantum - running_process.getQexecuted());
+	}
+	
+	/**
+	 * Adds executed time to running process quantum  
+	 * 
+	 * @param queue			unused
+	 * @param running_process	current process in the cpu
+	 * @param time	time units executed
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) {
+		running_process.addQexecuted(time);
+	}
 }
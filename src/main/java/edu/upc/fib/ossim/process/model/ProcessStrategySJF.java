@@ -1,8 +1,5 @@
 package edu.upc.fib.ossim.process.model;
 
-import java.util.PriorityQueue;
-
-
 /**
  * Process Scheduling Strategy implementation for Shortest Job First algorithm
  * 
@@ -14,6 +11,10 @@ public class ProcessStrategySJF extends ProcessStrategyAdapterPrio {
 		super(preemptive);
 	}
 
+	public ProcessStrategySJF(boolean preemptive, int aging) {
+		super(preemptive, aging);
+	}
+
 	/**
 	 * Gets shortest job first algorithm information and its preemptive state   
 	 * 
@@ -26,16 +27,17 @@ public class ProcessStrategySJF extends ProcessStrategyAdapterPrio {
 
 	/**
 	 * Prepares next running process. Detects possible shortest job at head's queue, 
-	 * if preemptive is set returns that one, otherwise returns current process in the cpu   
+	 * if preemptive is set returns that one, otherwise returns current process in the cpu. 
+	 * Queued process burst is its effective (aged) one   
 	 *  
 	 * @param queue			ready queue
 	 * @param running_process	current process in the cpu not even completely finished
 	 * @return	next process in the cpu
 	 */
-	public Process forwardTime(PriorityQueue<Process> queue, Process running_process) {
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
 		//running_process.addRunTime(1);
 		Process candidate = queue.peek(); // detect possible shortest job at head's queue
-		if (preemptive && candidate != null && candidate.getCurrentBurstDuration() < running_process.getCurrentBurstDuration()) {
+		if (preemptive && candidate != null && candidate.getCurrentBurstDuration() - getAge(candidate, getTime(queue)) < running_process.getCurrentBurstDuration()) {
 			addProcess(running_process, queue); // Queued again
 			return queue.poll(); // Swaps running process 
 		} else { // keeps going on  
@@ -43,15 +45,41 @@ public class ProcessStrategySJF extends ProcessStrategyAdapterPrio {
 		}
 	}
 	
+	/**
+	 * Detects when running process is swapped. Running process burst gets shorter 1 time unit 
+	 * per time unit, at least as fast as queued processes effective burst does with aging, 
+	 * so otherwise it keeps going on until ready queue changes. An endless burst never gets shorter, 
+	 * then queue's head effective burst gets past it at a known time with aging, as in priority scheduling  
+	 *  
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time units to running process preemption, Integer.MAX_VALUE if it keeps going on
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		Process candidate = queue.peek();
+		if (!preemptive || candidate == null) return Integer.MAX_VALUE;
+		if (running_process.isEndlessBurst()) {
+			int levels = candidate.getCurrentBurstDuration() - running_process.getCurrentBurstDuration() + 1; // Levels to gain
+			if (levels <= 0) return 1;
+			if (aging == 0 || candidate.getReadySince() < 0) return Integer.MAX_VALUE;
+			long preempt = candidate.getReadySince() + (long) levels * aging;
+			return toOrder(Math.max(1, preempt - getTime(queue)));
+		}
+		if (candidate.getCurrentBurstDuration() - getAge(candidate, getTime(queue) + 1) < running_process.getCurrentBurstDuration() - 1) return 1;
+		return Integer.MAX_VALUE;
+	}
+	
 	/** 
-	 * Sets process order to its current bursts duration, and adds process in the proper order  
+	 * Sets process order to its current bursts duration, and adds process in the proper order. With aging order is 
+	 * current bursts duration * aging + ready queue entering time, so that effective burst order holds over time  
 	 * 
 	 * @param p		process
 	 * @param queue	queue
 	 */
-	public void addProcess(Process p, PriorityQueue<Process> queue) {
+	public void addProcess(Process p, ProcessQueue queue) {
    		// SJF add's process ordered by its current bursts duration. 
-		p.setOrder(p.getCurrentBurstDuration());
+		if (aging == 0) p.setOrder(p.getCurrentBurstDuration());
+		else p.setOrder(toOrder((long) p.getCurrentBurstDuration() * aging + getEpoch(p, queue)));
    		queue.add(p);	
 	}
 }
@@ -0,0 +1,187 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.StringTokenizer;
+
+import edu.upc.fib.ossim.utils.Translation;
+
+/**
+ * Process Scheduling Strategy implementation for Stride scheduling, a proportional share algorithm.
+ * Every process holds as many tickets as its priority and gets a share of its group cpu time proportional to them,
+ * groups get a share of cpu time proportional to their weights (a single group by default). Process and group passes
+ * advance by their stride, inversely proportional to tickets or weight, per time unit run and the lowest pass process
+ * of the lowest pass group runs next, a quantum long, so shares are met deterministically within a quantum per
+ * process. It is always preemptive
+ *
+ * @see ShareQueue
+ */
+public class ProcessStrategyStride extends ProcessStrategyAdapterFCFS {
+	private int quantum;
+	private int[] weights;	// Groups weights
+
+	/**
+	 * Constructs a stride scheduler with a single group
+	 *
+	 * @param quantum	quantum size
+	 */
+	public ProcessStrategyStride(int quantum) {
+		this(quantum, new int[] {1});
+	}
+
+	/**
+	 * Constructs a stride scheduler
+	 *
+	 * @param quantum	quantum size
+	 * @param weights	groups weights, group g weight at position g
+	 */
+	public ProcessStrategyStride(int quantum, int[] weights) {
+		super();
+		this.quantum = Math.max(1, quantum);
+		this.weights = weights.length == 0 ? new int[] {1} : weights.clone();
+	}
+
+	/**
+	 * Parses groups weights, blank separated positive integers as <code>3 1</code>
+	 *
+	 * @param spec	groups weights
+	 * @return	groups weights, at least one
+	 * @throws IllegalArgumentException	when weights are not valid
+	 */
+	public static int[] parseWeights(String spec) {
+		StringTokenizer st = new StringTokenizer(spec, " ,");
+		int[] weights = new int[st.countTokens()];
+		try {
+			for (int g = 0; g < weights.length; g++) weights[g] = Integer.parseInt(st.nextToken());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		for (int w : weights) if (w < 1) throw new IllegalArgumentException(spec);
+		if (weights.length == 0) throw new IllegalArgumentException(spec);
+		return weights;
+	}
+
+	/**
+	 * Gets groups weights specification
+	 *
+	 * @param weights	groups weights
+	 * @return	blank separated weights
+	 *
+	 * @see #parseWeights(String)
+	 */
+	public static String toSpec(int[] weights) {
+		StringBuilder spec = new StringBuilder();
+		for (int w : weights) {
+			if (spec.length() > 0) spec.append(' ');
+			spec.append(w);
+		}
+		return spec.toString();
+	}
+
+	/**
+	 * Gets groups weights
+	 *
+	 * @return	groups weights, group g weight at position g
+	 */
+	public int[] getWeights() {
+		return weights.clone();
+	}
+
+	/**
+	 * Gets quantum size
+	 *
+	 * @return	quantum size
+	 */
+	protected int getQuantum() {
+		return quantum;
+	}
+
+	/**
+	 * Gets stride scheduling algorithm information and its quantum size. It is always preemptive
+	 *
+	 * @param multiprogramming	scheduling multiprogramming state
+	 * @return	algorithm information
+	 */
+	public String getAlgorithmInfo(boolean multiprogramming) {
+		if (multiprogramming) return Translation.getInstance().getLabel("pr_111", quantum, "pr_26");
+		else return Translation.getInstance().getLabel("pr_111", quantum, "pr_27");
+	}
+
+	/**
+	 * Ready processes are kept into a proportional share queue, by group and pass
+	 *
+	 * @return	empty proportional share queue
+	 */
+	public ProcessQueue createQueue() {
+		return new ShareQueue(weights, null);
+	}
+
+	/**
+	 * Charges 1 time unit to running process and its group and increments its quantum. If it has spent its quantum
+	 * it returns to queue and lowest pass process is next (may be the same one), otherwise running process continues
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu not even completely finished
+	 * @return	next process in the cpu
+	 */
+	public Process forwardTime(ProcessQueue queue, Process running_process) {
+		running_process.addQexecuted(1);
+		share(queue).charge(running_process, 1);
+
+		if (running_process.getQexecuted() >= quantum) {
+			running_process.setQexecuted(0);
+			addProcess(running_process, queue);
+			return queue.poll();
+		}
+		return running_process;
+	}
+
+	/**
+	 * Gets time left to spend running process quantum
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @return	time left to quantum expiration
+	 */
+	public int getTimeToEvent(ProcessQueue queue, Process running_process) {
+		return Math.max(1, quantum - running_process.getQexecuted());
+	}
+
+	/**
+	 * Charges executed time to running process and its group and adds it to its quantum
+	 *
+	 * @param queue			ready queue
+	 * @param running_process	current process in the cpu
+	 * @param time	time units executed
+	 */
+	public void skipTime(ProcessQueue queue, Process running_process, int time) {
+		running_process.addQexecuted(time);
+		share(queue).charge(running_process, time);
+	}
+
+	/**
+	 * Places process pass (and its group pass if none of its group was queued) and adds it to queue
+	 *
+	 * @param p		process
+	 * @param queue	queue
+	 */
+	public void addProcess(Process p, ProcessQueue queue) {
+		share(queue).place(p);
+		queue.add(p);
+	}
+
+	/**
+	 * Adds the new process with old process pass
+	 *
+	 * @param pold		old process to remove
+	 * @param pnew		new process to add
+	 * @param queue	queue
+	 */
+	public void updProcess(Process pold, Process pnew, ProcessQueue queue) {
+		pnew.setVruntime(pold.getVruntime());
+		queue.add(pnew);
+	}
+
+	private ShareQueue share(ProcessQueue queue) {
+		if (queue instanceof ReadyQueue) queue = ((ReadyQueue) queue).getQueue();
+		return (ShareQueue) queue;
+	}
+}
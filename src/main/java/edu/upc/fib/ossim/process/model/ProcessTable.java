@@ -0,0 +1,191 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.awt.Color;
+import java.util.Arrays;
+
+
+/**
+ * Process table (Process scheduling context). Stores large workloads as a struct of primitive arrays, one
+ * column per process attribute and a shared pool of burst runs, instead of one object per process.
+ * Rows are handed out in submission order and only then materialized as Process instances,
+ * so live objects are bounded by processes already submitted and not finished.
+ * Rows may be appended in any order, they are sorted by submission time on first read.
+ *
+ * @see ContextProcess#setProcessTable(ProcessTable)
+ */
+public class ProcessTable implements ProcessSource {
+	private int size;
+	private int[] pid;
+	private int[] prio;
+	private int[] submission;
+	private boolean[] periodic;
+	private int[] period;	// 0 means burst cycle size
+	private int[] deadline;	// 0 means period
+	private int[] rgb;
+	private int[] runFirst;	// Row first run into runs pool
+	private int[] runCount;	// Row runs count
+	private int runs;
+	private int[] runType;	// Runs pool
+	private int[] runLength;
+	private long[] sorted;	// submission << 32 | row, null until first read
+	private int next;		// Next row to hand out (sorted position)
+
+	/**
+	 * Constructs an empty process table
+	 *
+	 * @param capacity	initial rows capacity
+	 */
+	public ProcessTable(int capacity) {
+		capacity = Math.max(capacity, 1);
+		pid = new int[capacity];
+		prio = new int[capacity];
+		submission = new int[capacity];
+		periodic = new boolean[capacity];
+		period = new int[capacity];
+		deadline = new int[capacity];
+		rgb = new int[capacity];
+		runFirst = new int[capacity];
+		runCount = new int[capacity];
+		runType = new int[2 * capacity];
+		runLength = new int[2 * capacity];
+		size = 0;
+		runs = 0;
+		next = 0;
+	}
+
+	/**
+	 * Appends a process row
+	 *
+	 * @param pid			process identifier
+	 * @param prio			process priority
+	 * @param submission	process submission time
+	 * @param periodic		process repeats burst cycle indefinitely
+	 * @param types			burst cycle runs type, CPU (0) or I/O (1)
+	 * @param lengths		burst cycle runs length
+	 * @param color			process color
+	 */
+	public void add(int pid, int prio, int submission, boolean periodic, int[] types, int[] lengths, Color color) {
+		add(pid, prio, submission, periodic, 0, 0, types, lengths, color);
+	}
+
+	/**
+	 * Appends a periodic process row with its period and relative deadline
+	 *
+	 * @param pid			process identifier
+	 * @param prio			process priority
+	 * @param submission	process submission time, first job release
+	 * @param periodic		process repeats burst cycle indefinitely
+	 * @param period		time between job releases, 0 means burst cycle size
+	 * @param deadline		job relative deadline, 0 means period
+	 * @param types			burst cycle runs type, CPU (0) or I/O (1)
+	 * @param lengths		burst cycle runs length
+	 * @param color			process color
+	 *
+	 * @see Process#setPeriod(int, int)
+	 */
+	public void add(int pid, int prio, int submission, boolean periodic, int period, int deadline, int[] types, int[] lengths, Color color) {
+		if (size == this.pid.length) grow();
+		while (runs + types.length > runType.length) {
+			runType = Arrays.copyOf(runType, 2 * runType.length);
+			runLength = Arrays.copyOf(runLength, 2 * runLength.length);
+		}
+		this.pid[size] = pid;
+		this.prio[size] = prio;
+		this.submission[size] = submission;
+		this.periodic[size] = periodic;
+		this.period[size] = period;
+		this.deadline[size] = deadline;
+		this.rgb[size] = color.getRGB();
+		runFirst[size] = runs;
+		runCount[size] = types.length;
+		System.arraycopy(types, 0, runType, runs, types.length);
+		System.arraycopy(lengths, 0, runLength, runs, lengths.length);
+		runs += types.length;
+		size++;
+		sorted = null;
+	}
+
+	private void grow() {
+		int capacity = 2 * pid.length;
+		pid = Arrays.copyOf(pid, capacity);
+		prio = Arrays.copyOf(prio, capacity);
+		submission = Arrays.copyOf(submission, capacity);
+		periodic = Arrays.copyOf(periodic, capacity);
+		period = Arrays.copyOf(period, capacity);
+		deadline = Arrays.copyOf(deadline, capacity);
+		rgb = Arrays.copyOf(rgb, capacity);
+		runFirst = Arrays.copyOf(runFirst, capacity);
+		runCount = Arrays.copyOf(runCount, capacity);
+	}
+
+	private void sort() {
+		// Sorts rows by submission time (row number on ties), no objects involved
+		sorted = new long[size];
+		for (int row = 0; row < size; row++) sorted[row] = ((long) submission[row] << 32) | row;
+		Arrays.sort(sorted);
+	}
+
+	private int row(int i) {
+		if (sorted == null) sort();
+		return (int) sorted[i];
+	}
+
+	/**
+	 * Gets table rows count
+	 *
+	 * @return	rows count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets rows not already handed out
+	 *
+	 * @return	rows remaining
+	 */
+	public int remaining() {
+		return size - next;
+	}
+
+	/**
+	 * Are there rows not already handed out?
+	 *
+	 * @return	rows remaining
+	 */
+	public boolean hasNext() {
+		return next < size;
+	}
+
+	/**
+	 * Gets submission time of next row to hand out
+	 *
+	 * @return	next submission time
+	 */
+	public int peekSubmission() {
+		return submission[row(next)];
+	}
+
+	/**
+	 * Hands out next row in submission order, materialized as a new process
+	 *
+	 * @return	process
+	 */
+	public Process next() {
+		int row = row(next);
+		next++;
+		int first = runFirst[row];
+		int count = runCount[row];
+		BurstCycle bursts = new BurstCycle(Arrays.copyOfRange(runType, first, first + count), Arrays.copyOfRange(runLength, first, first + count));
+		Process p = new Process(pid[row], "P" + pid[row], prio[row], submission[row], periodic[row], bursts, new Color(rgb[row]));
+		p.setPeriod(period[row], deadline[row]);
+		return p;
+	}
+
+	/**
+	 * Restarts handing out rows from the first one
+	 */
+	public void reset() {
+		next = 0;
+	}
+}
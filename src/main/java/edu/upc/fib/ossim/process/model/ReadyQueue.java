@@ -0,0 +1,208 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Iterator;
+
+
+/**
+ * Ready queue (Process scheduling context). Processes are stamped with current time when they enter the queue
+ * and their waiting time is increased by time elapsed since then when they leave it, so waiting time
+ * accounting costs nothing per time unit whatever the queue length. Processes are kept into the queue 
+ * implementation chosen by the algorithm. Every stay (time from entering the queue to leaving it) is recorded into
+ * scheduling statistics, if set, as ready time: long stays show starving processes.
+ * Queue time must be set before changing queue contents at a given simulation time
+ *
+ * @see Process#getWaiting(int)
+ */
+public class ReadyQueue extends ProcessQueue {
+	private ProcessQueue queue;
+	private int time;
+	private ProcessStatistics stats;	// Ready time statistics, null when not recorded
+
+	/**
+	 * Constructs an empty ready queue at time 0, processes are kept into an indexed heap 
+	 */
+	public ReadyQueue() {
+		this(new ProcessHeap());
+	}
+
+	/**
+	 * Constructs an empty ready queue at time 0 
+	 * 
+	 * @param queue	empty queue implementation to keep processes
+	 */
+	public ReadyQueue(ProcessQueue queue) {
+		super();
+		this.queue = queue;
+		time = 0;
+	}
+
+	/**
+	 * Sets current simulation time
+	 *
+	 * @param time	current simulation time
+	 */
+	public void setTime(int time) {
+		this.time = time;
+	}
+
+	/**
+	 * Gets current simulation time
+	 *
+	 * @return	current simulation time
+	 */
+	public int getTime() {
+		return time;
+	}
+
+	/**
+	 * Sets statistics where stays are recorded
+	 *
+	 * @param stats	scheduling statistics, null not to record stays
+	 */
+	public void setStatistics(ProcessStatistics stats) {
+		this.stats = stats;
+	}
+
+	/**
+	 * Gets queue implementation chosen by the algorithm
+	 *
+	 * @return	queue implementation
+	 */
+	public ProcessQueue getQueue() {
+		return queue;
+	}
+
+	/**
+	 * Gets queued processes count
+	 *
+	 * @return	processes count
+	 */
+	public int size() {
+		return queue.size();
+	}
+
+	/**
+	 * Inserts process into queue, process enters ready queue at current time unless it is moving from another
+	 * ready queue
+	 *
+	 * @param p	process
+	 * @return	true
+	 *
+	 * @see #detach(Process)
+	 */
+	public boolean offer(Process p) {
+		if (p.getReadySince() < 0) p.enterReady(time);
+		return queue.offer(p);
+	}
+
+	/**
+	 * Retrieves queue's head without removing it
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process peek() {
+		return queue.peek();
+	}
+
+	/**
+	 * Retrieves and removes queue's head, process leaves ready queue at current time
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process poll() {
+		Process p = queue.poll();
+		if (p != null) leave(p);
+		return p;
+	}
+
+	/**
+	 * Is process queued? 
+	 *
+	 * @param o	process
+	 * @return	process is queued
+	 */
+	public boolean contains(Object o) {
+		return queue.contains(o);
+	}
+
+	/**
+	 * Removes a process from queue, process leaves ready queue at current time
+	 *
+	 * @param o	process
+	 * @return	process was queued
+	 */
+	public boolean remove(Object o) {
+		if (!queue.remove(o)) return false;
+		leave((Process) o);
+		return true;
+	}
+
+	/**
+	 * Removes a process moving to another ready queue, it does not leave ready state: its waiting time keeps 
+	 * counting since it entered this queue
+	 *
+	 * @param p	process
+	 * @return	process was queued
+	 */
+	public boolean detach(Process p) {
+		return queue.remove(p);
+	}
+
+	private void leave(Process p) {
+		int stay = p.leaveReady(time);
+		if (stats != null && stay >= 0) stats.addReady(stay);
+	}
+
+	/**
+	 * @see ProcessQueue#update(Process)
+	 */
+	public boolean update(Process p) {
+		return queue.update(p);
+	}
+
+	/**
+	 * @see ProcessQueue#peekLast()
+	 */
+	public Process peekLast() {
+		return queue.peekLast();
+	}
+
+	/**
+	 * @see ProcessQueue#getState()
+	 */
+	public long[] getState() {
+		return queue.getState();
+	}
+
+	/**
+	 * @see ProcessQueue#setState(long[])
+	 */
+	public void setState(long[] state) {
+		queue.setState(state);
+	}
+
+	/**
+	 * Removes all processes, they leave ready state but their stays are not recorded
+	 */
+	public void clear() {
+		Iterator<Process> it = queue.iterator();
+		while (it.hasNext()) it.next().leaveReady(time);
+		queue.clear();
+	}
+
+	/**
+	 * Returns an iterator over queued processes in no particular order
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		return queue.iterator();
+	}
+
+	/**
+	 * @see ProcessQueue#orderedIterator()
+	 */
+	public Iterator<Process> orderedIterator() {
+		return queue.orderedIterator();
+	}
+}
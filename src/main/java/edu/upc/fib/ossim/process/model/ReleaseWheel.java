@@ -0,0 +1,171 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Release timing wheel (Process scheduling context). Periodic processes whose next job is not released yet
+ * wait here, hashed by release time into a fixed number of slots (a slot holds every release time congruent
+ * with it, so far releases wait for further wheel turns). Releases are computed one job at a time as jobs end, never
+ * expanded in advance. Advancing time only visits slots elapsed, and a bitmap of non empty slots locates next release
+ * without visiting empty slots.
+ *
+ * @see Process#getRelease()
+ */
+public class ReleaseWheel implements Iterable<Process> {
+	public static final int SLOTS = 256;	// Power of two
+	private List<Process>[] slots;
+	private long[] bitmap;	// Bit s set when slot s is not empty
+	private int time;		// Releases up to time already handed out
+	private int size;
+
+	/**
+	 * Constructs an empty wheel at time 0
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public ReleaseWheel() {
+		slots = new List[SLOTS];
+		for (int s = 0; s < SLOTS; s++) slots[s] = new LinkedList<Process>();
+		bitmap = new long[SLOTS / 64];
+		clear();
+	}
+
+	/**
+	 * Gets waiting processes count
+	 *
+	 * @return	processes count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Is there no waiting process?
+	 *
+	 * @return	wheel is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds a process waiting for its current job release, later than wheel time
+	 *
+	 * @param p	process
+	 */
+	public void add(Process p) {
+		int s = p.getRelease() & (SLOTS - 1);
+		slots[s].add(p);
+		bitmap[s >>> 6] |= 1L << s;
+		size++;
+	}
+
+	/**
+	 * Advances wheel to time and hands out processes released up to then, by release time (pid on ties)
+	 *
+	 * @param time	current simulation time
+	 * @return	released processes
+	 */
+	public List<Process> advance(int time) {
+		List<Process> released = new LinkedList<Process>();
+		if (size > 0) {
+			// Elapsed slots, whole wheel at most
+			int n = (int) Math.min((long) time - this.time, SLOTS);
+			for (int i = 1; i <= n; i++) {
+				int s = (this.time + i) & (SLOTS - 1);
+				if (slots[s].isEmpty()) continue;
+				Iterator<Process> it = slots[s].iterator();
+				while (it.hasNext()) {
+					Process p = it.next();
+					if (p.getRelease() <= time) {
+						it.remove();
+						released.add(p);
+						size--;
+					}
+				}
+				if (slots[s].isEmpty()) bitmap[s >>> 6] &= ~(1L << s);
+			}
+			if (released.size() > 1) Collections.sort(released, new Comparator<Process>() {
+				public int compare(Process p1, Process p2) {
+					if (p1.getRelease() == p2.getRelease()) return p1.getPid() - p2.getPid();
+					return p1.getRelease() - p2.getRelease();
+				}
+			});
+		}
+		this.time = Math.max(this.time, time);
+		return released;
+	}
+
+	/**
+	 * Gets next release time. Slots are visited in time order from wheel time, first one holding a release
+	 * within current turn gives it, otherwise lowest release among waiting processes
+	 *
+	 * @return	next release time or Integer.MAX_VALUE if wheel is empty
+	 */
+	public int getNextRelease() {
+		int next = Integer.MAX_VALUE;
+		if (size == 0) return next;
+		for (int i = 1; i <= SLOTS; ) {
+			int s = (time + i) & (SLOTS - 1);
+			long word = bitmap[s >>> 6] >>> (s & 63);
+			if (word == 0) { // Rest of this bitmap word is empty
+				i += 64 - (s & 63);
+				continue;
+			}
+			int skip = Long.numberOfTrailingZeros(word);
+			i += skip;
+			if (i > SLOTS) break;
+			s += skip;
+			Iterator<Process> it = slots[s].iterator();
+			while (it.hasNext()) {
+				int release = it.next().getRelease();
+				if (release == time + i) return release; // Within current turn, lowest one
+				next = Math.min(next, release);
+			}
+			i++;
+		}
+		return next;
+	}
+
+	/**
+	 * Removes all processes and restarts at time 0
+	 */
+	public void clear() {
+		for (int s = 0; s < SLOTS; s++) slots[s].clear();
+		Arrays.fill(bitmap, 0);
+		time = 0;
+		size = 0;
+	}
+
+	/**
+	 * Returns an iterator over waiting processes, slot by slot
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		return new Iterator<Process>() {
+			private int s = 0;
+			private Iterator<Process> it = slots[0].iterator();
+
+			public boolean hasNext() {
+				while (!it.hasNext() && s < SLOTS - 1) it = slots[++s].iterator();
+				return it.hasNext();
+			}
+
+			public Process next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return it.next();
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+}
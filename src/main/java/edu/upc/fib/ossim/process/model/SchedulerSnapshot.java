@@ -0,0 +1,62 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Scheduler state at a given simulation time (Process scheduling context). Queues are kept as pid lists in their
+ * internal order, so they are rebuilt exactly, and processes copy on write: a snapshot only keeps copies of
+ * processes changed since previous snapshot, unchanged ones are found in former snapshots. So memory grows with
+ * changed processes, not with every process alive
+ *
+ * @see ContextProcess#travel(int, boolean, boolean, int)
+ */
+class SchedulerSnapshot {
+	int time;
+	List<Process> changed;		// Copies of processes changed since previous snapshot
+	int[][] ready;				// Pids per cpu ready queue, internal order
+	long[][] readyState;		// Per cpu ready queue own state
+	int[] arriving;
+	IODevice[] devices;			// I/O devices, requests excluded
+	int[][] served;				// Pids per device in service, internal order
+	int[][] waiting;			// Pids per device waiting, internal order
+	int[] released;				// Periodic processes waiting next job release
+	int[] running;				// Pid per cpu, -1 idle
+	int[] idle;
+	int[] stall;				// Context switch time units left per cpu
+	int[] lost;					// Time lost to context switches per cpu
+	int[] blocked;
+	boolean[] busy;
+	int done;					// Finished processes kept
+	long sourced;				// Processes handed out by process source
+	long algorithm;
+	ProcessStatistics stats;
+	long spans;					// Gantt chart history
+	int[][] open;
+
+	SchedulerSnapshot(int time) {
+		this.time = time;
+		changed = new ArrayList<Process>();
+	}
+
+	/**
+	 * Gets every pid alive at snapshot time
+	 *
+	 * @return	pids
+	 */
+	List<Integer> getAlive() {
+		List<Integer> alive = new ArrayList<Integer>();
+		for (int c = 0; c < ready.length; c++) {
+			if (running[c] >= 0) alive.add(running[c]);
+			for (int pid : ready[c]) alive.add(pid);
+		}
+		for (int pid : arriving) alive.add(pid);
+		for (int d = 0; d < devices.length; d++) {
+			for (int pid : served[d]) alive.add(pid);
+			for (int pid : waiting[d]) alive.add(pid);
+		}
+		for (int pid : released) alive.add(pid);
+		return alive;
+	}
+}
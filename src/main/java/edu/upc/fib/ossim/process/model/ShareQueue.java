@@ -0,0 +1,315 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Proportional share queue (Process scheduling context). Two level hierarchy, as cgroups: groups share the cpu by
+ * their weights and processes within a group share their group share by their tickets, derived from their priority.
+ * Every group has a pass and every process its own one within its group (kept as its virtual runtime), the lowest pass
+ * process of the lowest pass group runs next. One indexed heap per group ordered by process pass (pid on ties), so
+ * selection costs O(log n) whatever the number of processes, groups are few and just scanned.
+ * Passes advance in one of two ways:
+ * <ul>
+ * <li>Stride scheduling: process and group passes advance by their stride (STRIDE1 / tickets or weight) per time unit
+ * run, so cpu time follows tickets deterministically</li>
+ * <li>Lottery scheduling: a lottery round is run as a race of exponential clocks, every contender pass is an
+ * exponential draw with mean STRIDE1 / tickets (or weight) after the current virtual time, so the lowest one wins with
+ * probability tickets / total tickets. Losers keep their draws, exponential times have no memory, and the winner
+ * draws again when it competes again</li>
+ * </ul>
+ * A process entering the queue starts at its group virtual time (last pass selected within the group), no lower, and a
+ * group entering it (none of its processes was queued) at queue virtual time, so processes and groups cannot hoard
+ * cpu time while blocked or idle. Process pass must not change while it is queued.
+ *
+ * @see Process#getGroup()
+ * @see ProcessStrategyStride
+ * @see ProcessStrategyLottery
+ */
+public class ShareQueue extends ProcessQueue {
+	public static final long STRIDE1 = 2520L << 10;	// Divisible by every tickets count, 1 to 10
+	public static final int MAX_TICKETS = 10;
+	private static final Comparator<Process> PASS = new Comparator<Process>() {
+		public int compare(Process p1, Process p2) {
+			if (p1.getVruntime() == p2.getVruntime()) return p1.getPid() - p2.getPid();
+			return p1.getVruntime() < p2.getVruntime() ? -1 : 1;
+		}
+	};
+	private int[] weights;
+	private ProcessHeap[] groups;
+	private long[] pass;		// Group pass
+	private long[] min;			// Group virtual time, last process pass selected within group, never decreases
+	private long global;		// Queue virtual time, last group pass selected, never decreases
+	private ProcessStrategyLottery lottery;	// Lottery rounds draws, null for stride scheduling
+	private int size;
+
+	/**
+	 * Constructs an empty proportional share queue
+	 *
+	 * @param weights	groups weights, at least one group
+	 * @param lottery	lottery draws, null for stride scheduling
+	 */
+	public ShareQueue(int[] weights, ProcessStrategyLottery lottery) {
+		this.weights = weights.length == 0 ? new int[] {1} : weights.clone();
+		this.lottery = lottery;
+		groups = new ProcessHeap[this.weights.length];
+		for (int g = 0; g < groups.length; g++) {
+			this.weights[g] = Math.max(1, this.weights[g]);
+			groups[g] = new ProcessHeap(PASS);
+		}
+		pass = new long[groups.length];
+		min = new long[groups.length];
+		clear();
+	}
+
+	/**
+	 * Gets process tickets from its priority
+	 *
+	 * @param p	process
+	 * @return	tickets, 1 to MAX_TICKETS
+	 */
+	public static int getTickets(Process p) {
+		return Math.max(1, Math.min(p.getPrio(), MAX_TICKETS));
+	}
+
+	private int group(Process p) {
+		return Math.min(p.getGroup(), groups.length - 1);
+	}
+
+	private long stride(Process p) {
+		return STRIDE1 / getTickets(p);
+	}
+
+	private long groupStride(int g) {
+		return STRIDE1 / weights[g];
+	}
+
+	/**
+	 * Places a process entering the queue: its pass (and its group pass when its group enters the queue) starts
+	 * at virtual time, or is drawn after it on lottery scheduling. Process must be added right after
+	 *
+	 * @param p	process not queued
+	 */
+	public void place(Process p) {
+		int g = group(p);
+		if (lottery == null) {
+			if (groups[g].isEmpty()) pass[g] = Math.max(pass[g], global);
+			p.setVruntime(Math.max(p.getVruntime(), min[g]));
+		} else {
+			if (groups[g].isEmpty()) pass[g] = global + lottery.draw(groupStride(g));
+			p.setVruntime(min[g] + lottery.draw(stride(p)));
+		}
+	}
+
+	/**
+	 * Charges time units run to a process not queued and its group, stride scheduling only (lottery rounds
+	 * are drawn when processes are placed or selected)
+	 *
+	 * @param p		running process
+	 * @param units	time units run
+	 */
+	public void charge(Process p, int units) {
+		if (lottery != null) return;
+		p.addVruntime(units * stride(p));
+		pass[group(p)] += units * groupStride(group(p));
+	}
+
+	/**
+	 * Gets queued processes count
+	 *
+	 * @return	processes count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Inserts a process into its group, by its pass
+	 *
+	 * @param p	process
+	 * @return	true
+	 */
+	public boolean offer(Process p) {
+		groups[group(p)].offer(p);
+		size++;
+		return true;
+	}
+
+	private int first() {
+		// Lowest pass non empty group, lowest group on ties
+		int first = -1;
+		for (int g = 0; g < groups.length; g++) {
+			if (!groups[g].isEmpty() && (first < 0 || pass[g] < pass[first])) first = g;
+		}
+		return first;
+	}
+
+	/**
+	 * Retrieves lowest pass group lowest pass process without removing it
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process peek() {
+		int g = first();
+		return g < 0 ? null : groups[g].peek();
+	}
+
+	/**
+	 * Retrieves and removes lowest pass group lowest pass process, virtual times are raised to its passes.
+	 * On lottery scheduling its group draws again if it still competes
+	 *
+	 * @return	queue's head or null if queue is empty
+	 */
+	public Process poll() {
+		int g = first();
+		if (g < 0) return null;
+		Process p = groups[g].poll();
+		size--;
+		global = Math.max(global, pass[g]);
+		min[g] = Math.max(min[g], p.getVruntime());
+		if (lottery != null && !groups[g].isEmpty()) pass[g] += lottery.draw(groupStride(g));
+		return p;
+	}
+
+	/**
+	 * Is process queued? Constant time
+	 *
+	 * @param o	process
+	 * @return	process is queued
+	 */
+	public boolean contains(Object o) {
+		return (o instanceof Process) && groups[group((Process) o)].contains(o);
+	}
+
+	/**
+	 * Removes a process from its group, logarithmic time
+	 *
+	 * @param o	process
+	 * @return	process was queued
+	 */
+	public boolean remove(Object o) {
+		if (!contains(o)) return false;
+		groups[group((Process) o)].remove(o);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Process pass must not change while queued, so process position holds
+	 *
+	 * @param p	queued process
+	 * @return	process is queued
+	 */
+	public boolean update(Process p) {
+		return groups[group(p)].update(p);
+	}
+
+	/**
+	 * Retrieves without removing it one of the last processes of highest pass non empty group
+	 *
+	 * @return	one of the last processes or null if queue is empty
+	 */
+	public Process peekLast() {
+		int last = -1;
+		for (int g = 0; g < groups.length; g++) {
+			if (!groups[g].isEmpty() && (last < 0 || pass[g] >= pass[last])) last = g;
+		}
+		return last < 0 ? null : groups[last].peekLast();
+	}
+
+	/**
+	 * Removes all processes, passes and virtual times restart
+	 */
+	public void clear() {
+		for (int g = 0; g < groups.length; g++) groups[g].clear();
+		Arrays.fill(pass, 0);
+		Arrays.fill(min, 0);
+		global = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets queue state: virtual time, groups passes and groups virtual times
+	 *
+	 * @return	queue state
+	 */
+	public long[] getState() {
+		long[] state = new long[1 + 2 * groups.length];
+		state[0] = global;
+		System.arraycopy(pass, 0, state, 1, groups.length);
+		System.arraycopy(min, 0, state, 1 + groups.length, groups.length);
+		return state;
+	}
+
+	/**
+	 * Restores virtual time, groups passes and groups virtual times
+	 *
+	 * @param state	queue state
+	 */
+	public void setState(long[] state) {
+		global = state[0];
+		System.arraycopy(state, 1, pass, 0, groups.length);
+		System.arraycopy(state, 1 + groups.length, min, 0, groups.length);
+	}
+
+	/**
+	 * Returns an iterator over queued processes group by group, in no particular order within a group
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		return new ShareIterator(false);
+	}
+
+	/**
+	 * Returns an iterator over queued processes group by group by group pass, by pass within a group. It is
+	 * poll order as long as the first group keeps the lowest pass
+	 *
+	 * @return	ordered iterator
+	 */
+	public Iterator<Process> orderedIterator() {
+		return new ShareIterator(true);
+	}
+
+	private class ShareIterator implements Iterator<Process> {
+		// Chains non empty groups iterators
+		private boolean ordered;
+		private Integer[] order;	// Groups to visit
+		private int next;
+		private Iterator<Process> it;
+
+		private ShareIterator(boolean ordered) {
+			this.ordered = ordered;
+			order = new Integer[groups.length];
+			for (int g = 0; g < groups.length; g++) order[g] = g;
+			if (ordered) {
+				Arrays.sort(order, new Comparator<Integer>() {
+					public int compare(Integer g1, Integer g2) {
+						if (pass[g1] == pass[g2]) return g1 - g2;
+						return pass[g1] < pass[g2] ? -1 : 1;
+					}
+				});
+			}
+		}
+
+		public boolean hasNext() {
+			while ((it == null || !it.hasNext()) && next < order.length) {
+				ProcessHeap group = groups[order[next++]];
+				it = ordered ? group.orderedIterator() : group.iterator();
+			}
+			return it != null && it.hasNext();
+		}
+
+		public Process next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return it.next();
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+}
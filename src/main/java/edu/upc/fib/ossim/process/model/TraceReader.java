@@ -0,0 +1,214 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.StringTokenizer;
+
+
+/**
+ * Workload trace reader (Process scheduling context). Jobs are read from a trace file line by line as simulation
+ * time approaches their submission, never loaded as a whole: only next process is materialized, so a trace of any
+ * length costs constant memory and is replayed at simulation speed. Two formats are read:
+ * <ul>
+ * <li>Standard Workload Format (SWF) logs: job number, submit time, wait time, run time, processors, average CPU time...
+ * comments start with ';'. A job runs a CPU burst as long as its run time, if its average CPU time is shorter the
+ * difference is an I/O burst in the middle. Its queue number is its priority (1 to 10) and its group number (from 1)
+ * its proportional share group (from 0), parallel jobs are simulated as single processes and jobs without run time
+ * (cancelled) are skipped</li>
+ * <li>CSV: pid, submit time, priority, burst pattern and optionally proportional share group (0 by default), gang and
+ * gang size (none by default, processes of a gang share its number). Burst pattern is a sequence of run lengths separated by blanks,
+ * alternating CPU and I/O starting with a CPU burst, as <code>5 3 2</code>. An I/O burst targets I/O device 0 unless
+ * its device follows, as <code>5 3@1 2</code>. Comments start with '#', a non numeric first line is taken as header</li>
+ * </ul>
+ * Traces are expected in submission order, a job submitted before previous one is delayed until then.
+ *
+ * @see ContextProcess#setProcessSource(ProcessSource)
+ */
+public class TraceReader implements ProcessSource {
+	public static final int SWF = 0;
+	public static final int CSV = 1;
+	private File file;
+	private int format;
+	private BufferedReader reader;	// null when trace is over
+	private Process next;			// Next process, null if not read yet
+	private int submission;			// Last submission time
+
+	/**
+	 * Constructs a trace reader, its format is known by file extension (.swf or .csv)
+	 *
+	 * @param file	trace file
+	 */
+	public TraceReader(File file) {
+		this(file, file.getName().toLowerCase().endsWith(".csv") ? CSV : SWF);
+	}
+
+	/**
+	 * Constructs a trace reader
+	 *
+	 * @param file		trace file
+	 * @param format	trace format, SWF or CSV
+	 */
+	public TraceReader(File file, int format) {
+		this.file = file;
+		this.format = format;
+		reset();
+	}
+
+	/**
+	 * Processes left are not known without reading whole trace
+	 *
+	 * @return	1 while there are processes left, 0 otherwise
+	 */
+	public int remaining() {
+		return hasNext() ? 1 : 0;
+	}
+
+	/**
+	 * Are there processes not already handed out? Next process is read if needed
+	 *
+	 * @return	processes remaining
+	 */
+	public boolean hasNext() {
+		return peek() != null;
+	}
+
+	/**
+	 * Gets submission time of next process to hand out
+	 *
+	 * @return	next submission time
+	 */
+	public int peekSubmission() {
+		return peek().getTimesubmission();
+	}
+
+	/**
+	 * Hands out next process in submission order
+	 *
+	 * @return	process
+	 */
+	public Process next() {
+		Process p = peek();
+		next = null;
+		return p;
+	}
+
+	/**
+	 * Reads trace again from its beginning
+	 */
+	public void reset() {
+		close();
+		try {
+			reader = new BufferedReader(new FileReader(file));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		next = null;
+		submission = 0;
+	}
+
+	/**
+	 * Closes trace file, a reset opens it again
+	 */
+	public void close() {
+		if (reader == null) return;
+		try {
+			reader.close();
+		} catch (IOException e) {
+			// Nothing else to read
+		}
+		reader = null;
+	}
+
+	private Process peek() {
+		// Reads lines up to next job, trace file is closed at its end
+		try {
+			String line;
+			while (next == null && reader != null) {
+				line = reader.readLine();
+				if (line == null) close();
+				else next = format == CSV ? parseCSV(line) : parseSWF(line);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return next;
+	}
+
+	private Process parseSWF(String line) {
+		line = line.trim();
+		if (line.length() == 0 || line.charAt(0) == ';') return null;
+		StringTokenizer st = new StringTokenizer(line);
+		double[] fields = new double[18];
+		for (int i = 0; i < fields.length; i++) fields[i] = st.hasMoreTokens() ? number(st.nextToken()) : -1;
+		int run = (int) fields[3];
+		if (fields[0] < 0 || fields[1] < 0 || run <= 0) return null;
+		int cpu = (int) fields[5];
+		int[] types, lengths;
+		if (cpu >= 2 && cpu < run) {
+			types = new int[] {BurstCycle.CPU, BurstCycle.IO, BurstCycle.CPU};
+			lengths = new int[] {cpu - cpu / 2, run - cpu, cpu / 2};
+		} else {
+			types = new int[] {BurstCycle.CPU};
+			lengths = new int[] {run};
+		}
+		int prio = fields[14] > 0 ? (int) Math.min(fields[14], 10) : 1;
+		int group = fields[12] > 0 ? (int) fields[12] - 1 : 0;
+		return create((int) fields[0], prio, group, (int) fields[1], types, lengths);
+	}
+
+	private Process parseCSV(String line) {
+		line = line.trim();
+		if (line.length() == 0 || line.charAt(0) == '#') return null;
+		StringTokenizer st = new StringTokenizer(line, ",");
+		if (st.countTokens() < 4) return null;
+		double pid = number(st.nextToken().trim());
+		if (Double.isNaN(pid)) return null; // Header
+		int submit = (int) number(st.nextToken().trim());
+		int prio = (int) number(st.nextToken().trim());
+		StringTokenizer runs = new StringTokenizer(st.nextToken());
+		int[] types = new int[runs.countTokens()];
+		int[] lengths = new int[types.length];
+		for (int r = 0; r < types.length; r++) {
+			String run = runs.nextToken();
+			int at = run.indexOf('@');
+			types[r] = r % 2 == 0 ? BurstCycle.CPU : BurstCycle.IO;
+			if (at >= 0) {
+				double device = number(run.substring(at + 1));
+				if (r % 2 == 0 || !(device >= 0)) return null; // Only I/O bursts target a device
+				types[r] += (int) device;
+				run = run.substring(0, at);
+			}
+			lengths[r] = (int) number(run);
+			if (!(lengths[r] > 0)) return null;
+		}
+		if (types.length == 0 || types.length % 2 == 0) return null; // Must start and end with a CPU burst
+		double group = st.hasMoreTokens() ? number(st.nextToken().trim()) : 0;
+		if (!(group >= 0)) return null;
+		double gang = st.hasMoreTokens() ? number(st.nextToken().trim()) : -1;
+		double size = st.hasMoreTokens() ? number(st.nextToken().trim()) : 1;
+		if (Double.isNaN(gang) || !(size >= 1)) return null;
+		Process p = create((int) pid, Math.max(1, Math.min(prio, 10)), (int) group, submit, types, lengths);
+		p.setGang((int) gang, (int) size);
+		return p;
+	}
+
+	private Process create(int pid, int prio, int group, int submit, int[] types, int[] lengths) {
+		submission = Math.max(submission, submit);
+		Color color = Color.getHSBColor((pid * 0.618034f) % 1, 0.5f, 0.95f);
+		Process p = new Process(pid, "P" + pid, prio, submission, false, new BurstCycle(types, lengths), color);
+		p.setGroup(group);
+		return p;
+	}
+
+	private double number(String s) {
+		try {
+			return Double.parseDouble(s);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.TreeSet;
+
+
+/**
+ * Virtual runtime tree (Process scheduling context). Red-black tree of processes ordered by their virtual runtime
+ * (pid on ties), leftmost and rightmost processes are cached so next process selection costs O(1) and insertion or
+ * removal O(log n). Tree keeps its total load (processes weight sum) and a monotonic minimum virtual runtime
+ * to place processes entering it. Process virtual runtime must not change while it is queued.
+ *
+ * @see Process#getVruntime()
+ * @see ProcessStrategyCFS
+ */
+public class VruntimeTree extends ProcessQueue {
+	private TreeSet<Process> tree;
+	private Process leftmost;
+	private Process rightmost;
+	private long load;			// Queued processes weight sum
+	private long minVruntime;	// Never decreases
+
+	/**
+	 * Constructs an empty virtual runtime tree
+	 */
+	public VruntimeTree() {
+		tree = new TreeSet<Process>(new Comparator<Process>() {
+			public int compare(Process p1, Process p2) {
+				if (p1.getVruntime() == p2.getVruntime()) return p1.getPid() - p2.getPid();
+				return p1.getVruntime() < p2.getVruntime() ? -1 : 1;
+			}
+		});
+		clear();
+	}
+
+	/**
+	 * Gets queued processes count
+	 *
+	 * @return	processes count
+	 */
+	public int size() {
+		return tree.size();
+	}
+
+	/**
+	 * Gets queued processes weight sum
+	 *
+	 * @return	total load
+	 *
+	 * @see ProcessStrategyCFS#getWeight(Process)
+	 */
+	public long getLoad() {
+		return load;
+	}
+
+	/**
+	 * Gets tree minimum virtual runtime, it never decreases
+	 *
+	 * @return	minimum virtual runtime
+	 */
+	public long getMinVruntime() {
+		return minVruntime;
+	}
+
+	/**
+	 * Gets tree state, its minimum virtual runtime
+	 *
+	 * @return	minimum virtual runtime
+	 */
+	public long[] getState() {
+		return new long[] {minVruntime};
+	}
+
+	/**
+	 * Restores tree minimum virtual runtime
+	 *
+	 * @param state	minimum virtual runtime
+	 */
+	public void setState(long[] state) {
+		minVruntime = state[0];
+	}
+
+	/**
+	 * Raises minimum virtual runtime to the lowest among running process and leftmost process
+	 *
+	 * @param vruntime	running process virtual runtime
+	 */
+	public void advance(long vruntime) {
+		if (leftmost != null && leftmost.getVruntime() < vruntime) vruntime = leftmost.getVruntime();
+		if (vruntime > minVruntime) minVruntime = vruntime;
+	}
+
+	/**
+	 * Inserts a process ordered by its virtual runtime, logarithmic time
+	 *
+	 * @param p	process
+	 * @return	true
+	 */
+	public boolean offer(Process p) {
+		if (p == null) throw new NullPointerException();
+		tree.add(p);
+		load += ProcessStrategyCFS.getWeight(p);
+		if (leftmost == null || tree.comparator().compare(p, leftmost) < 0) leftmost = p;
+		if (rightmost == null || tree.comparator().compare(p, rightmost) > 0) rightmost = p;
+		return true;
+	}
+
+	/**
+	 * Retrieves lowest virtual runtime process without removing it, constant time
+	 *
+	 * @return	leftmost process or null if queue is empty
+	 */
+	public Process peek() {
+		return leftmost;
+	}
+
+	/**
+	 * Retrieves highest virtual runtime process without removing it, constant time
+	 *
+	 * @return	rightmost process or null if queue is empty
+	 */
+	public Process peekLast() {
+		return rightmost;
+	}
+
+	/**
+	 * Retrieves and removes lowest virtual runtime process, minimum virtual runtime is raised to its own
+	 *
+	 * @return	leftmost process or null if queue is empty
+	 */
+	public Process poll() {
+		if (leftmost == null) return null;
+		Process p = leftmost;
+		remove(p);
+		advance(p.getVruntime());
+		return p;
+	}
+
+	/**
+	 * Is process queued? Logarithmic time
+	 *
+	 * @param o	process
+	 * @return	process is queued
+	 */
+	public boolean contains(Object o) {
+		// Same pid and virtual runtime is not enough, process may have been cloned
+		if (!(o instanceof Process)) return false;
+		return tree.ceiling((Process) o) == o;
+	}
+
+	/**
+	 * Removes a process, logarithmic time
+	 *
+	 * @param o	process
+	 * @return	process was queued
+	 */
+	public boolean remove(Object o) {
+		if (!contains(o)) return false;
+		Process p = (Process) o;
+		if (p == leftmost) leftmost = tree.higher(p);
+		if (p == rightmost) rightmost = tree.lower(p);
+		tree.remove(p);
+		load -= ProcessStrategyCFS.getWeight(p);
+		return true;
+	}
+
+	/**
+	 * Virtual runtime must not change while queued, so process position holds
+	 *
+	 * @param p	queued process
+	 * @return	process is queued
+	 */
+	public boolean update(Process p) {
+		return contains(p);
+	}
+
+	/**
+	 * Removes all processes, minimum virtual runtime restarts
+	 */
+	public void clear() {
+		tree.clear();
+		leftmost = null;
+		rightmost = null;
+		load = 0;
+		minVruntime = 0;
+	}
+
+	/**
+	 * Returns an iterator over queued processes by virtual runtime
+	 *
+	 * @return	iterator
+	 */
+	public Iterator<Process> iterator() {
+		final Iterator<Process> it = tree.iterator();
+		return new Iterator<Process>() {
+			public boolean hasNext() {
+				return it.hasNext();
+			}
+
+			public Process next() {
+				return it.next();
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Returns an iterator over queued processes in queue order, by virtual runtime
+	 *
+	 * @return	ordered iterator
+	 */
+	public Iterator<Process> orderedIterator() {
+		return iterator();
+	}
+}
@@ -0,0 +1,331 @@
+package edu.upc.fib.ossim.process.model;
+
+import java.awt.Color;
+import java.util.Random;
+
+
+/**
+ * Synthetic workload generator (Process scheduling context). Processes are drawn from statistical models as they are
+ * about to be submitted, never in advance: only next process is materialized, so a workload of millions of processes
+ * costs constant memory. Arrivals are Poisson or bursty (Poisson arrivals during on periods, none during off periods,
+ * both exponentially long), CPU bursts are exponential or Pareto (heavy tailed), I/O bursts are exponential and keep
+ * a configurable I/O ratio and target a device drawn uniformly among I/O devices, priorities follow a configurable
+ * mix and proportional share groups are drawn uniformly. Every arrival may be a parallel job, a gang of processes
+ * submitted together as wide as drawn uniformly up to a maximum width. A generator is seeded, so it hands out the
+ * same processes again after a reset
+ *
+ * @see ContextProcess#setProcessSource(ProcessSource)
+ */
+public class WorkloadGenerator implements ProcessSource {
+	public static final int MAX_BURST = 1000000;	// Longest burst, heavy tails are truncated
+	private long seed;
+	private int count;
+	private int firstPid;
+	// Arrivals
+	private boolean bursty;
+	private double rate;		// Arrivals per time unit, during on periods if bursty
+	private double meanOn;
+	private double meanOff;
+	// Bursts
+	private boolean pareto;
+	private double cpuMean;		// Exponential mean
+	private double shape;		// Pareto shape and minimum
+	private double min;
+	private double cpuBursts;	// CPU bursts per process mean
+	private double ioRatio;		// I/O time / (CPU + I/O time)
+	private int devices;		// I/O devices bursts target
+	private int groups;			// Proportional share groups
+	private int width;			// Widest gang
+	private int[] prioWeights;	// Priority 1 to 10 weights
+	private int prioTotal;
+	// Generation state
+	private Random random;
+	private double clock;		// Last arrival time
+	private double onEnd;		// Current on period end, bursty arrivals
+	private int handed;			// Processes already handed out
+	private int gang;			// Current gang, first member pid
+	private int members;		// Current gang width
+	private int pending;		// Current gang members not generated yet
+	private Process next;		// Next process, null if not generated yet
+
+	/**
+	 * Constructs a generator of Poisson arrivals (one every 10 time units), exponential CPU bursts (mean 5),
+	 * 3 CPU bursts per process, 20% I/O time on a single I/O device, every priority equally likely and a single group
+	 *
+	 * @param seed	random seed
+	 * @param count	number of processes
+	 */
+	public WorkloadGenerator(long seed, int count) {
+		this.seed = seed;
+		this.count = count;
+		this.firstPid = 1;
+		setPoissonArrivals(0.1);
+		setExponentialBursts(5);
+		setCPUBursts(3);
+		setIORatio(0.2);
+		setIODevices(1);
+		setGroups(1);
+		setGangs(1);
+		setPriorities(new int[] {1, 1, 1, 1, 1, 1, 1, 1, 1, 1});
+	}
+
+	/**
+	 * Sets first process identifier, following ones are consecutive
+	 *
+	 * @param firstPid	first process identifier
+	 */
+	public void setFirstPid(int firstPid) {
+		this.firstPid = firstPid;
+		reset();
+	}
+
+	/**
+	 * Sets Poisson arrivals, exponential times between arrivals
+	 *
+	 * @param rate	arrivals per time unit
+	 */
+	public void setPoissonArrivals(double rate) {
+		this.bursty = false;
+		this.rate = rate;
+		reset();
+	}
+
+	/**
+	 * Sets bursty arrivals: Poisson arrivals along on periods and no arrivals along off periods,
+	 * periods lengths are exponential
+	 *
+	 * @param rate		arrivals per time unit along on periods
+	 * @param meanOn	on periods mean length
+	 * @param meanOff	off periods mean length
+	 */
+	public void setBurstyArrivals(double rate, double meanOn, double meanOff) {
+		this.bursty = true;
+		this.rate = rate;
+		this.meanOn = meanOn;
+		this.meanOff = meanOff;
+		reset();
+	}
+
+	/**
+	 * Sets exponential CPU bursts
+	 *
+	 * @param mean	CPU burst mean length
+	 */
+	public void setExponentialBursts(double mean) {
+		this.pareto = false;
+		this.cpuMean = mean;
+		reset();
+	}
+
+	/**
+	 * Sets Pareto CPU bursts, most of them short and a few very long ones. Shape 1 or lower has no finite mean,
+	 * bursts are truncated to MAX_BURST anyway
+	 *
+	 * @param shape	Pareto shape (tail index), lower is heavier
+	 * @param min	shortest CPU burst
+	 */
+	public void setParetoBursts(double shape, double min) {
+		this.pareto = true;
+		this.shape = shape;
+		this.min = min;
+		this.cpuMean = shape > 1 ? Math.min(shape * min / (shape - 1), MAX_BURST) : MAX_BURST;
+		reset();
+	}
+
+	/**
+	 * Sets CPU bursts per process mean, geometric number of CPU bursts (at least one) separated by I/O bursts
+	 *
+	 * @param mean	CPU bursts per process mean
+	 */
+	public void setCPUBursts(double mean) {
+		this.cpuBursts = Math.max(1, mean);
+		reset();
+	}
+
+	/**
+	 * Sets I/O ratio, I/O bursts mean length is set to keep I/O time share with CPU bursts mean length
+	 *
+	 * @param ratio	I/O time / (CPU + I/O time), from 0 (CPU bound) to lower than 1
+	 */
+	public void setIORatio(double ratio) {
+		this.ioRatio = Math.max(0, Math.min(ratio, 0.99));
+		reset();
+	}
+
+	/**
+	 * Sets I/O devices count, every I/O burst targets one of them drawn uniformly
+	 *
+	 * @param devices	I/O devices, at least 1
+	 *
+	 * @see ContextProcess#setIODevices(java.util.List)
+	 */
+	public void setIODevices(int devices) {
+		this.devices = Math.max(1, devices);
+		reset();
+	}
+
+	/**
+	 * Sets proportional share groups count, every process belongs to one of them drawn uniformly
+	 *
+	 * @param groups	groups, at least 1
+	 *
+	 * @see Process#getGroup()
+	 */
+	public void setGroups(int groups) {
+		this.groups = Math.max(1, groups);
+		reset();
+	}
+
+	/**
+	 * Sets gangs widest width, every arrival is a gang of processes submitted together as wide as drawn uniformly
+	 * from 1 to width. Single processes are not part of a gang
+	 *
+	 * @param width	widest gang, 1 for single processes only
+	 *
+	 * @see Process#getGang()
+	 */
+	public void setGangs(int width) {
+		this.width = Math.max(1, width);
+		reset();
+	}
+
+	/**
+	 * Sets priorities mix
+	 *
+	 * @param weights	priority 1 to 10 relative weights
+	 */
+	public void setPriorities(int[] weights) {
+		prioWeights = new int[10];
+		prioTotal = 0;
+		for (int i = 0; i < prioWeights.length && i < weights.length; i++) {
+			prioWeights[i] = Math.max(0, weights[i]);
+			prioTotal += prioWeights[i];
+		}
+		if (prioTotal == 0) {
+			prioWeights[0] = 1;
+			prioTotal = 1;
+		}
+		reset();
+	}
+
+	/**
+	 * Gets processes not already handed out
+	 *
+	 * @return	processes remaining
+	 */
+	public int remaining() {
+		return count - handed;
+	}
+
+	/**
+	 * Are there processes not already handed out?
+	 *
+	 * @return	processes remaining
+	 */
+	public boolean hasNext() {
+		return handed < count;
+	}
+
+	/**
+	 * Gets submission time of next process to hand out, it is generated if needed
+	 *
+	 * @return	next submission time
+	 */
+	public int peekSubmission() {
+		return peek().getTimesubmission();
+	}
+
+	/**
+	 * Hands out next process in submission order
+	 *
+	 * @return	process
+	 */
+	public Process next() {
+		Process p = peek();
+		next = null;
+		handed++;
+		return p;
+	}
+
+	/**
+	 * Restarts from first process with the same seed, so the same processes are generated again
+	 */
+	public void reset() {
+		random = new Random(seed);
+		clock = 0;
+		onEnd = bursty ? exponential(meanOn) : 0;
+		handed = 0;
+		pending = 0;
+		next = null;
+	}
+
+	private Process peek() {
+		if (next == null) next = generate();
+		return next;
+	}
+
+	private Process generate() {
+		// Next arrival or next member of current gang, a CPU burst followed by I/O and CPU bursts pairs
+		int pid = firstPid + handed;
+		if (pending == 0) {
+			arrive();
+			gang = pid;
+			members = width > 1 ? 1 + random.nextInt(width) : 1;
+			pending = members;
+		}
+		pending--;
+		int n = 1;
+		double p = 1 - 1 / cpuBursts;
+		while (random.nextDouble() < p) n++;
+		int runs = ioRatio > 0 ? 2 * n - 1 : n; // Consecutive CPU bursts are merged
+		int[] types = new int[runs];
+		int[] lengths = new int[runs];
+		double ioMean = cpuMean * ioRatio / (1 - ioRatio);
+		for (int r = 0; r < runs; r++) {
+			if (ioRatio > 0 && r % 2 == 1) {
+				types[r] = BurstCycle.IO + (devices > 1 ? random.nextInt(devices) : 0);
+				lengths[r] = length(exponential(ioMean));
+			} else {
+				types[r] = BurstCycle.CPU;
+				lengths[r] = length(pareto ? pareto() : exponential(cpuMean));
+			}
+		}
+		Color color = Color.getHSBColor((pid * 0.618034f) % 1, 0.5f, 0.95f);
+		Process process = new Process(pid, "P" + pid, priority(), (int) Math.min(clock, Integer.MAX_VALUE), false, new BurstCycle(types, lengths), color);
+		if (groups > 1) process.setGroup(random.nextInt(groups));
+		if (members > 1) process.setGang(gang, members);
+		return process;
+	}
+
+	private void arrive() {
+		// Advances clock to next arrival
+		if (rate <= 0) return;
+		clock += exponential(1 / rate);
+		while (bursty && clock > onEnd) {
+			// Arrival beyond on period, exponential times have no memory so skip an off period and sample again
+			clock = onEnd + exponential(meanOff);
+			onEnd = clock + exponential(meanOn);
+			clock += exponential(1 / rate);
+		}
+	}
+
+	private int priority() {
+		int r = random.nextInt(prioTotal);
+		int prio = 0;
+		while (r >= prioWeights[prio]) r -= prioWeights[prio++];
+		return prio + 1;
+	}
+
+	private double exponential(double mean) {
+		return -mean * Math.log(1 - random.nextDouble());
+	}
+
+	private double pareto() {
+		return min / Math.pow(1 - random.nextDouble(), 1 / shape);
+	}
+
+	private int length(double burst) {
+		// At least 1 time unit, at most MAX_BURST
+		return (int) Math.max(1, Math.min(Math.round(burst), MAX_BURST));
+	}
+}
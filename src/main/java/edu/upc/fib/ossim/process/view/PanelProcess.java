@@ -2,6 +2,7 @@ package edu.upc.fib.ossim.process.view;
 
 import java.awt.Dimension;
 
+import javax.swing.JButton;
 import javax.swing.JLabel;
 import javax.swing.JScrollPane;
 import javax.swing.SpringLayout;
@@ -10,22 +11,27 @@ import edu.upc.fib.ossim.process.ProcessPresenter;
 import edu.upc.fib.ossim.template.Presenter;
 import edu.upc.fib.ossim.template.view.PanelTemplate;
 import edu.upc.fib.ossim.utils.Functions;
+import edu.upc.fib.ossim.utils.Translation;
 
 
 /**
  * Main process scheduling panel. Tool bar allows process creation, scheduler settings managing, 
  * information view and time control apart from common actions such as: loading and saving simulations. <br/>
  * This panel contains 3 elements (painters) a main process queue (ready queue),
- * a secondary one with incoming processes and the cpu.   
+ * a secondary one with incoming processes and the cpu. Scheduling history can be viewed as a timeline, 
+ * and simulation can travel back to a past time.   
  *  
  * @author Alex Macia
  * 
  * @see PanelTemplate
  * @see QueuePainter
  * @see ProcessorPainter
+ * @see TimelinePainter
  */
 public class PanelProcess extends PanelTemplate { 
 	private static final long serialVersionUID = 1L;
+	private JButton timeline;
+	private JButton travel;
 
 	/**
 	 * Constructs a PanelProcess 
@@ -59,6 +65,20 @@ public class PanelProcess extends PanelTemplate {
 		layout.putConstraint(SpringLayout.WEST, presenter.getPainter(ProcessPresenter.PROCESSOR_PAINTER), 10, SpringLayout.EAST, presenter.getPainter(ProcessPresenter.IO_PAINTER));
 		layout.putConstraint(SpringLayout.NORTH, presenter.getPainter(ProcessPresenter.PROCESSOR_PAINTER), 0, SpringLayout.NORTH, presenter.getPainter(ProcessPresenter.IO_PAINTER));
 		pane.add(presenter.getPainter(ProcessPresenter.PROCESSOR_PAINTER));
+
+		timeline = new JButton(Translation.getInstance().getLabel("pr_95"));
+		timeline.setActionCommand("GNT");
+		timeline.addActionListener(presenter);
+		layout.putConstraint(SpringLayout.EAST, timeline, 0, SpringLayout.EAST, presenter.getPainter(ProcessPresenter.PROCESSOR_PAINTER));
+		layout.putConstraint(SpringLayout.NORTH, timeline, 5, SpringLayout.SOUTH, presenter.getPainter(ProcessPresenter.PROCESSOR_PAINTER));
+		pane.add(timeline);
+
+		travel = new JButton(Translation.getInstance().getLabel("pr_100"));
+		travel.setActionCommand("TRV");
+		travel.addActionListener(presenter);
+		layout.putConstraint(SpringLayout.EAST, travel, -5, SpringLayout.WEST, timeline);
+		layout.putConstraint(SpringLayout.NORTH, travel, 0, SpringLayout.NORTH, timeline);
+		pane.add(travel);
 		
 		JLabel up = new JLabel(Functions.getInstance().createImageIcon("up.png"));
 		layout.putConstraint(SpringLayout.HORIZONTAL_CENTER, up, 0, SpringLayout.HORIZONTAL_CENTER, presenter.getPainter(ProcessPresenter.ARRIVING_PAINTER));
@@ -85,5 +105,13 @@ public class PanelProcess extends PanelTemplate {
 		layout.putConstraint(SpringLayout.NORTH, up_cpu, 0, SpringLayout.NORTH, up);
 		pane.add(up_cpu);
 	}
-} 
 
+	/**
+	 * Updates panel labels, timeline and travel buttons included
+	 */
+	public void updateLabels() {
+		super.updateLabels();
+		timeline.setText(Translation.getInstance().getLabel("pr_95"));
+		travel.setText(Translation.getInstance().getLabel("pr_100"));
+	}
+}
@@ -4,6 +4,7 @@ import java.awt.FlowLayout;
 
 import javax.swing.BorderFactory;
 import javax.swing.BoxLayout;
+import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -25,9 +26,16 @@ import edu.upc.fib.ossim.utils.Translation;
  * <li>SJF</li>
  * <li>Priority</li>
  * <li>Round Robin</li>
+ * <li>Multilevel Feedback Queue</li>
+ * <li>Completely Fair Scheduler</li>
+ * <li>Earliest Deadline First</li>
+ * <li>Rate Monotonic</li>
+ * <li>Stride and Lottery (proportional share)</li>
  * </ul>
- * Additional control sets algorithm preemptiveness if possible and multiprogramming, besides Round Robin algorithm require 
- * quantum size selection.       
+ * Additional control sets algorithm preemptiveness if possible and multiprogramming, besides Round Robin, Multilevel 
+ * Feedback Queue, Completely Fair Scheduler (minimum granularity), Stride and Lottery algorithms require quantum size 
+ * selection, and Stride and Lottery groups weights. 
+ * Every algorithm can be compared on current workload, and Round Robin quantum sizes swept.       
  * 
  * @author Alex Macia
  */
@@ -40,9 +48,23 @@ public class ProcessSettings extends SettingsTemplate {
 	private JRadioButton shortScheduleSJF;
 	private JRadioButton shortSchedulePrio;
 	private JRadioButton shortScheduleRR;
+	private JRadioButton shortScheduleMLFQ;
+	private JRadioButton shortScheduleCFS;
+	private JRadioButton shortScheduleEDF;
+	private JRadioButton shortScheduleRM;
+	private JRadioButton shortScheduleStride;
+	private JRadioButton shortScheduleLottery;
+	private JRadioButton shortScheduleGang;
 	private JLabel lquantum;
 	private JSpinner quantum;
+	private JLabel laging;
+	private JSpinner aging;
 	private JCheckBox preemptive;
+	private JButton compare;
+	private JButton sweep;
+	private JButton devices;
+	private JButton switches;
+	private JButton shares;
 
 	/**
 	 * Constructs a ProcessSettings panel
@@ -55,8 +77,8 @@ public class ProcessSettings extends SettingsTemplate {
 	}
 
 	/**
-	 * Adds components to panel, algorithm selection button group, preemptive check control and 
-	 * a quantum size selector used in Round Robin algorithm. FCFS is initially selected       
+	 * Adds components to panel, algorithm selection button group, preemptive check control, 
+	 * a quantum size selector used in Round Robin algorithm and an aging selector used in SJF and Priority algorithms. FCFS is initially selected       
 	 */
 	public void initSpecific() {
 		JPanel multi = new JPanel(new FlowLayout(FlowLayout.LEFT));
@@ -86,11 +108,39 @@ public class ProcessSettings extends SettingsTemplate {
 		shortScheduleRR = new JRadioButton(Translation.getInstance().getLabel("pr_54"));
 		shortScheduleRR.setActionCommand("RR");
 		shortScheduleRR.addActionListener(presenter);
+		shortScheduleMLFQ = new JRadioButton(Translation.getInstance().getLabel("pr_82"));
+		shortScheduleMLFQ.setActionCommand("MLFQ");
+		shortScheduleMLFQ.addActionListener(presenter);
+		shortScheduleCFS = new JRadioButton(Translation.getInstance().getLabel("pr_84"));
+		shortScheduleCFS.setActionCommand("CFS");
+		shortScheduleCFS.addActionListener(presenter);
+		shortScheduleEDF = new JRadioButton(Translation.getInstance().getLabel("pr_87"));
+		shortScheduleEDF.setActionCommand("EDF");
+		shortScheduleEDF.addActionListener(presenter);
+		shortScheduleRM = new JRadioButton(Translation.getInstance().getLabel("pr_89"));
+		shortScheduleRM.setActionCommand("RM");
+		shortScheduleRM.addActionListener(presenter);
+		shortScheduleStride = new JRadioButton(Translation.getInstance().getLabel("pr_110"));
+		shortScheduleStride.setActionCommand("STR");
+		shortScheduleStride.addActionListener(presenter);
+		shortScheduleLottery = new JRadioButton(Translation.getInstance().getLabel("pr_112"));
+		shortScheduleLottery.setActionCommand("LOT");
+		shortScheduleLottery.addActionListener(presenter);
+		shortScheduleGang = new JRadioButton(Translation.getInstance().getLabel("pr_119"));
+		shortScheduleGang.setActionCommand("GNG");
+		shortScheduleGang.addActionListener(presenter);
 
 		addAlgorithm(shortScheduleFCFS);
 		addAlgorithm(shortScheduleSJF);
 		addAlgorithm(shortSchedulePrio);
 		addAlgorithm(shortScheduleRR);
+		addAlgorithm(shortScheduleMLFQ);
+		addAlgorithm(shortScheduleCFS);
+		addAlgorithm(shortScheduleEDF);
+		addAlgorithm(shortScheduleRM);
+		addAlgorithm(shortScheduleStride);
+		addAlgorithm(shortScheduleLottery);
+		addAlgorithm(shortScheduleGang);
 
 		SpinnerModel spmodel = new SpinnerNumberModel(1, //initial value
 				1, //min
@@ -100,6 +150,10 @@ public class ProcessSettings extends SettingsTemplate {
 		quantum.setName("quantum");
 		quantum.addChangeListener(presenter);
 
+		aging = new JSpinner(new SpinnerNumberModel(0, 0, 1000, 1));
+		aging.setName("aging");
+		aging.addChangeListener(presenter);
+
 		preemptive = new JCheckBox(Translation.getInstance().getLabel("pr_55"));
 		preemptive.setEnabled(false);
 		preemptive.setActionCommand("PRE");
@@ -119,16 +173,80 @@ public class ProcessSettings extends SettingsTemplate {
 
 		JPanel rr = new JPanel(new FlowLayout(FlowLayout.LEFT));
 		rr.add(shortScheduleRR);
-		rr.add(quantum);
+		algo.add(rr);
+
+		JPanel mlfq = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		mlfq.add(shortScheduleMLFQ);
+		algo.add(mlfq);
+
+		JPanel cfs = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		cfs.add(shortScheduleCFS);
+		algo.add(cfs);
+
+		JPanel rt = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		rt.add(shortScheduleEDF);
+		rt.add(shortScheduleRM);
+		algo.add(rt);
+
+		// Proportional share, groups weights
+		JPanel share = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		share.add(shortScheduleStride);
+		share.add(shortScheduleLottery);
+		shares = new JButton(Translation.getInstance().getLabel("pr_114"));
+		shares.setActionCommand("SHG");
+		shares.addActionListener(presenter);
+		shares.setVisible(false);
+		share.add(shares);
+		algo.add(share);
+
+		// Gang scheduling
+		JPanel gang = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		gang.add(shortScheduleGang);
+		algo.add(gang);
+
+		// Quantum size, Round Robin, Multilevel Feedback Queue (highest level) and Completely Fair Scheduler (minimum granularity)
+		JPanel q = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		q.add(quantum);
 		lquantum = new JLabel(Translation.getInstance().getLabel("pr_56"));
-		rr.add(lquantum);
+		q.add(lquantum);
 		lquantum.setVisible(false);
 		quantum.setVisible(false);
-		algo.add(rr);
+		algo.add(q);
+
+		// Aging, Shortest Job First and Priority
+		JPanel a = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		a.add(aging);
+		laging = new JLabel(Translation.getInstance().getLabel("pr_103"));
+		a.add(laging);
+		laging.setVisible(false);
+		aging.setVisible(false);
+		algo.add(a);
 
 		JPanel pre = new JPanel(new FlowLayout(FlowLayout.LEFT));
 		pre.add(preemptive);
 		algo.add(pre);
+
+		JPanel cmp = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		compare = new JButton(Translation.getInstance().getLabel("pr_93"));
+		compare.setActionCommand("CMP");
+		compare.addActionListener(presenter);
+		cmp.add(compare);
+		sweep = new JButton(Translation.getInstance().getLabel("pr_94"));
+		sweep.setActionCommand("SWP");
+		sweep.addActionListener(presenter);
+		cmp.add(sweep);
+		algo.add(cmp);
+
+		JPanel io = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		devices = new JButton(Translation.getInstance().getLabel("pr_107"));
+		devices.setActionCommand("IOD");
+		devices.addActionListener(presenter);
+		io.add(devices);
+		switches = new JButton(Translation.getInstance().getLabel("pr_117"));
+		switches.setActionCommand("SWC");
+		switches.addActionListener(presenter);
+		io.add(switches);
+		algo.add(io);
 		
 		pane.add(algo);
 	}
@@ -215,6 +333,43 @@ public class ProcessSettings extends SettingsTemplate {
 		quantum.setValue(size);
 	}
 
+	/**
+	 * Sets groups weights control visibility 
+	 * 
+	 * @param b control visibility 
+	 */
+	public void visibleShares(boolean b) {
+		shares.setVisible(b);
+	}
+
+	/**
+	 * Sets aging control visibility 
+	 * 
+	 * @param b control visibility 
+	 */
+	public void visibleAging(boolean b) {
+		aging.setVisible(b);
+		laging.setVisible(b);
+	}
+
+	/**
+	 * Gets aging, time units per priority level
+	 * 
+	 * @return	aging, 0 for no aging
+	 */
+	public int getAging() {
+		return (Integer) aging.getValue();
+	}
+
+	/**
+	 * Sets aging
+	 * 
+	 * @param time	time units per priority level, 0 for no aging
+	 */
+	public void setAging(int time) {
+		aging.setValue(time);
+	}
+
 	/**
 	 * Translates labels and help reference to current session language and then resizes panel 
 	 */
@@ -226,9 +381,22 @@ public class ProcessSettings extends SettingsTemplate {
 		shortScheduleFCFS.setText(Translation.getInstance().getLabel("pr_51"));
 		shortSchedulePrio.setText(Translation.getInstance().getLabel("pr_53"));
 		shortScheduleRR.setText(Translation.getInstance().getLabel("pr_54"));
+		shortScheduleMLFQ.setText(Translation.getInstance().getLabel("pr_82"));
+		shortScheduleCFS.setText(Translation.getInstance().getLabel("pr_84"));
+		shortScheduleEDF.setText(Translation.getInstance().getLabel("pr_87"));
+		shortScheduleRM.setText(Translation.getInstance().getLabel("pr_89"));
+		shortScheduleStride.setText(Translation.getInstance().getLabel("pr_110"));
+		shortScheduleLottery.setText(Translation.getInstance().getLabel("pr_112"));
+		shortScheduleGang.setText(Translation.getInstance().getLabel("pr_119"));
 		preemptive.setText(Translation.getInstance().getLabel("pr_55"));
+		compare.setText(Translation.getInstance().getLabel("pr_93"));
+		sweep.setText(Translation.getInstance().getLabel("pr_94"));
+		devices.setText(Translation.getInstance().getLabel("pr_107"));
+		switches.setText(Translation.getInstance().getLabel("pr_117"));
+		shares.setText(Translation.getInstance().getLabel("pr_114"));
 		help = presenter.createHelp("pr_01");
 		lquantum.setText(Translation.getInstance().getLabel("pr_56"));
+		laging.setText(Translation.getInstance().getLabel("pr_103"));
 		this.pack();
 	}
 } 
@@ -0,0 +1,143 @@
+package edu.upc.fib.ossim.process.view;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Stroke;
+
+import edu.upc.fib.ossim.process.model.ProcessComparison;
+import edu.upc.fib.ossim.template.Presenter;
+import edu.upc.fib.ossim.template.view.PainterTemplate;
+import edu.upc.fib.ossim.utils.Translation;
+
+
+/**
+ * Paints a quantum sweep chart. Round Robin average turnaround, waiting and response times are drawn as lines
+ * along quantum sizes, other scenarios average waiting time (SJF and Priority) as dashed horizontal references
+ *
+ * @see ProcessComparison#createSweep(java.util.List, int, int, int)
+ */
+public class SweepPainter extends PainterTemplate {
+	private static final long serialVersionUID = 1L;
+	private static final int[] VALUES = {ProcessComparison.TURNAROUND, ProcessComparison.WAITING, ProcessComparison.RESPONSE};
+	private static final String[] KEYS = {"pr_61", "pr_62", "pr_63"};
+	private static final Color[] COLORS = {Color.BLUE, Color.RED, new Color(0, 150, 0)};
+	private ProcessComparison sweep;
+
+	/**
+	 * Constructs a SweepPainter
+	 *
+	 * @param presenter	event manager
+	 * @param sweep		quantum sweep, already run
+	 * @param width		canvas width
+	 * @param height	canvas height
+	 */
+	public SweepPainter(Presenter presenter, ProcessComparison sweep, int width, int height) {
+		super(presenter, width, height);
+		this.sweep = sweep;
+	}
+
+	/**
+	 * Draws chart axes, a line per time measure and reference lines, besides a legend
+	 *
+	 * @param g	graphic context
+	 */
+	public void paint(Graphics g) {
+		g2 = (Graphics2D) g;
+		Dimension size = getSize();
+		int w = (int)size.getWidth();
+		int h = (int)size.getHeight();
+		g2.setPaint(Color.white);
+		g2.fillRect(0, 0, w, h);
+		g2.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+
+		// Scales: quantum sizes and highest time
+		int qmin = Integer.MAX_VALUE, qmax = Integer.MIN_VALUE;
+		double tmax = 0;
+		for (int i = 0; i < sweep.size(); i++) {
+			if (sweep.getScenario(i).hasQuantum()) {
+				qmin = Math.min(qmin, sweep.getScenario(i).getQuantum());
+				qmax = Math.max(qmax, sweep.getScenario(i).getQuantum());
+				for (int v = 0; v < VALUES.length; v++) tmax = max(tmax, sweep.getResult(i, VALUES[v]));
+			} else tmax = max(tmax, sweep.getResult(i, ProcessComparison.WAITING));
+		}
+		if (qmin > qmax || tmax == 0) return;
+
+		// Measures
+		int offset = 40;
+		int x0 = offset, y0 = h - offset;
+		int wchart = w - 2*offset - 120, hchart = h - 2*offset;
+		double xunit = (double) wchart / Math.max(1, qmax - qmin);
+		double yunit = hchart / tmax;
+
+		// Axes
+		g2.setColor(Color.BLACK);
+		g2.drawLine(x0, y0, x0 + wchart, y0);
+		g2.drawLine(x0, y0, x0, y0 - hchart);
+		for (int q = qmin; q <= qmax; q++) {
+			int x = x0 + (int) ((q - qmin) * xunit);
+			g2.drawLine(x, y0, x, y0 + 3);
+			g2.drawString(Integer.toString(q), x - 3, y0 + 15);
+		}
+		g2.drawString(Translation.getInstance().getLabel("pr_56"), x0 + wchart/2, y0 + 30);
+		for (int t = 0; t <= 4; t++) {
+			int y = y0 - t * hchart / 4;
+			g2.drawLine(x0 - 3, y, x0, y);
+			g2.drawString(Integer.toString((int) (tmax * t / 4)), 5, y + 4);
+		}
+
+		// Reference lines
+		Stroke stroke = g2.getStroke();
+		g2.setStroke(new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 1, new float[] {4, 4}, 0));
+		for (int i = 0; i < sweep.size(); i++) {
+			double t = sweep.getResult(i, ProcessComparison.WAITING);
+			if (sweep.getScenario(i).hasQuantum() || Double.isNaN(t)) continue;
+			int y = y0 - (int) (t * yunit);
+			g2.setColor(Color.GRAY);
+			g2.drawLine(x0, y, x0 + wchart, y);
+			g2.drawString(sweep.getScenario(i).getName(), x0 + wchart + 5, y + 4);
+		}
+		g2.setStroke(new BasicStroke(2));
+
+		// Lines
+		for (int v = 0; v < VALUES.length; v++) {
+			g2.setColor(COLORS[v]);
+			int xlast = -1, ylast = -1;
+			for (int i = 0; i < sweep.size(); i++) {
+				double t = sweep.getResult(i, VALUES[v]);
+				if (!sweep.getScenario(i).hasQuantum() || Double.isNaN(t)) continue;
+				int x = x0 + (int) ((sweep.getScenario(i).getQuantum() - qmin) * xunit);
+				int y = y0 - (int) (t * yunit);
+				g2.fillOval(x - 3, y - 3, 6, 6);
+				if (xlast >= 0) g2.drawLine(xlast, ylast, x, y);
+				xlast = x;
+				ylast = y;
+			}
+			// Legend
+			g2.drawString(Translation.getInstance().getLabel(KEYS[v]), x0 + 10, 15 + 12*v);
+		}
+		g2.setStroke(stroke);
+	}
+
+	private double max(double tmax, double t) {
+		// Undefined values are ignored
+		if (Double.isNaN(t)) return tmax;
+		return Math.max(tmax, t);
+	}
+
+	/**
+	 * Chart has no selectable objects
+	 *
+	 * @param o	unused
+	 * @param x	unused
+	 * @param y	unused
+	 *
+	 * @return	false
+	 */
+	public boolean contains(Object o, int x, int y){
+		return false;
+	}
+}
@@ -0,0 +1,232 @@
+package edu.upc.fib.ossim.process.view;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+import edu.upc.fib.ossim.process.model.GanttRecorder;
+import edu.upc.fib.ossim.template.Presenter;
+import edu.upc.fib.ossim.template.view.PainterTemplate;
+import edu.upc.fib.ossim.utils.Translation;
+
+
+/**
+ * Paints Gantt chart history as a timeline, a row per cpu. Mouse wheel zooms around mouse position, dragging
+ * scrolls and double click fits whole history. Zoomed out, spans narrower than a pixel are aggregated per
+ * pixel column (level of detail): a column is painted with its longest span color and marked on top when
+ * several spans share it, so paint cost depends on spans in view, never on history length in time units.
+ * Zoomed in, span ends are marked by reason and spans wide enough are labelled with their pid
+ *
+ * @see GanttRecorder
+ */
+public class TimelinePainter extends PainterTemplate {
+	private static final long serialVersionUID = 1L;
+	private static final int LEFT = 50;
+	private static final int TOP = 30;
+	private static final int ROW = 30;
+	private static final Color[] REASON_COLORS = {Color.BLACK, Color.ORANGE, Color.GRAY, Color.BLUE};
+	private static final String[] REASON_KEYS = {"pr_96", "pr_72", "pr_97", "pr_98"};
+	private GanttRecorder history;
+	private int now;			// History end, current simulation time
+	private double from;		// First time in view
+	private double scale;		// Time units per pixel
+	private int dragX;
+	// Pixel column pending to paint, per cpu
+	private int[] pending;
+	private int[] pendingColor;
+	private double[] pendingLength;
+	private int[] pendingSpans;
+
+	/**
+	 * Constructs a TimelinePainter fitting whole history
+	 *
+	 * @param presenter	event manager
+	 * @param history	Gantt chart history
+	 * @param now		current simulation time
+	 * @param width		canvas width
+	 * @param height	canvas height
+	 */
+	public TimelinePainter(Presenter presenter, GanttRecorder history, int now, int width, int height) {
+		super(presenter, width, Math.max(height, TOP + ROW * history.getCpus() + 40));
+		this.history = history;
+		this.now = now;
+		pending = new int[history.getCpus()];
+		pendingColor = new int[history.getCpus()];
+		pendingLength = new double[history.getCpus()];
+		pendingSpans = new int[history.getCpus()];
+		fit(width);
+		MouseAdapter mouse = new MouseAdapter() {
+			public void mouseWheelMoved(MouseWheelEvent e) {
+				// Time under mouse stays in place
+				double t = from + (e.getX() - LEFT) * scale;
+				scale = Math.max(1.0 / 64, scale * Math.pow(1.25, e.getWheelRotation()));
+				from = t - (e.getX() - LEFT) * scale;
+				repaint();
+			}
+			public void mousePressed(MouseEvent e) {
+				dragX = e.getX();
+			}
+			public void mouseDragged(MouseEvent e) {
+				from -= (e.getX() - dragX) * scale;
+				dragX = e.getX();
+				repaint();
+			}
+			public void mouseClicked(MouseEvent e) {
+				if (e.getClickCount() == 2) {
+					fit(getWidth());
+					repaint();
+				}
+			}
+		};
+		addMouseWheelListener(mouse);
+		addMouseListener(mouse);
+		addMouseMotionListener(mouse);
+	}
+
+	private void fit(int width) {
+		from = history.getFirstTime();
+		scale = Math.max(1.0 / 64, (now - from) / Math.max(1, width - LEFT - 10));
+	}
+
+	/**
+	 * Draws time axis, a row per cpu with its spans and a legend of span end reasons
+	 *
+	 * @param g	graphic context
+	 */
+	public void paint(Graphics g) {
+		g2 = (Graphics2D) g;
+		Dimension size = getSize();
+		int w = (int)size.getWidth();
+		int h = (int)size.getHeight();
+		g2.setPaint(Color.white);
+		g2.fillRect(0, 0, w, h);
+		g2.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 10));
+		int cpus = history.getCpus();
+		int columns = Math.max(1, w - LEFT - 10);
+		double to = from + columns * scale;
+
+		// Legend and rows
+		int x = LEFT;
+		for (int r = 0; r < REASON_KEYS.length; r++) {
+			g2.setColor(REASON_COLORS[r]);
+			g2.fillRect(x, 8, 3, 10);
+			g2.setColor(Color.BLACK);
+			String label = Translation.getInstance().getLabel(REASON_KEYS[r]);
+			g2.drawString(label, x + 6, 17);
+			x += g2.getFontMetrics().stringWidth(label) + 20;
+		}
+		if (history.getDropped() > 0) g2.drawString(history.getDropped() + " " + Translation.getInstance().getLabel("pr_99"), x + 10, 17);
+		for (int c = 0; c < cpus; c++) {
+			g2.setColor(Color.BLACK);
+			g2.drawString(Translation.getInstance().getLabel("pr_35") + " " + c, 5, TOP + ROW * c + ROW / 2 + 4);
+			g2.setColor(new Color(240, 240, 240));
+			g2.fillRect(LEFT, TOP + ROW * c + 2, columns, ROW - 4);
+			pending[c] = -1;
+		}
+
+		// Closed spans in view, ordered by end time. Per cpu spans do not overlap, so once a cpu span ends beyond
+		// view following ones are out of view
+		boolean[] done = new boolean[cpus];
+		int left = cpus;
+		for (int i = history.search((int) Math.floor(from)); i < history.size() && left > 0; i++) {
+			int c = history.getCpu(i);
+			if (done[c]) continue;
+			span(c, history.getStart(i), history.getEnd(i), history.getColor(i), history.getPid(i), history.getReason(i), to);
+			if (history.getEnd(i) >= to) {
+				done[c] = true;
+				left--;
+			}
+		}
+		for (int c = 0; c < cpus; c++) {
+			if (history.isOpen(c)) span(c, history.getOpenStart(c), Math.max(now, history.getOpenStart(c) + 1), history.getOpenColor(c), history.getOpenPid(c), -1, to);
+			flush(c);
+		}
+
+		// Time axis, about a label each 80 pixels
+		int y0 = TOP + ROW * cpus + 5;
+		g2.setColor(Color.BLACK);
+		g2.drawLine(LEFT, y0, LEFT + columns, y0);
+		long step = 1;
+		for (int k = 0; step < scale * 80; k++) step = k % 3 == 1 ? step * 5 / 2 : step * 2; // 1, 2, 5, 10, 20...
+		for (long t = (long) Math.ceil(from / step) * step; t <= to; t += step) {
+			int xt = LEFT + (int) ((t - from) / scale);
+			g2.drawLine(xt, y0, xt, y0 + 3);
+			g2.drawString(Long.toString(t), xt - 3, y0 + 15);
+		}
+	}
+
+	private void span(int c, int start, int end, int rgb, int pid, int reason, double to) {
+		// Paints a span clipped to view, columns it covers partially are left to aggregation
+		if (end <= from || start >= to) return;
+		double x0 = (Math.max(start, from) - from) / scale;
+		double x1 = (Math.min(end, to) - from) / scale;
+		int col0 = (int) x0, col1 = (int) x1;
+		if (col0 == col1) {
+			candidate(c, col0, rgb, x1 - x0);
+			return;
+		}
+		candidate(c, col0, rgb, col0 + 1 - x0);
+		flush(c);
+		int y = TOP + ROW * c + 2;
+		g2.setColor(new Color(rgb));
+		g2.fillRect(LEFT + col0 + 1, y, col1 - col0 - 1, ROW - 4);
+		if (x1 > col1) candidate(c, col1, rgb, x1 - col1);
+		if (x1 - x0 >= 6 && end <= to) {
+			// Detailed enough: end reason and pid
+			if (reason >= 0) {
+				g2.setColor(REASON_COLORS[reason]);
+				g2.fillRect(LEFT + col1 - 2, y, 3, ROW - 4);
+			}
+		}
+		if (x1 - x0 >= 20) {
+			g2.setColor(Color.BLACK);
+			g2.drawString(Integer.toString(pid), LEFT + col0 + 3, y + ROW / 2 + 2);
+		}
+	}
+
+	private void candidate(int c, int col, int rgb, double length) {
+		// Longest span in a pixel column gives its color
+		if (pending[c] != col) {
+			flush(c);
+			pending[c] = col;
+			pendingSpans[c] = 0;
+			pendingLength[c] = -1;
+		}
+		pendingSpans[c]++;
+		if (length > pendingLength[c]) {
+			pendingLength[c] = length;
+			pendingColor[c] = rgb;
+		}
+	}
+
+	private void flush(int c) {
+		if (pending[c] < 0) return;
+		int y = TOP + ROW * c + 2;
+		g2.setColor(new Color(pendingColor[c]));
+		g2.fillRect(LEFT + pending[c], y, 1, ROW - 4);
+		if (pendingSpans[c] > 1) {
+			// Several context switches within a pixel
+			g2.setColor(Color.DARK_GRAY);
+			g2.fillRect(LEFT + pending[c], y - 2, 1, 2);
+		}
+		pending[c] = -1;
+	}
+
+	/**
+	 * Timeline has no selectable objects
+	 *
+	 * @param o	unused
+	 * @param x	unused
+	 * @param y	unused
+	 *
+	 * @return	false
+	 */
+	public boolean contains(Object o, int x, int y){
+		return false;
+	}
+}
@@ -5,7 +5,7 @@ import javax.swing.JFileChooser;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 /**
- * FileChooser dialog to load / save <code>xml</code> simulations
+ * FileChooser dialog to load / save <code>xml</code> simulations, or other files by extension (as <code>csv</code> results)
  * 
  * @author Alex Macia
  */
@@ -13,6 +13,7 @@ public class OpenSaveDialog {
 	private static final long serialVersionUID = 1L;
 	private JFileChooser file;
 	private Component parent;
+	private String extension;
 
 	/**
 	 * Constructs dialog and apply <code>xml</code> file filters
@@ -20,12 +21,23 @@ public class OpenSaveDialog {
 	 * @param parent	
 	 */
 	public OpenSaveDialog(Component parent) { 
+		this(parent, "xml");
+	}
+
+	/**
+	 * Constructs dialog and apply file filters by extension
+	 * 
+	 * @param parent	
+	 * @param extension	file extension, without dot
+	 */
+	public OpenSaveDialog(Component parent, String extension) { 
 		super();
 		this.parent = parent;
+		this.extension = extension;
 		file = new JFileChooser();
 		file.setFileSelectionMode(JFileChooser.FILES_ONLY); // Only select files
 		file.setAcceptAllFileFilterUsed(false); // Anything else
-		file.setFileFilter(new FileNameExtensionFilter(".xml", "xml")); // Only XML
+		file.setFileFilter(new FileNameExtensionFilter("." + extension, extension)); // Only this extension
 	}
 
 	/**
@@ -56,7 +68,7 @@ public class OpenSaveDialog {
 			File returned;
 			if (!file.getFileFilter().accept(selected)) {
 				// Add extension
-				returned = new File(selected.getAbsolutePath() + ".xml");
+				returned = new File(selected.getAbsolutePath() + "." + extension);
 				selected.renameTo(returned);
 			} else returned = selected;
 			return returned;
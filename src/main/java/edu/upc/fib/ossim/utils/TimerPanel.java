@@ -160,6 +160,16 @@ public class TimerPanel extends JPanel  {
 		ltime.setText(Translation.getInstance().getLabel("all_45") + " " + this.time + " " + Translation.getInstance().getLabel("all_46"));
 	}
 
+	/**
+	 * Sets main time, simulation has traveled to that time  
+	 * 
+	 * @param time	main time
+	 */
+	public void setTime(int time) {
+		this.time = time;
+		ltime.setText(Translation.getInstance().getLabel("all_45") + " " + this.time + " " + Translation.getInstance().getLabel("all_46"));
+	}
+
 	/**
 	 * Getter of main time  
 	 * 